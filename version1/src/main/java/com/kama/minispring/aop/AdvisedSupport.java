@@ -1,7 +1,11 @@
 package com.kama.minispring.aop;
 
-import java.util.ArrayList;
+import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * AOP配置管理类
@@ -12,6 +16,8 @@ import java.util.List;
  */
 public class AdvisedSupport {
     
+    private static final MethodInterceptor[] NO_INTERCEPTORS = new MethodInterceptor[0];
+    
     // 是否使用CGLIB代理
     private boolean proxyTargetClass = false;
     
@@ -19,10 +25,13 @@ public class AdvisedSupport {
     private TargetSource targetSource;
     
     // 方法拦截器列表
-    private final List<MethodInterceptor> methodInterceptors = new ArrayList<>();
+    private final List<MethodInterceptor> methodInterceptors = new CopyOnWriteArrayList<>();
     
     // 方法匹配器(检查目标方法是否符合通知条件)
-    private MethodMatcher methodMatcher;
+    private volatile MethodMatcher methodMatcher;
+    
+    // 方法到拦截器链的缓存，配置变化时整体替换，正在计算的旧结果只会写入被丢弃的缓存
+    private volatile Map<Method, MethodInterceptor[]> methodCache = new ConcurrentHashMap<>(32);
 
     public boolean isProxyTargetClass() {
         return proxyTargetClass;
@@ -38,14 +47,27 @@ public class AdvisedSupport {
 
     public void setTargetSource(TargetSource targetSource) {
         this.targetSource = targetSource;
+        adviceChanged();
     }
 
+    /**
+     * 获取所有方法拦截器，返回只读视图，修改请使用add/removeMethodInterceptor
+     */
     public List<MethodInterceptor> getMethodInterceptors() {
-        return methodInterceptors;
+        return Collections.unmodifiableList(methodInterceptors);
     }
 
     public void addMethodInterceptor(MethodInterceptor methodInterceptor) {
         this.methodInterceptors.add(methodInterceptor);
+        adviceChanged();
+    }
+
+    public boolean removeMethodInterceptor(MethodInterceptor methodInterceptor) {
+        boolean removed = this.methodInterceptors.remove(methodInterceptor);
+        if (removed) {
+            adviceChanged();
+        }
+        return removed;
     }
 
     public MethodMatcher getMethodMatcher() {
@@ -54,5 +76,42 @@ public class AdvisedSupport {
 
     public void setMethodMatcher(MethodMatcher methodMatcher) {
         this.methodMatcher = methodMatcher;
+        adviceChanged();
+    }
+
+    /**
+     * 获取应用到指定方法上的拦截器链
+     * 结果按方法缓存，切点匹配只在第一次调用时执行
+     *
+     * @param method 被调用的方法
+     * @return 拦截器数组，方法不匹配或没有拦截器时返回空数组；调用方不能修改返回的数组
+     */
+    public MethodInterceptor[] getInterceptors(Method method) {
+        Map<Method, MethodInterceptor[]> cache = this.methodCache;
+        MethodInterceptor[] interceptors = cache.get(method);
+        if (interceptors == null) {
+            interceptors = computeInterceptors(method);
+            cache.put(method, interceptors);
+        }
+        return interceptors;
+    }
+
+    private MethodInterceptor[] computeInterceptors(Method method) {
+        MethodInterceptor[] interceptors = this.methodInterceptors.toArray(NO_INTERCEPTORS);
+        if (interceptors.length == 0) {
+            return NO_INTERCEPTORS;
+        }
+        MethodMatcher matcher = this.methodMatcher;
+        if (matcher != null && !matcher.matches(method, this.targetSource.getTargetClass())) {
+            return NO_INTERCEPTORS;
+        }
+        return interceptors;
+    }
+
+    /**
+     * 拦截器、切点或目标对象变化后清空拦截器链缓存
+     */
+    protected void adviceChanged() {
+        this.methodCache = new ConcurrentHashMap<>(32);
     }
 } 
\ No newline at end of file
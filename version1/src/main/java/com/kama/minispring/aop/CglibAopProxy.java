@@ -5,8 +5,6 @@ import net.sf.cglib.proxy.MethodInterceptor;
 import net.sf.cglib.proxy.MethodProxy;
 
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Cglib代理实现
@@ -57,20 +55,15 @@ public class CglibAopProxy implements AopProxy {
         public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
             Object target = advised.getTargetSource().getTarget();
             
-            // 检查方法是否匹配切点表达式
-            if (advised.getMethodMatcher() != null 
-                    && !advised.getMethodMatcher().matches(method, target.getClass())) {
+            // 获取缓存的拦截器链，方法不匹配切点表达式时为空
+            com.kama.minispring.aop.MethodInterceptor[] interceptors = advised.getInterceptors(method);
+            if (interceptors.length == 0) {
                 return methodProxy.invoke(target, args);
             }
 
-            // 创建拦截器链
-            List<com.kama.minispring.aop.MethodInterceptor> interceptors = advised.getMethodInterceptors();
-
-            // 创建方法调用
+            // 创建方法调用并执行拦截器链
             CglibMethodInvocation invocation = new CglibMethodInvocation(target, method, args, methodProxy, interceptors);
-            
-            // 执行方法调用链
             return invocation.proceed();
         }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,10 +1,10 @@
 package com.kama.minispring.aop;
 
+import com.kama.minispring.core.invoke.Invokers;
+
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * JDK动态代理实现
@@ -44,19 +44,14 @@ public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
         Object target = advised.getTargetSource().getTarget();
         
-        // 检查方法是否匹配切点表达式
-        if (advised.getMethodMatcher() != null 
-                && !advised.getMethodMatcher().matches(method, target.getClass())) {
-            return method.invoke(target, args);
+        // 获取缓存的拦截器链，方法不匹配切点表达式时为空
+        MethodInterceptor[] interceptors = advised.getInterceptors(method);
+        if (interceptors.length == 0) {
+            return Invokers.forMethod(method).invoke(target, args);
         }
 
-        // 创建拦截器链
-        List<MethodInterceptor> interceptors = advised.getMethodInterceptors();
-
-        // 创建方法调用对象
+        // 创建方法调用对象并执行拦截器链
         MethodInvocation invocation = new ReflectiveMethodInvocation(target, method, args, interceptors);
-        
-        // 执行拦截器链
         return invocation.proceed();
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -39,6 +39,15 @@ public class ProxyFactory {
         this.advised.addMethodInterceptor(interceptor);
     }
 
+    /**
+     * 设置方法匹配器，不匹配的方法直接调用目标对象，不经过拦截器
+     *
+     * @param methodMatcher 方法匹配器
+     */
+    public void setMethodMatcher(MethodMatcher methodMatcher) {
+        this.advised.setMethodMatcher(methodMatcher);
+    }
+
     /**
      * 设置是否强制使用Cglib代理
      *
@@ -1,6 +1,7 @@
 package com.kama.minispring.aop;
 
 import com.kama.minispring.aop.adapter.MethodBeforeAdviceInterceptor;
+import com.kama.minispring.core.invoke.Invokers;
 
 import java.lang.reflect.Method;
 import java.util.List;
@@ -17,7 +18,7 @@ public class ReflectiveMethodInvocation implements MethodInvocation {
     private final Object target;
     private final Method method;
     private final Object[] arguments;
-    protected final List<MethodInterceptor> interceptors;
+    protected final MethodInterceptor[] interceptors;
     protected int currentInterceptorIndex = -1;
 
     /**
@@ -29,6 +30,18 @@ public class ReflectiveMethodInvocation implements MethodInvocation {
      * @param interceptors 拦截器列表
      */
     public ReflectiveMethodInvocation(Object target, Method method, Object[] arguments, List<MethodInterceptor> interceptors) {
+        this(target, method, arguments, interceptors.toArray(new MethodInterceptor[0]));
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param target 目标对象
+     * @param method 方法
+     * @param arguments 参数
+     * @param interceptors 拦截器数组，调用过程中只读，可以在多次调用间共享
+     */
+    public ReflectiveMethodInvocation(Object target, Method method, Object[] arguments, MethodInterceptor[] interceptors) {
         this.target = target;
         this.method = method;
         this.arguments = arguments;
@@ -53,12 +66,12 @@ public class ReflectiveMethodInvocation implements MethodInvocation {
     @Override
     public Object proceed() throws Throwable {
         // 如果所有拦截器都已经调用完，则调用目标方法
-        if (currentInterceptorIndex >= interceptors.size() - 1) {
-            return method.invoke(target, arguments);
+        if (currentInterceptorIndex >= interceptors.length - 1) {
+            return invokeJoinpoint();
         }
 
         // 获取下一个拦截器
-        MethodInterceptor interceptor = interceptors.get(++currentInterceptorIndex);
+        MethodInterceptor interceptor = interceptors[++currentInterceptorIndex];
         
         try {
             // 调用拦截器
@@ -67,12 +80,20 @@ public class ReflectiveMethodInvocation implements MethodInvocation {
             // 如果发生异常，确保所有前置通知都已执行
             if (interceptor instanceof MethodBeforeAdviceInterceptor) {
                 currentInterceptorIndex++;
-                if (currentInterceptorIndex < interceptors.size() 
-                        && interceptors.get(currentInterceptorIndex) instanceof MethodBeforeAdviceInterceptor) {
+                if (currentInterceptorIndex < interceptors.length 
+                        && interceptors[currentInterceptorIndex] instanceof MethodBeforeAdviceInterceptor) {
                     return proceed();
                 }
             }
             throw ex;
         }
     }
+
+    /**
+     * 调用目标方法，子类可以替换调用方式
+     * 通过缓存的调用器调用，目标方法抛出的异常直接抛出
+     */
+    protected Object invokeJoinpoint() throws Throwable {
+        return Invokers.forMethod(method).invoke(target, arguments);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.kama.minispring.beans.factory;
+
+import com.kama.minispring.beans.BeansException;
+
+/**
+ * 请求的bean正在被其他线程创建，且等待会导致死锁时抛出的异常
+ * 通常意味着多个线程并发创建的单例之间存在未声明的循环依赖
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class BeanCurrentlyInCreationException extends BeansException {
+
+    private final String beanName;
+
+    /**
+     * 创建一个新的BeanCurrentlyInCreationException实例
+     *
+     * @param beanName 正在创建中的bean名称
+     * @param message 异常信息
+     */
+    public BeanCurrentlyInCreationException(String beanName, String message) {
+        super(message);
+        this.beanName = beanName;
+    }
+
+    /**
+     * 获取正在创建中的bean名称
+     *
+     * @return bean名称
+     */
+    public String getBeanName() {
+        return beanName;
+    }
+}
@@ -77,6 +77,21 @@ public interface BeanDefinition {
      */
     boolean isLazyInit();
 
+    /**
+     * 设置当前bean依赖的bean名称
+     * 这些bean会先于当前bean初始化
+     *
+     * @param dependsOn 依赖的bean名称
+     */
+    void setDependsOn(String... dependsOn);
+
+    /**
+     * 获取当前bean依赖的bean名称
+     *
+     * @return 依赖的bean名称，没有时返回null
+     */
+    String[] getDependsOn();
+
     /**
      * 设置初始化方法名
      *
@@ -1,6 +1,7 @@
 package com.kama.minispring.beans.factory.config;
 
 import com.kama.minispring.beans.factory.HierarchicalBeanFactory;
+import com.kama.minispring.core.metrics.ApplicationStartup;
 
 import java.util.List;
 
@@ -65,6 +66,20 @@ public interface ConfigurableBeanFactory extends HierarchicalBeanFactory, Single
      */
     int getBeanPostProcessorCount();
 
+    /**
+     * 设置启动过程记录器，用于记录bean的创建步骤
+     *
+     * @param applicationStartup 启动过程记录器
+     */
+    void setApplicationStartup(ApplicationStartup applicationStartup);
+
+    /**
+     * 获取启动过程记录器
+     *
+     * @return 启动过程记录器，默认为{@link ApplicationStartup#DEFAULT}
+     */
+    ApplicationStartup getApplicationStartup();
+
     /**
      * 注册依赖的bean
      *
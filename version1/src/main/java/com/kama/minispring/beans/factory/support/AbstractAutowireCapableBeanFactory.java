@@ -7,6 +7,8 @@ import com.kama.minispring.beans.factory.config.BeanDefinition;
 import com.kama.minispring.beans.factory.DisposableBean;
 import com.kama.minispring.beans.factory.config.BeanPostProcessor;
 import com.kama.minispring.beans.factory.config.ConstructorArgumentValue;
+import com.kama.minispring.core.invoke.Invokers;
+import com.kama.minispring.core.metrics.StartupStep;
 import com.kama.minispring.util.BeanUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,6 +35,8 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
             throw new BeansException("Bean class is not set for bean definition");
         }
         
+        StartupStep instantiation = getApplicationStartup().start("beans.create-instance")
+                .tag("beanClass", beanClass.getName());
         try {
             if (beanDefinition.hasConstructorArgumentValues()) {
                 return autowireConstructor(beanDefinition);
@@ -40,6 +44,8 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
             return beanClass.getDeclaredConstructor().newInstance();
         } catch (Exception e) {
             throw new BeansException("Error creating bean instance for " + beanClass, e);
+        } finally {
+            instantiation.end();
         }
     }
 
@@ -87,6 +93,7 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
     }
 
     protected void populateBean(String beanName, Object bean, BeanDefinition beanDefinition) throws BeansException {
+        StartupStep population = getApplicationStartup().start("beans.populate").tag("beanName", beanName);
         PropertyValues propertyValues = beanDefinition.getPropertyValues();
         if (propertyValues != null) {
             for (PropertyValue propertyValue : propertyValues.getPropertyValues()) {
@@ -111,13 +118,13 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
                     
                     String methodName = "set" + propertyName.substring(0, 1).toUpperCase() + propertyName.substring(1);
                     Method setter = bean.getClass().getMethod(methodName, type);
-                    setter.setAccessible(true);
-                    setter.invoke(bean, value);
+                    Invokers.invoke(setter, bean, value);
                 } catch (Exception e) {
                     throw new BeansException("Error setting property '" + propertyName + "' for bean '" + beanName + "'", e);
                 }
             }
         }
+        population.end();
     }
 
     protected void registerDisposableBean(String beanName, DisposableBean bean) {
@@ -6,6 +6,7 @@ import com.kama.minispring.beans.factory.config.BeanDefinition;
 import com.kama.minispring.beans.factory.config.ConfigurableBeanFactory;
 import com.kama.minispring.beans.factory.config.BeanPostProcessor;
 import com.kama.minispring.beans.factory.ObjectFactory;
+import com.kama.minispring.core.metrics.ApplicationStartup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,6 +30,7 @@ public abstract class AbstractBeanFactory extends SimpleAliasRegistry implements
     private final List<BeanPostProcessor> beanPostProcessors = new ArrayList<>();
     private ClassLoader beanClassLoader = Thread.currentThread().getContextClassLoader();
     private ConfigurableBeanFactory parentBeanFactory;
+    private volatile ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
     /** 当前正在创建的bean名称的集合 */
     protected final Set<String> singletonsCurrentlyInCreation =
             Collections.newSetFromMap(new ConcurrentHashMap<>(16));
@@ -196,6 +198,19 @@ public abstract class AbstractBeanFactory extends SimpleAliasRegistry implements
         return this.parentBeanFactory;
     }
 
+    @Override
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        if (applicationStartup == null) {
+            throw new IllegalArgumentException("ApplicationStartup must not be null");
+        }
+        this.applicationStartup = applicationStartup;
+    }
+
+    @Override
+    public ApplicationStartup getApplicationStartup() {
+        return this.applicationStartup;
+    }
+
     @Override
     public void addBeanPostProcessor(BeanPostProcessor beanPostProcessor) {
         this.beanPostProcessors.remove(beanPostProcessor);
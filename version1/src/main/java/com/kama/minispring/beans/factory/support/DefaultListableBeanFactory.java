@@ -1,6 +1,7 @@
 package com.kama.minispring.beans.factory.support;
 
 import com.kama.minispring.beans.BeansException;
+import com.kama.minispring.beans.factory.BeanCurrentlyInCreationException;
 import com.kama.minispring.beans.factory.BeanFactory;
 import com.kama.minispring.beans.factory.ConfigurableListableBeanFactory;
 import com.kama.minispring.beans.factory.ListableBeanFactory;
@@ -10,23 +11,43 @@ import com.kama.minispring.beans.factory.BeanFactoryAware;
 import com.kama.minispring.beans.factory.BeanNameAware;
 import com.kama.minispring.beans.factory.DisposableBean;
 import com.kama.minispring.beans.factory.InitializingBean;
+import com.kama.minispring.beans.factory.annotation.Autowired;
+import com.kama.minispring.beans.factory.config.ConstructorArgumentValue;
 import com.kama.minispring.beans.factory.config.BeanDefinition;
 import com.kama.minispring.beans.factory.config.BeanDefinitionHolder;
 import com.kama.minispring.beans.factory.config.BeanPostProcessor;
 import com.kama.minispring.beans.factory.config.ConfigurableBeanFactory;
+import com.kama.minispring.beans.factory.config.PropertyValue;
+import com.kama.minispring.core.invoke.Invokers;
+import com.kama.minispring.core.metrics.StartupStep;
 import com.kama.minispring.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 默认的可列表化bean工厂实现
  * 提供了bean定义的注册和获取功能
  *
+ * <p>完全初始化的单例保存在ConcurrentHashMap中，getBean按名称命中时不加锁也不解析别名；
+ * 别名解析结果缓存在canonicalNameCache中，别名变更时整体失效。
+ * 每个单例有各自的创建锁，不同bean可以在多个线程上同时创建，早期引用只暴露给持有创建锁的线程；
+ * 等待创建锁时会检查线程间的等待环，发现死锁立即抛出{@link BeanCurrentlyInCreationException}。
+ *
+ * <p>开启{@link #setParallelPreInstantiation 并行预实例化}后，单例按依赖图在ForkJoinPool上并发创建，
+ * 存在循环依赖的bean退化为在同一线程上串行创建。
+ *
+ * <p>按类型查找走类型索引：每个bean的类及其所有超类、接口都映射到bean名称，
+ * 在注册/移除bean定义和注册单例时维护，查询结果按类型缓存，索引变化时清空。
+ *
  * @author kama
  * @version 1.0.0
  */
@@ -35,6 +56,11 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultListableBeanFactory.class);
 
+    private static final String[] EMPTY_NAMES = new String[0];
+
+    /** 等待单例创建锁时检查死锁的间隔 */
+    private static final long CREATION_LOCK_CHECK_INTERVAL_MILLIS = 50;
+
     /** Map of bean definition objects, keyed by bean name */
     private final Map<String, BeanDefinition> beanDefinitionMap = new ConcurrentHashMap<>(256);
 
@@ -57,6 +83,36 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
     /** Cache of singleton factories: bean name to ObjectFactory */
     private final Map<String, ObjectFactory<?>> singletonFactories = new ConcurrentHashMap<>(16);
 
+    /** 单例缓存锁，只保护各级缓存之间的短暂迁移 */
+    private final ReentrantLock singletonLock = new ReentrantLock();
+
+    /** 每个单例各自的创建锁，可重入，嵌套创建依赖时由同一线程持有 */
+    private final Map<String, SingletonCreationLock> singletonCreationLocks = new ConcurrentHashMap<>(256);
+
+    /** 正在等待创建锁的线程及其等待的bean名称，用于检测并发创建时的死锁 */
+    private final Map<Thread, String> threadsAwaitingCreation = new ConcurrentHashMap<>(16);
+
+    /** 是否按依赖图并行预实例化单例 */
+    private volatile boolean parallelPreInstantiation = false;
+
+    /** 并行预实例化的并行度 */
+    private volatile int preInstantiationParallelism = Runtime.getRuntime().availableProcessors();
+
+    /** Cache of resolved canonical names: name or alias to bean name */
+    private final Map<String, String> canonicalNameCache = new ConcurrentHashMap<>(256);
+
+    /** 别名注册与canonicalNameCache填充之间的互斥锁 */
+    private final Object aliasMonitor = new Object();
+
+    /** 类型索引：超类型或接口到bean名称的映射，按注册顺序排列 */
+    private final Map<Class<?>, Set<String>> beanNamesByType = new HashMap<>(256);
+
+    /** 每个bean名称当前写入类型索引的类型集合，用于增量更新 */
+    private final Map<String, Set<Class<?>>> indexedTypesByName = new HashMap<>(256);
+
+    /** 按类型缓存的getBeanNamesForType结果，类型索引变化时清空 */
+    private final Map<Class<?>, String[]> beanNamesForTypeCache = new ConcurrentHashMap<>(64);
+
     private ClassLoader beanClassLoader = Thread.currentThread().getContextClassLoader();
     private ConfigurableBeanFactory parentBeanFactory;
     private final Map<String, Set<String>> dependentBeanMap = new ConcurrentHashMap<>(64);
@@ -90,9 +146,10 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         this.beanDefinitionMap.put(beanName, beanDefinition);
         
         // 如果是新的bean定义，添加到名称列表中
-        if (!this.beanDefinitionNames.contains(beanName)) {
+        if (oldBeanDefinition == null) {
             this.beanDefinitionNames.add(beanName);
         }
+        updateTypeIndex(beanName);
         
         logger.debug("Registered bean definition for bean named '{}'", beanName);
     }
@@ -104,6 +161,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         }
         this.beanDefinitionMap.remove(beanName);
         this.beanDefinitionNames.remove(beanName);
+        updateTypeIndex(beanName);
         logger.debug("Removed bean definition for bean named '{}'", beanName);
     }
 
@@ -142,7 +200,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
     @Override
     public void registerSingleton(String beanName, Object singletonObject) {
-        this.singletonObjects.put(beanName, singletonObject);
+        addSingleton(beanName, singletonObject);
         logger.debug("Registered singleton bean named '{}'", beanName);
     }
 
@@ -152,25 +210,22 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
     }
     
     protected Object getSingleton(String beanName, boolean allowEarlyReference) {
-        // 首先检查一级缓存
+        // 首先检查一级缓存，完全初始化的单例无锁返回
         Object singletonObject = this.singletonObjects.get(beanName);
         
-        if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
-            synchronized (this.singletonObjects) {
-                // 检查二级缓存
-                singletonObject = this.earlySingletonObjects.get(beanName);
-                
-                if (singletonObject == null && allowEarlyReference) {
-                    // 检查三级缓存
-                    ObjectFactory<?> factory = this.singletonFactories.get(beanName);
-                    if (factory != null) {
-                        // 从工厂获取对象
-                        singletonObject = factory.getObject();
-                        // 放入二级缓存
-                        this.earlySingletonObjects.put(beanName, singletonObject);
-                        // 从三级缓存移除
-                        this.singletonFactories.remove(beanName);
-                    }
+        // 早期引用只暴露给正在创建该bean的线程，其他线程在创建锁上等待创建完成
+        if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)
+                && isCreationLockHeldByCurrentThread(beanName)) {
+            // 检查二级缓存
+            singletonObject = this.earlySingletonObjects.get(beanName);
+            
+            if (singletonObject == null && allowEarlyReference) {
+                // 检查三级缓存，取出后从三级缓存移除
+                ObjectFactory<?> factory = this.singletonFactories.remove(beanName);
+                if (factory != null) {
+                    // 从工厂获取对象并放入二级缓存
+                    singletonObject = factory.getObject();
+                    this.earlySingletonObjects.put(beanName, singletonObject);
                 }
             }
         }
@@ -194,12 +249,138 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
     @Override
     public void preInstantiateSingletons() throws BeansException {
-        List<String> beanNames = new ArrayList<>(this.beanDefinitionNames);
+        List<String> beanNames = new ArrayList<>();
+        for (String beanName : new ArrayList<>(this.beanDefinitionNames)) {
+            if (getBeanDefinition(beanName).isSingleton()) {
+                beanNames.add(beanName);
+            }
+        }
+        
+        int parallelism = this.preInstantiationParallelism;
+        if (this.parallelPreInstantiation && parallelism > 1 && beanNames.size() > 1) {
+            Map<String, Set<String>> registeredDependencies = getRegisteredDependencies();
+            new ParallelSingletonInstantiator(beanNames,
+                    beanName -> getDeclaredDependencies(beanName, registeredDependencies),
+                    this::preInstantiateSingleton, parallelism).instantiate();
+            return;
+        }
         for (String beanName : beanNames) {
-            BeanDefinition beanDefinition = getBeanDefinition(beanName);
-            if (beanDefinition.isSingleton()) {
-                getBean(beanName);
-                logger.debug("Pre-instantiated singleton bean named '{}'", beanName);
+            preInstantiateSingleton(beanName);
+        }
+    }
+    
+    private void preInstantiateSingleton(String beanName) {
+        if (!this.singletonObjects.containsKey(beanName)) {
+            getBean(beanName);
+            logger.debug("Pre-instantiated singleton bean named '{}'", beanName);
+        }
+    }
+    
+    /**
+     * 设置是否按依赖图并行预实例化单例，默认关闭
+     * 依赖关系来自depends-on、构造参数和属性中的bean引用、@Autowired注解以及已注册的依赖关系；
+     * 初始化过程中通过getBean动态查找其他bean的，需要用depends-on声明
+     *
+     * @param parallelPreInstantiation 是否并行
+     */
+    public void setParallelPreInstantiation(boolean parallelPreInstantiation) {
+        this.parallelPreInstantiation = parallelPreInstantiation;
+    }
+    
+    public boolean isParallelPreInstantiation() {
+        return this.parallelPreInstantiation;
+    }
+    
+    /**
+     * 设置并行预实例化的并行度，默认为可用处理器数
+     *
+     * @param parallelism 并行度，小于等于1时退化为串行
+     */
+    public void setPreInstantiationParallelism(int parallelism) {
+        this.preInstantiationParallelism = parallelism;
+    }
+    
+    public int getPreInstantiationParallelism() {
+        return this.preInstantiationParallelism;
+    }
+    
+    /**
+     * 已注册的依赖关系快照：bean名称到其依赖的bean名称
+     */
+    private Map<String, Set<String>> getRegisteredDependencies() {
+        Map<String, Set<String>> dependencies = new HashMap<>();
+        synchronized (this.dependencyGraph) {
+            for (Map.Entry<String, Set<String>> entry : this.dependenciesForBeanMap.entrySet()) {
+                dependencies.put(entry.getKey(), new LinkedHashSet<>(entry.getValue()));
+            }
+        }
+        return dependencies;
+    }
+    
+    /**
+     * 从bean定义中静态分析出的依赖，用于构建并行预实例化的依赖图
+     * 宁多勿少：多出的依赖只会降低并行度，遗漏的依赖则可能让bean在并发创建中让步
+     */
+    private Set<String> getDeclaredDependencies(String beanName, Map<String, Set<String>> registeredDependencies) {
+        BeanDefinition beanDefinition = getBeanDefinition(beanName);
+        Set<String> dependencies = new LinkedHashSet<>(
+                registeredDependencies.getOrDefault(beanName, Collections.emptySet()));
+        
+        if (beanDefinition.getDependsOn() != null) {
+            for (String dependsOn : beanDefinition.getDependsOn()) {
+                addBeanReference(dependsOn, dependencies);
+            }
+        }
+        for (ConstructorArgumentValue argumentValue : beanDefinition.getConstructorArgumentValues()) {
+            if (argumentValue.getValue() instanceof String) {
+                addBeanReference((String) argumentValue.getValue(), dependencies);
+            }
+        }
+        if (beanDefinition.getPropertyValues() != null) {
+            for (PropertyValue propertyValue : beanDefinition.getPropertyValues().getPropertyValues()) {
+                if (propertyValue.getValue() instanceof String && propertyValue.getType() != String.class) {
+                    addBeanReference((String) propertyValue.getValue(), dependencies);
+                }
+            }
+        }
+        
+        Class<?> beanClass = beanDefinition.getBeanClass();
+        if (beanClass != null) {
+            for (Constructor<?> constructor : beanClass.getDeclaredConstructors()) {
+                if (constructor.isAnnotationPresent(Autowired.class)) {
+                    addBeanReferencesByType(constructor.getParameterTypes(), dependencies);
+                }
+            }
+            for (Class<?> current = beanClass; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (field.isAnnotationPresent(Autowired.class) && !addBeanReference(field.getName(), dependencies)) {
+                        addBeanReferencesByType(new Class<?>[]{field.getType()}, dependencies);
+                    }
+                }
+                for (Method method : current.getDeclaredMethods()) {
+                    if (method.isAnnotationPresent(Autowired.class)) {
+                        addBeanReferencesByType(method.getParameterTypes(), dependencies);
+                    }
+                }
+            }
+        }
+        dependencies.remove(beanName);
+        return dependencies;
+    }
+    
+    private boolean addBeanReference(String name, Set<String> dependencies) {
+        String canonicalName = canonicalName(name);
+        if (containsBeanDefinition(canonicalName)) {
+            dependencies.add(canonicalName);
+            return true;
+        }
+        return false;
+    }
+    
+    private void addBeanReferencesByType(Class<?>[] types, Set<String> dependencies) {
+        for (Class<?> type : types) {
+            if (!type.isPrimitive() && type != String.class) {
+                Collections.addAll(dependencies, getCachedBeanNamesForType(type));
             }
         }
     }
@@ -302,6 +483,38 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         return parentBeanFactory != null && parentBeanFactory.isPrototype(beanName);
     }
 
+    /**
+     * 判断dependentBeanName是否（直接或间接）依赖于beanName
+     *
+     * @param beanName bean名称
+     * @param dependentBeanName 可能依赖于它的bean名称
+     * @return 存在依赖关系返回true
+     */
+    protected boolean isDependent(String beanName, String dependentBeanName) {
+        synchronized (this.dependencyGraph) {
+            return isDependent(transformedBeanName(beanName), dependentBeanName, new HashSet<>());
+        }
+    }
+    
+    private boolean isDependent(String beanName, String dependentBeanName, Set<String> visited) {
+        if (!visited.add(beanName)) {
+            return false;
+        }
+        Set<String> dependents = this.dependencyGraph.get(beanName);
+        if (dependents == null) {
+            return false;
+        }
+        if (dependents.contains(dependentBeanName)) {
+            return true;
+        }
+        for (String dependent : dependents) {
+            if (isDependent(dependent, dependentBeanName, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public void registerDependentBean(String beanName, String dependentBeanName) {
         String canonicalName = transformedBeanName(beanName);
@@ -309,66 +522,122 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
             Set<String> dependencies = this.dependencyGraph.computeIfAbsent(
                 canonicalName, k -> new LinkedHashSet<>());
             dependencies.add(dependentBeanName);
+            this.dependentBeanMap.computeIfAbsent(canonicalName, k -> new LinkedHashSet<>()).add(dependentBeanName);
+            this.dependenciesForBeanMap.computeIfAbsent(dependentBeanName, k -> new LinkedHashSet<>()).add(canonicalName);
         }
     }
 
     @Override
     public String[] getDependentBeans(String beanName) {
-        Set<String> dependentBeans = this.dependentBeanMap.get(beanName);
-        if (dependentBeans == null) {
-            return new String[0];
+        synchronized (this.dependencyGraph) {
+            Set<String> dependentBeans = this.dependentBeanMap.get(beanName);
+            if (dependentBeans == null) {
+                return new String[0];
+            }
+            return dependentBeans.toArray(new String[0]);
         }
-        return dependentBeans.toArray(new String[0]);
     }
 
     @Override
     public String[] getDependenciesForBean(String beanName) {
-        Set<String> dependencies = this.dependenciesForBeanMap.get(beanName);
-        if (dependencies == null) {
-            return new String[0];
+        synchronized (this.dependencyGraph) {
+            Set<String> dependencies = this.dependenciesForBeanMap.get(beanName);
+            if (dependencies == null) {
+                return new String[0];
+            }
+            return dependencies.toArray(new String[0]);
         }
-        return dependencies.toArray(new String[0]);
     }
 
     @Override
     public String[] getBeanNamesForType(Class<?> type) {
-        List<String> result = new ArrayList<>();
-        
-        // 检查已实例化的单例
-        for (Map.Entry<String, Object> entry : singletonObjects.entrySet()) {
-            if (type.isInstance(entry.getValue())) {
-                result.add(entry.getKey());
+        return getCachedBeanNamesForType(type).clone();
+    }
+
+    @Override
+    public <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException {
+        String[] beanNames = getCachedBeanNamesForType(type);
+        Map<String, T> result = new LinkedHashMap<>(beanNames.length * 2);
+        for (String beanName : beanNames) {
+            @SuppressWarnings("unchecked")
+            T bean = (T) getBean(beanName);
+            result.put(beanName, bean);
+        }
+        return result;
+    }
+
+    /**
+     * 从类型索引中查询匹配的bean名称，返回的数组为缓存共享实例，调用方不得修改
+     */
+    private String[] getCachedBeanNamesForType(Class<?> type) {
+        String[] beanNames = this.beanNamesForTypeCache.get(type);
+        if (beanNames == null) {
+            synchronized (this.beanNamesByType) {
+                Set<String> indexed = this.beanNamesByType.get(type);
+                beanNames = (indexed != null ? indexed.toArray(new String[0]) : EMPTY_NAMES);
+                this.beanNamesForTypeCache.put(type, beanNames);
             }
         }
+        return beanNames;
+    }
+
+    /**
+     * 重新计算某个bean在类型索引中的类型集合
+     * 类型来自bean定义的类和已注册的单例实例的类（例如代理对象），两者取并集；
+     * 集合没有变化时不清空查询缓存
+     *
+     * @param beanName bean名称
+     */
+    private void updateTypeIndex(String beanName) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        BeanDefinition beanDefinition = this.beanDefinitionMap.get(beanName);
+        if (beanDefinition != null && beanDefinition.getBeanClass() != null) {
+            collectTypes(beanDefinition.getBeanClass(), types);
+        }
+        Object singletonObject = this.singletonObjects.get(beanName);
+        if (singletonObject != null) {
+            collectTypes(singletonObject.getClass(), types);
+        }
         
-        // 检查bean定义
-        for (String beanName : beanDefinitionNames) {
-            if (result.contains(beanName)) {
-                continue;
+        synchronized (this.beanNamesByType) {
+            Set<Class<?>> previous = this.indexedTypesByName.get(beanName);
+            if (previous == null ? types.isEmpty() : previous.equals(types)) {
+                return;
             }
-            BeanDefinition beanDefinition = getBeanDefinition(beanName);
-            Class<?> beanClass = beanDefinition.getBeanClass();
-            if (type.isAssignableFrom(beanClass)) {
-                result.add(beanName);
+            if (previous != null) {
+                for (Class<?> type : previous) {
+                    if (!types.contains(type)) {
+                        Set<String> names = this.beanNamesByType.get(type);
+                        names.remove(beanName);
+                        if (names.isEmpty()) {
+                            this.beanNamesByType.remove(type);
+                        }
+                    }
+                }
+            }
+            for (Class<?> type : types) {
+                this.beanNamesByType.computeIfAbsent(type, key -> new LinkedHashSet<>()).add(beanName);
             }
+            if (types.isEmpty()) {
+                this.indexedTypesByName.remove(beanName);
+            } else {
+                this.indexedTypesByName.put(beanName, types);
+            }
+            this.beanNamesForTypeCache.clear();
         }
-        
-        return result.toArray(new String[0]);
     }
 
-    @Override
-    public <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException {
-        Map<String, T> result = new LinkedHashMap<>();
-        for (String beanName : beanDefinitionNames) {
-            BeanDefinition beanDefinition = getBeanDefinition(beanName);
-            Class<?> beanClass = beanDefinition.getBeanClass();
-            if (type.isAssignableFrom(beanClass)) {
-                @SuppressWarnings("unchecked")
-                T bean = (T) getBean(beanName);
-                result.put(beanName, bean);
-            }
+    /**
+     * 收集类型本身及其所有超类和接口
+     */
+    private static void collectTypes(Class<?> type, Set<Class<?>> types) {
+        if (type == null || !types.add(type)) {
+            return;
+        }
+        collectTypes(type.getSuperclass(), types);
+        for (Class<?> ifc : type.getInterfaces()) {
+            collectTypes(ifc, types);
         }
-        return result;
     }
 
     @Override
@@ -452,6 +721,86 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
     @Override
     protected Object createBean(String beanName, BeanDefinition beanDefinition) throws BeansException {
+        if (!beanDefinition.isSingleton()) {
+            return doCreateBean(beanName, beanDefinition);
+        }
+        SingletonCreationLock creationLock = acquireCreationLock(beanName);
+        try {
+            // 等待锁期间可能已由其他线程创建完成
+            Object singletonObject = this.singletonObjects.get(beanName);
+            if (singletonObject != null) {
+                return singletonObject;
+            }
+            return doCreateBean(beanName, beanDefinition);
+        } catch (RuntimeException ex) {
+            // 创建失败时丢弃已暴露的早期引用，后续重新创建
+            this.singletonLock.lock();
+            try {
+                this.earlySingletonObjects.remove(beanName);
+                this.singletonFactories.remove(beanName);
+            } finally {
+                this.singletonLock.unlock();
+            }
+            throw ex;
+        } finally {
+            creationLock.unlock();
+        }
+    }
+    
+    /**
+     * 获取单例的创建锁
+     * 锁被其他线程持有时定期检查等待环，当前线程处在环上时抛出异常而不是一直等待
+     */
+    private SingletonCreationLock acquireCreationLock(String beanName) {
+        SingletonCreationLock creationLock =
+                this.singletonCreationLocks.computeIfAbsent(beanName, key -> new SingletonCreationLock());
+        if (creationLock.tryLock()) {
+            return creationLock;
+        }
+        Thread currentThread = Thread.currentThread();
+        this.threadsAwaitingCreation.put(currentThread, beanName);
+        try {
+            do {
+                checkForCreationDeadlock(beanName, currentThread);
+            } while (!creationLock.tryLock(CREATION_LOCK_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS));
+            return creationLock;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BeansException("Interrupted while waiting for singleton bean '" + beanName + "' to be created", ex);
+        } finally {
+            this.threadsAwaitingCreation.remove(currentThread);
+        }
+    }
+    
+    /**
+     * 沿着“创建锁持有者正在等待的bean”逐级查找，回到当前线程说明出现了死锁
+     */
+    private void checkForCreationDeadlock(String beanName, Thread currentThread) {
+        List<String> chain = new ArrayList<>();
+        String awaited = beanName;
+        while (awaited != null && !chain.contains(awaited)) {
+            chain.add(awaited);
+            SingletonCreationLock creationLock = this.singletonCreationLocks.get(awaited);
+            Thread owner = (creationLock != null ? creationLock.getOwnerThread() : null);
+            if (owner == null) {
+                return;
+            }
+            if (owner == currentThread) {
+                throw new BeanCurrentlyInCreationException(beanName,
+                        "Singleton bean '" + beanName + "' is currently in creation on another thread " +
+                        "that waits for this thread: " + String.join(" -> ", chain));
+            }
+            awaited = this.threadsAwaitingCreation.get(owner);
+        }
+    }
+    
+    private boolean isCreationLockHeldByCurrentThread(String beanName) {
+        SingletonCreationLock creationLock = this.singletonCreationLocks.get(beanName);
+        return creationLock != null && creationLock.isHeldByCurrentThread();
+    }
+    
+    private Object doCreateBean(String beanName, BeanDefinition beanDefinition) throws BeansException {
+        StartupStep creation = getApplicationStartup().start("beans.instantiate").tag("beanName", beanName);
         try {
             // 如果是单例且有构造器参数,在创建实例前检测循环依赖
             if (beanDefinition.isSingleton() && beanDefinition.getConstructorArgumentValues() != null 
@@ -508,6 +857,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
             
         } catch (Exception e) {
             throw new BeansException("Error creating bean with name '" + beanName + "'", e);
+        } finally {
+            creation.end();
         }
     }
     
@@ -516,7 +867,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
     }
     
     protected void addSingletonFactory(String beanName, ObjectFactory<?> factory) {
-        synchronized (this.singletonObjects) {
+        this.singletonLock.lock();
+        try {
             if (!this.singletonObjects.containsKey(beanName)) {
                 this.singletonFactories.put(beanName, factory);
                 this.earlySingletonObjects.remove(beanName);
@@ -529,6 +881,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
                     }
                 }
             }
+        } finally {
+            this.singletonLock.unlock();
         }
     }
     
@@ -536,11 +890,15 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
      * 添加单例对象
      */
     public void addSingleton(String beanName, Object singletonObject) {
-        synchronized (this.singletonObjects) {
+        this.singletonLock.lock();
+        try {
             this.singletonObjects.put(beanName, singletonObject);
             // 从二级和三级缓存中移除
             this.earlySingletonObjects.remove(beanName);
             this.singletonFactories.remove(beanName);
+            updateTypeIndex(beanName);
+        } finally {
+            this.singletonLock.unlock();
         }
     }
     
@@ -560,14 +918,22 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         // 获取单例对象
         Object singletonInstance = getSingleton(beanName);
         if (singletonInstance != null) {
+            BeanDefinition beanDefinition = containsBeanDefinition(beanName) ? getBeanDefinition(beanName) : null;
+            if (beanDefinition == null && singletonInstance instanceof DisposableBean) {
+                // 直接注册的单例没有bean定义，实现了DisposableBean时由容器负责销毁
+                try {
+                    ((DisposableBean) singletonInstance).destroy();
+                    logger.debug("Invoked destroy() on registered singleton '{}'", beanName);
+                } catch (Exception e) {
+                    logger.error("Error destroying registered singleton '" + beanName + "'", e);
+                }
+            }
             // 如果bean定义了销毁方法，调用它
-            BeanDefinition beanDefinition = getBeanDefinition(beanName);
             if (beanDefinition != null && beanDefinition.getDestroyMethodName() != null) {
                 try {
                     java.lang.reflect.Method destroyMethod = singletonInstance.getClass()
                             .getDeclaredMethod(beanDefinition.getDestroyMethodName());
-                    destroyMethod.setAccessible(true);
-                    destroyMethod.invoke(singletonInstance);
+                    Invokers.invoke(destroyMethod, singletonInstance);
                     logger.debug("Invoked destroy method '{}' on bean '{}'", 
                             beanDefinition.getDestroyMethodName(), beanName);
                 } catch (Exception e) {
@@ -576,6 +942,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
             }
             // 从缓存中移除单例
             this.singletonObjects.remove(beanName);
+            updateTypeIndex(beanName);
             logger.debug("Destroyed singleton bean '{}'", beanName);
         }
     }
@@ -592,8 +959,19 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
     @SuppressWarnings("unchecked")
     protected <T> T doGetBean(String name, Class<T> requiredType) throws BeansException {
+        // 快速路径：按bean名称命中完全初始化的单例，不解析别名也不合并bean定义
+        Object bean = getSharedInstance(name);
+        if (bean != null) {
+            return checkRequiredType(name, bean, requiredType);
+        }
+        
         String canonicalName = canonicalName(name);
-        Object bean = null;
+        if (!canonicalName.equals(name)) {
+            bean = getSharedInstance(canonicalName);
+            if (bean != null) {
+                return checkRequiredType(name, bean, requiredType);
+            }
+        }
         
         // 获取bean定义
         BeanDefinition beanDefinition = getBeanDefinition(canonicalName);
@@ -601,22 +979,28 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
             return getParentBeanFactory().getBean(name, requiredType);
         }
         
-        // 只有singleton才尝试从缓存中获取
+        // 只有singleton才尝试获取早期引用，用于解决当前线程上的循环依赖
         if (beanDefinition.isSingleton()) {
-            // 先尝试从单例缓存中获取
             bean = getSingleton(canonicalName, true);
-            
-            // 如果是单例且正在创建中，尝试从三级缓存中获取早期引用
-            if (bean == null && isSingletonCurrentlyInCreation(canonicalName)) {
-                bean = getSingleton(canonicalName, false);
-                if (bean != null) {
-                    logger.debug("Returning early reference for singleton bean '{}'", canonicalName);
-                }
+            if (bean != null) {
+                logger.debug("Returning early reference for singleton bean '{}'", canonicalName);
             }
         }
         
         // 如果没有从缓存中获取到或者是prototype，创建新的实例
         if (bean == null) {
+            // 先初始化depends-on声明的bean
+            String[] dependsOn = beanDefinition.getDependsOn();
+            if (dependsOn != null) {
+                for (String dependency : dependsOn) {
+                    if (isDependent(canonicalName, dependency)) {
+                        throw new BeansException("Circular depends-on relationship between '" +
+                                canonicalName + "' and '" + dependency + "'");
+                    }
+                    registerDependentBean(dependency, canonicalName);
+                    getBean(dependency);
+                }
+            }
             try {
                 bean = createBean(canonicalName, beanDefinition);
             } catch (Exception e) {
@@ -624,6 +1008,26 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
             }
         }
         
+        return checkRequiredType(name, bean, requiredType);
+    }
+    
+    /**
+     * 无锁读取已完全初始化的单例
+     * bean定义的作用域在运行期被改为非单例时不再返回缓存实例
+     */
+    private Object getSharedInstance(String beanName) {
+        Object bean = this.singletonObjects.get(beanName);
+        if (bean != null) {
+            BeanDefinition beanDefinition = this.beanDefinitionMap.get(beanName);
+            if (beanDefinition != null && !beanDefinition.isSingleton()) {
+                return null;
+            }
+        }
+        return bean;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <T> T checkRequiredType(String name, Object bean, Class<T> requiredType) {
         // 类型检查
         if (requiredType != null && !requiredType.isInstance(bean)) {
             throw new BeansException(
@@ -641,15 +1045,37 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
             return;
         }
         
-        if (hasAlias(beanName, alias)) {
-            return;
+        synchronized (this.aliasMonitor) {
+            if (hasAlias(beanName, alias)) {
+                return;
+            }
+            
+            validateAlias(beanName, alias);
+            super.registerAlias(beanName, alias);
+            this.canonicalNameCache.clear();
         }
-        
-        validateAlias(beanName, alias);
-        super.registerAlias(beanName, alias);
         logger.debug("Registered alias '{}' for bean '{}'", alias, beanName);
     }
     
+    /**
+     * 解析规范名称，结果按名称缓存
+     * 只缓存能解析到已知bean的名称，避免无效名称撑大缓存
+     */
+    @Override
+    public String canonicalName(String name) {
+        String cached = this.canonicalNameCache.get(name);
+        if (cached != null) {
+            return cached;
+        }
+        synchronized (this.aliasMonitor) {
+            String resolved = super.canonicalName(name);
+            if (this.beanDefinitionMap.containsKey(resolved) || this.singletonObjects.containsKey(resolved)) {
+                this.canonicalNameCache.put(name, resolved);
+            }
+            return resolved;
+        }
+    }
+    
     /**
      * 验证别名是否有效
      */
@@ -714,7 +1140,10 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
     @Override
     public void removeAlias(String alias) {
-        super.removeAlias(alias);
+        synchronized (this.aliasMonitor) {
+            super.removeAlias(alias);
+            this.canonicalNameCache.clear();
+        }
         logger.debug("Removed alias '{}' from bean factory", alias);
     }
 
@@ -724,7 +1153,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
     }
 
     protected void cleanupSingletonCache(String beanName) {
-        synchronized (this.singletonObjects) {
+        this.singletonLock.lock();
+        try {
             // 从所有缓存中移除
             this.singletonObjects.remove(beanName);
             this.earlySingletonObjects.remove(beanName);
@@ -740,6 +1170,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
                 this.singletonFactories.remove(alias);
                 this.mergedBeanDefinitions.remove(alias);
             }
+            updateTypeIndex(beanName);
+        } finally {
+            this.singletonLock.unlock();
         }
     }
 
@@ -780,7 +1213,12 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         
         // 应用BeanPostProcessor的前置处理
         for (BeanPostProcessor processor : getBeanPostProcessors()) {
+            StartupStep postProcess = getApplicationStartup().start("beans.post-process")
+                    .tag("beanName", beanName)
+                    .tag("postProcessor", processor.getClass().getName())
+                    .tag("phase", "before-initialization");
             Object current = processor.postProcessBeforeInitialization(result, beanName);
+            postProcess.end();
             if (current == null) {
                 return result;
             }
@@ -789,7 +1227,12 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         
         // 应用BeanPostProcessor的后置处理
         for (BeanPostProcessor processor : getBeanPostProcessors()) {
+            StartupStep postProcess = getApplicationStartup().start("beans.post-process")
+                    .tag("beanName", beanName)
+                    .tag("postProcessor", processor.getClass().getName())
+                    .tag("phase", "after-initialization");
             Object current = processor.postProcessAfterInitialization(result, beanName);
+            postProcess.end();
             if (current == null) {
                 return result;
             }
@@ -812,7 +1255,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
     }
 
     protected void destroyBean(String beanName) {
-        synchronized(this.singletonObjects) {
+        this.singletonLock.lock();
+        try {
             // 获取所有别名
             String[] aliases = getAliases(beanName);
             
@@ -836,6 +1280,8 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
             
             // 从创建中的bean集合移除
             this.beansInCreation.remove(beanName);
+        } finally {
+            this.singletonLock.unlock();
         }
     }
 
@@ -867,6 +1313,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
      * 初始化bean
      */
     protected Object initializeBean(String beanName, Object bean, BeanDefinition beanDefinition) {
+        StartupStep initialization = getApplicationStartup().start("beans.initialize").tag("beanName", beanName);
         // 执行Aware方法
         if (bean instanceof Aware) {
             if (bean instanceof BeanFactoryAware) {
@@ -889,6 +1336,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
         // 执行BeanPostProcessor的后置处理
         wrappedBean = applyBeanPostProcessorsAfterInitialization(wrappedBean, beanName);
+        initialization.end();
         return wrappedBean;
     }
 
@@ -908,7 +1356,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
             if (initMethod == null) {
                 throw new BeansException("Could not find an init method named '" + initMethodName + "' on bean with name '" + beanName + "'");
             }
-            initMethod.invoke(bean);
+            Invokers.invoke(initMethod, bean);
         }
     }
 
@@ -931,7 +1379,12 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
             throws BeansException {
         Object result = existingBean;
         for (BeanPostProcessor processor : getBeanPostProcessors()) {
+            StartupStep postProcess = getApplicationStartup().start("beans.post-process")
+                    .tag("beanName", beanName)
+                    .tag("postProcessor", processor.getClass().getName())
+                    .tag("phase", "before-initialization");
             Object current = processor.postProcessBeforeInitialization(result, beanName);
+            postProcess.end();
             if (current == null) {
                 return result;
             }
@@ -945,7 +1398,12 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
             throws BeansException {
         Object result = existingBean;
         for (BeanPostProcessor processor : getBeanPostProcessors()) {
+            StartupStep postProcess = getApplicationStartup().start("beans.post-process")
+                    .tag("beanName", beanName)
+                    .tag("postProcessor", processor.getClass().getName())
+                    .tag("phase", "after-initialization");
             Object current = processor.postProcessAfterInitialization(result, beanName);
+            postProcess.end();
             if (current == null) {
                 return result;
             }
@@ -953,4 +1411,14 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
         }
         return result;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 单例创建锁，暴露持有线程用于死锁检测
+     */
+    private static final class SingletonCreationLock extends ReentrantLock {
+
+        Thread getOwnerThread() {
+            return getOwner();
+        }
+    }
+}
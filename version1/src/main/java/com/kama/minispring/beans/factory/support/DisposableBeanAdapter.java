@@ -3,6 +3,7 @@ package com.kama.minispring.beans.factory.support;
 import com.kama.minispring.beans.BeansException;
 import com.kama.minispring.beans.factory.DisposableBean;
 import com.kama.minispring.beans.factory.config.BeanDefinition;
+import com.kama.minispring.core.invoke.Invokers;
 
 import java.lang.reflect.Method;
 
@@ -33,7 +34,7 @@ public class DisposableBeanAdapter implements DisposableBean {
         if (destroyMethodName != null && !destroyMethodName.isEmpty() &&
                 !(isDisposableBean && "destroy".equals(destroyMethodName))) {
             Method destroyMethod = bean.getClass().getMethod(destroyMethodName);
-            destroyMethod.invoke(bean);
+            Invokers.invoke(destroyMethod, bean);
         }
     }
 } 
\ No newline at end of file
@@ -19,6 +19,7 @@ public class GenericBeanDefinition implements BeanDefinition {
     private Class<?> beanClass;
     private String scope = SCOPE_SINGLETON;
     private boolean lazyInit = false;
+    private String[] dependsOn;
     private String initMethodName;
     private String destroyMethodName;
     private PropertyValues propertyValues = new PropertyValues();
@@ -71,6 +72,16 @@ public class GenericBeanDefinition implements BeanDefinition {
         return this.lazyInit;
     }
     
+    @Override
+    public void setDependsOn(String... dependsOn) {
+        this.dependsOn = dependsOn;
+    }
+    
+    @Override
+    public String[] getDependsOn() {
+        return this.dependsOn;
+    }
+    
     @Override
     public void setInitMethodName(String initMethodName) {
         this.initMethodName = initMethodName;
@@ -1,5 +1,7 @@
 package com.kama.minispring.boot.autoconfigure;
 
+import com.kama.minispring.beans.factory.support.BeanDefinitionRegistry;
+
 /**
  * 自动配置接口，所有自动配置类都需要实现此接口
  * 
@@ -12,4 +14,12 @@ public interface AutoConfiguration {
      * 配置方法，实现具体的自动配置逻辑
      */
     void configure();
+    
+    /**
+     * 把配置创建的对象注册到容器，由容器负责注入和销毁，在{@link #configure()}之后调用
+     *
+     * @param registry bean定义注册表
+     */
+    default void registerBeans(BeanDefinitionRegistry registry) {
+    }
 } 
\ No newline at end of file
@@ -88,6 +88,7 @@ public class AutoConfigurationLoader {
                         injectEnvironment(instance);
                     }
                     ((AutoConfiguration) instance).configure();
+                    ((AutoConfiguration) instance).registerBeans(registry);
                 }
             } catch (Exception e) {
                 throw new RuntimeException("Failed to process auto-configuration: " + configuration, e);
@@ -1,8 +1,14 @@
 package com.kama.minispring.boot.autoconfigure;
 
 import com.kama.minispring.beans.factory.annotation.Autowired;
+import com.kama.minispring.beans.factory.config.SingletonBeanRegistry;
+import com.kama.minispring.beans.factory.support.BeanDefinitionRegistry;
 import com.kama.minispring.context.annotation.Conditional;
 import com.kama.minispring.core.env.Environment;
+import com.kama.minispring.jdbc.datasource.PooledDataSource;
+import com.kama.minispring.jdbc.datasource.PooledDataSourceConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
 import java.io.PrintWriter;
@@ -10,11 +16,16 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
 import java.util.Properties;
-import java.util.logging.Logger;
 
 /**
- * 数据源自动配置类，用于演示自动配置功能
+ * 数据源自动配置类
+ *
+ * <p>默认创建内置的{@link PooledDataSource}，连接池参数从{@code spring.datasource.pool.*}读取，
+ * 时间参数的单位为毫秒；设置{@code spring.datasource.type=simple}时改用每次新建物理连接的简单数据源。
+ * 数据源以{@value #DATA_SOURCE_BEAN_NAME}为名注册为单例，由容器注入并在销毁单例时关闭连接池；
+ * 容器中已有同名bean或注册表不能注册单例时，创建的连接池立即关闭
  * 
  * @author kama
  * @version 1.0.0
@@ -23,9 +34,21 @@ import java.util.logging.Logger;
 @RequiresEnvironment
 public class DataSourceAutoConfiguration implements AutoConfiguration {
     
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceAutoConfiguration.class);
+    
+    public static final String TYPE_POOLED = "pooled";
+    public static final String TYPE_SIMPLE = "simple";
+    
+    /** 自动配置的数据源在容器中的名称 */
+    public static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+    
+    private static final String POOL_PREFIX = "spring.datasource.pool.";
+    
     @Autowired
     private Environment environment;
     
+    private DataSource dataSource;
+    
     @Override
     public void configure() {
         // 从环境中读取数据源配置
@@ -40,19 +63,97 @@ public class DataSourceAutoConfiguration implements AutoConfiguration {
             environment.getProperty("spring.datasource.password"));
         
         // 创建数据源
-        createDataSource(properties);
+        String type = environment.getProperty("spring.datasource.type", TYPE_POOLED);
+        this.dataSource = TYPE_SIMPLE.equalsIgnoreCase(type)
+            ? createDataSource(properties)
+            : createPooledDataSource(properties);
+    }
+    
+    /**
+     * 获取自动配置创建的数据源
+     *
+     * @return 数据源，尚未配置时返回null
+     */
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+    
+    @Override
+    public void registerBeans(BeanDefinitionRegistry registry) {
+        if (dataSource == null) {
+            return;
+        }
+        if (registry instanceof SingletonBeanRegistry
+                && !registry.containsBeanDefinition(DATA_SOURCE_BEAN_NAME)
+                && !((SingletonBeanRegistry) registry).containsSingleton(DATA_SOURCE_BEAN_NAME)) {
+            ((SingletonBeanRegistry) registry).registerSingleton(DATA_SOURCE_BEAN_NAME, dataSource);
+            return;
+        }
+        // 没有注册的数据源无法被使用，也不会被容器关闭
+        logger.info("Bean '{}' already defined or registry cannot hold singletons, auto-configured DataSource discarded",
+            DATA_SOURCE_BEAN_NAME);
+        if (dataSource instanceof PooledDataSource) {
+            ((PooledDataSource) dataSource).close();
+        }
+        dataSource = null;
     }
     
     private DataSource createDataSource(Properties properties) {
         try {
             Class.forName(properties.getProperty("driverClassName"));
-            // 这里简化实现，实际应该使用连接池
             return new SimpleDataSource(properties);
         } catch (ClassNotFoundException e) {
             throw new RuntimeException("Failed to create DataSource", e);
         }
     }
     
+    private DataSource createPooledDataSource(Properties properties) {
+        PooledDataSourceConfig.Builder builder = new PooledDataSourceConfig.Builder()
+            .poolName(environment.getProperty(POOL_PREFIX + "name", "pool"))
+            .driverClassName(properties.getProperty("driverClassName"))
+            .url(properties.getProperty("url"))
+            .username(properties.getProperty("username"))
+            .password(properties.getProperty("password"));
+        String minimumIdle = environment.getProperty(POOL_PREFIX + "minimum-idle");
+        if (minimumIdle != null) {
+            builder.minimumIdle(Integer.parseInt(minimumIdle.trim()));
+        }
+        String maximumPoolSize = environment.getProperty(POOL_PREFIX + "maximum-pool-size");
+        if (maximumPoolSize != null) {
+            builder.maximumPoolSize(Integer.parseInt(maximumPoolSize.trim()));
+        }
+        Duration connectionTimeout = getDuration("connection-timeout");
+        if (connectionTimeout != null) {
+            builder.connectionTimeout(connectionTimeout);
+        }
+        Duration validationTimeout = getDuration("validation-timeout");
+        if (validationTimeout != null) {
+            builder.validationTimeout(validationTimeout);
+        }
+        Duration idleTimeout = getDuration("idle-timeout");
+        if (idleTimeout != null) {
+            builder.idleTimeout(idleTimeout);
+        }
+        Duration maxLifetime = getDuration("max-lifetime");
+        if (maxLifetime != null) {
+            builder.maxLifetime(maxLifetime);
+        }
+        Duration leakDetectionThreshold = getDuration("leak-detection-threshold");
+        if (leakDetectionThreshold != null) {
+            builder.leakDetectionThreshold(leakDetectionThreshold);
+        }
+        try {
+            return new PooledDataSource(builder.build());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Failed to create DataSource", e);
+        }
+    }
+    
+    private Duration getDuration(String key) {
+        String value = environment.getProperty(POOL_PREFIX + key);
+        return value != null ? Duration.ofMillis(Long.parseLong(value.trim())) : null;
+    }
+    
     /**
      * 简单数据源实现，仅用于演示
      */
@@ -104,7 +205,7 @@ public class DataSourceAutoConfiguration implements AutoConfiguration {
         }
         
         @Override
-        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
             throw new SQLFeatureNotSupportedException();
         }
         
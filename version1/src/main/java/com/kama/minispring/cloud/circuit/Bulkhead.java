@@ -0,0 +1,77 @@
+package com.kama.minispring.cloud.circuit;
+
+import java.util.function.Supplier;
+
+/**
+ * 舱壁接口
+ * 限制对同一个下游的并发调用数，避免一个变慢的依赖占满所有工作线程
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public interface Bulkhead {
+    
+    /**
+     * 尝试获取一个调用许可，获取成功后必须调用{@link #onComplete()}归还
+     *
+     * @return 是否获取成功
+     */
+    boolean tryAcquirePermission();
+    
+    /**
+     * 归还调用许可
+     */
+    void onComplete();
+    
+    /**
+     * 执行受保护的操作，没有可用许可时执行降级操作
+     *
+     * @param operation 要执行的操作
+     * @param fallback 降级操作
+     * @return 操作结果
+     */
+    default <T> T execute(Supplier<T> operation, Supplier<T> fallback) {
+        if (!tryAcquirePermission()) {
+            return fallback.get();
+        }
+        try {
+            return operation.get();
+        } finally {
+            onComplete();
+        }
+    }
+    
+    /**
+     * 包装操作，没有可用许可时抛出{@link BulkheadFullException}
+     * 包装结果可以直接作为{@link CircuitBreaker#execute}的操作，被拒绝的调用由熔断器降级但不计为失败
+     *
+     * @param operation 要执行的操作
+     * @return 受舱壁保护的操作
+     */
+    default <T> Supplier<T> decorateSupplier(Supplier<T> operation) {
+        return () -> {
+            if (!tryAcquirePermission()) {
+                throw new BulkheadFullException(getName());
+            }
+            try {
+                return operation.get();
+            } finally {
+                onComplete();
+            }
+        };
+    }
+    
+    /**
+     * 获取当前可用的许可数
+     *
+     * @return 可用许可数
+     */
+    int getAvailableConcurrentCalls();
+    
+    /**
+     * 获取舱壁名称
+     *
+     * @return 舱壁名称
+     */
+    String getName();
+}
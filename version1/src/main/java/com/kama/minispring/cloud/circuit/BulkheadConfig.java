@@ -0,0 +1,73 @@
+package com.kama.minispring.cloud.circuit;
+
+import java.time.Duration;
+
+/**
+ * 信号量舱壁配置类
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class BulkheadConfig {
+    
+    private final int maxConcurrentCalls;
+    private final Duration maxWaitDuration;
+    
+    private BulkheadConfig(Builder builder) {
+        this.maxConcurrentCalls = builder.maxConcurrentCalls;
+        this.maxWaitDuration = builder.maxWaitDuration;
+    }
+    
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+    
+    public Duration getMaxWaitDuration() {
+        return maxWaitDuration;
+    }
+    
+    /**
+     * 配置构建器
+     */
+    public static class Builder {
+        private int maxConcurrentCalls = 25;
+        private Duration maxWaitDuration = Duration.ZERO;
+        
+        /**
+         * 设置最大并发调用数
+         *
+         * @param maxConcurrentCalls 最大并发调用数
+         * @return 构建器实例
+         */
+        public Builder maxConcurrentCalls(int maxConcurrentCalls) {
+            if (maxConcurrentCalls <= 0) {
+                throw new IllegalArgumentException("Max concurrent calls must be greater than 0");
+            }
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            return this;
+        }
+        
+        /**
+         * 设置没有可用许可时的最长等待时间
+         *
+         * @param maxWaitDuration 最长等待时间，为0时不等待，立即拒绝
+         * @return 构建器实例
+         */
+        public Builder maxWaitDuration(Duration maxWaitDuration) {
+            if (maxWaitDuration == null || maxWaitDuration.isNegative()) {
+                throw new IllegalArgumentException("Max wait duration must not be negative");
+            }
+            this.maxWaitDuration = maxWaitDuration;
+            return this;
+        }
+        
+        /**
+         * 构建配置实例
+         *
+         * @return 舱壁配置实例
+         */
+        public BulkheadConfig build() {
+            return new BulkheadConfig(this);
+        }
+    }
+}
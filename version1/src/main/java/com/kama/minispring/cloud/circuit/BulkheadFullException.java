@@ -0,0 +1,19 @@
+package com.kama.minispring.cloud.circuit;
+
+/**
+ * 舱壁已满时抛出的异常
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class BulkheadFullException extends CallNotPermittedException {
+    
+    /**
+     * 创建一个新的异常
+     *
+     * @param bulkheadName 舱壁名称
+     */
+    public BulkheadFullException(String bulkheadName) {
+        super("Bulkhead '" + bulkheadName + "' is full and does not permit further calls");
+    }
+}
@@ -0,0 +1,20 @@
+package com.kama.minispring.cloud.circuit;
+
+/**
+ * 调用因容量或速率限制被拒绝时抛出的异常
+ * 被拒绝的调用没有真正执行，{@link DefaultCircuitBreaker}不会把它计为失败
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class CallNotPermittedException extends RuntimeException {
+    
+    /**
+     * 创建一个新的异常
+     *
+     * @param message 异常信息
+     */
+    public CallNotPermittedException(String message) {
+        super(message);
+    }
+}
@@ -4,20 +4,51 @@ import java.time.Duration;
 
 /**
  * 熔断器配置类
- * 
+ *
+ * <p>关闭状态下，以下任一条件满足时熔断器开启：
+ * 连续失败次数达到{@code failureThreshold}；
+ * 滑动窗口中的调用数不少于{@code minimumNumberOfCalls}，且失败率或慢调用率达到对应阈值
+ *
  * @author kama
  * @version 1.0.0
  */
 public class CircuitBreakerConfig {
     
+    /**
+     * 滑动窗口类型
+     */
+    public enum SlidingWindowType {
+        /**
+         * 按调用次数 - 统计最近slidingWindowSize次调用
+         */
+        COUNT_BASED,
+        
+        /**
+         * 按时间 - 统计最近slidingWindowSize秒内的调用
+         */
+        TIME_BASED
+    }
+    
     private final int failureThreshold;
     private final Duration waitDuration;
     private final int permittedNumberOfCallsInHalfOpenState;
+    private final SlidingWindowType slidingWindowType;
+    private final int slidingWindowSize;
+    private final int minimumNumberOfCalls;
+    private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final Duration slowCallDurationThreshold;
     
     private CircuitBreakerConfig(Builder builder) {
         this.failureThreshold = builder.failureThreshold;
         this.waitDuration = builder.waitDuration;
         this.permittedNumberOfCallsInHalfOpenState = builder.permittedNumberOfCallsInHalfOpenState;
+        this.slidingWindowType = builder.slidingWindowType;
+        this.slidingWindowSize = builder.slidingWindowSize;
+        this.minimumNumberOfCalls = builder.minimumNumberOfCalls;
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.slowCallRateThreshold = builder.slowCallRateThreshold;
+        this.slowCallDurationThreshold = builder.slowCallDurationThreshold;
     }
     
     public int getFailureThreshold() {
@@ -32,6 +63,30 @@ public class CircuitBreakerConfig {
         return permittedNumberOfCallsInHalfOpenState;
     }
     
+    public SlidingWindowType getSlidingWindowType() {
+        return slidingWindowType;
+    }
+    
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+    
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+    
+    public float getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+    
+    public float getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+    
+    public Duration getSlowCallDurationThreshold() {
+        return slowCallDurationThreshold;
+    }
+    
     /**
      * 配置构建器
      */
@@ -39,6 +94,12 @@ public class CircuitBreakerConfig {
         private int failureThreshold = 5;
         private Duration waitDuration = Duration.ofSeconds(60);
         private int permittedNumberOfCallsInHalfOpenState = 10;
+        private SlidingWindowType slidingWindowType = SlidingWindowType.COUNT_BASED;
+        private int slidingWindowSize = 100;
+        private int minimumNumberOfCalls = 100;
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 100;
+        private Duration slowCallDurationThreshold = Duration.ofSeconds(60);
         
         /**
          * 设置失败阈值
@@ -70,6 +131,7 @@ public class CircuitBreakerConfig {
         
         /**
          * 设置半开状态允许的调用次数
+         * 这些探测调用全部完成后，按失败率和慢调用率决定关闭还是重新开启
          *
          * @param permittedNumberOfCallsInHalfOpenState 半开状态下允许的调用次数
          * @return 构建器实例
@@ -82,6 +144,82 @@ public class CircuitBreakerConfig {
             return this;
         }
         
+        /**
+         * 设置滑动窗口
+         *
+         * @param slidingWindowType 窗口类型
+         * @param slidingWindowSize 按次数时为调用次数，按时间时为秒数
+         * @return 构建器实例
+         */
+        public Builder slidingWindow(SlidingWindowType slidingWindowType, int slidingWindowSize) {
+            if (slidingWindowType == null) {
+                throw new IllegalArgumentException("Sliding window type must not be null");
+            }
+            if (slidingWindowSize <= 0) {
+                throw new IllegalArgumentException("Sliding window size must be greater than 0");
+            }
+            this.slidingWindowType = slidingWindowType;
+            this.slidingWindowSize = slidingWindowSize;
+            return this;
+        }
+        
+        /**
+         * 设置计算失败率前窗口中至少需要的调用次数
+         *
+         * @param minimumNumberOfCalls 最少调用次数
+         * @return 构建器实例
+         */
+        public Builder minimumNumberOfCalls(int minimumNumberOfCalls) {
+            if (minimumNumberOfCalls <= 0) {
+                throw new IllegalArgumentException("Minimum number of calls must be greater than 0");
+            }
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+            return this;
+        }
+        
+        /**
+         * 设置失败率阈值
+         *
+         * @param failureRateThreshold 失败率阈值，百分比
+         * @return 构建器实例
+         */
+        public Builder failureRateThreshold(float failureRateThreshold) {
+            if (failureRateThreshold <= 0 || failureRateThreshold > 100) {
+                throw new IllegalArgumentException("Failure rate threshold must be between 0 and 100");
+            }
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+        
+        /**
+         * 设置慢调用率阈值
+         *
+         * @param slowCallRateThreshold 慢调用率阈值，百分比
+         * @return 构建器实例
+         */
+        public Builder slowCallRateThreshold(float slowCallRateThreshold) {
+            if (slowCallRateThreshold <= 0 || slowCallRateThreshold > 100) {
+                throw new IllegalArgumentException("Slow call rate threshold must be between 0 and 100");
+            }
+            this.slowCallRateThreshold = slowCallRateThreshold;
+            return this;
+        }
+        
+        /**
+         * 设置慢调用的耗时阈值
+         *
+         * @param slowCallDurationThreshold 耗时超过该值的调用记为慢调用
+         * @return 构建器实例
+         */
+        public Builder slowCallDurationThreshold(Duration slowCallDurationThreshold) {
+            if (slowCallDurationThreshold == null || slowCallDurationThreshold.isNegative()
+                    || slowCallDurationThreshold.isZero()) {
+                throw new IllegalArgumentException("Slow call duration threshold must be positive");
+            }
+            this.slowCallDurationThreshold = slowCallDurationThreshold;
+            return this;
+        }
+        
         /**
          * 构建配置实例
          *
@@ -91,4 +229,4 @@ public class CircuitBreakerConfig {
             return new CircuitBreakerConfig(this);
         }
     }
-} 
\ No newline at end of file
+}
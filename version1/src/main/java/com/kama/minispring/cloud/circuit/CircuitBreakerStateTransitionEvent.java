@@ -0,0 +1,49 @@
+package com.kama.minispring.cloud.circuit;
+
+import com.kama.minispring.context.ApplicationEvent;
+
+/**
+ * 熔断器状态转换事件
+ * 熔断器每次改变状态时发布，事件源为熔断器本身
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class CircuitBreakerStateTransitionEvent extends ApplicationEvent {
+    
+    private final String circuitBreakerName;
+    private final CircuitBreaker.State fromState;
+    private final CircuitBreaker.State toState;
+    
+    /**
+     * 创建一个新的状态转换事件
+     *
+     * @param circuitBreaker 发生转换的熔断器
+     * @param fromState 转换前的状态
+     * @param toState 转换后的状态
+     */
+    public CircuitBreakerStateTransitionEvent(CircuitBreaker<?> circuitBreaker,
+                                              CircuitBreaker.State fromState, CircuitBreaker.State toState) {
+        super(circuitBreaker);
+        this.circuitBreakerName = circuitBreaker.getName();
+        this.fromState = fromState;
+        this.toState = toState;
+    }
+    
+    public String getCircuitBreakerName() {
+        return circuitBreakerName;
+    }
+    
+    public CircuitBreaker.State getFromState() {
+        return fromState;
+    }
+    
+    public CircuitBreaker.State getToState() {
+        return toState;
+    }
+    
+    @Override
+    public String toString() {
+        return "CircuitBreakerStateTransitionEvent: " + circuitBreakerName + " " + fromState + " -> " + toState;
+    }
+}
@@ -0,0 +1,70 @@
+package com.kama.minispring.cloud.circuit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按调用次数的滑动窗口
+ * 最近size次调用的结果保存在环形数组中，新结果覆盖最早的结果，同时增量更新汇总计数，
+ * 因此读取汇总值是O(1)的
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+final class CountBasedSlidingWindow implements SlidingWindow {
+    
+    private final int size;
+    
+    /** 每个位置保存一次调用的结果，0表示尚未写入 */
+    private final AtomicIntegerArray outcomes;
+    
+    private final AtomicLong cursor = new AtomicLong();
+    
+    private final AtomicInteger totalCalls = new AtomicInteger();
+    
+    private final AtomicInteger failedCalls = new AtomicInteger();
+    
+    private final AtomicInteger slowCalls = new AtomicInteger();
+    
+    CountBasedSlidingWindow(int size) {
+        this.size = size;
+        this.outcomes = new AtomicIntegerArray(size);
+    }
+    
+    @Override
+    public void record(int outcome) {
+        int slot = (int) (this.cursor.getAndIncrement() % this.size);
+        int evicted = this.outcomes.getAndSet(slot, outcome);
+        if (evicted == 0) {
+            this.totalCalls.incrementAndGet();
+        }
+        int failedDelta = flag(outcome, FAILURE) - flag(evicted, FAILURE);
+        if (failedDelta != 0) {
+            this.failedCalls.addAndGet(failedDelta);
+        }
+        int slowDelta = flag(outcome, SLOW) - flag(evicted, SLOW);
+        if (slowDelta != 0) {
+            this.slowCalls.addAndGet(slowDelta);
+        }
+    }
+    
+    @Override
+    public int getTotalCalls() {
+        return this.totalCalls.get();
+    }
+    
+    @Override
+    public int getFailedCalls() {
+        return this.failedCalls.get();
+    }
+    
+    @Override
+    public int getSlowCalls() {
+        return this.slowCalls.get();
+    }
+    
+    private static int flag(int outcome, int mask) {
+        return (outcome & mask) != 0 ? 1 : 0;
+    }
+}
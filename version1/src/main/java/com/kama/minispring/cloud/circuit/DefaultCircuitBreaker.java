@@ -1,158 +1,311 @@
 package com.kama.minispring.cloud.circuit;
 
-import java.time.Duration;
-import java.time.Instant;
+import com.kama.minispring.context.ApplicationEventPublisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
 /**
  * 默认的熔断器实现
- * 
+ *
+ * <p>关闭状态下每次调用的结果记入滑动窗口，连续失败次数、失败率或慢调用率达到阈值时开启。
+ * 开启状态经过等待时间后转为半开状态，半开状态通过原子的许可计数放行有限的探测调用，
+ * 探测调用之间互不阻塞；全部探测完成后按失败率和慢调用率决定关闭还是重新开启。
+ *
+ * <p>每个状态对应一个不可变的{@link StateHolder}，状态转换通过CAS整体替换，
+ * 因此属于已经结束的状态的调用结果不会影响新状态的统计。
+ *
+ * <p>操作抛出的{@link CallNotPermittedException}（舱壁已满或被限流）表示调用没有到达下游，
+ * 直接降级而不计为失败，因此可以把{@link Bulkhead#decorateSupplier}或
+ * {@link RateLimiter#decorateSupplier}包装后的操作交给熔断器执行
+ *
  * @author kama
  * @version 1.0.0
  */
 public class DefaultCircuitBreaker<T> implements CircuitBreaker<T> {
     
+    private static final Logger logger = LoggerFactory.getLogger(DefaultCircuitBreaker.class);
+    
     private final String name;
     private final CircuitBreakerConfig config;
-    private final AtomicReference<State> state;
-    private final AtomicInteger failureCount;
-    private final AtomicInteger successCount;
-    private final AtomicReference<Instant> lastFailureTime;
-    private final AtomicReference<Instant> lastStateTransitionTime;
-    private final Object halfOpenLock;
+    private final LongSupplier nanoClock;
+    private final long waitDurationNanos;
+    private final long slowCallDurationNanos;
+    private final AtomicReference<StateHolder> state;
+    private volatile ApplicationEventPublisher eventPublisher;
     
     public DefaultCircuitBreaker(String name, CircuitBreakerConfig config) {
+        this(name, config, System::nanoTime);
+    }
+    
+    /**
+     * 使用指定时钟创建熔断器，主要用于测试
+     *
+     * @param name 熔断器名称
+     * @param config 熔断器配置
+     * @param nanoClock 纳秒时钟，与System.nanoTime()语义相同
+     */
+    DefaultCircuitBreaker(String name, CircuitBreakerConfig config, LongSupplier nanoClock) {
         this.name = name;
         this.config = config;
-        this.state = new AtomicReference<>(State.CLOSED);
-        this.failureCount = new AtomicInteger(0);
-        this.successCount = new AtomicInteger(0);
-        this.lastStateTransitionTime = new AtomicReference<>(Instant.now());
-        this.lastFailureTime = new AtomicReference<>(Instant.now());
-        this.halfOpenLock = new Object();
+        this.nanoClock = nanoClock;
+        this.waitDurationNanos = config.getWaitDuration().toNanos();
+        this.slowCallDurationNanos = config.getSlowCallDurationThreshold().toNanos();
+        this.state = new AtomicReference<>(closedState());
+    }
+    
+    /**
+     * 设置事件发布器，设置后每次状态转换都会发布{@link CircuitBreakerStateTransitionEvent}
+     *
+     * @param eventPublisher 事件发布器
+     */
+    public void setEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
     }
     
     @Override
     public T execute(Supplier<T> operation, Supplier<T> fallback) {
         while (true) {
-            State currentState = state.get();
+            StateHolder current = state.get();
             
-            switch (currentState) {
+            switch (current.state) {
                 case CLOSED:
-                    if (successCount.get() >= config.getPermittedNumberOfCallsInHalfOpenState()) {
-                        return fallback.get();
-                    }
-                    try {
-                        T result = operation.get();
-                        onSuccess();
-                        return result;
-                    } catch (Exception e) {
-                        onFailure();
-                        return fallback.get();
-                    }
-                    
+                    return executeClosed(current, operation, fallback);
+                
                 case OPEN:
-                    if (shouldTransitionToHalfOpen()) {
-                        if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
-                            lastStateTransitionTime.set(Instant.now());
-                            successCount.set(0);
-                            continue;
-                        }
+                    if (nanoClock.getAsLong() - current.enteredAtNanos >= waitDurationNanos) {
+                        transition(current, halfOpenState());
+                        continue;
                     }
                     return fallback.get();
-                    
+                
                 case HALF_OPEN:
-                    synchronized (halfOpenLock) {
-                        if (state.get() != State.HALF_OPEN) {
-                            continue;
-                        }
-                        
-                        int currentSuccessCount = successCount.get();
-                        if (currentSuccessCount >= config.getPermittedNumberOfCallsInHalfOpenState()) {
-                            if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
-                                lastStateTransitionTime.set(Instant.now());
-                                failureCount.set(0);
-                            }
-                            return fallback.get();
-                        }
-                        
-                        try {
-                            T result = operation.get();
-                            currentSuccessCount = successCount.incrementAndGet();
-                            
-                            if (currentSuccessCount >= config.getPermittedNumberOfCallsInHalfOpenState()) {
-                                if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
-                                    lastStateTransitionTime.set(Instant.now());
-                                    failureCount.set(0);
-                                }
-                            }
-                            return result;
-                        } catch (Exception e) {
-                            failureCount.incrementAndGet();
-                            
-                            if (state.compareAndSet(State.HALF_OPEN, State.OPEN)) {
-                                lastStateTransitionTime.set(Instant.now());
-                                successCount.set(0);
-                                failureCount.set(0);
-                            }
-                            return fallback.get();
-                        }
+                    if (!current.tryAcquirePermission()) {
+                        return fallback.get();
                     }
-                    
+                    return executeHalfOpen(current, operation, fallback);
+                
                 default:
-                    throw new IllegalStateException("Unknown circuit breaker state: " + currentState);
+                    throw new IllegalStateException("Unknown circuit breaker state: " + current.state);
             }
         }
     }
     
-    private boolean shouldTransitionToHalfOpen() {
-        Duration elapsedTime = Duration.between(lastStateTransitionTime.get(), Instant.now());
-        return elapsedTime.compareTo(config.getWaitDuration()) >= 0;
+    private T executeClosed(StateHolder current, Supplier<T> operation, Supplier<T> fallback) {
+        long start = nanoClock.getAsLong();
+        T result;
+        try {
+            result = operation.get();
+        } catch (CallNotPermittedException e) {
+            // 被舱壁或限流器拒绝的调用没有到达下游，不计入统计
+            return fallback.get();
+        } catch (Exception e) {
+            onClosedFailure(current, start);
+            return fallback.get();
+        } catch (Error e) {
+            onClosedFailure(current, start);
+            throw e;
+        }
+        int outcome = SlidingWindow.SUCCESS | slowFlag(start);
+        current.window.record(outcome);
+        if (current.consecutiveFailures.get() != 0) {
+            current.consecutiveFailures.set(0);
+        }
+        if (outcome != SlidingWindow.SUCCESS) {
+            checkClosedThresholds(current);
+        }
+        return result;
     }
     
-    private void onSuccess() {
-        failureCount.set(0);
+    private void onClosedFailure(StateHolder current, long start) {
+        current.window.record(SlidingWindow.FAILURE | slowFlag(start));
+        if (current.consecutiveFailures.incrementAndGet() >= config.getFailureThreshold()) {
+            transition(current, openState());
+        } else {
+            checkClosedThresholds(current);
+        }
     }
     
-    private void onFailure() {
-        int failures = failureCount.incrementAndGet();
-        lastFailureTime.set(Instant.now());
-        
-        if (failures >= config.getFailureThreshold()) {
-            if (state.compareAndSet(State.CLOSED, State.OPEN)) {
-                lastStateTransitionTime.set(Instant.now());
-                successCount.set(0);
-                failureCount.set(0);
+    /**
+     * 只在记录了失败或慢调用后检查阈值，成功调用只会降低比率
+     */
+    private void checkClosedThresholds(StateHolder current) {
+        SlidingWindow window = current.window;
+        int totalCalls = window.getTotalCalls();
+        if (totalCalls >= config.getMinimumNumberOfCalls()
+                && exceedsThresholds(totalCalls, window.getFailedCalls(), window.getSlowCalls())) {
+            transition(current, openState());
+        }
+    }
+    
+    private T executeHalfOpen(StateHolder current, Supplier<T> operation, Supplier<T> fallback) {
+        long start = nanoClock.getAsLong();
+        try {
+            T result = operation.get();
+            onHalfOpenCallCompleted(current, false, slowFlag(start) != 0);
+            return result;
+        } catch (CallNotPermittedException e) {
+            // 被拒绝的调用不算探测，归还许可
+            current.halfOpenPermits.incrementAndGet();
+            return fallback.get();
+        } catch (Exception e) {
+            onHalfOpenCallCompleted(current, true, slowFlag(start) != 0);
+            return fallback.get();
+        } catch (Error e) {
+            onHalfOpenCallCompleted(current, true, slowFlag(start) != 0);
+            throw e;
+        }
+    }
+    
+    private void onHalfOpenCallCompleted(StateHolder current, boolean failed, boolean slow) {
+        if (failed) {
+            current.halfOpenFailedCalls.incrementAndGet();
+        }
+        if (slow) {
+            current.halfOpenSlowCalls.incrementAndGet();
+        }
+        int permitted = config.getPermittedNumberOfCallsInHalfOpenState();
+        if (current.halfOpenCompletedCalls.incrementAndGet() == permitted) {
+            boolean reopen = exceedsThresholds(permitted, current.halfOpenFailedCalls.get(),
+                    current.halfOpenSlowCalls.get());
+            transition(current, reopen ? openState() : closedState());
+        }
+    }
+    
+    private boolean exceedsThresholds(int totalCalls, int failedCalls, int slowCalls) {
+        return failedCalls * 100f / totalCalls >= config.getFailureRateThreshold()
+                || slowCalls * 100f / totalCalls >= config.getSlowCallRateThreshold();
+    }
+    
+    private int slowFlag(long start) {
+        return nanoClock.getAsLong() - start > slowCallDurationNanos ? SlidingWindow.SLOW : 0;
+    }
+    
+    /**
+     * 从expected转换到next，只有CAS成功的线程发布事件，reset时状态未变化则不发布
+     */
+    private boolean transition(StateHolder expected, StateHolder next) {
+        if (!state.compareAndSet(expected, next)) {
+            return false;
+        }
+        ApplicationEventPublisher publisher = eventPublisher;
+        if (publisher != null && expected.state != next.state) {
+            try {
+                publisher.publishEvent(new CircuitBreakerStateTransitionEvent(this, expected.state, next.state));
+            } catch (RuntimeException ex) {
+                logger.warn("Failed to publish state transition event for circuit breaker {}", name, ex);
             }
         }
+        return true;
+    }
+    
+    private StateHolder closedState() {
+        SlidingWindow window = config.getSlidingWindowType() == CircuitBreakerConfig.SlidingWindowType.TIME_BASED
+                ? new TimeBasedSlidingWindow(config.getSlidingWindowSize(), nanoClock)
+                : new CountBasedSlidingWindow(config.getSlidingWindowSize());
+        return new StateHolder(State.CLOSED, nanoClock.getAsLong(), window, 0);
+    }
+    
+    private StateHolder openState() {
+        return new StateHolder(State.OPEN, nanoClock.getAsLong(), null, 0);
+    }
+    
+    private StateHolder halfOpenState() {
+        return new StateHolder(State.HALF_OPEN, nanoClock.getAsLong(), null,
+                config.getPermittedNumberOfCallsInHalfOpenState());
     }
     
     @Override
     public State getState() {
-        State currentState = state.get();
-        if (currentState == State.OPEN && shouldTransitionToHalfOpen()) {
-            if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
-                lastStateTransitionTime.set(Instant.now());
-                successCount.set(0);
-                failureCount.set(0);
-            }
-            return state.get();
+        StateHolder current = state.get();
+        if (current.state == State.OPEN && nanoClock.getAsLong() - current.enteredAtNanos >= waitDurationNanos) {
+            transition(current, halfOpenState());
+            return state.get().state;
+        }
+        return current.state;
+    }
+    
+    /**
+     * 获取关闭状态下滑动窗口中的失败率
+     *
+     * @return 失败率百分比，不是关闭状态或窗口中没有调用时返回-1
+     */
+    public float getFailureRate() {
+        SlidingWindow window = state.get().window;
+        if (window == null) {
+            return -1;
+        }
+        int totalCalls = window.getTotalCalls();
+        return totalCalls == 0 ? -1 : window.getFailedCalls() * 100f / totalCalls;
+    }
+    
+    /**
+     * 获取关闭状态下滑动窗口中的慢调用率
+     *
+     * @return 慢调用率百分比，不是关闭状态或窗口中没有调用时返回-1
+     */
+    public float getSlowCallRate() {
+        SlidingWindow window = state.get().window;
+        if (window == null) {
+            return -1;
         }
-        return currentState;
+        int totalCalls = window.getTotalCalls();
+        return totalCalls == 0 ? -1 : window.getSlowCalls() * 100f / totalCalls;
     }
     
     @Override
     public void reset() {
-        state.set(State.CLOSED);
-        successCount.set(0);
-        failureCount.set(0);
-        lastStateTransitionTime.set(Instant.now());
+        while (true) {
+            StateHolder current = state.get();
+            if (transition(current, closedState())) {
+                return;
+            }
+        }
     }
     
     @Override
     public String getName() {
         return name;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 一个状态及其统计数据，状态转换时整体替换
+     */
+    private static final class StateHolder {
+        
+        final State state;
+        final long enteredAtNanos;
+        
+        /** 关闭状态的滑动窗口，其他状态为null */
+        final SlidingWindow window;
+        final AtomicInteger consecutiveFailures = new AtomicInteger();
+        
+        /** 半开状态剩余的探测许可和已完成探测的统计 */
+        final AtomicInteger halfOpenPermits;
+        final AtomicInteger halfOpenCompletedCalls = new AtomicInteger();
+        final AtomicInteger halfOpenFailedCalls = new AtomicInteger();
+        final AtomicInteger halfOpenSlowCalls = new AtomicInteger();
+        
+        StateHolder(State state, long enteredAtNanos, SlidingWindow window, int halfOpenPermits) {
+            this.state = state;
+            this.enteredAtNanos = enteredAtNanos;
+            this.window = window;
+            this.halfOpenPermits = new AtomicInteger(halfOpenPermits);
+        }
+        
+        boolean tryAcquirePermission() {
+            int permits;
+            do {
+                permits = halfOpenPermits.get();
+                if (permits <= 0) {
+                    return false;
+                }
+            } while (!halfOpenPermits.compareAndSet(permits, permits - 1));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.kama.minispring.cloud.circuit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * 基于GCRA（通用信元速率算法）的限流器
+ *
+ * <p>GCRA与令牌桶等价：每个许可的发放间隔为刷新周期除以周期内的调用次数，
+ * 允许的突发为一个周期内的全部调用次数。全部状态只有一个"理论到达时间"，
+ * 获取许可就是对它做一次CAS，不加锁，也不需要后台线程补充令牌
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class GcraRateLimiter implements RateLimiter {
+    
+    private final String name;
+    private final RateLimiterConfig config;
+    private final LongSupplier nanoClock;
+    
+    /** 相邻两个许可的间隔 */
+    private final long emissionIntervalNanos;
+    
+    /** 可以提前于理论到达时间的最大时长，决定突发大小 */
+    private final long burstToleranceNanos;
+    
+    private final long timeoutNanos;
+    
+    /** 理论到达时间：下一个许可在没有突发时应该发放的时刻 */
+    private final AtomicLong theoreticalArrivalTime;
+    
+    public GcraRateLimiter(String name, RateLimiterConfig config) {
+        this(name, config, System::nanoTime);
+    }
+    
+    /**
+     * 使用指定时钟创建限流器，主要用于测试
+     *
+     * @param name 限流器名称
+     * @param config 限流器配置
+     * @param nanoClock 纳秒时钟，与System.nanoTime()语义相同
+     */
+    GcraRateLimiter(String name, RateLimiterConfig config, LongSupplier nanoClock) {
+        this.name = name;
+        this.config = config;
+        this.nanoClock = nanoClock;
+        long periodNanos = config.getLimitRefreshPeriod().toNanos();
+        this.emissionIntervalNanos = periodNanos / config.getLimitForPeriod();
+        this.burstToleranceNanos = periodNanos - emissionIntervalNanos;
+        this.timeoutNanos = config.getTimeoutDuration().toNanos();
+        this.theoreticalArrivalTime = new AtomicLong(nanoClock.getAsLong());
+    }
+    
+    @Override
+    public boolean tryAcquirePermission() {
+        return reserve(0) == 0;
+    }
+    
+    @Override
+    public boolean acquirePermission() {
+        long waitNanos = reserve(timeoutNanos);
+        if (waitNanos < 0) {
+            return false;
+        }
+        long deadline = nanoClock.getAsLong() + waitNanos;
+        while (waitNanos > 0) {
+            LockSupport.parkNanos(this, waitNanos);
+            if (Thread.currentThread().isInterrupted()) {
+                // 已预约的许可无法归还，被中断的调用视为未获得许可
+                return false;
+            }
+            waitNanos = deadline - nanoClock.getAsLong();
+        }
+        return true;
+    }
+    
+    @Override
+    public long reservePermission() {
+        return reserve(timeoutNanos);
+    }
+    
+    /**
+     * 预约一个许可
+     *
+     * @param maxWaitNanos 最多愿意等待的纳秒数
+     * @return 需要等待的纳秒数，超过maxWaitNanos时返回-1且不占用许可
+     */
+    private long reserve(long maxWaitNanos) {
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long tat = theoreticalArrivalTime.get();
+            long start = Math.max(tat, now);
+            long waitNanos = start - burstToleranceNanos - now;
+            if (waitNanos > maxWaitNanos) {
+                return -1;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, start + emissionIntervalNanos)) {
+                return Math.max(waitNanos, 0);
+            }
+        }
+    }
+    
+    @Override
+    public int getAvailablePermissions() {
+        long now = nanoClock.getAsLong();
+        long start = Math.max(theoreticalArrivalTime.get(), now);
+        long available = (now - start + burstToleranceNanos + emissionIntervalNanos) / emissionIntervalNanos;
+        return (int) Math.max(available, 0);
+    }
+    
+    public RateLimiterConfig getConfig() {
+        return config;
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,76 @@
+package com.kama.minispring.cloud.circuit;
+
+import java.util.function.Supplier;
+
+/**
+ * 限流器接口
+ * 限制对同一个下游的调用速率
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public interface RateLimiter {
+    
+    /**
+     * 尝试立即获取一个许可，不等待
+     *
+     * @return 是否获取成功
+     */
+    boolean tryAcquirePermission();
+    
+    /**
+     * 获取一个许可，最多等待配置的超时时间
+     *
+     * @return 是否获取成功
+     */
+    boolean acquirePermission();
+    
+    /**
+     * 预约一个许可，不阻塞当前线程
+     * 预约成功后调用方应在返回的时间之后再执行调用，例如交给调度线程池延迟执行
+     *
+     * @return 需要等待的纳秒数；在超时时间内无法获得许可时返回-1，此时不占用许可
+     */
+    long reservePermission();
+    
+    /**
+     * 执行受保护的操作，在超时时间内无法获得许可时执行降级操作
+     *
+     * @param operation 要执行的操作
+     * @param fallback 降级操作
+     * @return 操作结果
+     */
+    default <T> T execute(Supplier<T> operation, Supplier<T> fallback) {
+        return acquirePermission() ? operation.get() : fallback.get();
+    }
+    
+    /**
+     * 包装操作，在超时时间内无法获得许可时抛出{@link RequestNotPermittedException}
+     * 包装结果可以直接作为{@link CircuitBreaker#execute}的操作，被拒绝的调用由熔断器降级但不计为失败
+     *
+     * @param operation 要执行的操作
+     * @return 受限流保护的操作
+     */
+    default <T> Supplier<T> decorateSupplier(Supplier<T> operation) {
+        return () -> {
+            if (!acquirePermission()) {
+                throw new RequestNotPermittedException(getName());
+            }
+            return operation.get();
+        };
+    }
+    
+    /**
+     * 获取当前可以立即获取的许可数
+     *
+     * @return 可用许可数
+     */
+    int getAvailablePermissions();
+    
+    /**
+     * 获取限流器名称
+     *
+     * @return 限流器名称
+     */
+    String getName();
+}
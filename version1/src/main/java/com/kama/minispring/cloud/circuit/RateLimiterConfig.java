@@ -0,0 +1,98 @@
+package com.kama.minispring.cloud.circuit;
+
+import java.time.Duration;
+
+/**
+ * 限流器配置类
+ * 每个刷新周期允许limitForPeriod次调用，同时也是允许的最大突发调用数
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class RateLimiterConfig {
+    
+    private final int limitForPeriod;
+    private final Duration limitRefreshPeriod;
+    private final Duration timeoutDuration;
+    
+    private RateLimiterConfig(Builder builder) {
+        this.limitForPeriod = builder.limitForPeriod;
+        this.limitRefreshPeriod = builder.limitRefreshPeriod;
+        this.timeoutDuration = builder.timeoutDuration;
+    }
+    
+    public int getLimitForPeriod() {
+        return limitForPeriod;
+    }
+    
+    public Duration getLimitRefreshPeriod() {
+        return limitRefreshPeriod;
+    }
+    
+    public Duration getTimeoutDuration() {
+        return timeoutDuration;
+    }
+    
+    /**
+     * 配置构建器
+     */
+    public static class Builder {
+        private int limitForPeriod = 50;
+        private Duration limitRefreshPeriod = Duration.ofSeconds(1);
+        private Duration timeoutDuration = Duration.ZERO;
+        
+        /**
+         * 设置每个周期允许的调用次数
+         *
+         * @param limitForPeriod 每个周期允许的调用次数
+         * @return 构建器实例
+         */
+        public Builder limitForPeriod(int limitForPeriod) {
+            if (limitForPeriod <= 0) {
+                throw new IllegalArgumentException("Limit for period must be greater than 0");
+            }
+            this.limitForPeriod = limitForPeriod;
+            return this;
+        }
+        
+        /**
+         * 设置刷新周期
+         *
+         * @param limitRefreshPeriod 刷新周期
+         * @return 构建器实例
+         */
+        public Builder limitRefreshPeriod(Duration limitRefreshPeriod) {
+            if (limitRefreshPeriod == null || limitRefreshPeriod.isNegative() || limitRefreshPeriod.isZero()) {
+                throw new IllegalArgumentException("Limit refresh period must be positive");
+            }
+            this.limitRefreshPeriod = limitRefreshPeriod;
+            return this;
+        }
+        
+        /**
+         * 设置阻塞获取许可时的最长等待时间
+         *
+         * @param timeoutDuration 最长等待时间，为0时不等待
+         * @return 构建器实例
+         */
+        public Builder timeoutDuration(Duration timeoutDuration) {
+            if (timeoutDuration == null || timeoutDuration.isNegative()) {
+                throw new IllegalArgumentException("Timeout duration must not be negative");
+            }
+            this.timeoutDuration = timeoutDuration;
+            return this;
+        }
+        
+        /**
+         * 构建配置实例
+         *
+         * @return 限流器配置实例
+         */
+        public RateLimiterConfig build() {
+            if (limitRefreshPeriod.toNanos() < limitForPeriod) {
+                throw new IllegalArgumentException("Limit refresh period is too short for " + limitForPeriod + " calls");
+            }
+            return new RateLimiterConfig(this);
+        }
+    }
+}
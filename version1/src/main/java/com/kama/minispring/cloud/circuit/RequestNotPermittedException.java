@@ -0,0 +1,19 @@
+package com.kama.minispring.cloud.circuit;
+
+/**
+ * 超过限流速率时抛出的异常
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class RequestNotPermittedException extends CallNotPermittedException {
+    
+    /**
+     * 创建一个新的异常
+     *
+     * @param rateLimiterName 限流器名称
+     */
+    public RequestNotPermittedException(String rateLimiterName) {
+        super("RateLimiter '" + rateLimiterName + "' does not permit further calls");
+    }
+}
@@ -0,0 +1,59 @@
+package com.kama.minispring.cloud.circuit;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于信号量的舱壁
+ * 调用在调用方线程上执行，只限制同时进行的调用数；默认不等待，没有许可时立即拒绝
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class SemaphoreBulkhead implements Bulkhead {
+    
+    private final String name;
+    private final BulkheadConfig config;
+    private final Semaphore semaphore;
+    private final long maxWaitNanos;
+    
+    public SemaphoreBulkhead(String name, BulkheadConfig config) {
+        this.name = name;
+        this.config = config;
+        this.maxWaitNanos = config.getMaxWaitDuration().toNanos();
+        // 只有允许等待时才需要公平排队，不等待时非公平信号量的开销更小
+        this.semaphore = new Semaphore(config.getMaxConcurrentCalls(), maxWaitNanos > 0);
+    }
+    
+    @Override
+    public boolean tryAcquirePermission() {
+        if (maxWaitNanos == 0) {
+            return semaphore.tryAcquire();
+        }
+        try {
+            return semaphore.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    @Override
+    public void onComplete() {
+        semaphore.release();
+    }
+    
+    @Override
+    public int getAvailableConcurrentCalls() {
+        return semaphore.availablePermits();
+    }
+    
+    public BulkheadConfig getConfig() {
+        return config;
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,48 @@
+package com.kama.minispring.cloud.circuit;
+
+/**
+ * 熔断器统计调用结果的滑动窗口
+ * 每次调用的结果编码为一个int，窗口只保存基本类型的计数，记录时不加锁也不分配对象
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+interface SlidingWindow {
+    
+    /** 调用成功 */
+    int SUCCESS = 1;
+    
+    /** 调用失败，可以与SLOW组合 */
+    int FAILURE = 2;
+    
+    /** 慢调用，可以与SUCCESS或FAILURE组合 */
+    int SLOW = 4;
+    
+    /**
+     * 记录一次调用的结果
+     *
+     * @param outcome 调用结果，SUCCESS或FAILURE，可能带有SLOW标志
+     */
+    void record(int outcome);
+    
+    /**
+     * 获取窗口中的调用次数
+     *
+     * @return 调用次数
+     */
+    int getTotalCalls();
+    
+    /**
+     * 获取窗口中的失败次数
+     *
+     * @return 失败次数
+     */
+    int getFailedCalls();
+    
+    /**
+     * 获取窗口中的慢调用次数
+     *
+     * @return 慢调用次数
+     */
+    int getSlowCalls();
+}
@@ -0,0 +1,166 @@
+package com.kama.minispring.cloud.circuit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 基于独立线程池的舱壁
+ * 调用提交到舱壁自己的线程池异步执行，调用方不会被阻塞；线程和等待队列都满时立即拒绝，
+ * 返回以{@link BulkheadFullException}失败的Future
+ *
+ * <p>使用虚拟线程时每个调用一个虚拟线程，并发数和排队数由两个信号量限制：
+ * 提交时非阻塞地获取一个准入许可（最大线程数加队列容量），虚拟线程中再获取一个执行许可（最大线程数）
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class ThreadPoolBulkhead implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ThreadPoolBulkhead.class);
+    
+    private final String name;
+    private final ThreadPoolBulkheadConfig config;
+    private final ExecutorService executor;
+    
+    /** 虚拟线程模式下的准入许可和执行许可，平台线程模式下为null */
+    private final Semaphore admissionPermits;
+    private final Semaphore executionPermits;
+    
+    public ThreadPoolBulkhead(String name, ThreadPoolBulkheadConfig config) {
+        this.name = name;
+        this.config = config;
+        ExecutorService virtualExecutor = config.isUseVirtualThreads() ? createVirtualThreadExecutor() : null;
+        if (virtualExecutor != null) {
+            this.executor = virtualExecutor;
+            this.admissionPermits = new Semaphore(config.getMaxThreadPoolSize() + config.getQueueCapacity());
+            this.executionPermits = new Semaphore(config.getMaxThreadPoolSize(), true);
+        } else {
+            BlockingQueue<Runnable> queue = config.getQueueCapacity() > 0
+                    ? new ArrayBlockingQueue<>(config.getQueueCapacity()) : new SynchronousQueue<>();
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(config.getCoreThreadPoolSize(), config.getMaxThreadPoolSize(),
+                    config.getKeepAliveDuration().toNanos(), TimeUnit.NANOSECONDS, queue, runnable -> {
+                        Thread thread = new Thread(runnable, "bulkhead-" + name + "-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.AbortPolicy());
+            this.admissionPermits = null;
+            this.executionPermits = null;
+        }
+    }
+    
+    /**
+     * 提交受保护的操作
+     *
+     * @param operation 要执行的操作
+     * @return 操作结果；舱壁已满时以{@link BulkheadFullException}失败
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        CompletableFuture<T> future = trySubmit(operation);
+        return future != null ? future : CompletableFuture.failedFuture(new BulkheadFullException(name));
+    }
+    
+    /**
+     * 提交受保护的操作，舱壁已满时在调用方线程上执行降级操作
+     *
+     * @param operation 要执行的操作
+     * @param fallback 降级操作
+     * @return 操作结果
+     */
+    public <T> CompletableFuture<T> execute(Supplier<T> operation, Supplier<T> fallback) {
+        CompletableFuture<T> future = trySubmit(operation);
+        return future != null ? future : CompletableFuture.completedFuture(fallback.get());
+    }
+    
+    /**
+     * 提交操作，舱壁已满时返回null
+     */
+    private <T> CompletableFuture<T> trySubmit(Supplier<T> operation) {
+        if (admissionPermits == null) {
+            try {
+                return CompletableFuture.supplyAsync(operation, executor);
+            } catch (RejectedExecutionException e) {
+                return null;
+            }
+        }
+        if (!admissionPermits.tryAcquire()) {
+            return null;
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                executionPermits.acquireUninterruptibly();
+                try {
+                    return operation.get();
+                } finally {
+                    executionPermits.release();
+                    admissionPermits.release();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            admissionPermits.release();
+            return null;
+        }
+    }
+    
+    /**
+     * 获取排队等待执行的调用数
+     *
+     * @return 排队的调用数
+     */
+    public int getQueueDepth() {
+        if (admissionPermits != null) {
+            return Math.max(0, executionPermits.getQueueLength());
+        }
+        return ((ThreadPoolExecutor) executor).getQueue().size();
+    }
+    
+    /**
+     * 是否使用虚拟线程执行
+     *
+     * @return 是否使用虚拟线程
+     */
+    public boolean isUsingVirtualThreads() {
+        return admissionPermits != null;
+    }
+    
+    public ThreadPoolBulkheadConfig getConfig() {
+        return config;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * 关闭线程池，已提交的调用会继续执行
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+    
+    /**
+     * 通过反射创建虚拟线程执行器，当前JDK不支持时返回null
+     */
+    private ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.info("Virtual threads are not available, bulkhead '{}' falls back to a platform thread pool", name);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.kama.minispring.cloud.circuit;
+
+import java.time.Duration;
+
+/**
+ * 线程池舱壁配置类
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class ThreadPoolBulkheadConfig {
+    
+    private final int coreThreadPoolSize;
+    private final int maxThreadPoolSize;
+    private final int queueCapacity;
+    private final Duration keepAliveDuration;
+    private final boolean useVirtualThreads;
+    
+    private ThreadPoolBulkheadConfig(Builder builder) {
+        this.coreThreadPoolSize = builder.coreThreadPoolSize;
+        this.maxThreadPoolSize = builder.maxThreadPoolSize;
+        this.queueCapacity = builder.queueCapacity;
+        this.keepAliveDuration = builder.keepAliveDuration;
+        this.useVirtualThreads = builder.useVirtualThreads;
+    }
+    
+    public int getCoreThreadPoolSize() {
+        return coreThreadPoolSize;
+    }
+    
+    public int getMaxThreadPoolSize() {
+        return maxThreadPoolSize;
+    }
+    
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    public Duration getKeepAliveDuration() {
+        return keepAliveDuration;
+    }
+    
+    public boolean isUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+    
+    /**
+     * 配置构建器
+     */
+    public static class Builder {
+        private int coreThreadPoolSize = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        private int maxThreadPoolSize = Runtime.getRuntime().availableProcessors();
+        private int queueCapacity = 100;
+        private Duration keepAliveDuration = Duration.ofMillis(20);
+        private boolean useVirtualThreads = false;
+        private boolean coreThreadPoolSizeSet = false;
+        
+        /**
+         * 设置核心线程数
+         *
+         * @param coreThreadPoolSize 核心线程数
+         * @return 构建器实例
+         */
+        public Builder coreThreadPoolSize(int coreThreadPoolSize) {
+            if (coreThreadPoolSize <= 0) {
+                throw new IllegalArgumentException("Core thread pool size must be greater than 0");
+            }
+            this.coreThreadPoolSize = coreThreadPoolSize;
+            this.coreThreadPoolSizeSet = true;
+            return this;
+        }
+        
+        /**
+         * 设置最大线程数，使用虚拟线程时为最大并发调用数
+         *
+         * @param maxThreadPoolSize 最大线程数
+         * @return 构建器实例
+         */
+        public Builder maxThreadPoolSize(int maxThreadPoolSize) {
+            if (maxThreadPoolSize <= 0) {
+                throw new IllegalArgumentException("Max thread pool size must be greater than 0");
+            }
+            this.maxThreadPoolSize = maxThreadPoolSize;
+            return this;
+        }
+        
+        /**
+         * 设置等待队列容量
+         *
+         * @param queueCapacity 队列容量，为0时线程全忙就拒绝
+         * @return 构建器实例
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            if (queueCapacity < 0) {
+                throw new IllegalArgumentException("Queue capacity must not be negative");
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+        
+        /**
+         * 设置超过核心线程数的空闲线程的存活时间
+         *
+         * @param keepAliveDuration 存活时间
+         * @return 构建器实例
+         */
+        public Builder keepAliveDuration(Duration keepAliveDuration) {
+            if (keepAliveDuration == null || keepAliveDuration.isNegative()) {
+                throw new IllegalArgumentException("Keep alive duration must not be negative");
+            }
+            this.keepAliveDuration = keepAliveDuration;
+            return this;
+        }
+        
+        /**
+         * 设置是否使用虚拟线程
+         * 运行时不支持虚拟线程（JDK 21之前）时退回平台线程池
+         *
+         * @param useVirtualThreads 是否使用虚拟线程
+         * @return 构建器实例
+         */
+        public Builder useVirtualThreads(boolean useVirtualThreads) {
+            this.useVirtualThreads = useVirtualThreads;
+            return this;
+        }
+        
+        /**
+         * 构建配置实例
+         *
+         * @return 线程池舱壁配置实例
+         */
+        public ThreadPoolBulkheadConfig build() {
+            if (!coreThreadPoolSizeSet) {
+                // 没有显式设置核心线程数时，默认值随最大线程数收缩
+                coreThreadPoolSize = Math.min(coreThreadPoolSize, maxThreadPoolSize);
+            }
+            if (coreThreadPoolSize > maxThreadPoolSize) {
+                throw new IllegalArgumentException("Core thread pool size must not exceed max thread pool size");
+            }
+            return new ThreadPoolBulkheadConfig(this);
+        }
+    }
+}
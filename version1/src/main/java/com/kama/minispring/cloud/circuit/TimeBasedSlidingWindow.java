@@ -0,0 +1,100 @@
+package com.kama.minispring.cloud.circuit;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * 按时间的滑动窗口
+ * 每秒对应环形数组中的一个桶，桶中保存该秒的调用数、失败数和慢调用数；
+ * 写入时发现桶属于更早的一秒，就先把它清零再复用。读取汇总值时累加仍在窗口内的桶
+ *
+ * <p>桶被复用的瞬间，并发写入同一秒的少量结果可能被清零丢失，对失败率的影响可以忽略
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+final class TimeBasedSlidingWindow implements SlidingWindow {
+    
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    
+    private static final int TOTAL = 0;
+    private static final int FAILED = 1;
+    private static final int SLOW_CALLS = 2;
+    private static final int COUNTERS_PER_BUCKET = 3;
+    
+    private final int size;
+    
+    private final LongSupplier nanoClock;
+    
+    /** 每个桶当前对应的秒数 */
+    private final AtomicLongArray bucketSeconds;
+    
+    /** 每个桶的三个计数依次存放 */
+    private final AtomicIntegerArray counters;
+    
+    /**
+     * @param size 窗口的秒数
+     * @param nanoClock 纳秒时钟，与System.nanoTime()语义相同
+     */
+    TimeBasedSlidingWindow(int size, LongSupplier nanoClock) {
+        this.size = size;
+        this.nanoClock = nanoClock;
+        this.bucketSeconds = new AtomicLongArray(size);
+        this.counters = new AtomicIntegerArray(size * COUNTERS_PER_BUCKET);
+        for (int i = 0; i < size; i++) {
+            this.bucketSeconds.set(i, Long.MIN_VALUE);
+        }
+    }
+    
+    @Override
+    public void record(int outcome) {
+        long second = currentSecond();
+        int bucket = (int) Math.floorMod(second, (long) this.size);
+        long bucketSecond = this.bucketSeconds.get(bucket);
+        if (bucketSecond < second && this.bucketSeconds.compareAndSet(bucket, bucketSecond, second)) {
+            int base = bucket * COUNTERS_PER_BUCKET;
+            this.counters.set(base + TOTAL, 0);
+            this.counters.set(base + FAILED, 0);
+            this.counters.set(base + SLOW_CALLS, 0);
+        }
+        int base = bucket * COUNTERS_PER_BUCKET;
+        this.counters.incrementAndGet(base + TOTAL);
+        if ((outcome & FAILURE) != 0) {
+            this.counters.incrementAndGet(base + FAILED);
+        }
+        if ((outcome & SLOW) != 0) {
+            this.counters.incrementAndGet(base + SLOW_CALLS);
+        }
+    }
+    
+    @Override
+    public int getTotalCalls() {
+        return sum(TOTAL);
+    }
+    
+    @Override
+    public int getFailedCalls() {
+        return sum(FAILED);
+    }
+    
+    @Override
+    public int getSlowCalls() {
+        return sum(SLOW_CALLS);
+    }
+    
+    private int sum(int counter) {
+        long oldest = currentSecond() - this.size;
+        int sum = 0;
+        for (int i = 0; i < this.size; i++) {
+            if (this.bucketSeconds.get(i) > oldest) {
+                sum += this.counters.get(i * COUNTERS_PER_BUCKET + counter);
+            }
+        }
+        return sum;
+    }
+    
+    private long currentSecond() {
+        return Math.floorDiv(this.nanoClock.getAsLong(), NANOS_PER_SECOND);
+    }
+}
@@ -0,0 +1,61 @@
+package com.kama.minispring.cloud.loadbalancer;
+
+import com.kama.minispring.cloud.registry.ServiceInstance;
+import java.util.List;
+
+/**
+ * 基于实例运行统计选择实例的负载均衡器基类
+ * 选中实例时增加其在途请求数，调用方必须在请求结束后调用{@link #onComplete}，
+ * 或者直接使用{@link #execute}
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public abstract class AbstractStatsLoadBalancer implements LoadBalancer {
+    
+    protected final LoadBalancerStats stats;
+    
+    protected AbstractStatsLoadBalancer() {
+        this(new LoadBalancerStats());
+    }
+    
+    protected AbstractStatsLoadBalancer(LoadBalancerStats stats) {
+        if (stats == null) {
+            throw new IllegalArgumentException("LoadBalancerStats must not be null");
+        }
+        this.stats = stats;
+    }
+    
+    @Override
+    public final ServiceInstance choose(List<ServiceInstance> instances) {
+        int availableCount = AvailableInstances.count(instances);
+        ServiceInstance chosen = availableCount == 1
+                ? AvailableInstances.get(instances, availableCount, 0)
+                : doChoose(instances, availableCount);
+        stats.getStats(chosen).onRequestStart();
+        return chosen;
+    }
+    
+    /**
+     * 从至少两个UP状态的实例中选择一个
+     *
+     * @param instances 服务实例列表，可能包含非UP状态的实例
+     * @param availableCount UP状态的实例数
+     * @return 选择的服务实例
+     */
+    protected abstract ServiceInstance doChoose(List<ServiceInstance> instances, int availableCount);
+    
+    @Override
+    public void onComplete(ServiceInstance instance, long elapsedNanos, boolean success) {
+        stats.getStats(instance).onRequestComplete(elapsedNanos, success);
+    }
+    
+    /**
+     * 获取实例运行统计
+     *
+     * @return 实例运行统计
+     */
+    public LoadBalancerStats getStats() {
+        return stats;
+    }
+}
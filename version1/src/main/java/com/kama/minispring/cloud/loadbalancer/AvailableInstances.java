@@ -0,0 +1,69 @@
+package com.kama.minispring.cloud.loadbalancer;
+
+import com.kama.minispring.cloud.registry.ServiceInstance;
+import com.kama.minispring.cloud.registry.ServiceStatus;
+import java.util.List;
+
+/**
+ * 在实例列表中定位UP状态实例的工具方法
+ * 按下标直接访问原列表，选择实例时不再为过滤结果创建新列表
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+final class AvailableInstances {
+    
+    private AvailableInstances() {
+    }
+    
+    /**
+     * 统计UP状态的实例数
+     *
+     * @param instances 服务实例列表
+     * @return UP状态的实例数，至少为1
+     * @throws IllegalArgumentException 如果实例列表为空
+     * @throws IllegalStateException 如果没有UP状态的实例
+     */
+    static int count(List<ServiceInstance> instances) {
+        if (instances == null || instances.isEmpty()) {
+            throw new IllegalArgumentException("Instance list cannot be empty");
+        }
+        int count = 0;
+        for (int i = 0, size = instances.size(); i < size; i++) {
+            if (instances.get(i).getStatus() == ServiceStatus.UP) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            throw new IllegalStateException("No available service instances");
+        }
+        return count;
+    }
+    
+    /**
+     * 获取第index个UP状态的实例
+     *
+     * @param instances 服务实例列表
+     * @param availableCount {@link #count}返回的UP状态实例数
+     * @param index UP状态实例中的下标
+     * @return 服务实例
+     */
+    static ServiceInstance get(List<ServiceInstance> instances, int availableCount, int index) {
+        if (availableCount == instances.size()) {
+            return instances.get(index);
+        }
+        for (int i = 0, size = instances.size(); i < size; i++) {
+            ServiceInstance instance = instances.get(i);
+            if (instance.getStatus() == ServiceStatus.UP && index-- == 0) {
+                return instance;
+            }
+        }
+        // 统计后有实例被标记为DOWN，退回到任意一个UP状态的实例
+        for (int i = 0, size = instances.size(); i < size; i++) {
+            if (instances.get(i).getStatus() == ServiceStatus.UP) {
+                return instances.get(i);
+            }
+        }
+        throw new IllegalStateException("No available service instances");
+    }
+}
@@ -0,0 +1,57 @@
+package com.kama.minispring.cloud.loadbalancer;
+
+import com.kama.minispring.cloud.registry.ServiceInstance;
+import com.kama.minispring.cloud.registry.ServiceStatus;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 最少在途请求负载均衡器
+ * 选择在途请求数最少的UP状态实例，从随机位置开始扫描，使在途请求数相同的实例均匀分担流量
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class LeastOutstandingRequestsLoadBalancer extends AbstractStatsLoadBalancer {
+    
+    private static final String NAME = "LeastOutstandingRequestsLoadBalancer";
+    
+    public LeastOutstandingRequestsLoadBalancer() {
+        super();
+    }
+    
+    public LeastOutstandingRequestsLoadBalancer(LoadBalancerStats stats) {
+        super(stats);
+    }
+    
+    @Override
+    protected ServiceInstance doChoose(List<ServiceInstance> instances, int availableCount) {
+        int size = instances.size();
+        int offset = ThreadLocalRandom.current().nextInt(size);
+        ServiceInstance best = null;
+        int bestOutstanding = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            ServiceInstance instance = instances.get((offset + i) % size);
+            if (instance.getStatus() != ServiceStatus.UP) {
+                continue;
+            }
+            int outstanding = stats.getStats(instance).getOutstandingRequests();
+            if (outstanding < bestOutstanding) {
+                best = instance;
+                bestOutstanding = outstanding;
+                if (outstanding == 0) {
+                    break;
+                }
+            }
+        }
+        if (best == null) {
+            throw new IllegalStateException("No available service instances");
+        }
+        return best;
+    }
+    
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
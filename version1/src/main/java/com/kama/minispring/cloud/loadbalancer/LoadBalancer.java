@@ -2,6 +2,7 @@ package com.kama.minispring.cloud.loadbalancer;
 
 import com.kama.minispring.cloud.registry.ServiceInstance;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * 负载均衡器接口，定义负载均衡的核心功能
@@ -20,6 +21,37 @@ public interface LoadBalancer {
      */
     ServiceInstance choose(List<ServiceInstance> instances);
     
+    /**
+     * 通知负载均衡器一次由{@link #choose}选出的请求已经完成
+     * 统计响应时间的负载均衡器依赖该回调更新实例的在途请求数和响应时间，默认实现什么也不做
+     *
+     * @param instance 处理请求的实例
+     * @param elapsedNanos 请求耗时，单位纳秒
+     * @param success 请求是否成功
+     */
+    default void onComplete(ServiceInstance instance, long elapsedNanos, boolean success) {
+    }
+    
+    /**
+     * 选择一个实例执行请求，并在请求结束后回调{@link #onComplete}
+     *
+     * @param instances 可用的服务实例列表
+     * @param request 对选中实例发起的请求
+     * @return 请求结果
+     */
+    default <T> T execute(List<ServiceInstance> instances, Function<ServiceInstance, T> request) {
+        ServiceInstance instance = choose(instances);
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = request.apply(instance);
+            success = true;
+            return result;
+        } finally {
+            onComplete(instance, System.nanoTime() - start, success);
+        }
+    }
+    
     /**
      * 获取负载均衡器的名称
      *
@@ -0,0 +1,84 @@
+package com.kama.minispring.cloud.loadbalancer;
+
+import com.kama.minispring.cloud.registry.ServiceInstance;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 按服务实例保存的运行统计
+ * 实例按服务名和实例ID识别，实例重新注册后沿用原来的统计；多个负载均衡器可以共享同一份统计
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class LoadBalancerStats {
+    
+    private final long decayNanos;
+    private final LongSupplier nanoClock;
+    private final Map<ServiceInstance, ServiceInstanceStats> instanceStats = new ConcurrentHashMap<>();
+    
+    /**
+     * 使用10秒的EWMA衰减时间常数创建统计
+     */
+    public LoadBalancerStats() {
+        this(Duration.ofSeconds(10));
+    }
+    
+    /**
+     * 创建统计
+     *
+     * @param decayTime EWMA衰减时间常数，越小对响应时间变化越敏感
+     */
+    public LoadBalancerStats(Duration decayTime) {
+        this(decayTime, System::nanoTime);
+    }
+    
+    /**
+     * 使用指定时钟创建统计，主要用于测试
+     *
+     * @param decayTime EWMA衰减时间常数
+     * @param nanoClock 纳秒时钟，与System.nanoTime()语义相同
+     */
+    LoadBalancerStats(Duration decayTime, LongSupplier nanoClock) {
+        if (decayTime == null || decayTime.isNegative() || decayTime.isZero()) {
+            throw new IllegalArgumentException("Decay time must be positive");
+        }
+        this.decayNanos = decayTime.toNanos();
+        this.nanoClock = nanoClock;
+    }
+    
+    /**
+     * 获取实例的统计，不存在时创建
+     *
+     * @param instance 服务实例
+     * @return 实例统计
+     */
+    public ServiceInstanceStats getStats(ServiceInstance instance) {
+        ServiceInstanceStats stats = instanceStats.get(instance);
+        if (stats == null) {
+            stats = instanceStats.computeIfAbsent(instance, key -> new ServiceInstanceStats(decayNanos, nanoClock));
+        }
+        return stats;
+    }
+    
+    /**
+     * 移除已下线实例的统计
+     *
+     * @param instance 服务实例
+     */
+    public void removeStats(ServiceInstance instance) {
+        instanceStats.remove(instance);
+    }
+    
+    /**
+     * 只保留给定实例的统计，用于在实例列表变化后清理
+     *
+     * @param instances 仍然存在的实例
+     */
+    public void retainStats(Collection<ServiceInstance> instances) {
+        instanceStats.keySet().retainAll(instances);
+    }
+}
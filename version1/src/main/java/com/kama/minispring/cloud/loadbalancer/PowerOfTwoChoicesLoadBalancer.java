@@ -0,0 +1,44 @@
+package com.kama.minispring.cloud.loadbalancer;
+
+import com.kama.minispring.cloud.registry.ServiceInstance;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 二选一（Power of Two Choices）负载均衡器
+ * 随机取两个不同的实例，选择负载代价较小的一个，代价为EWMA响应时间乘以在途请求数加一。
+ * 只比较两个实例即可避开慢实例，同时保留随机性，避免所有客户端同时涌向同一个"最快"实例
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class PowerOfTwoChoicesLoadBalancer extends AbstractStatsLoadBalancer {
+    
+    private static final String NAME = "PowerOfTwoChoicesLoadBalancer";
+    
+    public PowerOfTwoChoicesLoadBalancer() {
+        super();
+    }
+    
+    public PowerOfTwoChoicesLoadBalancer(LoadBalancerStats stats) {
+        super(stats);
+    }
+    
+    @Override
+    protected ServiceInstance doChoose(List<ServiceInstance> instances, int availableCount) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(availableCount);
+        int second = random.nextInt(availableCount - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = AvailableInstances.get(instances, availableCount, first);
+        ServiceInstance b = AvailableInstances.get(instances, availableCount, second);
+        return stats.getStats(a).getCost() <= stats.getStats(b).getCost() ? a : b;
+    }
+    
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
@@ -1,7 +1,6 @@
 package com.kama.minispring.cloud.loadbalancer;
 
 import com.kama.minispring.cloud.registry.ServiceInstance;
-import com.kama.minispring.cloud.registry.ServiceStatus;
 import java.util.List;
 import java.util.Random;
 
@@ -18,22 +17,10 @@ public class RandomLoadBalancer implements LoadBalancer {
     
     @Override
     public ServiceInstance choose(List<ServiceInstance> instances) {
-        if (instances == null || instances.isEmpty()) {
-            throw new IllegalArgumentException("Instance list cannot be empty");
-        }
+        int availableCount = AvailableInstances.count(instances);
         
-        // 过滤出状态为UP的实例
-        List<ServiceInstance> availableInstances = instances.stream()
-            .filter(instance -> instance.getStatus() == ServiceStatus.UP)
-            .toList();
-            
-        if (availableInstances.isEmpty()) {
-            throw new IllegalStateException("No available service instances");
-        }
-        
-        // 随机选择一个实例
-        int index = random.nextInt(availableInstances.size());
-        return availableInstances.get(index);
+        // 随机选择一个UP状态的实例
+        return AvailableInstances.get(instances, availableCount, random.nextInt(availableCount));
     }
     
     @Override
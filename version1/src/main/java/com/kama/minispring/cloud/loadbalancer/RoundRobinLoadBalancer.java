@@ -1,7 +1,6 @@
 package com.kama.minispring.cloud.loadbalancer;
 
 import com.kama.minispring.cloud.registry.ServiceInstance;
-import com.kama.minispring.cloud.registry.ServiceStatus;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -18,18 +17,7 @@ public class RoundRobinLoadBalancer implements LoadBalancer {
     
     @Override
     public ServiceInstance choose(List<ServiceInstance> instances) {
-        if (instances == null || instances.isEmpty()) {
-            throw new IllegalArgumentException("Instance list cannot be empty");
-        }
-        
-        // 过滤出状态为UP的实例
-        List<ServiceInstance> availableInstances = instances.stream()
-            .filter(instance -> instance.getStatus() == ServiceStatus.UP)
-            .toList();
-            
-        if (availableInstances.isEmpty()) {
-            throw new IllegalStateException("No available service instances");
-        }
+        int availableCount = AvailableInstances.count(instances);
         
         // 轮询选择一个实例
         int pos = position.getAndIncrement();
@@ -37,7 +25,7 @@ public class RoundRobinLoadBalancer implements LoadBalancer {
             position.set(0);
             pos = 0;
         }
-        return availableInstances.get(pos % availableInstances.size());
+        return AvailableInstances.get(instances, availableCount, pos % availableCount);
     }
     
     @Override
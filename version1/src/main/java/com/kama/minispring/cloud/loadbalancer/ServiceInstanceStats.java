@@ -0,0 +1,139 @@
+package com.kama.minispring.cloud.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 单个服务实例的运行统计：在途请求数和指数加权移动平均（EWMA）响应时间
+ *
+ * <p>EWMA按时间衰减：距离上次采样越久，旧平均值的权重越小，衰减时间常数由{@link LoadBalancerStats}指定。
+ * 采用峰值敏感的更新方式，样本大于当前平均值时直接取样本，使变慢的实例能立即被识别，
+ * 恢复时再随时间逐渐回落。所有更新都是无锁的
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class ServiceInstanceStats {
+    
+    private final double decayNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger outstandingRequests = new AtomicInteger();
+    private final LongAdder totalRequests = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+    private final AtomicReference<Ewma> ewma = new AtomicReference<>(Ewma.EMPTY);
+    
+    ServiceInstanceStats(long decayNanos, LongSupplier nanoClock) {
+        this.decayNanos = decayNanos;
+        this.nanoClock = nanoClock;
+    }
+    
+    /**
+     * 记录一个请求开始
+     */
+    public void onRequestStart() {
+        outstandingRequests.incrementAndGet();
+    }
+    
+    /**
+     * 记录一个请求完成
+     * 失败的请求按不低于当前平均值两倍的耗时计入，避免快速失败的实例因为"响应快"而被优先选择
+     *
+     * @param elapsedNanos 请求耗时，单位纳秒
+     * @param success 请求是否成功
+     */
+    public void onRequestComplete(long elapsedNanos, boolean success) {
+        outstandingRequests.decrementAndGet();
+        totalRequests.increment();
+        if (!success) {
+            failedRequests.increment();
+        }
+        long now = nanoClock.getAsLong();
+        while (true) {
+            Ewma current = ewma.get();
+            double sample = success ? elapsedNanos : Math.max(elapsedNanos, current.value * 2);
+            double value;
+            if (current == Ewma.EMPTY || sample > current.value) {
+                value = sample;
+            } else {
+                double weight = Math.exp(-(now - current.timestampNanos) / decayNanos);
+                value = current.value * weight + sample * (1 - weight);
+            }
+            if (ewma.compareAndSet(current, new Ewma(value, now))) {
+                return;
+            }
+        }
+    }
+    
+    /**
+     * 获取在途请求数
+     *
+     * @return 已选中但尚未完成的请求数
+     */
+    public int getOutstandingRequests() {
+        return outstandingRequests.get();
+    }
+    
+    /**
+     * 获取已完成的请求数
+     *
+     * @return 已完成的请求数
+     */
+    public long getTotalRequests() {
+        return totalRequests.sum();
+    }
+    
+    /**
+     * 获取失败的请求数
+     *
+     * @return 失败的请求数
+     */
+    public long getFailedRequests() {
+        return failedRequests.sum();
+    }
+    
+    /**
+     * 获取EWMA响应时间
+     *
+     * @return 平均响应时间，单位纳秒，尚无采样时返回0
+     */
+    public double getEwmaResponseTimeNanos() {
+        return ewma.get().value;
+    }
+    
+    /**
+     * 是否已有响应时间采样
+     *
+     * @return 是否已有采样
+     */
+    public boolean hasResponseTime() {
+        return ewma.get() != Ewma.EMPTY;
+    }
+    
+    /**
+     * 获取选择实例时使用的负载代价：平均响应时间乘以在途请求数加一
+     * 没有采样的实例平均响应时间按1纳秒计算，从而优先接收流量，但仍按在途请求数分摊
+     *
+     * @return 负载代价，越小越空闲
+     */
+    public double getCost() {
+        return (getEwmaResponseTimeNanos() + 1) * (getOutstandingRequests() + 1);
+    }
+    
+    /**
+     * EWMA的不可变快照，整体替换以保证平均值与采样时间一致
+     */
+    private static final class Ewma {
+        
+        static final Ewma EMPTY = new Ewma(0, 0);
+        
+        final double value;
+        final long timestampNanos;
+        
+        Ewma(double value, long timestampNanos) {
+            this.value = value;
+            this.timestampNanos = timestampNanos;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.kama.minispring.cloud.loadbalancer;
+
+import com.kama.minispring.cloud.registry.ServiceInstance;
+import com.kama.minispring.cloud.registry.ServiceStatus;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 响应时间加权负载均衡器
+ * 按EWMA响应时间的倒数作为权重随机选择实例，响应越快的实例分到的流量越多，慢实例仍保留少量流量以便发现其恢复。
+ * 尚无采样的实例使用当前最大的权重，新上线的实例可以尽快得到采样
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class WeightedResponseTimeLoadBalancer extends AbstractStatsLoadBalancer {
+    
+    private static final String NAME = "WeightedResponseTimeLoadBalancer";
+    
+    public WeightedResponseTimeLoadBalancer() {
+        super();
+    }
+    
+    public WeightedResponseTimeLoadBalancer(LoadBalancerStats stats) {
+        super(stats);
+    }
+    
+    @Override
+    protected ServiceInstance doChoose(List<ServiceInstance> instances, int availableCount) {
+        int size = instances.size();
+        double maxWeight = 0;
+        double sampledWeight = 0;
+        int unsampled = 0;
+        for (int i = 0; i < size; i++) {
+            ServiceInstance instance = instances.get(i);
+            if (instance.getStatus() != ServiceStatus.UP) {
+                continue;
+            }
+            ServiceInstanceStats instanceStats = stats.getStats(instance);
+            if (instanceStats.hasResponseTime()) {
+                double weight = weight(instanceStats);
+                sampledWeight += weight;
+                maxWeight = Math.max(maxWeight, weight);
+            } else {
+                unsampled++;
+            }
+        }
+        if (unsampled == availableCount) {
+            return AvailableInstances.get(instances, availableCount, ThreadLocalRandom.current().nextInt(availableCount));
+        }
+        
+        // 第二遍按相同的权重定位随机点落在哪个实例上，不为权重分配数组
+        double point = ThreadLocalRandom.current().nextDouble(sampledWeight + unsampled * maxWeight);
+        ServiceInstance last = null;
+        for (int i = 0; i < size; i++) {
+            ServiceInstance instance = instances.get(i);
+            if (instance.getStatus() != ServiceStatus.UP) {
+                continue;
+            }
+            ServiceInstanceStats instanceStats = stats.getStats(instance);
+            point -= instanceStats.hasResponseTime() ? weight(instanceStats) : maxWeight;
+            if (point < 0) {
+                return instance;
+            }
+            last = instance;
+        }
+        // 两遍之间统计发生变化时可能走到这里
+        return last != null ? last : AvailableInstances.get(instances, availableCount, 0);
+    }
+    
+    private static double weight(ServiceInstanceStats instanceStats) {
+        return 1.0 / (instanceStats.getEwmaResponseTimeNanos() + 1);
+    }
+    
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
@@ -1,19 +1,46 @@
 package com.kama.minispring.cloud.registry;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 基于内存的服务注册表实现
+ *
+ * <p>每个服务的实例保存为不可变的{@link ServiceSnapshot}，修改时按服务串行地生成新快照并整体替换，
+ * 查询只需读取一次当前快照，不复制也不过滤，也不会看到修改到一半的状态。
+ * 快照版本号取自注册表全局递增的序列，服务被清空后重新注册版本号也不会回退。
+ *
+ * <p>调用方可以注册{@link ServiceChangeListener}接收变化通知，
+ * 也可以通过{@link #watch}或{@link #awaitChange}按已知版本号等待下一次变化（长轮询）。
+ * 通知按服务串行发出，每次发布的都是当时的最新快照，监听器看到的版本号严格递增；
+ * 并发修改时中间版本可能被合并，不会在较新的版本之后再收到较旧的版本
  * 
  * @author kama
  * @version 1.0.0
  */
 public class InMemoryServiceRegistry implements ServiceRegistry {
     
-    private final ConcurrentMap<String, Map<String, ServiceInstance>> services;
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryServiceRegistry.class);
+    
+    private final ConcurrentMap<String, ServiceSnapshot> services;
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final ConcurrentMap<String, List<ServiceChangeListener>> listeners = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentNavigableMap<Long, CompletableFuture<ServiceSnapshot>>> pendingWatches =
+        new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PublishState> publishStates = new ConcurrentHashMap<>();
     
     public InMemoryServiceRegistry() {
         this.services = new ConcurrentHashMap<>();
@@ -21,42 +48,203 @@ public class InMemoryServiceRegistry implements ServiceRegistry {
     
     @Override
     public void register(String serviceName, String instanceId, URI uri, ServiceMetadata metadata) {
-        services.computeIfAbsent(serviceName, k -> new ConcurrentHashMap<>())
-            .put(instanceId, new ServiceInstance(serviceName, instanceId, uri, metadata));
+        ServiceInstance instance = new ServiceInstance(serviceName, instanceId, uri, metadata);
+        services.compute(serviceName, (name, current) ->
+            (current != null ? current : ServiceSnapshot.empty(name))
+                .withInstance(instance, versionSequence.incrementAndGet()));
+        publish(serviceName);
     }
     
     @Override
     public void deregister(String serviceName, String instanceId) {
-        Map<String, ServiceInstance> serviceInstances = services.get(serviceName);
-        if (serviceInstances != null) {
-            serviceInstances.remove(instanceId);
-            if (serviceInstances.isEmpty()) {
-                services.remove(serviceName);
+        boolean[] changed = new boolean[1];
+        services.computeIfPresent(serviceName, (name, current) -> {
+            if (current.getInstance(instanceId) == null) {
+                return current;
             }
+            // 清空后保留空快照，使等待中的观察者看到的版本号保持递增
+            changed[0] = true;
+            return current.withoutInstance(instanceId, versionSequence.incrementAndGet());
+        });
+        if (changed[0]) {
+            publish(serviceName);
         }
     }
     
     @Override
     public List<ServiceInstance> getInstances(String serviceName) {
-        Map<String, ServiceInstance> serviceInstances = services.get(serviceName);
-        if (serviceInstances == null) {
+        ServiceSnapshot snapshot = services.get(serviceName);
+        if (snapshot == null) {
             return Collections.emptyList();
         }
-        return new ArrayList<>(serviceInstances.values());
+        return snapshot.getInstances();
+    }
+    
+    /**
+     * 获取UP状态的服务实例
+     *
+     * @param serviceName 服务名称
+     * @return 不可修改的实例列表
+     */
+    public List<ServiceInstance> getUpInstances(String serviceName) {
+        ServiceSnapshot snapshot = services.get(serviceName);
+        if (snapshot == null) {
+            return Collections.emptyList();
+        }
+        return snapshot.getUpInstances();
+    }
+    
+    /**
+     * 获取服务的当前快照
+     *
+     * @param serviceName 服务名称
+     * @return 当前快照，服务从未注册过时返回版本为0的空快照
+     */
+    public ServiceSnapshot getSnapshot(String serviceName) {
+        ServiceSnapshot snapshot = services.get(serviceName);
+        return snapshot != null ? snapshot : ServiceSnapshot.empty(serviceName);
     }
     
     @Override
     public List<String> getServices() {
-        return new ArrayList<>(services.keySet());
+        List<String> names = new ArrayList<>();
+        for (ServiceSnapshot snapshot : services.values()) {
+            if (!snapshot.isEmpty()) {
+                names.add(snapshot.getServiceName());
+            }
+        }
+        return names;
     }
     
     @Override
     public void updateStatus(String serviceName, String instanceId, ServiceStatus status) {
-        Map<String, ServiceInstance> serviceInstances = services.get(serviceName);
-        if (serviceInstances != null) {
-            ServiceInstance instance = serviceInstances.get(instanceId);
-            if (instance != null) {
-                instance.setStatus(status);
+        boolean[] changed = new boolean[1];
+        services.computeIfPresent(serviceName, (name, current) -> {
+            ServiceInstance instance = current.getInstance(instanceId);
+            if (instance == null || instance.getStatus() == status) {
+                return current;
+            }
+            changed[0] = true;
+            return current.withInstance(instance.withStatus(status), versionSequence.incrementAndGet());
+        });
+        if (changed[0]) {
+            publish(serviceName);
+        }
+    }
+    
+    /**
+     * 添加服务变化监听器
+     *
+     * @param serviceName 服务名称
+     * @param listener 监听器
+     */
+    public void addServiceChangeListener(String serviceName, ServiceChangeListener listener) {
+        listeners.computeIfAbsent(serviceName, key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+    
+    /**
+     * 移除服务变化监听器
+     *
+     * @param serviceName 服务名称
+     * @param listener 监听器
+     */
+    public void removeServiceChangeListener(String serviceName, ServiceChangeListener listener) {
+        List<ServiceChangeListener> serviceListeners = listeners.get(serviceName);
+        if (serviceListeners != null) {
+            serviceListeners.remove(listener);
+        }
+    }
+    
+    /**
+     * 异步等待服务版本变化
+     *
+     * @param serviceName 服务名称
+     * @param knownVersion 调用方已知的版本号
+     * @return 当前版本与已知版本不同时立即完成，否则在下一次变化时以新快照完成
+     */
+    public CompletableFuture<ServiceSnapshot> watch(String serviceName, long knownVersion) {
+        CompletableFuture<ServiceSnapshot> future = changeFuture(serviceName, knownVersion);
+        // 返回副本，调用方取消或完成它不会影响其他观察者
+        return future.isDone() ? future : future.copy();
+    }
+    
+    /**
+     * 阻塞等待服务版本变化（长轮询）
+     *
+     * @param serviceName 服务名称
+     * @param knownVersion 调用方已知的版本号
+     * @param timeout 最长等待时间
+     * @param unit 时间单位
+     * @return 变化后的快照；超时时返回当前快照，其版本号仍等于knownVersion
+     * @throws InterruptedException 等待时被中断
+     */
+    public ServiceSnapshot awaitChange(String serviceName, long knownVersion, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        try {
+            // 直接等待共享的future，超时后不会在其上残留依赖
+            return changeFuture(serviceName, knownVersion).get(timeout, unit);
+        } catch (TimeoutException e) {
+            return getSnapshot(serviceName);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unexpected failure while watching service " + serviceName, e.getCause());
+        }
+    }
+    
+    /**
+     * 获取在版本变化时完成的future，已知版本相同的观察者共享同一个future
+     * 新快照生效后、发布之前，观察者可能已经读到新版本；按已知版本区分等待，
+     * 这样的观察者不会被该版本的发布唤醒
+     */
+    private CompletableFuture<ServiceSnapshot> changeFuture(String serviceName, long knownVersion) {
+        ServiceSnapshot current = getSnapshot(serviceName);
+        if (current.getVersion() != knownVersion) {
+            return CompletableFuture.completedFuture(current);
+        }
+        CompletableFuture<ServiceSnapshot> pending = pendingWatches
+            .computeIfAbsent(serviceName, key -> new ConcurrentSkipListMap<>())
+            .computeIfAbsent(knownVersion, key -> new CompletableFuture<>());
+        // 注册等待之后再检查一次，避免错过发生在两次读取之间的变化
+        current = getSnapshot(serviceName);
+        if (current.getVersion() != knownVersion) {
+            return CompletableFuture.completedFuture(current);
+        }
+        return pending;
+    }
+    
+    /**
+     * 新快照生效后唤醒等待者并通知监听器
+     * 同一服务的发布串行执行，总是发布当前的最新快照；已经发布过更新版本时直接返回
+     */
+    private void publish(String serviceName) {
+        PublishState state = publishStates.computeIfAbsent(serviceName, key -> new PublishState());
+        synchronized (state) {
+            ServiceSnapshot snapshot = getSnapshot(serviceName);
+            if (snapshot.getVersion() <= state.publishedVersion) {
+                return;
+            }
+            state.publishedVersion = snapshot.getVersion();
+            ConcurrentNavigableMap<Long, CompletableFuture<ServiceSnapshot>> watches = pendingWatches.get(serviceName);
+            if (watches != null) {
+                // 只唤醒已知版本早于当前快照的观察者
+                Map.Entry<Long, CompletableFuture<ServiceSnapshot>> pending;
+                while ((pending = watches.headMap(snapshot.getVersion()).pollFirstEntry()) != null) {
+                    pending.getValue().complete(snapshot);
+                }
+            }
+            List<ServiceChangeListener> serviceListeners = listeners.get(serviceName);
+            if (serviceListeners == null) {
+                return;
+            }
+            for (ServiceChangeListener listener : serviceListeners) {
+                // 监听器在回调中修改了同一服务时，更新的版本已经通知完毕，不再发送旧版本
+                if (state.publishedVersion != snapshot.getVersion()) {
+                    return;
+                }
+                try {
+                    listener.onServiceChanged(snapshot);
+                } catch (RuntimeException e) {
+                    logger.warn("Service change listener failed for service {}", serviceName, e);
+                }
             }
         }
     }
@@ -68,7 +256,16 @@ public class InMemoryServiceRegistry implements ServiceRegistry {
      */
     public int getInstanceCount() {
         return services.values().stream()
-            .mapToInt(Map::size)
+            .mapToInt(snapshot -> snapshot.getInstances().size())
             .sum();
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 服务的发布进度，同时作为串行发布的锁
+     */
+    private static final class PublishState {
+        
+        /** 已经发布给监听器的最新版本号 */
+        long publishedVersion;
+    }
+}
@@ -0,0 +1,19 @@
+package com.kama.minispring.cloud.registry;
+
+/**
+ * 服务实例变化监听器
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+@FunctionalInterface
+public interface ServiceChangeListener {
+    
+    /**
+     * 服务的实例发生变化时回调
+     * 在执行修改的线程上同步调用；并发修改时回调顺序可能与版本顺序不同，监听器应忽略版本号更小的快照
+     *
+     * @param snapshot 变化后的快照
+     */
+    void onServiceChanged(ServiceSnapshot snapshot);
+}
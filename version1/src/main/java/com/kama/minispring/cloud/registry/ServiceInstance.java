@@ -4,6 +4,7 @@ import java.net.URI;
 
 /**
  * 服务实例，表示一个服务的具体实例
+ * 实例是不可变的，快照之间可以安全地共享；状态变化时用{@link #withStatus}创建新的实例
  * 
  * @author kama
  * @version 1.0.0
@@ -13,14 +14,19 @@ public class ServiceInstance {
     private final String instanceId;
     private final URI uri;
     private final ServiceMetadata metadata;
-    private ServiceStatus status;
+    private final ServiceStatus status;
     
     public ServiceInstance(String serviceName, String instanceId, URI uri, ServiceMetadata metadata) {
+        this(serviceName, instanceId, uri, metadata, ServiceStatus.UP);
+    }
+    
+    public ServiceInstance(String serviceName, String instanceId, URI uri, ServiceMetadata metadata,
+                           ServiceStatus status) {
         this.serviceName = serviceName;
         this.instanceId = instanceId;
         this.uri = uri;
         this.metadata = metadata;
-        this.status = ServiceStatus.UP;
+        this.status = status;
     }
     
     public String getServiceName() {
@@ -43,8 +49,14 @@ public class ServiceInstance {
         return status;
     }
     
-    public void setStatus(ServiceStatus status) {
-        this.status = status;
+    /**
+     * 创建一个只有状态不同的副本
+     *
+     * @param status 新的状态
+     * @return 新的服务实例
+     */
+    public ServiceInstance withStatus(ServiceStatus status) {
+        return new ServiceInstance(serviceName, instanceId, uri, metadata, status);
     }
     
     @Override
@@ -0,0 +1,134 @@
+package com.kama.minispring.cloud.registry;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 一个服务在某个版本下的全部实例，不可变
+ * 同时保存预先过滤好的UP状态实例列表，每次查询直接返回，不再复制或过滤
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public final class ServiceSnapshot {
+    
+    private static final ServiceInstance[] NO_INSTANCES = new ServiceInstance[0];
+    
+    private final String serviceName;
+    private final long version;
+    private final ServiceInstance[] instanceArray;
+    private final List<ServiceInstance> instances;
+    private final List<ServiceInstance> upInstances;
+    
+    private ServiceSnapshot(String serviceName, long version, ServiceInstance[] instanceArray) {
+        this.serviceName = serviceName;
+        this.version = version;
+        this.instanceArray = instanceArray;
+        this.instances = Collections.unmodifiableList(Arrays.asList(instanceArray));
+        this.upInstances = Collections.unmodifiableList(Arrays.asList(Arrays.stream(instanceArray)
+            .filter(instance -> instance.getStatus() == ServiceStatus.UP)
+            .toArray(ServiceInstance[]::new)));
+    }
+    
+    /**
+     * 创建没有实例的快照
+     *
+     * @param serviceName 服务名称
+     * @return 版本为0的空快照
+     */
+    static ServiceSnapshot empty(String serviceName) {
+        return new ServiceSnapshot(serviceName, 0, NO_INSTANCES);
+    }
+    
+    /**
+     * 以新版本号创建加入或替换一个实例后的快照，实例ID相同时保留原来的位置
+     */
+    ServiceSnapshot withInstance(ServiceInstance instance, long newVersion) {
+        int index = indexOf(instance.getInstanceId());
+        ServiceInstance[] updated;
+        if (index >= 0) {
+            updated = instanceArray.clone();
+            updated[index] = instance;
+        } else {
+            updated = Arrays.copyOf(instanceArray, instanceArray.length + 1);
+            updated[instanceArray.length] = instance;
+        }
+        return new ServiceSnapshot(serviceName, newVersion, updated);
+    }
+    
+    /**
+     * 以新版本号创建移除一个实例后的快照，实例不存在时返回自身
+     */
+    ServiceSnapshot withoutInstance(String instanceId, long newVersion) {
+        int index = indexOf(instanceId);
+        if (index < 0) {
+            return this;
+        }
+        ServiceInstance[] updated = new ServiceInstance[instanceArray.length - 1];
+        System.arraycopy(instanceArray, 0, updated, 0, index);
+        System.arraycopy(instanceArray, index + 1, updated, index, updated.length - index);
+        return new ServiceSnapshot(serviceName, newVersion, updated);
+    }
+    
+    /**
+     * 按实例ID查找实例
+     *
+     * @param instanceId 实例ID
+     * @return 服务实例，不存在时返回null
+     */
+    public ServiceInstance getInstance(String instanceId) {
+        int index = indexOf(instanceId);
+        return index >= 0 ? instanceArray[index] : null;
+    }
+    
+    private int indexOf(String instanceId) {
+        for (int i = 0; i < instanceArray.length; i++) {
+            if (instanceArray[i].getInstanceId().equals(instanceId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    public String getServiceName() {
+        return serviceName;
+    }
+    
+    /**
+     * 获取快照版本，服务的实例每发生一次变化版本号增大一次
+     *
+     * @return 版本号
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    /**
+     * 获取全部实例
+     *
+     * @return 不可修改的实例列表
+     */
+    public List<ServiceInstance> getInstances() {
+        return instances;
+    }
+    
+    /**
+     * 获取UP状态的实例
+     *
+     * @return 不可修改的实例列表
+     */
+    public List<ServiceInstance> getUpInstances() {
+        return upInstances;
+    }
+    
+    public boolean isEmpty() {
+        return instanceArray.length == 0;
+    }
+    
+    @Override
+    public String toString() {
+        return "ServiceSnapshot{serviceName='" + serviceName + "', version=" + version
+            + ", instances=" + instanceArray.length + ", up=" + upInstances.size() + "}";
+    }
+}
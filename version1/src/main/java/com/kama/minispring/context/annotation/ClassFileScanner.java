@@ -0,0 +1,256 @@
+package com.kama.minispring.context.annotation;
+
+import com.kama.minispring.core.type.AnnotationMetadata;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.RecursiveTask;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 遍历一个类路径根（目录或jar包）中的class文件，返回其中的候选组件
+ *
+ * <p>结果按class文件相对于类路径根的名称排序，因此串行和并行两种方式得到的顺序相同。
+ * 并行方式必须在ForkJoinPool的工作线程中调用：目录按子目录拆分为子任务，
+ * jar包中的条目按固定大小分批，每个子任务各自读取和解析class文件
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+final class ClassFileScanner {
+
+    private static final String CLASS_FILE_SUFFIX = ".class";
+
+    /** 每个子任务处理的jar条目数 */
+    private static final int JAR_BATCH_SIZE = 64;
+
+    /**
+     * 读取单个class文件，不是候选组件时返回null
+     */
+    @FunctionalInterface
+    interface CandidateReader {
+
+        AnnotationMetadata read(InputStream inputStream, String location);
+    }
+
+    private final CandidateReader candidateReader;
+
+    private final boolean parallel;
+
+    /**
+     * @param candidateReader 读取class文件并判断是否是候选组件，并行时会在多个线程上同时调用
+     * @param parallel 是否拆分为fork-join任务
+     */
+    ClassFileScanner(CandidateReader candidateReader, boolean parallel) {
+        this.candidateReader = candidateReader;
+        this.parallel = parallel;
+    }
+
+    /**
+     * 扫描目录下（包括子目录）的class文件
+     *
+     * @param root 包对应的目录
+     * @return 候选组件的元数据
+     */
+    List<AnnotationMetadata> scanDirectory(Path root) throws IOException {
+        List<Candidate> found;
+        if (this.parallel) {
+            try {
+                found = new DirectoryTask(root, root).invoke();
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        } else {
+            found = new ArrayList<>();
+            try (Stream<Path> paths = Files.walk(root)) {
+                for (Path classFile : paths.filter(ClassFileScanner::isClassFile).collect(Collectors.toList())) {
+                    Candidate candidate = read(root, classFile);
+                    if (candidate != null) {
+                        found.add(candidate);
+                    }
+                }
+            }
+        }
+        found.sort(Comparator.comparing(candidate -> candidate.name));
+        List<AnnotationMetadata> result = new ArrayList<>(found.size());
+        for (Candidate candidate : found) {
+            result.add(candidate.metadata);
+        }
+        return result;
+    }
+
+    /**
+     * 扫描jar包中指定包下的class文件
+     *
+     * @param resource 包对应的jar资源
+     * @param packageSearchPath 包路径，以'/'分隔
+     * @return 候选组件的元数据
+     */
+    List<AnnotationMetadata> scanJar(URL resource, String packageSearchPath) throws IOException {
+        JarURLConnection connection = (JarURLConnection) resource.openConnection();
+        // 不使用缓存的JarFile，扫描结束后关闭
+        connection.setUseCaches(false);
+        try (JarFile jarFile = connection.getJarFile()) {
+            String prefix = packageSearchPath + "/";
+            List<JarEntry> classEntries = new ArrayList<>();
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (entry.getName().startsWith(prefix) && isClassFile(entry.getName())) {
+                    classEntries.add(entry);
+                }
+            }
+            classEntries.sort(Comparator.comparing(JarEntry::getName));
+
+            AnnotationMetadata[] found = new AnnotationMetadata[classEntries.size()];
+            if (this.parallel) {
+                try {
+                    new JarEntryTask(jarFile, classEntries, found, 0, found.length).invoke();
+                } catch (UncheckedIOException ex) {
+                    throw ex.getCause();
+                }
+            } else {
+                for (int i = 0; i < found.length; i++) {
+                    found[i] = read(jarFile, classEntries.get(i));
+                }
+            }
+            return Arrays.stream(found).filter(Objects::nonNull).collect(Collectors.toList());
+        }
+    }
+
+    private Candidate read(Path root, Path classFile) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(classFile)) {
+            AnnotationMetadata metadata = this.candidateReader.read(inputStream, classFile.toString());
+            return metadata != null ? new Candidate(root.relativize(classFile).toString(), metadata) : null;
+        }
+    }
+
+    private AnnotationMetadata read(JarFile jarFile, JarEntry entry) throws IOException {
+        try (InputStream inputStream = jarFile.getInputStream(entry)) {
+            return this.candidateReader.read(inputStream, entry.getName());
+        }
+    }
+
+    private static boolean isClassFile(Path path) {
+        return Files.isRegularFile(path) && isClassFile(path.getFileName().toString());
+    }
+
+    static boolean isClassFile(String fileName) {
+        return fileName.endsWith(CLASS_FILE_SUFFIX) && !fileName.endsWith("package-info.class")
+                && !fileName.endsWith("module-info.class");
+    }
+
+    /**
+     * 候选组件及其相对于类路径根的名称，用于排序
+     */
+    private static final class Candidate {
+
+        final String name;
+
+        final AnnotationMetadata metadata;
+
+        Candidate(String name, AnnotationMetadata metadata) {
+            this.name = name;
+            this.metadata = metadata;
+        }
+    }
+
+    /**
+     * 处理一个目录：子目录拆分为子任务，当前目录下的文件在本任务中读取
+     */
+    private final class DirectoryTask extends RecursiveTask<List<Candidate>> {
+
+        private final Path root;
+
+        private final Path dir;
+
+        DirectoryTask(Path root, Path dir) {
+            this.root = root;
+            this.dir = dir;
+        }
+
+        @Override
+        protected List<Candidate> compute() {
+            List<DirectoryTask> subTasks = new ArrayList<>();
+            List<Candidate> found = new ArrayList<>();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(this.dir)) {
+                for (Path child : children) {
+                    if (Files.isDirectory(child)) {
+                        DirectoryTask subTask = new DirectoryTask(this.root, child);
+                        subTask.fork();
+                        subTasks.add(subTask);
+                    } else if (isClassFile(child.getFileName().toString())) {
+                        Candidate candidate = read(this.root, child);
+                        if (candidate != null) {
+                            found.add(candidate);
+                        }
+                    }
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            for (DirectoryTask subTask : subTasks) {
+                found.addAll(subTask.join());
+            }
+            return found;
+        }
+    }
+
+    /**
+     * 处理jar条目的一个区间，超过批大小时对半拆分
+     */
+    private final class JarEntryTask extends RecursiveTask<Void> {
+
+        private final JarFile jarFile;
+
+        private final List<JarEntry> entries;
+
+        private final AnnotationMetadata[] found;
+
+        private final int from;
+
+        private final int to;
+
+        JarEntryTask(JarFile jarFile, List<JarEntry> entries, AnnotationMetadata[] found, int from, int to) {
+            this.jarFile = jarFile;
+            this.entries = entries;
+            this.found = found;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Void compute() {
+            if (this.to - this.from > JAR_BATCH_SIZE) {
+                int middle = (this.from + this.to) >>> 1;
+                invokeAll(new JarEntryTask(this.jarFile, this.entries, this.found, this.from, middle),
+                        new JarEntryTask(this.jarFile, this.entries, this.found, middle, this.to));
+                return null;
+            }
+            try {
+                for (int i = this.from; i < this.to; i++) {
+                    // 每个位置只由一个任务写入，join之后对调用方可见
+                    this.found[i] = read(this.jarFile, this.entries.get(i));
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return null;
+        }
+    }
+}
@@ -3,30 +3,100 @@ package com.kama.minispring.context.annotation;
 import com.kama.minispring.beans.factory.config.BeanDefinition;
 import com.kama.minispring.beans.factory.support.BeanDefinitionRegistry;
 import com.kama.minispring.beans.factory.support.GenericBeanDefinition;
+import com.kama.minispring.context.index.CandidateComponentsIndex;
+import com.kama.minispring.context.index.CandidateComponentsIndexLoader;
+import com.kama.minispring.core.type.AnnotationMetadata;
+import com.kama.minispring.core.type.classreading.MetadataReaderFactory;
+import com.kama.minispring.core.type.filter.AnnotationTypeFilter;
 import com.kama.minispring.core.type.filter.TypeFilter;
-import com.kama.minispring.core.type.SimpleAnnotationMetadata;
+import com.kama.minispring.stereotype.Indexed;
 import com.kama.minispring.util.ClassUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * 类路径Bean定义扫描器
  * 用于扫描指定包路径下的类，并将符合条件的类注册为Bean定义
  *
+ * <p>支持目录和jar包中的类。扫描时直接解析class文件，不符合条件的类不会被加载。
+ * 类路径上存在编译时生成的组件索引（META-INF/minispring.components）且包含过滤器都是
+ * {@link Indexed}注解的{@link AnnotationTypeFilter}时，直接从索引中读取候选组件。
+ * 此时没有生成索引的类路径根不会被扫描，索引处理器需要在所有组件所在的模块中启用
+ *
  * @author kama
  * @version 1.0.0
  */
 public class ClassPathBeanDefinitionScanner {
     
+    private static final Logger logger = LoggerFactory.getLogger(ClassPathBeanDefinitionScanner.class);
+    
     private final BeanDefinitionRegistry registry;
+    private final ClassLoader classLoader;
+    private final MetadataReaderFactory metadataReaderFactory;
+    private final CandidateComponentsIndex componentsIndex;
+    private volatile boolean parallelScan = false;
+    private volatile int scanParallelism = Runtime.getRuntime().availableProcessors();
     private final Set<TypeFilter> includeFilters = new LinkedHashSet<>();
     private final Set<TypeFilter> excludeFilters = new LinkedHashSet<>();
     
     public ClassPathBeanDefinitionScanner(BeanDefinitionRegistry registry) {
+        this(registry, ClassUtils.getDefaultClassLoader());
+    }
+    
+    /**
+     * 创建扫描器
+     *
+     * @param registry Bean定义注册表
+     * @param classLoader 用于查找class文件和加载候选组件的类加载器
+     */
+    public ClassPathBeanDefinitionScanner(BeanDefinitionRegistry registry, ClassLoader classLoader) {
         this.registry = registry;
+        this.classLoader = classLoader;
+        this.metadataReaderFactory = new MetadataReaderFactory(classLoader);
+        this.componentsIndex = CandidateComponentsIndexLoader.loadIndex(classLoader);
+    }
+    
+    /**
+     * 设置是否并行扫描类路径
+     * 开启后所有包的目录和jar包拆分为fork-join任务并行解析，
+     * 候选组件的注册顺序与串行扫描相同；过滤器会在多个线程上同时调用，必须是线程安全的
+     *
+     * @param parallelScan 是否并行
+     */
+    public void setParallelScan(boolean parallelScan) {
+        this.parallelScan = parallelScan;
+    }
+    
+    public boolean isParallelScan() {
+        return parallelScan;
+    }
+    
+    /**
+     * 设置并行扫描的并行度，默认为CPU核数
+     *
+     * @param scanParallelism 并行度，小于等于1时退化为串行
+     */
+    public void setScanParallelism(int scanParallelism) {
+        this.scanParallelism = scanParallelism;
+    }
+    
+    public int getScanParallelism() {
+        return scanParallelism;
     }
     
     /**
@@ -67,8 +137,7 @@ public class ClassPathBeanDefinitionScanner {
      * @param basePackages 包路径数组
      */
     protected void doScan(String... basePackages) {
-        for (String basePackage : basePackages) {
-            Set<BeanDefinition> candidates = findCandidateComponents(basePackage);
+        for (Set<BeanDefinition> candidates : findCandidateComponents(basePackages)) {
             for (BeanDefinition candidate : candidates) {
                 String beanName = generateBeanName(candidate);
                 registry.registerBeanDefinition(beanName, candidate);
@@ -78,101 +147,179 @@ public class ClassPathBeanDefinitionScanner {
     
     /**
      * 查找候选组件
+     * 有可用的组件索引时从索引读取，否则扫描类路径
      *
-     * @param basePackage 包路径
-     * @return 候选Bean定义集合
+     * @param basePackages 包路径数组
+     * @return 每个包的候选Bean定义集合，与basePackages一一对应
+     */
+    private List<Set<BeanDefinition>> findCandidateComponents(String... basePackages) {
+        if (componentsIndex != null && indexSupportsIncludeFilters()) {
+            List<Set<BeanDefinition>> candidates = new ArrayList<>(basePackages.length);
+            for (String basePackage : basePackages) {
+                candidates.add(addCandidateComponentsFromIndex(basePackage));
+            }
+            return candidates;
+        }
+        return scanCandidateComponents(basePackages);
+    }
+    
+    /**
+     * 索引中只记录了带有{@link Indexed}注解的类，其他过滤条件无法通过索引判断
      */
-    private Set<BeanDefinition> findCandidateComponents(String basePackage) {
+    private boolean indexSupportsIncludeFilters() {
+        if (includeFilters.isEmpty()) {
+            return false;
+        }
+        for (TypeFilter includeFilter : includeFilters) {
+            if (!(includeFilter instanceof AnnotationTypeFilter)
+                    || !((AnnotationTypeFilter) includeFilter).getAnnotationType().isAnnotationPresent(Indexed.class)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private Set<BeanDefinition> addCandidateComponentsFromIndex(String basePackage) {
+        Set<String> types = new TreeSet<>();
+        for (TypeFilter includeFilter : includeFilters) {
+            String stereotype = ((AnnotationTypeFilter) includeFilter).getAnnotationType().getName();
+            types.addAll(componentsIndex.getCandidateTypes(basePackage, stereotype));
+        }
         Set<BeanDefinition> candidates = new LinkedHashSet<>();
-        try {
-            String packageSearchPath = basePackage.replace('.', '/');
-            ClassLoader cl = ClassUtils.getDefaultClassLoader();
-            
-            // 尝试从测试类路径加载
-            URL testResource = cl.getResource(packageSearchPath);
-            if (testResource != null) {
-                File testDir = new File(testResource.getFile());
-                if (testDir.exists() && testDir.isDirectory()) {
-                    scanDirectory(testDir, basePackage, candidates);
-                }
+        for (String type : types) {
+            // 仍然读取class文件，排除过滤器和候选条件需要完整的元数据
+            AnnotationMetadata metadata;
+            try {
+                metadata = metadataReaderFactory.getMetadata(type);
+            } catch (IOException ex) {
+                logger.warn("Indexed component '{}' could not be read, the component index may be stale", type, ex);
+                continue;
             }
-            
-            // 如果没有找到，尝试从target/test-classes加载
-            if (candidates.isEmpty()) {
-                URL targetTestResource = cl.getResource("target/test-classes/" + packageSearchPath);
-                if (targetTestResource != null) {
-                    File targetTestDir = new File(targetTestResource.getFile());
-                    if (targetTestDir.exists() && targetTestDir.isDirectory()) {
-                        scanDirectory(targetTestDir, basePackage, candidates);
-                    }
-                }
+            if (isCandidateComponent(metadata)) {
+                addCandidate(metadata, candidates);
             }
-            
-            // 如果还没有找到，尝试直接加载类
-            if (candidates.isEmpty()) {
-                try {
-                    Class<?> clazz = Class.forName(basePackage + ".TestService");
-                    if (isCandidateComponent(clazz)) {
-                        GenericBeanDefinition beanDefinition = new GenericBeanDefinition();
-                        beanDefinition.setBeanClass(clazz);
-                        candidates.add(beanDefinition);
-                    }
-                } catch (ClassNotFoundException ignored) {
-                    // 忽略类未找到的异常
+        }
+        return candidates;
+    }
+    
+    /**
+     * 扫描类路径查找各个包的候选组件
+     * 先解析class文件筛选候选组件，只有符合条件的类才会被加载（不初始化）。
+     * 并行扫描时所有包的所有类路径根同时处理，结果仍按包、类路径根和文件名的顺序合并
+     *
+     * @param basePackages 包路径数组
+     * @return 每个包的候选Bean定义集合，与basePackages一一对应
+     */
+    private List<Set<BeanDefinition>> scanCandidateComponents(String... basePackages) {
+        List<ScanRoot> roots = new ArrayList<>();
+        for (int i = 0; i < basePackages.length; i++) {
+            String basePackage = basePackages[i];
+            try {
+                Enumeration<URL> resources = classLoader.getResources(basePackage.replace('.', '/'));
+                while (resources.hasMoreElements()) {
+                    roots.add(new ScanRoot(i, basePackage, resources.nextElement()));
                 }
+            } catch (IOException ex) {
+                logger.error("Error scanning package: " + basePackage, ex);
+            }
+        }
+
+        boolean parallel = parallelScan && scanParallelism > 1 && !roots.isEmpty();
+        ClassFileScanner classFileScanner = new ClassFileScanner(this::readCandidate, parallel);
+        List<List<AnnotationMetadata>> found;
+        if (parallel) {
+            List<ForkJoinTask<List<AnnotationMetadata>>> tasks = new ArrayList<>(roots.size());
+            for (ScanRoot root : roots) {
+                tasks.add(ForkJoinTask.adapt(() -> scanRoot(classFileScanner, root)));
+            }
+            ForkJoinPool pool = new ForkJoinPool(scanParallelism);
+            try {
+                pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+            } finally {
+                pool.shutdown();
+            }
+            found = new ArrayList<>(tasks.size());
+            for (ForkJoinTask<List<AnnotationMetadata>> task : tasks) {
+                found.add(task.join());
+            }
+        } else {
+            found = new ArrayList<>(roots.size());
+            for (ScanRoot root : roots) {
+                found.add(scanRoot(classFileScanner, root));
+            }
+        }
+
+        // 按包的顺序合并，候选类的加载在当前线程上进行
+        List<Set<BeanDefinition>> candidates = new ArrayList<>(basePackages.length);
+        for (int i = 0; i < basePackages.length; i++) {
+            candidates.add(new LinkedHashSet<>());
+        }
+        for (int i = 0; i < roots.size(); i++) {
+            Set<BeanDefinition> packageCandidates = candidates.get(roots.get(i).packageIndex);
+            for (AnnotationMetadata metadata : found.get(i)) {
+                addCandidate(metadata, packageCandidates);
             }
-        } catch (Exception ex) {
-            // Log error but continue
-            System.err.println("Error scanning package: " + basePackage + " - " + ex.getMessage());
-            ex.printStackTrace(); // 添加更详细的错误信息
         }
         return candidates;
     }
     
-    private void scanDirectory(File dir, String packageName, Set<BeanDefinition> candidates) {
-        File[] files = dir.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    scanDirectory(file, packageName + "." + file.getName(), candidates);
-                } else if (file.getName().endsWith(".class")) {
-                    String className = packageName + "." + 
-                        file.getName().substring(0, file.getName().length() - 6);
-                    try {
-                        Class<?> clazz = Class.forName(className);
-                        if (isCandidateComponent(clazz)) {
-                            GenericBeanDefinition beanDefinition = new GenericBeanDefinition();
-                            beanDefinition.setBeanClass(clazz);
-                            candidates.add(beanDefinition);
-                        }
-                    } catch (ClassNotFoundException e) {
-                        // Skip if class cannot be loaded
-                        System.err.println("Could not load class: " + className);
-                    }
-                }
+    private List<AnnotationMetadata> scanRoot(ClassFileScanner classFileScanner, ScanRoot root) {
+        URL resource = root.resource;
+        try {
+            if ("file".equals(resource.getProtocol())) {
+                return classFileScanner.scanDirectory(Paths.get(resource.toURI()));
+            } else if ("jar".equals(resource.getProtocol())) {
+                return classFileScanner.scanJar(resource, root.basePackage.replace('.', '/'));
             }
+            logger.warn("Unsupported classpath resource for package '{}': {}", root.basePackage, resource);
+        } catch (IOException | URISyntaxException ex) {
+            logger.error("Error scanning package: " + root.basePackage + " in " + resource, ex);
+        }
+        return Collections.emptyList();
+    }
+    
+    /**
+     * 读取class文件并判断是否是候选组件，并行扫描时在多个线程上调用
+     */
+    private AnnotationMetadata readCandidate(InputStream inputStream, String location) {
+        AnnotationMetadata metadata;
+        try {
+            metadata = metadataReaderFactory.getMetadata(inputStream);
+        } catch (IOException ex) {
+            logger.warn("Could not read class file: {}", location, ex);
+            return null;
+        }
+        return isCandidateComponent(metadata) ? metadata : null;
+    }
+    
+    private void addCandidate(AnnotationMetadata metadata, Set<BeanDefinition> candidates) {
+        try {
+            Class<?> clazz = Class.forName(metadata.getClassName(), false, classLoader);
+            candidates.add(new GenericBeanDefinition(clazz));
+        } catch (ClassNotFoundException | LinkageError ex) {
+            logger.warn("Could not load class: {}", metadata.getClassName(), ex);
         }
     }
     
     /**
      * 判断是否是候选组件
      *
-     * @param clazz 类
+     * @param metadata 从class文件解析出的元数据
      * @return 如果是候选组件返回true，否则返回false
      */
-    protected boolean isCandidateComponent(Class<?> clazz) {
-        if (clazz.isInterface() || clazz.isAnnotation() || clazz.isEnum()) {
+    protected boolean isCandidateComponent(AnnotationMetadata metadata) {
+        if (metadata.isInterface() || metadata.isAnnotation() || metadata.isEnum()) {
             return false;
         }
         
         for (TypeFilter excludeFilter : excludeFilters) {
-            if (excludeFilter.match(new SimpleAnnotationMetadata(clazz))) {
+            if (excludeFilter.match(metadata)) {
                 return false;
             }
         }
         
         for (TypeFilter includeFilter : includeFilters) {
-            if (includeFilter.match(new SimpleAnnotationMetadata(clazz))) {
+            if (includeFilter.match(metadata)) {
                 return true;
             }
         }
@@ -190,4 +337,22 @@ public class ClassPathBeanDefinitionScanner {
         String shortClassName = ClassUtils.getShortName(beanDefinition.getBeanClass().getName());
         return Character.toLowerCase(shortClassName.charAt(0)) + shortClassName.substring(1);
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 一个包在类路径上的一个位置
+     */
+    private static final class ScanRoot {
+        
+        final int packageIndex;
+        
+        final String basePackage;
+        
+        final URL resource;
+        
+        ScanRoot(int packageIndex, String basePackage, URL resource) {
+            this.packageIndex = packageIndex;
+            this.basePackage = basePackage;
+            this.resource = resource;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.kama.minispring.context.event;
+
+import com.kama.minispring.context.ApplicationEvent;
+import com.kama.minispring.context.ApplicationListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * 事件多播器的运行指标
+ * 按事件类型统计发布次数，按监听器统计调用耗时分布和慢调用次数，异步多播器还会报告排队的事件数
+ *
+ * <p>通过{@link SimpleApplicationEventMulticaster#setEventMetrics}启用，未设置时多播器不做任何统计。
+ * 所有计数只增不减，发布速率由采集方按两次读取的差值计算
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class ApplicationEventMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationEventMetrics.class);
+
+    private final Map<Class<?>, LongAdder> publishCounts = new ConcurrentHashMap<>(64);
+
+    private final Map<String, ListenerMetrics> listenerMetrics = new ConcurrentHashMap<>(64);
+
+    /** 慢调用阈值，单位纳秒，0表示不检测 */
+    private volatile long slowListenerThresholdNanos;
+
+    private volatile IntSupplier queueDepthSupplier;
+
+    /**
+     * 设置慢监听器阈值，单次调用耗时超过阈值时记录警告日志
+     *
+     * @param threshold 阈值，0表示不检测
+     * @param unit 时间单位
+     */
+    public void setSlowListenerThreshold(long threshold, TimeUnit unit) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Slow listener threshold must not be negative");
+        }
+        this.slowListenerThresholdNanos = unit.toNanos(threshold);
+    }
+
+    /**
+     * 获取慢监听器阈值
+     *
+     * @return 阈值，单位纳秒
+     */
+    public long getSlowListenerThresholdNanos() {
+        return this.slowListenerThresholdNanos;
+    }
+
+    /**
+     * 记录一次事件发布
+     *
+     * @param event 发布的事件
+     */
+    public void recordPublish(ApplicationEvent event) {
+        this.publishCounts.computeIfAbsent(event.getClass(), key -> new LongAdder()).increment();
+    }
+
+    /**
+     * 记录一次监听器调用
+     *
+     * @param listener 被调用的监听器
+     * @param event 处理的事件，批量调用时为批次中的第一个事件
+     * @param elapsedNanos 调用耗时，单位纳秒
+     */
+    public void recordInvocation(ApplicationListener<?> listener, ApplicationEvent event, long elapsedNanos) {
+        String listenerName = getListenerName(listener);
+        ListenerMetrics metrics = this.listenerMetrics.get(listenerName);
+        if (metrics == null) {
+            metrics = this.listenerMetrics.computeIfAbsent(listenerName, key -> new ListenerMetrics());
+        }
+        metrics.latency.record(elapsedNanos);
+        long threshold = this.slowListenerThresholdNanos;
+        if (threshold > 0 && elapsedNanos > threshold) {
+            metrics.slowInvocations.increment();
+            logger.warn("Slow application listener [{}] took {}ms to handle {} (threshold {}ms)", listenerName,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), event.getClass().getName(),
+                    TimeUnit.NANOSECONDS.toMillis(threshold));
+        }
+    }
+
+    /**
+     * 获取各事件类型的发布次数
+     *
+     * @return 事件类名到发布次数的映射，按类名排序
+     */
+    public Map<String, Long> getPublishCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<Class<?>, LongAdder> entry : this.publishCounts.entrySet()) {
+            counts.put(entry.getKey().getName(), entry.getValue().sum());
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * 获取指定事件类型的发布次数
+     *
+     * @param eventType 事件类型
+     * @return 发布次数
+     */
+    public long getPublishCount(Class<? extends ApplicationEvent> eventType) {
+        LongAdder count = this.publishCounts.get(eventType);
+        return count != null ? count.sum() : 0;
+    }
+
+    /**
+     * 获取各监听器的调用耗时分布
+     *
+     * @return 监听器名称到耗时直方图的映射，按名称排序；直方图是实时的，不是快照
+     */
+    public Map<String, LatencyHistogram> getListenerLatencies() {
+        Map<String, LatencyHistogram> latencies = new TreeMap<>();
+        for (Map.Entry<String, ListenerMetrics> entry : this.listenerMetrics.entrySet()) {
+            latencies.put(entry.getKey(), entry.getValue().latency);
+        }
+        return Collections.unmodifiableMap(latencies);
+    }
+
+    /**
+     * 获取指定监听器的调用耗时分布
+     *
+     * @param listenerName 监听器名称，见{@link #getListenerName}
+     * @return 耗时直方图，没有调用记录时返回null
+     */
+    public LatencyHistogram getListenerLatency(String listenerName) {
+        ListenerMetrics metrics = this.listenerMetrics.get(listenerName);
+        return metrics != null ? metrics.latency : null;
+    }
+
+    /**
+     * 获取指定监听器超过慢调用阈值的次数
+     *
+     * @param listenerName 监听器名称
+     * @return 慢调用次数
+     */
+    public long getSlowInvocationCount(String listenerName) {
+        ListenerMetrics metrics = this.listenerMetrics.get(listenerName);
+        return metrics != null ? metrics.slowInvocations.sum() : 0;
+    }
+
+    /**
+     * 获取异步多播器中排队等待分发的事件数
+     *
+     * @return 排队的事件数，同步多播器始终返回0
+     */
+    public int getQueueDepth() {
+        IntSupplier supplier = this.queueDepthSupplier;
+        return supplier != null ? supplier.getAsInt() : 0;
+    }
+
+    /**
+     * 绑定排队事件数的来源，由异步多播器调用
+     */
+    void bindQueueDepth(IntSupplier queueDepthSupplier) {
+        this.queueDepthSupplier = queueDepthSupplier;
+    }
+
+    /**
+     * 获取监听器在指标中的名称
+     * 普通监听器使用类名，同一个类的多个实例合并统计；适配器使用目标类名和方法名
+     *
+     * @param listener 监听器
+     * @return 监听器名称
+     */
+    public static String getListenerName(ApplicationListener<?> listener) {
+        if (listener instanceof ApplicationListenerAdapter) {
+            ApplicationListenerAdapter adapter = (ApplicationListenerAdapter) listener;
+            return adapter.getTarget().getClass().getName() + "#" + adapter.getMethod().getName();
+        }
+        return listener.getClass().getName();
+    }
+
+    /**
+     * 单个监听器的指标
+     */
+    private static final class ListenerMetrics {
+
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        final LongAdder slowInvocations = new LongAdder();
+    }
+}
@@ -2,6 +2,7 @@ package com.kama.minispring.context.event;
 
 import com.kama.minispring.context.ApplicationEvent;
 import com.kama.minispring.context.ApplicationListener;
+import com.kama.minispring.core.invoke.Invokers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,7 +41,7 @@ public class ApplicationListenerAdapter implements ApplicationListener<Applicati
     public void onApplicationEvent(ApplicationEvent event) {
         if (eventType.isInstance(event)) {
             try {
-                method.invoke(target, event);
+                Invokers.invoke(method, target, event);
             } catch (Exception ex) {
                 logger.error("Failed to invoke event listener method: " + method, ex);
             }
@@ -0,0 +1,458 @@
+package com.kama.minispring.context.event;
+
+import com.kama.minispring.beans.factory.DisposableBean;
+import com.kama.minispring.context.ApplicationEvent;
+import com.kama.minispring.context.ApplicationListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * 基于有界分区队列的异步事件多播器
+ *
+ * <p>事件按分区键的哈希分配到固定数量的分区，每个分区是一个定长的环形队列（{@link ArrayBlockingQueue}），
+ * 由一个专属线程按入队顺序分发，因此分区键相同的事件对每个监听器都保持发布顺序。
+ * 队列已满时按{@link OverflowPolicy}处理，任何情况下排队的事件数都不会超过分区数乘以队列容量。
+ *
+ * <p>分发线程每次取出当前已排队的事件（最多{@link #setMaxBatchSize maxBatchSize}个），
+ * 普通监听器逐个调用，{@link BatchApplicationListener}则对这一批中匹配的事件只调用一次。
+ * 该多播器不使用{@link #setTaskExecutor}设置的执行器
+ *
+ * <p>分发线程在第一次发布事件或调用{@link #start()}时才启动。{@link #destroy()}先等待正在发布的线程完成入队，
+ * 再向每个分区放入结束标记，超过{@link #setShutdownTimeout 关闭超时}仍未结束的分发线程会被中断
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class AsyncApplicationEventMulticaster extends SimpleApplicationEventMulticaster implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncApplicationEventMulticaster.class);
+
+    /** 通知分发线程退出的标记事件 */
+    private static final ApplicationEvent SHUTDOWN = new ApplicationEvent(AsyncApplicationEventMulticaster.class) {
+    };
+
+    /** BLOCK策略下等待队列空位时检查是否已强制关闭的间隔 */
+    private static final long BLOCK_POLL_MILLIS = 100;
+
+    /**
+     * 分区队列已满时的处理策略
+     */
+    public enum OverflowPolicy {
+
+        /** 阻塞发布线程，直到队列有空位 */
+        BLOCK,
+
+        /** 丢弃分区中最早排队的事件，再放入新事件 */
+        DROP_OLDEST,
+
+        /** 在发布线程上直接同步分发新事件，此时该事件不再与同一分区中排队的事件保持顺序 */
+        CALLER_RUNS
+    }
+
+    private final Partition[] partitions;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /** 发布事件时持有读锁，关闭时获取写锁，保证关闭后不会再有事件排在结束标记之后 */
+    private final ReentrantReadWriteLock publishLock = new ReentrantReadWriteLock();
+
+    private volatile boolean started;
+
+    /** 关闭超时后强制结束，此后阻塞等待入队的发布线程直接丢弃事件 */
+    private volatile boolean terminated;
+
+    private volatile long shutdownTimeoutMillis = 10_000;
+
+    private final LongAdder droppedEvents = new LongAdder();
+
+    private final LongAdder callerRunsEvents = new LongAdder();
+
+    private volatile Function<ApplicationEvent, Object> partitionKeyResolver = ApplicationEvent::getSource;
+
+    private volatile int maxBatchSize = 64;
+
+    /**
+     * 使用与CPU核数相同的分区数、每个分区1024的容量和阻塞策略创建多播器
+     */
+    public AsyncApplicationEventMulticaster() {
+        this(Runtime.getRuntime().availableProcessors(), 1024, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * 创建多播器，分发线程在第一次发布事件时启动
+     *
+     * @param partitionCount 分区数
+     * @param queueCapacity 每个分区的队列容量
+     * @param overflowPolicy 队列已满时的处理策略
+     */
+    public AsyncApplicationEventMulticaster(int partitionCount, int queueCapacity, OverflowPolicy overflowPolicy) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("Partition count must be at least 1");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1");
+        }
+        if (overflowPolicy == null) {
+            throw new IllegalArgumentException("OverflowPolicy must not be null");
+        }
+        this.overflowPolicy = overflowPolicy;
+        this.partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            this.partitions[i] = new Partition(i, queueCapacity);
+        }
+    }
+
+    /**
+     * 启动各分区的分发线程，未调用时在第一次发布事件时启动
+     */
+    public void start() {
+        Lock lock = this.publishLock.readLock();
+        lock.lock();
+        try {
+            if (this.closed.get()) {
+                throw new IllegalStateException("AsyncApplicationEventMulticaster has been closed");
+            }
+            startIfNecessary();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 分发线程是否已经启动
+     *
+     * @return 已启动时返回true
+     */
+    public boolean isStarted() {
+        return this.started;
+    }
+
+    private void startIfNecessary() {
+        if (!this.started) {
+            synchronized (this.partitions) {
+                if (!this.started) {
+                    for (Partition partition : this.partitions) {
+                        partition.thread.start();
+                    }
+                    this.started = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * 设置分区键的解析方式，分区键相同的事件按发布顺序分发，默认使用事件源
+     *
+     * @param partitionKeyResolver 从事件中取出分区键，返回null的事件都分配到第一个分区
+     */
+    public void setPartitionKeyResolver(Function<ApplicationEvent, Object> partitionKeyResolver) {
+        if (partitionKeyResolver == null) {
+            throw new IllegalArgumentException("Partition key resolver must not be null");
+        }
+        this.partitionKeyResolver = partitionKeyResolver;
+    }
+
+    /**
+     * 设置分发线程每次最多取出的事件数，也是批量监听器一次收到的最大事件数
+     *
+     * @param maxBatchSize 最大批次大小，设为1时关闭批量分发
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Max batch size must be at least 1");
+        }
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * 获取最大批次大小
+     *
+     * @return 最大批次大小
+     */
+    public int getMaxBatchSize() {
+        return this.maxBatchSize;
+    }
+
+    /**
+     * 设置关闭时等待分发线程处理完剩余事件的最长时间，超时后中断分发线程
+     *
+     * @param shutdownTimeoutMillis 超时时间（毫秒）
+     */
+    public void setShutdownTimeout(long shutdownTimeoutMillis) {
+        if (shutdownTimeoutMillis < 0) {
+            throw new IllegalArgumentException("Shutdown timeout must not be negative");
+        }
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+    }
+
+    /**
+     * 获取队列已满时的处理策略
+     *
+     * @return 处理策略
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return this.overflowPolicy;
+    }
+
+    /**
+     * 获取因队列已满或阻塞时被中断而丢弃的事件数
+     *
+     * @return 丢弃的事件数
+     */
+    public long getDroppedEventCount() {
+        return this.droppedEvents.sum();
+    }
+
+    /**
+     * 获取因队列已满而在发布线程上同步分发的事件数
+     *
+     * @return 同步分发的事件数
+     */
+    public long getCallerRunsEventCount() {
+        return this.callerRunsEvents.sum();
+    }
+
+    /**
+     * 获取当前排队等待分发的事件数
+     *
+     * @return 排队的事件数
+     */
+    public int getQueuedEventCount() {
+        int queued = 0;
+        for (Partition partition : this.partitions) {
+            queued += partition.queue.size();
+        }
+        return queued;
+    }
+
+    /**
+     * 设置运行指标，指标中的排队事件数取自本多播器的所有分区
+     *
+     * @param eventMetrics 运行指标，为null时关闭统计
+     */
+    @Override
+    public void setEventMetrics(ApplicationEventMetrics eventMetrics) {
+        if (eventMetrics != null) {
+            eventMetrics.bindQueueDepth(this::getQueuedEventCount);
+        }
+        super.setEventMetrics(eventMetrics);
+    }
+
+    @Override
+    public void multicastEvent(ApplicationEvent event) {
+        Lock lock = this.publishLock.readLock();
+        lock.lock();
+        try {
+            if (this.closed.get()) {
+                throw new IllegalStateException("AsyncApplicationEventMulticaster has been closed");
+            }
+            startIfNecessary();
+            enqueue(event);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(ApplicationEvent event) {
+        ApplicationEventMetrics metrics = getEventMetrics();
+        if (metrics != null) {
+            metrics.recordPublish(event);
+        }
+        Partition partition = partitionFor(event);
+        BlockingQueue<ApplicationEvent> queue = partition.queue;
+        if (queue.offer(event)) {
+            return;
+        }
+        switch (this.overflowPolicy) {
+            case BLOCK:
+                if (Thread.currentThread() == partition.thread) {
+                    // 分发线程是队列唯一的消费者，在自己的分区上阻塞会永远等不到空位，改为就地分发
+                    runInCaller(event);
+                    break;
+                }
+                try {
+                    while (!queue.offer(event, BLOCK_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                        if (this.terminated) {
+                            this.droppedEvents.increment();
+                            logger.warn("Multicaster terminated while waiting to enqueue event, dropped: {}", event);
+                            break;
+                        }
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    this.droppedEvents.increment();
+                    logger.warn("Interrupted while waiting to enqueue event, dropped: {}", event);
+                }
+                break;
+            case DROP_OLDEST:
+                while (!queue.offer(event)) {
+                    if (queue.poll() != null) {
+                        this.droppedEvents.increment();
+                    }
+                }
+                break;
+            case CALLER_RUNS:
+                runInCaller(event);
+                break;
+            default:
+                throw new IllegalStateException("Unknown overflow policy: " + this.overflowPolicy);
+        }
+    }
+
+    private void runInCaller(ApplicationEvent event) {
+        this.callerRunsEvents.increment();
+        for (ApplicationListener<?> listener : getApplicationListeners(event)) {
+            invokeListener(listener, event);
+        }
+    }
+
+    /**
+     * 停止接收新事件，等待分发线程处理完已排队的事件后退出
+     * 在关闭超时内没有结束的分发线程会被中断，仍在排队的事件被丢弃
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        if (!this.closed.compareAndSet(false, true)) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.shutdownTimeoutMillis);
+        // 等待已经通过关闭检查的发布线程完成入队
+        Lock lock = this.publishLock.writeLock();
+        if (lock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            lock.unlock();
+        } else {
+            // 仍在阻塞等待入队的发布线程放弃入队
+            this.terminated = true;
+            logger.warn("Publishers did not finish enqueuing events before shutdown timeout");
+        }
+        if (!this.started) {
+            return;
+        }
+        for (Partition partition : this.partitions) {
+            if (!partition.queue.offer(SHUTDOWN, Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS)) {
+                logger.warn("Event dispatch thread {} is still busy, interrupting it", partition.thread.getName());
+                partition.thread.interrupt();
+            }
+        }
+        for (Partition partition : this.partitions) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            partition.thread.join(Math.max(remaining, 1));
+            if (partition.thread.isAlive()) {
+                logger.warn("Event dispatch thread {} did not terminate in time, interrupting it",
+                        partition.thread.getName());
+                partition.thread.interrupt();
+            }
+        }
+        this.terminated = true;
+    }
+
+    /**
+     * 调用批量监听器处理一批事件
+     */
+    @SuppressWarnings("unchecked")
+    protected void invokeBatchListener(BatchApplicationListener listener, List<ApplicationEvent> events) {
+        ApplicationEventMetrics metrics = getEventMetrics();
+        long start = metrics != null ? System.nanoTime() : 0;
+        try {
+            listener.onApplicationEvents(events);
+        } catch (Exception ex) {
+            logger.error("Error invoking BatchApplicationListener", ex);
+        }
+        if (metrics != null) {
+            metrics.recordInvocation(listener, events.get(0), System.nanoTime() - start);
+        }
+    }
+
+    private Partition partitionFor(ApplicationEvent event) {
+        Object key = this.partitionKeyResolver.apply(event);
+        if (key == null) {
+            return this.partitions[0];
+        }
+        int hash = key.hashCode();
+        // 打散低位，避免连续的哈希值集中在少数分区
+        hash ^= (hash >>> 16);
+        return this.partitions[Math.floorMod(hash, this.partitions.length)];
+    }
+
+    /**
+     * 分发一批事件：普通监听器按事件顺序逐个调用，批量监听器在最后对各自匹配的事件调用一次
+     */
+    private void dispatchBatch(List<ApplicationEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<BatchApplicationListener<?>, List<ApplicationEvent>> batchDeliveries = null;
+        for (ApplicationEvent event : batch) {
+            for (ApplicationListener<?> listener : getApplicationListeners(event)) {
+                if (batch.size() > 1 && listener instanceof BatchApplicationListener) {
+                    if (batchDeliveries == null) {
+                        batchDeliveries = new LinkedHashMap<>();
+                    }
+                    batchDeliveries.computeIfAbsent((BatchApplicationListener<?>) listener, key -> new ArrayList<>())
+                            .add(event);
+                } else {
+                    invokeListener(listener, event);
+                }
+            }
+        }
+        if (batchDeliveries != null) {
+            for (Map.Entry<BatchApplicationListener<?>, List<ApplicationEvent>> entry : batchDeliveries.entrySet()) {
+                invokeBatchListener(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 一个分区：定长队列和专属的分发线程
+     */
+    private final class Partition implements Runnable {
+
+        final BlockingQueue<ApplicationEvent> queue;
+
+        final Thread thread;
+
+        Partition(int index, int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this, "event-multicaster-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<ApplicationEvent> batch = new ArrayList<>();
+            boolean shutdown = false;
+            while (!shutdown) {
+                try {
+                    batch.add(this.queue.take());
+                    this.queue.drainTo(batch, maxBatchSize - 1);
+                    int shutdownIndex = batch.indexOf(SHUTDOWN);
+                    shutdown = shutdownIndex >= 0;
+                    dispatchBatch(shutdown ? batch.subList(0, shutdownIndex) : batch);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Throwable ex) {
+                    // 一批事件分发失败不能让分区失去分发线程
+                    logger.error("Error dispatching events on {}", this.thread.getName(), ex);
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+}
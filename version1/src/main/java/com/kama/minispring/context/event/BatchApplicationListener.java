@@ -0,0 +1,36 @@
+package com.kama.minispring.context.event;
+
+import com.kama.minispring.context.ApplicationEvent;
+import com.kama.minispring.context.ApplicationListener;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 支持批量接收事件的监听器
+ * 由{@link AsyncApplicationEventMulticaster}异步分发时，同一分区中已经排队的多个事件会合并为一次调用，
+ * 列表中的事件保持发布顺序；同步分发时仍然逐个调用{@link #onApplicationEvent}
+ *
+ * @author kama
+ * @version 1.0.0
+ * @param <E> 监听的事件类型
+ */
+public interface BatchApplicationListener<E extends ApplicationEvent> extends ApplicationListener<E> {
+
+    /**
+     * 批量处理应用事件
+     *
+     * @param events 要处理的事件，按发布顺序排列，不会为空
+     */
+    void onApplicationEvents(List<E> events);
+
+    /**
+     * 处理单个事件，默认作为只包含一个事件的批次处理
+     *
+     * @param event 要处理的事件
+     */
+    @Override
+    default void onApplicationEvent(E event) {
+        onApplicationEvents(Collections.singletonList(event));
+    }
+}
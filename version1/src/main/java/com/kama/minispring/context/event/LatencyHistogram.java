@@ -0,0 +1,145 @@
+package com.kama.minispring.context.event;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 记录耗时分布的直方图，单位为纳秒
+ *
+ * <p>桶的划分与HdrHistogram相同：按2的幂分段，每段再等分为32个子桶，
+ * 任何值所在桶的宽度不超过该值的1/32（约3%的相对误差）。记录一次只是一次数组下标计算
+ * 和几次原子累加，不加锁也不分配对象；超过{@link #MAX_TRACKABLE_VALUE}的值计入最后一个桶
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public final class LatencyHistogram {
+
+    /** 每段的子桶数为2^SUB_BUCKET_BITS */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /** 可以精确区分的最大值的最高位，2^40纳秒约为18分钟 */
+    private static final int MAX_VALUE_BITS = 40;
+
+    /** 可以精确记录的最大值 */
+    public static final long MAX_TRACKABLE_VALUE = (1L << (MAX_VALUE_BITS + 1)) - 1;
+
+    private static final int BUCKET_COUNT = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 2) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    private final LongAdder totalCount = new LongAdder();
+
+    private final LongAdder totalValue = new LongAdder();
+
+    private final LongAccumulator maxValue = new LongAccumulator(Math::max, 0);
+
+    /**
+     * 记录一个值
+     *
+     * @param value 耗时，单位纳秒，负数按0记录
+     */
+    public void record(long value) {
+        long normalized = Math.max(value, 0);
+        this.counts.incrementAndGet(bucketIndex(Math.min(normalized, MAX_TRACKABLE_VALUE)));
+        this.totalCount.increment();
+        this.totalValue.add(normalized);
+        this.maxValue.accumulate(normalized);
+    }
+
+    /**
+     * 获取记录的总次数
+     *
+     * @return 总次数
+     */
+    public long getTotalCount() {
+        return this.totalCount.sum();
+    }
+
+    /**
+     * 获取记录过的最大值
+     *
+     * @return 最大值，没有记录时返回0
+     */
+    public long getMaxValue() {
+        return this.maxValue.get();
+    }
+
+    /**
+     * 获取平均值
+     *
+     * @return 平均值，没有记录时返回0
+     */
+    public double getMean() {
+        long count = this.totalCount.sum();
+        return count == 0 ? 0 : (double) this.totalValue.sum() / count;
+    }
+
+    /**
+     * 获取指定百分位的值
+     * 返回该百分位所在桶的上界，因此结果不小于实际值，误差在桶宽以内
+     *
+     * @param percentile 百分位，取值范围0到100
+     * @return 百分位对应的值，没有记录时返回0
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = this.counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += snapshot[i];
+            if (cumulative >= target) {
+                return Math.min(highestEquivalentValue(i), getMaxValue());
+            }
+        }
+        return getMaxValue();
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram: count = " + getTotalCount() + ", mean = " + (long) getMean()
+                + "ns, p50 = " + getValueAtPercentile(50) + "ns, p99 = " + getValueAtPercentile(99)
+                + "ns, max = " + getMaxValue() + "ns";
+    }
+
+    /**
+     * 计算值所在的桶：小于2^(SUB_BUCKET_BITS+1)的值各占一个桶，
+     * 更大的值取最高的SUB_BUCKET_BITS+1位，按最高位所在的段依次排列
+     */
+    static int bucketIndex(long value) {
+        int highestBit = 63 - Long.numberOfLeadingZeros(value | 1);
+        if (highestBit <= SUB_BUCKET_BITS) {
+            return (int) value;
+        }
+        int shift = highestBit - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * 计算桶中可以记录的最大值
+     */
+    static long highestEquivalentValue(int index) {
+        int block = index >>> SUB_BUCKET_BITS;
+        if (block <= 1) {
+            return index;
+        }
+        int shift = block - 1;
+        long subBucket = (index & (SUB_BUCKET_COUNT - 1)) + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
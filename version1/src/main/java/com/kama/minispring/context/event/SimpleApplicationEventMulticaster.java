@@ -7,15 +7,26 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 
 /**
  * ApplicationEventMulticaster的简单实现
  * 提供了基本的事件多播功能
  *
+ * <p>监听器的事件类型在注册时解析一次。已注册的监听器保存在不可变的快照中，
+ * 注册和移除时复制出新的快照，发布事件时不加锁；每个快照带有按事件类型缓存的匹配结果，
+ * 同一类型的事件再次发布时直接返回缓存的监听器列表，不再做任何反射。
+ * 计算匹配结果时对每个监听器调用{@link #supportsEvent}，子类可以覆盖它定制匹配规则
+ *
  * @author kama
  * @version 1.0.0
  */
@@ -23,35 +34,64 @@ public class SimpleApplicationEventMulticaster implements ApplicationEventMultic
     
     private static final Logger logger = LoggerFactory.getLogger(SimpleApplicationEventMulticaster.class);
     
-    private final Set<ApplicationListener<?>> listeners = new LinkedHashSet<>();
+    /** 注册和移除监听器时使用的锁，读取快照不需要加锁 */
+    private final Object registrationMonitor = new Object();
+    
+    /** 当前的监听器快照，每次注册或移除时整体替换 */
+    private volatile ListenerSnapshot snapshot = new ListenerSnapshot(new ListenerRegistration[0]);
+    
     private Executor taskExecutor;
     
+    /** 运行指标，为null时不做统计 */
+    private volatile ApplicationEventMetrics eventMetrics;
+    
     @Override
     public void addApplicationListener(ApplicationListener<?> listener) {
-        synchronized (this.listeners) {
-            this.listeners.add(listener);
+        synchronized (this.registrationMonitor) {
+            ListenerRegistration[] current = this.snapshot.registrations;
+            for (ListenerRegistration registration : current) {
+                if (registration.listener.equals(listener)) {
+                    return;
+                }
+            }
+            ListenerRegistration[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = new ListenerRegistration(listener, resolveDeclaredEventType(listener));
+            this.snapshot = new ListenerSnapshot(updated);
             logger.debug("Added application listener: {}", listener);
         }
     }
     
     @Override
     public void removeApplicationListener(ApplicationListener<?> listener) {
-        synchronized (this.listeners) {
-            this.listeners.remove(listener);
+        synchronized (this.registrationMonitor) {
+            ListenerRegistration[] current = this.snapshot.registrations;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].listener.equals(listener)) {
+                    ListenerRegistration[] updated = new ListenerRegistration[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                    this.snapshot = new ListenerSnapshot(updated);
+                    break;
+                }
+            }
             logger.debug("Removed application listener: {}", listener);
         }
     }
     
     @Override
     public void removeAllListeners() {
-        synchronized (this.listeners) {
-            this.listeners.clear();
+        synchronized (this.registrationMonitor) {
+            this.snapshot = new ListenerSnapshot(new ListenerRegistration[0]);
             logger.debug("Removed all application listeners");
         }
     }
     
     @Override
     public void multicastEvent(final ApplicationEvent event) {
+        ApplicationEventMetrics metrics = this.eventMetrics;
+        if (metrics != null) {
+            metrics.recordPublish(event);
+        }
         for (final ApplicationListener<?> listener : getApplicationListeners(event)) {
             Executor executor = getTaskExecutor();
             if (executor != null) {
@@ -80,66 +120,98 @@ public class SimpleApplicationEventMulticaster implements ApplicationEventMultic
         this.taskExecutor = taskExecutor;
     }
     
+    /**
+     * 设置运行指标，设置后统计事件发布次数和监听器调用耗时
+     *
+     * @param eventMetrics 运行指标，为null时关闭统计
+     */
+    public void setEventMetrics(ApplicationEventMetrics eventMetrics) {
+        this.eventMetrics = eventMetrics;
+    }
+    
+    /**
+     * 获取运行指标
+     *
+     * @return 运行指标，未启用时返回null
+     */
+    public ApplicationEventMetrics getEventMetrics() {
+        return this.eventMetrics;
+    }
+    
     /**
      * 获取适用于指定事件的所有监听器
+     * 返回的列表不可修改，同一快照下相同类型的事件返回同一个列表
      */
     protected Collection<ApplicationListener<?>> getApplicationListeners(ApplicationEvent event) {
-        Set<ApplicationListener<?>> allListeners = new LinkedHashSet<>();
-        synchronized (this.listeners) {
-            for (ApplicationListener<?> listener : this.listeners) {
-                if (supportsEvent(listener, event)) {
-                    allListeners.add(listener);
-                }
-            }
-        }
-        return allListeners;
+        return this.snapshot.getListeners(event);
     }
     
     /**
      * 检查监听器是否支持指定的事件
+     * 结果按事件类型缓存，覆盖时判断只能依赖监听器和事件的类型，不能依赖事件的内容
+     *
+     * @param listener 监听器
+     * @param event 该类型的第一个事件
+     * @return 支持时返回true
      */
     protected boolean supportsEvent(ApplicationListener<?> listener, ApplicationEvent event) {
-        Class<?> listenerClass = listener.getClass();
-        
-        // 首先检查类本身实现的接口
-        if (supportsEventForInterfaces(listenerClass.getGenericInterfaces(), event)) {
-            return true;
+        Class<?> eventType = this.snapshot.getDeclaredEventType(listener);
+        return eventType != null && eventType.isInstance(event);
+    }
+    
+    /**
+     * 解析监听器声明的事件类型
+     * 依次检查监听器类及其父类实现的ApplicationListener接口（包括其子接口）的泛型参数，
+     * 适配器直接使用其声明的事件类型
+     *
+     * @param listener 监听器
+     * @return 事件类型，无法解析时返回null，此时监听器不会收到任何事件
+     */
+    protected Class<?> resolveDeclaredEventType(ApplicationListener<?> listener) {
+        if (listener instanceof ApplicationListenerAdapter) {
+            return ((ApplicationListenerAdapter) listener).getEventType();
         }
-        
-        // 然后检查父类实现的接口
-        Class<?> superclass = listenerClass.getSuperclass();
-        while (superclass != null && superclass != Object.class) {
-            if (supportsEventForInterfaces(superclass.getGenericInterfaces(), event)) {
-                return true;
+        Class<?> listenerClass = listener.getClass();
+        while (listenerClass != null && listenerClass != Object.class) {
+            Type eventType = resolveEventTypeFromInterfaces(listenerClass.getGenericInterfaces());
+            if (eventType != null) {
+                return eventType instanceof Class<?> ? (Class<?>) eventType : null;
             }
-            superclass = superclass.getSuperclass();
+            listenerClass = listenerClass.getSuperclass();
         }
-        
-        return false;
+        return null;
     }
     
     /**
-     * 检查给定的接口类型是否支持指定的事件
+     * 从给定的接口类型中查找ApplicationListener的泛型参数
+     * 子接口（如{@link BatchApplicationListener}）上声明的类型变量会替换为实际的类型参数
+     *
+     * @return 事件类型，可能是尚未替换的类型变量；没有实现ApplicationListener时返回null
      */
-    private boolean supportsEventForInterfaces(Type[] genericInterfaces, ApplicationEvent event) {
+    private Type resolveEventTypeFromInterfaces(Type[] genericInterfaces) {
         for (Type genericInterface : genericInterfaces) {
-            if (genericInterface instanceof ParameterizedType) {
-                ParameterizedType parameterizedType = (ParameterizedType) genericInterface;
-                Type rawType = parameterizedType.getRawType();
-                
-                if (rawType == ApplicationListener.class) {
-                    Type[] typeArguments = parameterizedType.getActualTypeArguments();
-                    if (typeArguments.length == 1) {
-                        Type typeArgument = typeArguments[0];
-                        if (typeArgument instanceof Class<?>) {
-                            Class<?> eventClass = (Class<?>) typeArgument;
-                            return eventClass.isInstance(event);
-                        }
+            Type rawType = genericInterface instanceof ParameterizedType
+                    ? ((ParameterizedType) genericInterface).getRawType() : genericInterface;
+            if (!(rawType instanceof Class<?>) || !ApplicationListener.class.isAssignableFrom((Class<?>) rawType)) {
+                continue;
+            }
+            Class<?> interfaceClass = (Class<?>) rawType;
+            if (interfaceClass == ApplicationListener.class) {
+                return genericInterface instanceof ParameterizedType
+                        ? ((ParameterizedType) genericInterface).getActualTypeArguments()[0] : null;
+            }
+            Type eventType = resolveEventTypeFromInterfaces(interfaceClass.getGenericInterfaces());
+            if (eventType instanceof TypeVariable<?> && genericInterface instanceof ParameterizedType) {
+                TypeVariable<?>[] typeParameters = interfaceClass.getTypeParameters();
+                for (int i = 0; i < typeParameters.length; i++) {
+                    if (typeParameters[i].equals(eventType)) {
+                        return ((ParameterizedType) genericInterface).getActualTypeArguments()[i];
                     }
                 }
             }
+            return eventType;
         }
-        return false;
+        return null;
     }
     
     /**
@@ -147,10 +219,79 @@ public class SimpleApplicationEventMulticaster implements ApplicationEventMultic
      */
     @SuppressWarnings("unchecked")
     protected void invokeListener(ApplicationListener listener, ApplicationEvent event) {
+        ApplicationEventMetrics metrics = this.eventMetrics;
+        long start = metrics != null ? System.nanoTime() : 0;
         try {
             listener.onApplicationEvent(event);
         } catch (Exception ex) {
             logger.error("Error invoking ApplicationListener", ex);
         }
+        if (metrics != null) {
+            metrics.recordInvocation(listener, event, System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * 已注册的监听器及其事件类型
+     */
+    private static final class ListenerRegistration {
+        
+        final ApplicationListener<?> listener;
+        
+        final Class<?> eventType;
+        
+        ListenerRegistration(ApplicationListener<?> listener, Class<?> eventType) {
+            this.listener = listener;
+            this.eventType = eventType;
+        }
+    }
+    
+    /**
+     * 监听器的不可变快照，以及该快照下按事件类型缓存的匹配结果
+     * 快照被替换后旧的缓存随之丢弃，因此缓存不会包含已移除的监听器
+     */
+    private final class ListenerSnapshot {
+        
+        final ListenerRegistration[] registrations;
+        
+        /** 监听器到注册时解析的事件类型 */
+        final Map<ApplicationListener<?>, Class<?>> declaredEventTypes = new HashMap<>();
+        
+        final Map<Class<?>, List<ApplicationListener<?>>> retrieverCache = new ConcurrentHashMap<>(64);
+        
+        ListenerSnapshot(ListenerRegistration[] registrations) {
+            this.registrations = registrations;
+            for (ListenerRegistration registration : registrations) {
+                this.declaredEventTypes.put(registration.listener, registration.eventType);
+            }
+        }
+        
+        /**
+         * 获取监听器声明的事件类型，监听器不在该快照中时重新解析
+         */
+        Class<?> getDeclaredEventType(ApplicationListener<?> listener) {
+            if (this.declaredEventTypes.containsKey(listener)) {
+                return this.declaredEventTypes.get(listener);
+            }
+            return resolveDeclaredEventType(listener);
+        }
+        
+        List<ApplicationListener<?>> getListeners(ApplicationEvent event) {
+            List<ApplicationListener<?>> listeners = this.retrieverCache.get(event.getClass());
+            if (listeners == null) {
+                listeners = this.retrieverCache.computeIfAbsent(event.getClass(), key -> retrieveListeners(event));
+            }
+            return listeners;
+        }
+        
+        private List<ApplicationListener<?>> retrieveListeners(ApplicationEvent event) {
+            List<ApplicationListener<?>> matching = new ArrayList<>();
+            for (ListenerRegistration registration : this.registrations) {
+                if (supportsEvent(registration.listener, event)) {
+                    matching.add(registration.listener);
+                }
+            }
+            return matching.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(matching);
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.kama.minispring.context.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 编译时生成的组件索引
+ * 由{@link CandidateComponentsIndexLoader}从类路径上所有的META-INF/minispring.components合并而来
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class CandidateComponentsIndex {
+
+    /** 标记注解类名到带有该注解的类名的映射 */
+    private final Map<String, List<String>> index = new HashMap<>();
+
+    CandidateComponentsIndex(List<Properties> content) {
+        for (Properties properties : content) {
+            for (String className : properties.stringPropertyNames()) {
+                for (String stereotype : properties.getProperty(className).split(",")) {
+                    stereotype = stereotype.trim();
+                    if (!stereotype.isEmpty()) {
+                        this.index.computeIfAbsent(stereotype, key -> new ArrayList<>()).add(className);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取指定包及其子包下带有指定注解的类
+     *
+     * @param basePackage 包路径
+     * @param stereotype 标记注解类名
+     * @return 类名集合，按类名排序
+     */
+    public Set<String> getCandidateTypes(String basePackage, String stereotype) {
+        List<String> candidates = this.index.get(stereotype);
+        if (candidates == null) {
+            return Collections.emptySet();
+        }
+        Set<String> result = new TreeSet<>();
+        for (String className : candidates) {
+            if (isInPackage(className, basePackage)) {
+                result.add(className);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isInPackage(String className, String basePackage) {
+        int lastDot = className.lastIndexOf('.');
+        String packageName = lastDot != -1 ? className.substring(0, lastDot) : "";
+        return packageName.equals(basePackage) || packageName.startsWith(basePackage + ".");
+    }
+}
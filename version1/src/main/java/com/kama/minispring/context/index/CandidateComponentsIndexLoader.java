@@ -0,0 +1,95 @@
+package com.kama.minispring.context.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+
+/**
+ * 组件索引的加载器
+ * 按类加载器缓存加载结果；类路径上没有索引文件时返回null，调用方应回退到扫描类路径
+ *
+ * <p>设置系统属性{@value #IGNORE_INDEX}为true可以忽略索引，例如在索引不完整的开发环境中
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public final class CandidateComponentsIndexLoader {
+
+    /**
+     * 索引文件的位置
+     */
+    public static final String COMPONENTS_RESOURCE_LOCATION = "META-INF/minispring.components";
+
+    /**
+     * 忽略索引的系统属性
+     */
+    public static final String IGNORE_INDEX = "minispring.index.ignore";
+
+    private static final Logger logger = LoggerFactory.getLogger(CandidateComponentsIndexLoader.class);
+
+    /** 没有索引时缓存的占位值 */
+    private static final CandidateComponentsIndex NO_INDEX = new CandidateComponentsIndex(Collections.emptyList());
+
+    private static final Map<ClassLoader, CandidateComponentsIndex> cache =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private CandidateComponentsIndexLoader() {
+    }
+
+    /**
+     * 加载类路径上的组件索引
+     *
+     * @param classLoader 类加载器
+     * @return 组件索引，没有索引文件或索引被忽略时返回null
+     */
+    public static CandidateComponentsIndex loadIndex(ClassLoader classLoader) {
+        if (Boolean.getBoolean(IGNORE_INDEX)) {
+            return null;
+        }
+        CandidateComponentsIndex index = cache.get(classLoader);
+        if (index == null) {
+            index = doLoadIndex(classLoader);
+            cache.put(classLoader, index);
+        }
+        return index != NO_INDEX ? index : null;
+    }
+
+    private static CandidateComponentsIndex doLoadIndex(ClassLoader classLoader) {
+        try {
+            Enumeration<URL> urls = classLoader != null
+                    ? classLoader.getResources(COMPONENTS_RESOURCE_LOCATION)
+                    : ClassLoader.getSystemResources(COMPONENTS_RESOURCE_LOCATION);
+            List<Properties> content = new ArrayList<>();
+            while (urls.hasMoreElements()) {
+                URL url = urls.nextElement();
+                Properties properties = new Properties();
+                try (InputStream inputStream = url.openStream();
+                     Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+                    properties.load(reader);
+                }
+                content.add(properties);
+            }
+            if (content.isEmpty()) {
+                return NO_INDEX;
+            }
+            logger.debug("Loaded {} component index file(s)", content.size());
+            return new CandidateComponentsIndex(content);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Unable to load component index from location ["
+                    + COMPONENTS_RESOURCE_LOCATION + "]", ex);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.kama.minispring.context.index.processor;
+
+import com.kama.minispring.context.index.CandidateComponentsIndexLoader;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 在编译时生成组件索引的注解处理器
+ *
+ * <p>记录所有带有{@link com.kama.minispring.stereotype.Indexed}标记注解的类型，
+ * 标记注解可以直接或通过多层元注解带有{@code @Indexed}。结果写入META-INF/minispring.components，
+ * 每行格式为"类名=注解类名,注解类名"，按类名排序。
+ *
+ * <p>增量编译只处理部分源文件，写入前会合并输出目录中已有的索引：本次编译的类型以新结果为准，
+ * 其他类型保留原有条目，已经找不到的类型被删除。
+ *
+ * <p>处理器只在出现{@code com.kama.minispring.stereotype}包中的注解时启用，
+ * 其他包中的组合注解通过处理器选项{@value #STEREOTYPES_OPTION}声明（逗号分隔，支持"包名.*"）。
+ *
+ * <p>处理器需要显式启用：索引存在时扫描器只从索引读取候选组件，自动启用会让没有生成索引的类路径根被忽略。
+ * 使用javac时传入{@code -processor com.kama.minispring.context.index.processor.CandidateComponentsIndexer}，
+ * 使用Maven时在maven-compiler-plugin的{@code annotationProcessorPaths}中添加mini-spring，
+ * 并在{@code annotationProcessors}中声明该处理器
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+@SupportedOptions(CandidateComponentsIndexer.STEREOTYPES_OPTION)
+public class CandidateComponentsIndexer extends AbstractProcessor {
+
+    /**
+     * 声明额外组合注解的处理器选项
+     */
+    public static final String STEREOTYPES_OPTION = "minispring.index.stereotypes";
+
+    private static final String STEREOTYPE_ANNOTATIONS = "com.kama.minispring.stereotype.*";
+
+    private static final String INDEXED_ANNOTATION = "com.kama.minispring.stereotype.Indexed";
+
+    /** 类名到标记注解类名的映射，有序以保证生成的文件稳定 */
+    private final Map<String, Set<String>> entries = new TreeMap<>();
+
+    /** 本次编译处理过的类型，合并已有索引时以新结果为准 */
+    private final Set<String> processedTypes = new HashSet<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        Set<String> types = new LinkedHashSet<>();
+        types.add(STEREOTYPE_ANNOTATIONS);
+        String extra = this.processingEnv != null ? this.processingEnv.getOptions().get(STEREOTYPES_OPTION) : null;
+        if (extra != null) {
+            for (String type : extra.split(",")) {
+                if (!type.trim().isEmpty()) {
+                    types.add(type.trim());
+                }
+            }
+        }
+        return types;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getRootElements()) {
+            collect(element);
+        }
+        if (roundEnv.processingOver() && !this.processedTypes.isEmpty()) {
+            boolean existed = mergeExistingIndex();
+            if (existed || !this.entries.isEmpty()) {
+                writeIndex();
+            }
+        }
+        return false;
+    }
+
+    private void collect(Element element) {
+        if (!(element instanceof TypeElement)) {
+            return;
+        }
+        TypeElement type = (TypeElement) element;
+        String className = this.processingEnv.getElementUtils().getBinaryName(type).toString();
+        this.processedTypes.add(className);
+        Set<String> stereotypes = new TreeSet<>();
+        for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+            collectStereotypes((TypeElement) annotation.getAnnotationType().asElement(), stereotypes, new HashSet<>());
+        }
+        if (!stereotypes.isEmpty()) {
+            this.entries.put(className, stereotypes);
+        }
+        // 静态内部类同样可以是组件
+        for (Element enclosed : type.getEnclosedElements()) {
+            collect(enclosed);
+        }
+    }
+
+    /**
+     * 沿元注解向上查找，记录路径上所有直接或间接带有@Indexed的注解
+     *
+     * @return 注解直接或间接带有@Indexed时返回true
+     */
+    private static boolean collectStereotypes(TypeElement annotationType, Set<String> stereotypes, Set<String> visited) {
+        String name = annotationType.getQualifiedName().toString();
+        if (INDEXED_ANNOTATION.equals(name) || !visited.add(name)) {
+            return false;
+        }
+        boolean indexed = false;
+        for (AnnotationMirror annotation : annotationType.getAnnotationMirrors()) {
+            TypeElement metaAnnotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (INDEXED_ANNOTATION.contentEquals(metaAnnotationType.getQualifiedName())) {
+                indexed = true;
+            } else if (!metaAnnotationType.getQualifiedName().toString().startsWith("java.lang.annotation.")) {
+                indexed |= collectStereotypes(metaAnnotationType, stereotypes, visited);
+            }
+        }
+        if (indexed) {
+            stereotypes.add(name);
+        }
+        return indexed;
+    }
+
+    /**
+     * 合并输出目录中上一次编译生成的索引
+     *
+     * @return 存在已有索引时返回true，即使合并后为空也需要重写
+     */
+    private boolean mergeExistingIndex() {
+        Properties existing = new Properties();
+        try {
+            FileObject file = this.processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+                    CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION);
+            try (InputStream inputStream = file.openInputStream();
+                 Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+                existing.load(reader);
+            }
+        } catch (FileNotFoundException | NoSuchFileException ex) {
+            return false;
+        } catch (IOException ex) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Unable to read existing component index, it will be regenerated: " + ex);
+            return false;
+        }
+        for (String className : existing.stringPropertyNames()) {
+            if (this.processedTypes.contains(className) || !typeExists(className)) {
+                continue;
+            }
+            this.entries.put(className, new TreeSet<>(Arrays.asList(existing.getProperty(className).split(","))));
+        }
+        return true;
+    }
+
+    private boolean typeExists(String binaryName) {
+        return this.processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.')) != null;
+    }
+
+    private void writeIndex() {
+        try {
+            FileObject file = this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Set<String>> entry : this.entries.entrySet()) {
+                    writer.write(entry.getKey());
+                    writer.write('=');
+                    writer.write(String.join(",", entry.getValue()));
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException ex) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write component index: " + ex);
+        }
+    }
+}
@@ -1,10 +1,13 @@
 package com.kama.minispring.context.support;
 
 import com.kama.minispring.beans.factory.BeanFactory;
+import com.kama.minispring.beans.factory.config.ConfigurableBeanFactory;
 import com.kama.minispring.beans.factory.config.ConfigurableListableBeanFactory;
 import com.kama.minispring.context.ApplicationContext;
 import com.kama.minispring.core.io.DefaultResourceLoader;
 import com.kama.minispring.core.io.Resource;
+import com.kama.minispring.core.metrics.ApplicationStartup;
+import com.kama.minispring.core.metrics.StartupStep;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,6 +31,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
     private ApplicationContext parent;
     private String id;
     private String displayName;
+    private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
     
     public AbstractApplicationContext() {
         this(null);
@@ -61,48 +65,78 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
     /**
      * 刷新应用上下文
      * 这是一个模板方法，定义了上下文刷新的整体流程
+     * 每个阶段都会作为"context.refresh"的子步骤记录到{@link ApplicationStartup}
      */
     public void refresh() throws Exception {
         synchronized (this) {
-            // 准备刷新上下文
-            prepareRefresh();
-            
-            // 获取bean工厂
-            ConfigurableListableBeanFactory beanFactory = obtainFreshBeanFactory();
-            
-            // 准备bean工厂
-            prepareBeanFactory(beanFactory);
-            
+            StartupStep contextRefresh = this.applicationStartup.start("context.refresh");
             try {
+                // 准备刷新上下文
+                StartupStep step = this.applicationStartup.start("context.prepare-refresh");
+                prepareRefresh();
+                step.end();
+                
+                // 获取bean工厂
+                step = this.applicationStartup.start("context.obtain-bean-factory");
+                ConfigurableListableBeanFactory beanFactory = obtainFreshBeanFactory();
+                step.end();
+                
+                // 准备bean工厂
+                step = this.applicationStartup.start("context.prepare-bean-factory");
+                prepareBeanFactory(beanFactory);
+                step.end();
+                
                 // 允许在上下文子类中对bean工厂进行后处理
+                step = this.applicationStartup.start("context.post-process-bean-factory");
                 postProcessBeanFactory(beanFactory);
+                step.end();
                 
                 // 调用BeanFactoryPostProcessor
+                step = this.applicationStartup.start("context.invoke-bean-factory-post-processors");
                 invokeBeanFactoryPostProcessors(beanFactory);
+                step.end();
                 
                 // 注册BeanPostProcessor
+                step = this.applicationStartup.start("context.register-bean-post-processors");
                 registerBeanPostProcessors(beanFactory);
+                step.end();
                 
                 // 初始化消息源
+                step = this.applicationStartup.start("context.init-message-source");
                 initMessageSource();
+                step.end();
                 
                 // 初始化事件多播器
+                step = this.applicationStartup.start("context.init-event-multicaster");
                 initApplicationEventMulticaster();
+                step.end();
                 
                 // 初始化其他特殊bean
+                step = this.applicationStartup.start("context.on-refresh");
                 onRefresh();
+                step.end();
                 
                 // 注册监听器
+                step = this.applicationStartup.start("context.register-listeners");
                 registerListeners();
+                step.end();
                 
                 // 完成bean工厂的初始化
+                step = this.applicationStartup.start("context.finish-bean-factory-initialization");
                 finishBeanFactoryInitialization(beanFactory);
+                step.end();
                 
                 // 完成刷新
+                step = this.applicationStartup.start("context.finish-refresh");
                 finishRefresh();
+                step.end();
             } catch (Exception ex) {
+                contextRefresh.tag("exception", ex.getClass().getName());
                 logger.error("Context refresh failed", ex);
                 throw ex;
+            } finally {
+                // 失败时未结束的阶段不会被记录，随外层步骤一起丢弃
+                contextRefresh.end();
             }
         }
     }
@@ -118,6 +152,10 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
     protected void prepareBeanFactory(ConfigurableListableBeanFactory beanFactory) {
         // 设置类加载器
         beanFactory.setBeanClassLoader(getClassLoader());
+        // 让bean的创建步骤记录到同一个启动记录器
+        if (beanFactory instanceof ConfigurableBeanFactory) {
+            ((ConfigurableBeanFactory) beanFactory).setApplicationStartup(getApplicationStartup());
+        }
     }
     
     protected void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
@@ -170,6 +208,23 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
         this.displayName = displayName;
     }
     
+    /**
+     * 设置启动过程记录器，需要在refresh之前调用
+     */
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        if (applicationStartup == null) {
+            throw new IllegalArgumentException("ApplicationStartup must not be null");
+        }
+        this.applicationStartup = applicationStartup;
+    }
+    
+    /**
+     * 获取启动过程记录器
+     */
+    public ApplicationStartup getApplicationStartup() {
+        return this.applicationStartup;
+    }
+    
     @Override
     public Object getBean(String name) {
         return getBeanFactory().getBean(name);
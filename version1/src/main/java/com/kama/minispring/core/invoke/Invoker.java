@@ -0,0 +1,25 @@
+package com.kama.minispring.core.invoke;
+
+/**
+ * 方法调用器
+ * 替代{@link java.lang.reflect.Method#invoke(Object, Object...)}调用固定的某个方法，
+ * 通过{@link Invokers#forMethod(java.lang.reflect.Method)}获取
+ *
+ * <p>与反射调用不同，目标方法抛出的异常会直接抛出，不会包装成InvocationTargetException
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+@FunctionalInterface
+public interface Invoker {
+
+    /**
+     * 调用方法
+     *
+     * @param target 目标对象，静态方法时忽略
+     * @param args 参数，没有参数时可以为null
+     * @return 方法返回值，void方法返回null
+     * @throws Throwable 目标方法抛出的异常
+     */
+    Object invoke(Object target, Object[] args) throws Throwable;
+}
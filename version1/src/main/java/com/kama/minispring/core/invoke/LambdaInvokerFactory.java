@@ -0,0 +1,200 @@
+package com.kama.minispring.core.invoke;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 通过{@link LambdaMetafactory}生成调用器
+ *
+ * <p>每个方法生成一个隐藏类，类中直接调用目标方法，参数的类型转换和装箱拆箱都在生成的字节码中完成。
+ * 隐藏类定义在目标类所在的包中，因此也能调用非公共的方法。
+ * 只支持最多{@link #MAX_PARAMETER_COUNT}个参数的实例方法，其他情况返回null，由调用方回退到其他方式
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+final class LambdaInvokerFactory {
+
+    static final int MAX_PARAMETER_COUNT = 3;
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /** 按[是否void][参数个数]索引的函数式接口 */
+    private static final Class<?>[][] FUNCTION_TYPES = {
+            {Call0.class, Call1.class, Call2.class, Call3.class},
+            {Run0.class, Run1.class, Run2.class, Run3.class}
+    };
+
+    private LambdaInvokerFactory() {
+    }
+
+    /**
+     * 为方法生成调用器
+     *
+     * @param method 目标方法
+     * @return 调用器，不支持或生成失败时返回null
+     */
+    static Invoker createInvoker(Method method) {
+        int parameterCount = method.getParameterCount();
+        if (Modifier.isStatic(method.getModifiers()) || parameterCount > MAX_PARAMETER_COUNT) {
+            return null;
+        }
+        MethodHandles.Lookup lookup = lookupFor(method);
+        if (lookup == null) {
+            return null;
+        }
+        try {
+            boolean isVoid = method.getReturnType() == void.class;
+            Class<?> functionType = FUNCTION_TYPES[isVoid ? 1 : 0][parameterCount];
+            MethodHandle implementation = lookup.unreflect(method);
+
+            // 接口方法签名全部是Object，实际签名使用声明类和参数的包装类型
+            Class<?> returnType = isVoid ? void.class : Object.class;
+            MethodType erasedType = MethodType.genericMethodType(parameterCount + 1)
+                    .changeReturnType(returnType);
+            Class<?>[] parameterTypes = new Class<?>[parameterCount + 1];
+            parameterTypes[0] = method.getDeclaringClass();
+            for (int i = 0; i < parameterCount; i++) {
+                parameterTypes[i + 1] = MethodType.methodType(method.getParameterTypes()[i]).wrap().returnType();
+            }
+            Class<?> instantiatedReturnType = isVoid ? void.class
+                    : MethodType.methodType(method.getReturnType()).wrap().returnType();
+            MethodType instantiatedType = MethodType.methodType(instantiatedReturnType, parameterTypes);
+
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, "invoke",
+                    MethodType.methodType(functionType), erasedType, implementation, instantiatedType);
+            return adapt(callSite.getTarget().invoke(), isVoid, parameterCount);
+        } catch (Throwable ex) {
+            return null;
+        }
+    }
+
+    /**
+     * 优先在目标类中定义隐藏类；目标类所在的包不开放时（例如JDK中的类），
+     * 对本类加载器可见的公共方法改在本类中定义
+     */
+    private static MethodHandles.Lookup lookupFor(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        try {
+            return MethodHandles.privateLookupIn(declaringClass, LOOKUP);
+        } catch (IllegalAccessException | SecurityException ex) {
+            // 继续尝试本类的Lookup
+        }
+        if (Modifier.isPublic(method.getModifiers()) && Modifier.isPublic(declaringClass.getModifiers())
+                && isVisible(method)) {
+            return LOOKUP;
+        }
+        return null;
+    }
+
+    private static boolean isVisible(Method method) {
+        ClassLoader classLoader = LambdaInvokerFactory.class.getClassLoader();
+        if (!isVisible(method.getDeclaringClass(), classLoader) || !isVisible(method.getReturnType(), classLoader)) {
+            return false;
+        }
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            if (!isVisible(parameterType, classLoader)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVisible(Class<?> type, ClassLoader classLoader) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+        try {
+            return Class.forName(type.getName(), false, classLoader) == type;
+        } catch (ClassNotFoundException ex) {
+            return false;
+        }
+    }
+
+    private static Invoker adapt(Object function, boolean isVoid, int parameterCount) {
+        if (isVoid) {
+            switch (parameterCount) {
+                case 0:
+                    Run0 run0 = (Run0) function;
+                    return (target, args) -> {
+                        run0.invoke(target);
+                        return null;
+                    };
+                case 1:
+                    Run1 run1 = (Run1) function;
+                    return (target, args) -> {
+                        run1.invoke(target, args[0]);
+                        return null;
+                    };
+                case 2:
+                    Run2 run2 = (Run2) function;
+                    return (target, args) -> {
+                        run2.invoke(target, args[0], args[1]);
+                        return null;
+                    };
+                default:
+                    Run3 run3 = (Run3) function;
+                    return (target, args) -> {
+                        run3.invoke(target, args[0], args[1], args[2]);
+                        return null;
+                    };
+            }
+        }
+        switch (parameterCount) {
+            case 0:
+                Call0 call0 = (Call0) function;
+                return (target, args) -> call0.invoke(target);
+            case 1:
+                Call1 call1 = (Call1) function;
+                return (target, args) -> call1.invoke(target, args[0]);
+            case 2:
+                Call2 call2 = (Call2) function;
+                return (target, args) -> call2.invoke(target, args[0], args[1]);
+            default:
+                Call3 call3 = (Call3) function;
+                return (target, args) -> call3.invoke(target, args[0], args[1], args[2]);
+        }
+    }
+
+    // 生成的隐藏类可能位于其他包中，这些接口必须是public的
+
+    public interface Call0 {
+        Object invoke(Object target);
+    }
+
+    public interface Call1 {
+        Object invoke(Object target, Object arg0);
+    }
+
+    public interface Call2 {
+        Object invoke(Object target, Object arg0, Object arg1);
+    }
+
+    public interface Call3 {
+        Object invoke(Object target, Object arg0, Object arg1, Object arg2);
+    }
+
+    public interface Run0 {
+        void invoke(Object target);
+    }
+
+    public interface Run1 {
+        void invoke(Object target, Object arg0);
+    }
+
+    public interface Run2 {
+        void invoke(Object target, Object arg0, Object arg1);
+    }
+
+    public interface Run3 {
+        void invoke(Object target, Object arg0, Object arg1, Object arg2);
+    }
+}
@@ -23,6 +23,20 @@ public interface ClassMetadata {
      */
     boolean isInterface();
     
+    /**
+     * 判断是否是注解
+     *
+     * @return 如果是注解返回true，否则返回false
+     */
+    boolean isAnnotation();
+    
+    /**
+     * 判断是否是枚举
+     *
+     * @return 如果是枚举返回true，否则返回false
+     */
+    boolean isEnum();
+    
     /**
      * 判断是否是抽象类
      *
@@ -27,6 +27,16 @@ public class SimpleClassMetadata implements ClassMetadata {
         return this.introspectedClass.isInterface();
     }
     
+    @Override
+    public boolean isAnnotation() {
+        return this.introspectedClass.isAnnotation();
+    }
+    
+    @Override
+    public boolean isEnum() {
+        return this.introspectedClass.isEnum();
+    }
+    
     @Override
     public boolean isAbstract() {
         return java.lang.reflect.Modifier.isAbstract(this.introspectedClass.getModifiers());
@@ -0,0 +1,195 @@
+package com.kama.minispring.core.type.classreading;
+
+import com.kama.minispring.core.type.AnnotationMetadata;
+
+import java.lang.reflect.Array;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 从class文件解析出的注解元数据
+ * 与{@link com.kama.minispring.core.type.SimpleAnnotationMetadata}不同，查询注解时不会加载任何类；
+ * 只包含类上直接声明的注解，不包含从父类继承的{@link java.lang.annotation.Inherited}注解
+ *
+ * <p>注解属性中的类和枚举常量以名称字符串表示，没有显式指定的属性从注解类的class文件中读取默认值
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+final class ClassFileAnnotationMetadata implements AnnotationMetadata {
+
+    private final String className;
+    private final String superClassName;
+    private final String[] interfaceNames;
+    private final boolean isInterface;
+    private final boolean isAbstract;
+    private final boolean isAnnotation;
+    private final boolean isEnum;
+    private final Map<String, Map<String, Object>> annotations;
+    private final Set<String> methodAnnotationTypes;
+
+    /** 注解类自身的属性：属性名到返回类型描述符、属性名到默认值 */
+    private final Map<String, String> attributeTypes;
+    private final Map<String, Object> defaultValues;
+
+    private final MetadataReaderFactory metadataReaderFactory;
+
+    ClassFileAnnotationMetadata(String className, String superClassName, String[] interfaceNames,
+                                boolean isInterface, boolean isAbstract, boolean isAnnotation, boolean isEnum,
+                                Map<String, Map<String, Object>> annotations, Set<String> methodAnnotationTypes,
+                                Map<String, String> attributeTypes, Map<String, Object> defaultValues,
+                                MetadataReaderFactory metadataReaderFactory) {
+        this.className = className;
+        this.superClassName = superClassName;
+        this.interfaceNames = interfaceNames;
+        this.isInterface = isInterface;
+        this.isAbstract = isAbstract;
+        this.isAnnotation = isAnnotation;
+        this.isEnum = isEnum;
+        this.annotations = annotations;
+        this.methodAnnotationTypes = methodAnnotationTypes;
+        this.attributeTypes = attributeTypes;
+        this.defaultValues = defaultValues;
+        this.metadataReaderFactory = metadataReaderFactory;
+    }
+
+    @Override
+    public String getClassName() {
+        return this.className;
+    }
+
+    @Override
+    public boolean isInterface() {
+        return this.isInterface;
+    }
+
+    @Override
+    public boolean isAnnotation() {
+        return this.isAnnotation;
+    }
+
+    @Override
+    public boolean isEnum() {
+        return this.isEnum;
+    }
+
+    @Override
+    public boolean isAbstract() {
+        return this.isAbstract;
+    }
+
+    @Override
+    public boolean isConcrete() {
+        return !(this.isInterface || this.isAbstract);
+    }
+
+    @Override
+    public String getSuperClassName() {
+        return this.superClassName;
+    }
+
+    @Override
+    public String[] getInterfaceNames() {
+        return this.interfaceNames.clone();
+    }
+
+    @Override
+    public boolean hasAnnotation(String annotationName) {
+        return this.annotations.containsKey(annotationName);
+    }
+
+    @Override
+    public Set<String> getAnnotationTypes() {
+        return Collections.unmodifiableSet(new LinkedHashSet<>(this.annotations.keySet()));
+    }
+
+    @Override
+    public Map<String, Object> getAnnotationAttributes(String annotationName) {
+        Map<String, Object> declared = this.annotations.get(annotationName);
+        if (declared == null) {
+            return null;
+        }
+        ClassFileAnnotationMetadata annotationType = this.metadataReaderFactory.getAnnotationMetadata(annotationName);
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        if (annotationType != null) {
+            for (Map.Entry<String, Object> entry : annotationType.defaultValues.entrySet()) {
+                attributes.put(entry.getKey(), convert(entry.getValue(), annotationType.attributeTypes.get(entry.getKey())));
+            }
+        }
+        for (Map.Entry<String, Object> entry : declared.entrySet()) {
+            String type = annotationType != null ? annotationType.attributeTypes.get(entry.getKey()) : null;
+            attributes.put(entry.getKey(), convert(entry.getValue(), type));
+        }
+        return attributes;
+    }
+
+    @Override
+    public boolean hasAnnotatedMethods(String annotationName) {
+        return this.methodAnnotationTypes.contains(annotationName);
+    }
+
+    /**
+     * 将数组值转换为与注解方法返回类型对应的数组，每次调用返回新的数组
+     *
+     * @param value 解析出的属性值
+     * @param descriptor 注解方法返回类型的描述符，未知时为null
+     */
+    private static Object convert(Object value, String descriptor) {
+        if (value instanceof Map) {
+            // 嵌套注解
+            Map<String, Object> nested = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                nested.put((String) entry.getKey(), convert(entry.getValue(), null));
+            }
+            return nested;
+        }
+        if (!(value instanceof ClassFileReader.ArrayValue)) {
+            return value;
+        }
+        List<Object> values = ((ClassFileReader.ArrayValue) value).values;
+        Class<?> componentType = componentType(values, descriptor);
+        Object array = Array.newInstance(componentType, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            Array.set(array, i, convert(values.get(i), null));
+        }
+        return array;
+    }
+
+    private static Class<?> componentType(List<Object> values, String descriptor) {
+        if (descriptor != null && descriptor.length() == 2 && descriptor.charAt(0) == '[') {
+            switch (descriptor.charAt(1)) {
+                case 'Z':
+                    return boolean.class;
+                case 'B':
+                    return byte.class;
+                case 'C':
+                    return char.class;
+                case 'S':
+                    return short.class;
+                case 'I':
+                    return int.class;
+                case 'J':
+                    return long.class;
+                case 'F':
+                    return float.class;
+                case 'D':
+                    return double.class;
+                default:
+                    break;
+            }
+        }
+        // 字符串、类和枚举数组都表示为String[]，空数组也按String[]处理
+        Class<?> componentType = String.class;
+        for (Object element : values) {
+            if (!(element instanceof String)) {
+                componentType = element instanceof Map ? Map.class : Object.class;
+                break;
+            }
+        }
+        return componentType;
+    }
+}
@@ -0,0 +1,340 @@
+package com.kama.minispring.core.type.classreading;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 最小化的class文件解析器
+ * 只读取类名、访问标志、父类、接口以及运行时可见的注解，其余结构直接跳过。
+ * 解析过程不会加载被解析的类，也不会加载注解类
+ *
+ * <p>注解属性值的表示方式：基本类型为包装类型，字符串、枚举常量名和类名为String，
+ * 嵌套注解为属性Map，数组为{@link ArrayValue}，由{@link ClassFileAnnotationMetadata}按注解方法的返回类型转换
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+final class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+    private static final int ACC_ANNOTATION = 0x2000;
+    private static final int ACC_ENUM = 0x4000;
+
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+    private static final String ANNOTATION_DEFAULT = "AnnotationDefault";
+
+    private final DataInputStream in;
+
+    private Object[] constantPool;
+
+    private ClassFileReader(byte[] classFile) {
+        this.in = new DataInputStream(new ByteArrayInputStream(classFile));
+    }
+
+    /**
+     * 解析class文件
+     *
+     * @param inputStream class文件内容，由调用方关闭
+     * @param metadataReaderFactory 用于查找注解默认值的工厂
+     * @return 类的注解元数据
+     * @throws IOException 读取失败或不是合法的class文件时抛出
+     */
+    static ClassFileAnnotationMetadata read(InputStream inputStream, MetadataReaderFactory metadataReaderFactory)
+            throws IOException {
+        return new ClassFileReader(inputStream.readAllBytes()).readClass(metadataReaderFactory);
+    }
+
+    private ClassFileAnnotationMetadata readClass(MetadataReaderFactory metadataReaderFactory) throws IOException {
+        if (this.in.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        // minor_version, major_version
+        this.in.skipBytes(4);
+        readConstantPool();
+
+        int accessFlags = this.in.readUnsignedShort();
+        String className = readClassName();
+        int superIndex = this.in.readUnsignedShort();
+        String superClassName = superIndex != 0 ? toClassName((String) this.constantPool[classNameIndex(superIndex)]) : null;
+        int interfaceCount = this.in.readUnsignedShort();
+        String[] interfaceNames = new String[interfaceCount];
+        for (int i = 0; i < interfaceCount; i++) {
+            interfaceNames[i] = readClassName();
+        }
+
+        // 字段上的注解不关心
+        int fieldCount = this.in.readUnsignedShort();
+        for (int i = 0; i < fieldCount; i++) {
+            this.in.skipBytes(6);
+            skipAttributes();
+        }
+
+        Set<String> methodAnnotationTypes = new LinkedHashSet<>();
+        Map<String, String> attributeTypes = new LinkedHashMap<>();
+        Map<String, Object> defaultValues = new LinkedHashMap<>();
+        boolean isAnnotation = (accessFlags & ACC_ANNOTATION) != 0;
+        int methodCount = this.in.readUnsignedShort();
+        for (int i = 0; i < methodCount; i++) {
+            this.in.skipBytes(2);
+            String methodName = readUtf8();
+            String descriptor = readUtf8();
+            if (isAnnotation && descriptor.startsWith("()")) {
+                attributeTypes.put(methodName, descriptor.substring(2));
+            }
+            int attributeCount = this.in.readUnsignedShort();
+            for (int j = 0; j < attributeCount; j++) {
+                String attributeName = readUtf8();
+                int length = this.in.readInt();
+                if (RUNTIME_VISIBLE_ANNOTATIONS.equals(attributeName)) {
+                    methodAnnotationTypes.addAll(readAnnotations().keySet());
+                } else if (isAnnotation && ANNOTATION_DEFAULT.equals(attributeName)) {
+                    defaultValues.put(methodName, readElementValue());
+                } else {
+                    skipFully(length);
+                }
+            }
+        }
+
+        Map<String, Map<String, Object>> annotations = Collections.emptyMap();
+        int attributeCount = this.in.readUnsignedShort();
+        for (int i = 0; i < attributeCount; i++) {
+            String attributeName = readUtf8();
+            int length = this.in.readInt();
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(attributeName)) {
+                annotations = readAnnotations();
+            } else {
+                skipFully(length);
+            }
+        }
+
+        return new ClassFileAnnotationMetadata(className, superClassName, interfaceNames,
+                (accessFlags & ACC_INTERFACE) != 0, (accessFlags & ACC_ABSTRACT) != 0,
+                isAnnotation, (accessFlags & ACC_ENUM) != 0,
+                annotations, methodAnnotationTypes, attributeTypes, defaultValues, metadataReaderFactory);
+    }
+
+    /**
+     * 读取常量池，只保留解析需要的UTF8、数值常量和类引用
+     */
+    private void readConstantPool() throws IOException {
+        int count = this.in.readUnsignedShort();
+        this.constantPool = new Object[count];
+        for (int i = 1; i < count; i++) {
+            int tag = this.in.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    this.constantPool[i] = this.in.readUTF();
+                    break;
+                case 3:
+                    this.constantPool[i] = this.in.readInt();
+                    break;
+                case 4:
+                    this.constantPool[i] = this.in.readFloat();
+                    break;
+                case 5:
+                    this.constantPool[i++] = this.in.readLong();
+                    break;
+                case 6:
+                    this.constantPool[i++] = this.in.readDouble();
+                    break;
+                case 7:
+                    // 类引用记为指向类名的索引
+                    this.constantPool[i] = new ClassRef(this.in.readUnsignedShort());
+                    break;
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    this.in.skipBytes(2);
+                    break;
+                case 15:
+                    this.in.skipBytes(3);
+                    break;
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    this.in.skipBytes(4);
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+    }
+
+    /**
+     * 读取RuntimeVisibleAnnotations属性
+     */
+    private Map<String, Map<String, Object>> readAnnotations() throws IOException {
+        int count = this.in.readUnsignedShort();
+        Map<String, Map<String, Object>> annotations = new LinkedHashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String type = toClassName(readUtf8());
+            annotations.put(type, readAnnotationAttributes());
+        }
+        return annotations;
+    }
+
+    private Map<String, Object> readAnnotationAttributes() throws IOException {
+        int pairCount = this.in.readUnsignedShort();
+        Map<String, Object> attributes = new LinkedHashMap<>(pairCount * 2);
+        for (int i = 0; i < pairCount; i++) {
+            String name = readUtf8();
+            attributes.put(name, readElementValue());
+        }
+        return attributes;
+    }
+
+    private Object readElementValue() throws IOException {
+        int tag = this.in.readUnsignedByte();
+        switch (tag) {
+            case 'B':
+                return (byte) readIntConstant();
+            case 'C':
+                return (char) readIntConstant();
+            case 'S':
+                return (short) readIntConstant();
+            case 'Z':
+                return readIntConstant() != 0;
+            case 'I':
+            case 'J':
+            case 'F':
+            case 'D':
+                return this.constantPool[this.in.readUnsignedShort()];
+            case 's':
+                return readUtf8();
+            case 'e':
+                // 枚举常量只保留常量名
+                this.in.skipBytes(2);
+                return readUtf8();
+            case 'c':
+                return descriptorToClassName(readUtf8());
+            case '@':
+                this.in.skipBytes(2);
+                return readAnnotationAttributes();
+            case '[':
+                int count = this.in.readUnsignedShort();
+                List<Object> values = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    values.add(readElementValue());
+                }
+                return new ArrayValue(values);
+            default:
+                throw new IOException("Unknown element value tag " + (char) tag);
+        }
+    }
+
+    private int readIntConstant() throws IOException {
+        return (Integer) this.constantPool[this.in.readUnsignedShort()];
+    }
+
+    private String readUtf8() throws IOException {
+        return (String) this.constantPool[this.in.readUnsignedShort()];
+    }
+
+    private String readClassName() throws IOException {
+        return toClassName((String) this.constantPool[classNameIndex(this.in.readUnsignedShort())]);
+    }
+
+    private int classNameIndex(int classIndex) throws IOException {
+        Object entry = this.constantPool[classIndex];
+        if (!(entry instanceof ClassRef)) {
+            throw new IOException("Constant pool entry " + classIndex + " is not a class reference");
+        }
+        return ((ClassRef) entry).nameIndex;
+    }
+
+    private void skipAttributes() throws IOException {
+        int count = this.in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            this.in.skipBytes(2);
+            skipFully(this.in.readInt());
+        }
+    }
+
+    private void skipFully(int length) throws IOException {
+        int remaining = length;
+        while (remaining > 0) {
+            int skipped = this.in.skipBytes(remaining);
+            if (skipped <= 0) {
+                throw new IOException("Unexpected end of class file");
+            }
+            remaining -= skipped;
+        }
+    }
+
+    /**
+     * 将内部名称（com/example/Foo）或描述符（Lcom/example/Foo;）转换为类名
+     */
+    private static String toClassName(String internalName) {
+        if (internalName.startsWith("L") && internalName.endsWith(";")) {
+            internalName = internalName.substring(1, internalName.length() - 1);
+        }
+        return internalName.replace('/', '.');
+    }
+
+    /**
+     * 将类字面量的描述符转换为类名，数组和基本类型使用Class.getName()的格式
+     */
+    static String descriptorToClassName(String descriptor) {
+        switch (descriptor.charAt(0)) {
+            case 'V':
+                return "void";
+            case 'Z':
+                return "boolean";
+            case 'B':
+                return "byte";
+            case 'C':
+                return "char";
+            case 'S':
+                return "short";
+            case 'I':
+                return "int";
+            case 'J':
+                return "long";
+            case 'F':
+                return "float";
+            case 'D':
+                return "double";
+            case '[':
+                return descriptor.replace('/', '.');
+            default:
+                return toClassName(descriptor);
+        }
+    }
+
+    private static final class ClassRef {
+
+        final int nameIndex;
+
+        ClassRef(int nameIndex) {
+            this.nameIndex = nameIndex;
+        }
+    }
+
+    /**
+     * 尚未确定元素类型的注解数组值
+     */
+    static final class ArrayValue {
+
+        final List<Object> values;
+
+        ArrayValue(List<Object> values) {
+            this.values = values;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.kama.minispring.core.type.classreading;
+
+import com.kama.minispring.core.type.AnnotationMetadata;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 通过解析class文件获取注解元数据的工厂
+ * 读取元数据时不会加载或初始化被读取的类，适合在类路径扫描时筛选候选组件
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class MetadataReaderFactory {
+
+    /** 注解类找不到或无法解析时的占位值 */
+    private static final Object NOT_FOUND = new Object();
+
+    private final ClassLoader classLoader;
+
+    /** 注解类的元数据，用于读取属性默认值 */
+    private final Map<String, Object> annotationMetadataCache = new ConcurrentHashMap<>(64);
+
+    /**
+     * 创建一个新的MetadataReaderFactory实例
+     *
+     * @param classLoader 用于查找class文件的类加载器
+     */
+    public MetadataReaderFactory(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * 从class文件内容中读取元数据
+     *
+     * @param inputStream class文件内容，由调用方关闭
+     * @return 注解元数据
+     * @throws IOException 读取失败或不是合法的class文件时抛出
+     */
+    public AnnotationMetadata getMetadata(InputStream inputStream) throws IOException {
+        return ClassFileReader.read(inputStream, this);
+    }
+
+    /**
+     * 从类加载器中查找并读取指定类的元数据，不会加载该类
+     *
+     * @param className 类的全限定名
+     * @return 注解元数据
+     * @throws IOException 找不到class文件或读取失败时抛出
+     */
+    public AnnotationMetadata getMetadata(String className) throws IOException {
+        String resourceName = className.replace('.', '/') + ".class";
+        InputStream inputStream = this.classLoader != null
+                ? this.classLoader.getResourceAsStream(resourceName)
+                : ClassLoader.getSystemResourceAsStream(resourceName);
+        if (inputStream == null) {
+            throw new FileNotFoundException("Class file not found: " + resourceName);
+        }
+        try (InputStream in = inputStream) {
+            return getMetadata(in);
+        }
+    }
+
+    /**
+     * 获取类加载器
+     *
+     * @return 类加载器
+     */
+    public ClassLoader getClassLoader() {
+        return this.classLoader;
+    }
+
+    /**
+     * 获取注解类的元数据，结果会被缓存
+     *
+     * @param annotationName 注解类名
+     * @return 注解元数据，找不到时返回null
+     */
+    ClassFileAnnotationMetadata getAnnotationMetadata(String annotationName) {
+        Object metadata = this.annotationMetadataCache.get(annotationName);
+        if (metadata == null) {
+            try {
+                metadata = getMetadata(annotationName);
+            } catch (IOException ex) {
+                metadata = NOT_FOUND;
+            }
+            this.annotationMetadataCache.putIfAbsent(annotationName, metadata);
+        }
+        return metadata != NOT_FOUND ? (ClassFileAnnotationMetadata) metadata : null;
+    }
+}
@@ -19,6 +19,15 @@ public class AnnotationTypeFilter implements TypeFilter {
         this.annotationType = annotationType;
     }
     
+    /**
+     * 获取匹配的注解类型
+     *
+     * @return 注解类型
+     */
+    public Class<? extends Annotation> getAnnotationType() {
+        return annotationType;
+    }
+    
     @Override
     public boolean match(ClassMetadata metadata) {
         if (metadata instanceof AnnotationMetadata) {
@@ -0,0 +1,32 @@
+package com.kama.minispring.jdbc.core;
+
+import com.kama.minispring.beans.BeansException;
+
+/**
+ * 数据访问异常
+ * 封装JDBC操作中抛出的SQLException
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class DataAccessException extends BeansException {
+    
+    /**
+     * 创建一个新的数据访问异常
+     *
+     * @param message 异常信息
+     */
+    public DataAccessException(String message) {
+        super(message);
+    }
+    
+    /**
+     * 创建一个新的数据访问异常
+     *
+     * @param message 异常信息
+     * @param cause 异常原因
+     */
+    public DataAccessException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,314 @@
+package com.kama.minispring.jdbc.core;
+
+import com.kama.minispring.jdbc.datasource.DataSourceUtils;
+import com.kama.minispring.tx.ConnectionHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC操作模板，负责获取连接、预编译语句、设置参数、释放资源和转换异常
+ *
+ * <p>当前线程处于{@link com.kama.minispring.tx.DataSourceTransactionManager}管理的事务中时，
+ * 所有操作使用事务绑定的连接，预编译语句缓存在该连接的{@link ConnectionHolder}中，
+ * 事务中重复执行的SQL只预编译一次；不在事务中时每次操作获取新连接并在结束时关闭。
+ *
+ * <p>批量更新按{@link #setBatchSize batchSize}分段调用{@link PreparedStatement#executeBatch()}，
+ * 大批量写入不会在驱动中积压全部参数。{@link #query(String, RowCallbackHandler, Object...)}
+ * 按{@link #setFetchSize fetchSize}分批从数据库读取并逐行回调，不会把整个结果集放入内存
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class JdbcTemplate {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JdbcTemplate.class);
+    
+    /** 默认每批提交的语句数 */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    
+    private final DataSource dataSource;
+    
+    private int fetchSize;
+    
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    
+    public JdbcTemplate(DataSource dataSource) {
+        if (dataSource == null) {
+            throw new IllegalArgumentException("DataSource must not be null");
+        }
+        this.dataSource = dataSource;
+    }
+    
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+    
+    /**
+     * 设置查询时每次从数据库读取的行数提示
+     * 部分驱动有特殊约定，如MySQL需要设为Integer.MIN_VALUE才会逐行读取
+     *
+     * @param fetchSize 行数，0表示使用驱动的默认值
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+    
+    public int getFetchSize() {
+        return fetchSize;
+    }
+    
+    /**
+     * 设置批量更新时每批提交的语句数
+     *
+     * @param batchSize 每批语句数
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.batchSize = batchSize;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    /**
+     * 执行更新语句
+     *
+     * @param sql SQL语句
+     * @param args 参数
+     * @return 影响的行数
+     */
+    public int update(String sql, Object... args) {
+        return execute(sql, ps -> {
+            setArguments(ps, args);
+            return ps.executeUpdate();
+        });
+    }
+    
+    /**
+     * 批量执行更新语句，按batchSize分段提交
+     *
+     * @param sql SQL语句
+     * @param batchArgs 每条语句的参数
+     * @return 每条语句影响的行数，驱动无法确定时为{@link Statement#SUCCESS_NO_INFO}
+     */
+    public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+        if (batchArgs.isEmpty()) {
+            return new int[0];
+        }
+        int size = this.batchSize;
+        return execute(sql, ps -> {
+            int[] rowCounts = new int[batchArgs.size()];
+            int executed = 0;
+            int pending = 0;
+            for (Object[] args : batchArgs) {
+                setArguments(ps, args);
+                ps.addBatch();
+                if (++pending == size) {
+                    executed = copyCounts(ps.executeBatch(), rowCounts, executed);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                copyCounts(ps.executeBatch(), rowCounts, executed);
+            }
+            return rowCounts;
+        });
+    }
+    
+    /**
+     * 用元素批量执行更新语句，按batchSize分段提交
+     *
+     * @param sql SQL语句
+     * @param items 元素，可以是按需生成的序列，不必全部在内存中
+     * @param setter 为每个元素设置参数
+     * @return 影响的总行数，驱动无法确定的语句按1行计
+     */
+    public <T> long batchUpdate(String sql, Iterable<T> items, ParameterizedPreparedStatementSetter<T> setter) {
+        return batchUpdate(sql, items, this.batchSize, setter);
+    }
+    
+    /**
+     * 用元素批量执行更新语句，按指定的大小分段提交
+     *
+     * @param sql SQL语句
+     * @param items 元素
+     * @param batchSize 每批语句数
+     * @param setter 为每个元素设置参数
+     * @return 影响的总行数，驱动无法确定的语句按1行计
+     */
+    public <T> long batchUpdate(String sql, Iterable<T> items, int batchSize,
+                                ParameterizedPreparedStatementSetter<T> setter) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        return execute(sql, ps -> {
+            long total = 0;
+            int pending = 0;
+            for (T item : items) {
+                setter.setValues(ps, item);
+                ps.addBatch();
+                if (++pending == batchSize) {
+                    total += sumCounts(ps.executeBatch());
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                total += sumCounts(ps.executeBatch());
+            }
+            return total;
+        });
+    }
+    
+    /**
+     * 流式查询，每读取一行调用一次回调，结果不在内存中累积
+     *
+     * @param sql SQL语句
+     * @param rch 行回调
+     * @param args 参数
+     */
+    public void query(String sql, RowCallbackHandler rch, Object... args) {
+        execute(sql, ps -> {
+            setArguments(ps, args);
+            applyFetchSize(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rch.processRow(rs);
+                }
+            }
+            return null;
+        });
+    }
+    
+    /**
+     * 查询并把每一行映射为对象
+     *
+     * @param sql SQL语句
+     * @param rowMapper 行映射器
+     * @param args 参数
+     * @return 映射结果
+     */
+    public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+        return execute(sql, ps -> {
+            setArguments(ps, args);
+            applyFetchSize(ps);
+            List<T> results = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                int rowNum = 0;
+                while (rs.next()) {
+                    results.add(rowMapper.mapRow(rs, rowNum++));
+                }
+            }
+            return results;
+        });
+    }
+    
+    /**
+     * 查询一行并映射为对象
+     *
+     * @param sql SQL语句
+     * @param rowMapper 行映射器
+     * @param args 参数
+     * @return 映射结果
+     * @throws DataAccessException 结果不是恰好一行
+     */
+    public <T> T queryForObject(String sql, RowMapper<T> rowMapper, Object... args) {
+        List<T> results = query(sql, rowMapper, args);
+        if (results.size() != 1) {
+            throw new DataAccessException("Expected 1 row but got " + results.size() + ": " + sql);
+        }
+        return results.get(0);
+    }
+    
+    /**
+     * 在预编译语句上执行操作
+     * 事务中的语句用完后清除参数放回连接的缓存，操作失败的语句直接关闭
+     */
+    private <R> R execute(String sql, PreparedStatementCallback<R> action) {
+        ConnectionHolder holder = DataSourceUtils.getConnectionHolder(dataSource);
+        Connection con = null;
+        PreparedStatement ps = null;
+        try {
+            if (holder != null) {
+                con = holder.getConnection();
+                ps = holder.takeCachedStatement(sql);
+            } else {
+                con = dataSource.getConnection();
+            }
+            if (ps == null) {
+                ps = con.prepareStatement(sql);
+            }
+            R result = action.doInPreparedStatement(ps);
+            if (holder != null) {
+                ps.clearParameters();
+                holder.returnCachedStatement(sql, ps);
+                ps = null;
+            }
+            return result;
+        } catch (SQLException ex) {
+            throw new DataAccessException("JDBC operation failed: " + sql, ex);
+        } finally {
+            closeStatement(ps);
+            if (holder == null) {
+                DataSourceUtils.releaseConnection(con, dataSource);
+            }
+        }
+    }
+    
+    private void applyFetchSize(PreparedStatement ps) throws SQLException {
+        // 缓存的语句可能被其他模板设置过，每次都重新设置
+        ps.setFetchSize(fetchSize);
+    }
+    
+    private static void setArguments(PreparedStatement ps, Object[] args) throws SQLException {
+        if (args == null) {
+            return;
+        }
+        for (int i = 0; i < args.length; i++) {
+            ps.setObject(i + 1, args[i]);
+        }
+    }
+    
+    private static int copyCounts(int[] counts, int[] target, int offset) {
+        System.arraycopy(counts, 0, target, offset, counts.length);
+        return offset + counts.length;
+    }
+    
+    private static long sumCounts(int[] counts) {
+        long total = 0;
+        for (int count : counts) {
+            total += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+        }
+        return total;
+    }
+    
+    private static void closeStatement(Statement statement) {
+        if (statement == null) {
+            return;
+        }
+        try {
+            statement.close();
+        } catch (SQLException ex) {
+            logger.debug("Could not close JDBC statement", ex);
+        }
+    }
+    
+    /**
+     * 在预编译语句上执行的操作
+     */
+    @FunctionalInterface
+    private interface PreparedStatementCallback<R> {
+        R doInPreparedStatement(PreparedStatement ps) throws SQLException;
+    }
+}
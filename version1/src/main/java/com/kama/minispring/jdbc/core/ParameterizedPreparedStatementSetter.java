@@ -0,0 +1,23 @@
+package com.kama.minispring.jdbc.core;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * 批量更新时为每个元素设置语句参数
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+@FunctionalInterface
+public interface ParameterizedPreparedStatementSetter<T> {
+    
+    /**
+     * 用元素设置参数
+     *
+     * @param ps 预编译语句
+     * @param argument 当前元素
+     * @throws SQLException 设置参数失败
+     */
+    void setValues(PreparedStatement ps, T argument) throws SQLException;
+}
@@ -0,0 +1,23 @@
+package com.kama.minispring.jdbc.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 逐行处理结果集的回调
+ * 每读取一行调用一次，结果不会在内存中累积，适合流式处理大结果集
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+@FunctionalInterface
+public interface RowCallbackHandler {
+    
+    /**
+     * 处理当前行，实现不应调用{@link ResultSet#next()}
+     *
+     * @param rs 结果集
+     * @throws SQLException 读取列失败
+     */
+    void processRow(ResultSet rs) throws SQLException;
+}
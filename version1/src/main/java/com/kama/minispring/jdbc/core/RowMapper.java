@@ -0,0 +1,24 @@
+package com.kama.minispring.jdbc.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 把结果集的当前行映射为对象
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    
+    /**
+     * 映射当前行，实现不应调用{@link ResultSet#next()}
+     *
+     * @param rs 结果集
+     * @param rowNum 行号，从0开始
+     * @return 映射的对象
+     * @throws SQLException 读取列失败
+     */
+    T mapRow(ResultSet rs, int rowNum) throws SQLException;
+}
@@ -0,0 +1,134 @@
+package com.kama.minispring.jdbc.datasource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 无锁的空闲连接容器
+ *
+ * <p>所有连接保存在一个写时复制的共享列表中，借出就是在列表中找到一个空闲连接并CAS其状态。
+ * 每个线程还记录自己最近归还的连接，再次借用时优先尝试这些连接：通常会命中，
+ * 不需要扫描共享列表，连接也倾向于留在同一个线程上。
+ * 有线程在等待时，归还的连接通过{@link SynchronousQueue}直接交给等待者
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+final class ConnectionBag {
+    
+    /** 每个线程记住的最近归还连接数 */
+    private static final int THREAD_LIST_SIZE = 16;
+    
+    private final List<PoolEntry> sharedList = new CopyOnWriteArrayList<>();
+    
+    private final ThreadLocal<List<PoolEntry>> threadList = ThreadLocal.withInitial(() -> new ArrayList<>(THREAD_LIST_SIZE));
+    
+    private final SynchronousQueue<PoolEntry> handoffQueue = new SynchronousQueue<>(true);
+    
+    private final AtomicInteger waiters = new AtomicInteger();
+    
+    /**
+     * 尝试借出一个空闲连接，不等待
+     *
+     * @return 已置为使用中的连接，没有空闲连接时返回null
+     */
+    PoolEntry tryBorrow() {
+        List<PoolEntry> local = threadList.get();
+        for (int i = local.size() - 1; i >= 0; i--) {
+            PoolEntry entry = local.remove(i);
+            if (entry.compareAndSetState(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_IN_USE)) {
+                return entry;
+            }
+        }
+        for (PoolEntry entry : sharedList) {
+            if (entry.compareAndSetState(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_IN_USE)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 等待其他线程归还的连接，调用前必须先调用{@link #addWaiter()}
+     *
+     * @param timeoutNanos 最长等待时间
+     * @return 已置为使用中的连接，超时返回null
+     */
+    PoolEntry awaitHandoff(long timeoutNanos) throws InterruptedException {
+        PoolEntry entry = handoffQueue.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+        if (entry != null && entry.compareAndSetState(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_IN_USE)) {
+            return entry;
+        }
+        return null;
+    }
+    
+    void addWaiter() {
+        waiters.incrementAndGet();
+    }
+    
+    void removeWaiter() {
+        waiters.decrementAndGet();
+    }
+    
+    int getWaiterCount() {
+        return waiters.get();
+    }
+    
+    /**
+     * 归还连接：有线程等待时直接交给等待者，否则记入当前线程的最近归还列表
+     *
+     * @param entry 使用中的连接
+     */
+    void requite(PoolEntry entry) {
+        entry.setState(PoolEntry.STATE_NOT_IN_USE);
+        for (int i = 0; waiters.get() > 0; i++) {
+            if (entry.getState() != PoolEntry.STATE_NOT_IN_USE || handoffQueue.offer(entry)) {
+                return;
+            }
+            if ((i & 0xff) == 0xff) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+            } else {
+                Thread.yield();
+            }
+        }
+        List<PoolEntry> local = threadList.get();
+        if (local.size() < THREAD_LIST_SIZE) {
+            local.add(entry);
+        }
+    }
+    
+    /**
+     * 加入新连接，空闲的新连接会优先交给等待者
+     *
+     * @param entry 新连接
+     */
+    void add(PoolEntry entry) {
+        sharedList.add(entry);
+        while (waiters.get() > 0 && entry.getState() == PoolEntry.STATE_NOT_IN_USE && !handoffQueue.offer(entry)) {
+            Thread.yield();
+        }
+    }
+    
+    /**
+     * 移除连接，调用方需已将连接状态置为已移除
+     *
+     * @param entry 连接
+     */
+    void remove(PoolEntry entry) {
+        sharedList.remove(entry);
+    }
+    
+    /**
+     * 获取所有连接，用于统计和后台维护
+     *
+     * @return 当前所有连接的快照
+     */
+    List<PoolEntry> values() {
+        return sharedList;
+    }
+}
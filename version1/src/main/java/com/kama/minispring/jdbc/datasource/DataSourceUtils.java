@@ -0,0 +1,79 @@
+package com.kama.minispring.jdbc.datasource;
+
+import com.kama.minispring.tx.ConnectionHolder;
+import com.kama.minispring.tx.TransactionSynchronizationManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 获取和释放JDBC连接的工具类
+ *
+ * <p>当前线程上有{@link com.kama.minispring.tx.DataSourceTransactionManager}绑定的事务连接时返回该连接，
+ * 释放时保持打开，由事务管理器在事务结束时关闭；否则从数据源获取新连接，释放时直接关闭
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public abstract class DataSourceUtils {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceUtils.class);
+    
+    /**
+     * 获取当前线程上绑定到数据源的连接持有者
+     *
+     * @param dataSource 数据源
+     * @return 处于事务中的连接持有者，没有时返回null
+     */
+    public static ConnectionHolder getConnectionHolder(DataSource dataSource) {
+        Object resource = TransactionSynchronizationManager.getResource(dataSource);
+        if (resource instanceof ConnectionHolder && ((ConnectionHolder) resource).isTransactionActive()) {
+            return (ConnectionHolder) resource;
+        }
+        return null;
+    }
+    
+    /**
+     * 获取连接，优先使用当前事务绑定的连接
+     *
+     * @param dataSource 数据源
+     * @return 连接
+     * @throws SQLException 获取连接失败
+     */
+    public static Connection getConnection(DataSource dataSource) throws SQLException {
+        ConnectionHolder holder = getConnectionHolder(dataSource);
+        return holder != null ? holder.getConnection() : dataSource.getConnection();
+    }
+    
+    /**
+     * 判断连接是否是当前事务绑定的连接
+     *
+     * @param con 连接
+     * @param dataSource 数据源
+     * @return 是事务连接时返回true
+     */
+    public static boolean isConnectionTransactional(Connection con, DataSource dataSource) {
+        ConnectionHolder holder = getConnectionHolder(dataSource);
+        return holder != null && holder.getConnection() == con;
+    }
+    
+    /**
+     * 释放连接，事务连接保持打开，其他连接直接关闭
+     *
+     * @param con 连接，可以为null
+     * @param dataSource 数据源
+     */
+    public static void releaseConnection(Connection con, DataSource dataSource) {
+        if (con == null || isConnectionTransactional(con, dataSource)) {
+            return;
+        }
+        try {
+            con.close();
+        } catch (SQLException ex) {
+            logger.debug("Could not close JDBC Connection", ex);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.kama.minispring.jdbc.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 连接池中的一个物理连接及其状态
+ * 借出和归还通过对状态做CAS完成，同一个连接同一时刻只会被一个线程借到
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+final class PoolEntry {
+    
+    static final int STATE_NOT_IN_USE = 0;
+    static final int STATE_IN_USE = 1;
+    static final int STATE_REMOVED = -1;
+    
+    final Connection connection;
+    final long createdAtNanos;
+    
+    /** 该连接的到期时间，在最长存活时间上减去随机的一小段，避免同时创建的连接同时到期 */
+    final long expiresAtNanos;
+    
+    /** 创建连接时读到的默认属性，归还时据此复位 */
+    final boolean defaultAutoCommit;
+    final boolean defaultReadOnly;
+    final int defaultTransactionIsolation;
+    
+    volatile long lastAccessedNanos;
+    volatile long borrowedAtNanos;
+    
+    /** 借出时的调用栈，只在开启泄漏检测时记录 */
+    volatile Exception borrowStack;
+    volatile boolean leakReported;
+    
+    private final AtomicInteger state;
+    
+    PoolEntry(Connection connection, long createdAtNanos, long expiresAtNanos, int initialState) throws SQLException {
+        this.connection = connection;
+        this.createdAtNanos = createdAtNanos;
+        this.expiresAtNanos = expiresAtNanos;
+        this.defaultAutoCommit = connection.getAutoCommit();
+        this.defaultReadOnly = connection.isReadOnly();
+        this.defaultTransactionIsolation = connection.getTransactionIsolation();
+        this.lastAccessedNanos = createdAtNanos;
+        this.state = new AtomicInteger(initialState);
+    }
+    
+    int getState() {
+        return state.get();
+    }
+    
+    void setState(int newState) {
+        state.set(newState);
+    }
+    
+    boolean compareAndSetState(int expect, int update) {
+        return state.compareAndSet(expect, update);
+    }
+    
+    boolean isExpired(long now) {
+        return now - expiresAtNanos >= 0;
+    }
+}
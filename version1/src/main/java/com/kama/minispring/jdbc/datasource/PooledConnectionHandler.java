@@ -0,0 +1,102 @@
+package com.kama.minispring.jdbc.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 借出连接的代理处理器
+ * close()把物理连接归还给连接池而不是关闭它；同时记录调用方修改过的连接属性，归还时只复位被修改过的属性
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+final class PooledConnectionHandler implements InvocationHandler {
+    
+    private final PooledDataSource pool;
+    private final PoolEntry entry;
+    private boolean closed;
+    private boolean autoCommit;
+    private boolean readOnlyDirty;
+    private boolean isolationDirty;
+    
+    PooledConnectionHandler(PooledDataSource pool, PoolEntry entry) {
+        this.pool = pool;
+        this.entry = entry;
+        this.autoCommit = entry.defaultAutoCommit;
+    }
+    
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close":
+                close();
+                return null;
+            case "isClosed":
+                return closed;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "PooledConnection[" + entry.connection + (closed ? ", closed]" : "]");
+            default:
+                break;
+        }
+        if (closed) {
+            throw new SQLException("Connection is closed");
+        }
+        Object result;
+        try {
+            result = method.invoke(entry.connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+        switch (method.getName()) {
+            case "setAutoCommit":
+                autoCommit = (Boolean) args[0];
+                break;
+            case "setReadOnly":
+                readOnlyDirty = true;
+                break;
+            case "setTransactionIsolation":
+                isolationDirty = true;
+                break;
+            default:
+                break;
+        }
+        return result;
+    }
+    
+    /**
+     * 复位连接并归还给连接池，重复调用无效果
+     */
+    private void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        boolean reusable = true;
+        Connection connection = entry.connection;
+        try {
+            // 未提交的工作不能留给下一个借用者
+            if (!autoCommit) {
+                connection.rollback();
+            }
+            if (autoCommit != entry.defaultAutoCommit) {
+                connection.setAutoCommit(entry.defaultAutoCommit);
+            }
+            if (readOnlyDirty) {
+                connection.setReadOnly(entry.defaultReadOnly);
+            }
+            if (isolationDirty) {
+                connection.setTransactionIsolation(entry.defaultTransactionIsolation);
+            }
+        } catch (SQLException e) {
+            reusable = false;
+        }
+        pool.release(entry, reusable);
+    }
+}
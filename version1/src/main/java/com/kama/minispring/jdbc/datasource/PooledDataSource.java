@@ -0,0 +1,463 @@
+package com.kama.minispring.jdbc.datasource;
+
+import com.kama.minispring.beans.factory.DisposableBean;
+import com.kama.minispring.context.event.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 内置的JDBC连接池
+ *
+ * <p>空闲连接保存在无锁的{@link ConnectionBag}中，线程优先复用自己刚归还的连接。
+ * 连接池满且没有空闲连接时，借用线程最多等待{@code connectionTimeout}，期间归还的连接会直接交给它。
+ * 空闲超过500毫秒的连接在借出前用{@link Connection#isValid}校验，失效或超过最长存活时间的连接被关闭并重新获取。
+ *
+ * <p>后台维护线程周期性地关闭到期和多余的空闲连接、补足最少空闲连接，并报告疑似泄漏的连接。
+ * 借出的连接是一个代理，close()把连接复位后归还给连接池
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class PooledDataSource implements DataSource, DisposableBean, AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PooledDataSource.class);
+    
+    /** 最近使用过的连接在该时间内借出时不再校验 */
+    private static final long VALIDATION_BYPASS_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    
+    /** 等待时每隔该时间重新检查一次空闲连接和可用容量 */
+    private static final long HANDOFF_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    
+    private final PooledDataSourceConfig config;
+    private final ConnectionBag bag = new ConnectionBag();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final ScheduledExecutorService housekeeper;
+    
+    /** 连接创建、访问、到期和泄漏检测使用的时钟；等待连接的超时始终使用真实时间 */
+    private final LongSupplier nanoClock;
+    
+    private final long connectionTimeoutNanos;
+    private final int validationTimeoutSeconds;
+    private final long idleTimeoutNanos;
+    private final long maxLifetimeNanos;
+    private final long leakDetectionThresholdNanos;
+    
+    private final LatencyHistogram acquireLatency = new LatencyHistogram();
+    private final LongAdder createdConnections = new LongAdder();
+    private final LongAdder evictedConnections = new LongAdder();
+    private final LongAdder connectionTimeouts = new LongAdder();
+    private final LongAdder leakedConnections = new LongAdder();
+    
+    private PrintWriter logWriter;
+    
+    public PooledDataSource(PooledDataSourceConfig config) {
+        this(config, System::nanoTime, true);
+    }
+    
+    /**
+     * 使用指定时钟创建连接池，主要用于测试
+     *
+     * @param config 连接池配置
+     * @param nanoClock 纳秒时钟，与System.nanoTime()语义相同
+     * @param scheduleHousekeeping 是否启动后台维护线程，为false时由调用方通过{@link #runHousekeeping()}驱动
+     */
+    PooledDataSource(PooledDataSourceConfig config, LongSupplier nanoClock, boolean scheduleHousekeeping) {
+        this.config = config;
+        this.nanoClock = nanoClock;
+        this.connectionTimeoutNanos = config.getConnectionTimeout().toNanos();
+        this.validationTimeoutSeconds = (int) config.getValidationTimeout().getSeconds();
+        this.idleTimeoutNanos = config.getIdleTimeout().toNanos();
+        this.maxLifetimeNanos = config.getMaxLifetime().toNanos();
+        this.leakDetectionThresholdNanos = config.getLeakDetectionThreshold().toNanos();
+        if (config.getDataSource() == null && config.getDriverClassName() != null) {
+            try {
+                Class.forName(config.getDriverClassName());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("JDBC driver class not found: " + config.getDriverClassName(), e);
+            }
+        }
+        if (!scheduleHousekeeping) {
+            this.housekeeper = null;
+            return;
+        }
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, config.getPoolName() + "-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = config.getHousekeepingPeriod().toNanos();
+        this.housekeeper.scheduleWithFixedDelay(this::runHousekeeping, 0, period, TimeUnit.NANOSECONDS);
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed.get()) {
+            throw new SQLException("Pool " + config.getPoolName() + " has been closed");
+        }
+        long start = System.nanoTime();
+        long deadline = start + connectionTimeoutNanos;
+        boolean waiting = false;
+        try {
+            while (true) {
+                PoolEntry entry = bag.tryBorrow();
+                if (entry == null) {
+                    entry = tryCreateEntry();
+                }
+                if (entry == null) {
+                    if (!waiting) {
+                        // 先登记等待再重新检查一次，避免错过在此期间归还的连接
+                        bag.addWaiter();
+                        waiting = true;
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        connectionTimeouts.increment();
+                        throw new SQLTransientConnectionException("Pool " + config.getPoolName()
+                            + " timed out after " + TimeUnit.NANOSECONDS.toMillis(connectionTimeoutNanos)
+                            + "ms waiting for a connection (total=" + totalConnections.get()
+                            + ", active=" + getActiveConnections() + ", waiting=" + bag.getWaiterCount() + ")");
+                    }
+                    entry = bag.awaitHandoff(Math.min(remaining, HANDOFF_POLL_NANOS));
+                    if (entry == null) {
+                        continue;
+                    }
+                }
+                if (!isUsable(entry)) {
+                    evict(entry);
+                    continue;
+                }
+                return borrow(entry, start);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        } finally {
+            if (waiting) {
+                bag.removeWaiter();
+            }
+        }
+    }
+    
+    private Connection borrow(PoolEntry entry, long start) {
+        entry.borrowedAtNanos = nanoClock.getAsLong();
+        if (leakDetectionThresholdNanos > 0) {
+            entry.leakReported = false;
+            entry.borrowStack = new Exception("Connection borrowed here");
+        }
+        acquireLatency.record(System.nanoTime() - start);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+            new Class<?>[]{Connection.class}, new PooledConnectionHandler(this, entry));
+    }
+    
+    /**
+     * 连接池未满时创建一个已置为使用中的新连接
+     *
+     * @return 新连接，连接池已满时返回null
+     */
+    private PoolEntry tryCreateEntry() throws SQLException {
+        return createEntry(PoolEntry.STATE_IN_USE, config.getMaximumPoolSize());
+    }
+    
+    private PoolEntry createEntry(int initialState, int limit) throws SQLException {
+        int total;
+        do {
+            total = totalConnections.get();
+            if (total >= limit) {
+                return null;
+            }
+        } while (!totalConnections.compareAndSet(total, total + 1));
+        Connection connection = null;
+        try {
+            connection = openConnection();
+            long now = nanoClock.getAsLong();
+            long variance = maxLifetimeNanos > 0 ? ThreadLocalRandom.current().nextLong(maxLifetimeNanos / 40 + 1) : 0;
+            PoolEntry entry = new PoolEntry(connection, now, now + maxLifetimeNanos - variance, initialState);
+            bag.add(entry);
+            createdConnections.increment();
+            return entry;
+        } catch (SQLException | RuntimeException e) {
+            totalConnections.decrementAndGet();
+            // 读取连接默认属性失败时，已经打开的物理连接不会进入连接池，需要在这里关闭
+            if (connection != null) {
+                closeConnection(connection);
+            }
+            throw e;
+        }
+    }
+    
+    private Connection openConnection() throws SQLException {
+        DataSource target = config.getDataSource();
+        if (target != null) {
+            return target.getConnection();
+        }
+        return DriverManager.getConnection(config.getUrl(), config.getUsername(), config.getPassword());
+    }
+    
+    private boolean isUsable(PoolEntry entry) {
+        long now = nanoClock.getAsLong();
+        if (entry.isExpired(now)) {
+            return false;
+        }
+        if (now - entry.lastAccessedNanos < VALIDATION_BYPASS_NANOS) {
+            return true;
+        }
+        try {
+            return entry.connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * 由借出连接的代理在close()时调用
+     *
+     * @param entry 连接
+     * @param reusable 复位是否成功
+     */
+    void release(PoolEntry entry, boolean reusable) {
+        entry.borrowStack = null;
+        long now = nanoClock.getAsLong();
+        entry.lastAccessedNanos = now;
+        if (!reusable || closed.get() || entry.isExpired(now)) {
+            evict(entry);
+            return;
+        }
+        bag.requite(entry);
+    }
+    
+    private void evict(PoolEntry entry) {
+        entry.setState(PoolEntry.STATE_REMOVED);
+        bag.remove(entry);
+        totalConnections.decrementAndGet();
+        evictedConnections.increment();
+        closeConnection(entry.connection);
+    }
+    
+    private void closeConnection(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.debug("Failed to close connection in pool {}", config.getPoolName(), e);
+        }
+    }
+    
+    /**
+     * 后台维护：关闭到期和多余的空闲连接，报告疑似泄漏的连接，补足最少空闲连接
+     * 同一时刻只有一次维护在运行，避免并发补充时按同一个空闲数重复创建连接
+     */
+    synchronized void runHousekeeping() {
+        if (closed.get()) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        int idle = getIdleConnections();
+        for (PoolEntry entry : bag.values()) {
+            int state = entry.getState();
+            if (state == PoolEntry.STATE_NOT_IN_USE) {
+                boolean retire = entry.isExpired(now)
+                    || (idle > config.getMinimumIdle() && now - entry.lastAccessedNanos > idleTimeoutNanos);
+                if (retire && entry.compareAndSetState(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_REMOVED)) {
+                    idle--;
+                    evict(entry);
+                }
+            } else if (state == PoolEntry.STATE_IN_USE && leakDetectionThresholdNanos > 0 && !entry.leakReported) {
+                Exception borrowStack = entry.borrowStack;
+                if (borrowStack != null && now - entry.borrowedAtNanos > leakDetectionThresholdNanos) {
+                    entry.leakReported = true;
+                    leakedConnections.increment();
+                    logger.warn("Connection leak detection triggered for {} in pool {}, borrowed {}ms ago",
+                        entry.connection, config.getPoolName(),
+                        TimeUnit.NANOSECONDS.toMillis(now - entry.borrowedAtNanos), borrowStack);
+                }
+            }
+        }
+        fillPool();
+    }
+    
+    private void fillPool() {
+        int missing = config.getMinimumIdle() - getIdleConnections();
+        for (int i = 0; i < missing && !closed.get(); i++) {
+            try {
+                if (createEntry(PoolEntry.STATE_NOT_IN_USE, config.getMaximumPoolSize()) == null) {
+                    return;
+                }
+            } catch (SQLException | RuntimeException e) {
+                logger.warn("Failed to create connection for pool {}", config.getPoolName(), e);
+                return;
+            }
+        }
+    }
+    
+    /**
+     * 关闭连接池：停止后台维护，关闭所有空闲连接，使用中的连接在归还时关闭
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (housekeeper != null) {
+            housekeeper.shutdownNow();
+        }
+        for (PoolEntry entry : bag.values()) {
+            if (entry.compareAndSetState(PoolEntry.STATE_NOT_IN_USE, PoolEntry.STATE_REMOVED)) {
+                evict(entry);
+            }
+        }
+        logger.info("Pool {} closed", config.getPoolName());
+    }
+    
+    @Override
+    public void destroy() {
+        close();
+    }
+    
+    public boolean isClosed() {
+        return closed.get();
+    }
+    
+    public PooledDataSourceConfig getConfig() {
+        return config;
+    }
+    
+    /**
+     * 获取当前连接总数，包括正在创建的连接
+     *
+     * @return 连接总数
+     */
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+    
+    /**
+     * 获取借出中的连接数
+     *
+     * @return 借出中的连接数
+     */
+    public int getActiveConnections() {
+        int active = 0;
+        for (PoolEntry entry : bag.values()) {
+            if (entry.getState() == PoolEntry.STATE_IN_USE) {
+                active++;
+            }
+        }
+        return active;
+    }
+    
+    /**
+     * 获取空闲连接数
+     *
+     * @return 空闲连接数
+     */
+    public int getIdleConnections() {
+        int idle = 0;
+        for (PoolEntry entry : bag.values()) {
+            if (entry.getState() == PoolEntry.STATE_NOT_IN_USE) {
+                idle++;
+            }
+        }
+        return idle;
+    }
+    
+    /**
+     * 获取正在等待连接的线程数
+     *
+     * @return 等待的线程数
+     */
+    public int getThreadsAwaitingConnection() {
+        return bag.getWaiterCount();
+    }
+    
+    /**
+     * 获取获取连接的耗时分布，单位纳秒
+     *
+     * @return 耗时直方图
+     */
+    public LatencyHistogram getAcquireLatency() {
+        return acquireLatency;
+    }
+    
+    public long getCreatedConnectionCount() {
+        return createdConnections.sum();
+    }
+    
+    public long getEvictedConnectionCount() {
+        return evictedConnections.sum();
+    }
+    
+    public long getConnectionTimeoutCount() {
+        return connectionTimeouts.sum();
+    }
+    
+    public long getLeakedConnectionCount() {
+        return leakedConnections.sum();
+    }
+    
+    /**
+     * 连接池中的连接使用同一组账号，不支持按调用指定账号
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("PooledDataSource does not support per-call credentials");
+    }
+    
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return logWriter;
+    }
+    
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        this.logWriter = out;
+    }
+    
+    /**
+     * 获取连接的超时由{@code connectionTimeout}控制，该设置无效
+     */
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+    }
+    
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return (int) TimeUnit.NANOSECONDS.toSeconds(connectionTimeoutNanos);
+    }
+    
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+    
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("DataSource of type [" + getClass().getName() +
+            "] cannot be unwrapped as [" + iface.getName() + "]");
+    }
+    
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this);
+    }
+}
@@ -0,0 +1,314 @@
+package com.kama.minispring.jdbc.datasource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * 连接池配置类
+ * 物理连接来自{@code url}指定的JDBC驱动，或者来自一个不带池化的目标{@link DataSource}
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class PooledDataSourceConfig {
+    
+    private final String poolName;
+    private final String driverClassName;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final DataSource dataSource;
+    private final int minimumIdle;
+    private final int maximumPoolSize;
+    private final Duration connectionTimeout;
+    private final Duration validationTimeout;
+    private final Duration idleTimeout;
+    private final Duration maxLifetime;
+    private final Duration leakDetectionThreshold;
+    private final Duration housekeepingPeriod;
+    
+    private PooledDataSourceConfig(Builder builder) {
+        this.poolName = builder.poolName;
+        this.driverClassName = builder.driverClassName;
+        this.url = builder.url;
+        this.username = builder.username;
+        this.password = builder.password;
+        this.dataSource = builder.dataSource;
+        this.minimumIdle = builder.minimumIdle;
+        this.maximumPoolSize = builder.maximumPoolSize;
+        this.connectionTimeout = builder.connectionTimeout;
+        this.validationTimeout = builder.validationTimeout;
+        this.idleTimeout = builder.idleTimeout;
+        this.maxLifetime = builder.maxLifetime;
+        this.leakDetectionThreshold = builder.leakDetectionThreshold;
+        this.housekeepingPeriod = builder.housekeepingPeriod;
+    }
+    
+    public String getPoolName() {
+        return poolName;
+    }
+    
+    public String getDriverClassName() {
+        return driverClassName;
+    }
+    
+    public String getUrl() {
+        return url;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public String getPassword() {
+        return password;
+    }
+    
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+    
+    public int getMinimumIdle() {
+        return minimumIdle;
+    }
+    
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+    
+    public Duration getConnectionTimeout() {
+        return connectionTimeout;
+    }
+    
+    public Duration getValidationTimeout() {
+        return validationTimeout;
+    }
+    
+    public Duration getIdleTimeout() {
+        return idleTimeout;
+    }
+    
+    public Duration getMaxLifetime() {
+        return maxLifetime;
+    }
+    
+    public Duration getLeakDetectionThreshold() {
+        return leakDetectionThreshold;
+    }
+    
+    public Duration getHousekeepingPeriod() {
+        return housekeepingPeriod;
+    }
+    
+    /**
+     * 配置构建器
+     */
+    public static class Builder {
+        private String poolName = "pool";
+        private String driverClassName;
+        private String url;
+        private String username;
+        private String password;
+        private DataSource dataSource;
+        private int minimumIdle = 2;
+        private int maximumPoolSize = 10;
+        private Duration connectionTimeout = Duration.ofSeconds(30);
+        private Duration validationTimeout = Duration.ofSeconds(5);
+        private Duration idleTimeout = Duration.ofMinutes(10);
+        private Duration maxLifetime = Duration.ofMinutes(30);
+        private Duration leakDetectionThreshold = Duration.ZERO;
+        private Duration housekeepingPeriod = Duration.ofSeconds(30);
+        
+        /**
+         * 设置连接池名称，用于线程名和日志
+         *
+         * @param poolName 连接池名称
+         * @return 构建器实例
+         */
+        public Builder poolName(String poolName) {
+            if (poolName == null || poolName.isEmpty()) {
+                throw new IllegalArgumentException("Pool name must not be empty");
+            }
+            this.poolName = poolName;
+            return this;
+        }
+        
+        /**
+         * 设置JDBC驱动类名，驱动已通过SPI注册时可以不设置
+         *
+         * @param driverClassName 驱动类名
+         * @return 构建器实例
+         */
+        public Builder driverClassName(String driverClassName) {
+            this.driverClassName = driverClassName;
+            return this;
+        }
+        
+        /**
+         * 设置JDBC连接地址
+         *
+         * @param url 连接地址
+         * @return 构建器实例
+         */
+        public Builder url(String url) {
+            this.url = url;
+            return this;
+        }
+        
+        /**
+         * 设置数据库用户名
+         *
+         * @param username 用户名
+         * @return 构建器实例
+         */
+        public Builder username(String username) {
+            this.username = username;
+            return this;
+        }
+        
+        /**
+         * 设置数据库密码
+         *
+         * @param password 密码
+         * @return 构建器实例
+         */
+        public Builder password(String password) {
+            this.password = password;
+            return this;
+        }
+        
+        /**
+         * 设置提供物理连接的目标数据源，设置后忽略url、用户名和密码
+         *
+         * @param dataSource 不带池化的数据源
+         * @return 构建器实例
+         */
+        public Builder dataSource(DataSource dataSource) {
+            this.dataSource = dataSource;
+            return this;
+        }
+        
+        /**
+         * 设置最少空闲连接数，后台维护任务会补足到该数量
+         *
+         * @param minimumIdle 最少空闲连接数
+         * @return 构建器实例
+         */
+        public Builder minimumIdle(int minimumIdle) {
+            if (minimumIdle < 0) {
+                throw new IllegalArgumentException("Minimum idle must not be negative");
+            }
+            this.minimumIdle = minimumIdle;
+            return this;
+        }
+        
+        /**
+         * 设置最大连接数，包括使用中和空闲的连接
+         *
+         * @param maximumPoolSize 最大连接数
+         * @return 构建器实例
+         */
+        public Builder maximumPoolSize(int maximumPoolSize) {
+            if (maximumPoolSize <= 0) {
+                throw new IllegalArgumentException("Maximum pool size must be greater than 0");
+            }
+            this.maximumPoolSize = maximumPoolSize;
+            return this;
+        }
+        
+        /**
+         * 设置获取连接的最长等待时间
+         *
+         * @param connectionTimeout 最长等待时间
+         * @return 构建器实例
+         */
+        public Builder connectionTimeout(Duration connectionTimeout) {
+            this.connectionTimeout = requirePositive(connectionTimeout, "Connection timeout");
+            return this;
+        }
+        
+        /**
+         * 设置借出前校验连接的超时时间
+         *
+         * @param validationTimeout 校验超时时间，至少1秒
+         * @return 构建器实例
+         */
+        public Builder validationTimeout(Duration validationTimeout) {
+            requirePositive(validationTimeout, "Validation timeout");
+            if (validationTimeout.getSeconds() < 1) {
+                throw new IllegalArgumentException("Validation timeout must be at least 1 second");
+            }
+            this.validationTimeout = validationTimeout;
+            return this;
+        }
+        
+        /**
+         * 设置空闲超时，超过最少空闲连接数的连接空闲超过该时间后被关闭
+         *
+         * @param idleTimeout 空闲超时
+         * @return 构建器实例
+         */
+        public Builder idleTimeout(Duration idleTimeout) {
+            this.idleTimeout = requirePositive(idleTimeout, "Idle timeout");
+            return this;
+        }
+        
+        /**
+         * 设置连接的最长存活时间，应短于数据库或网络设备断开空闲连接的时间
+         *
+         * @param maxLifetime 最长存活时间
+         * @return 构建器实例
+         */
+        public Builder maxLifetime(Duration maxLifetime) {
+            this.maxLifetime = requirePositive(maxLifetime, "Max lifetime");
+            return this;
+        }
+        
+        /**
+         * 设置连接泄漏检测阈值，连接借出超过该时间未归还时记录警告和借出时的调用栈
+         *
+         * @param leakDetectionThreshold 泄漏检测阈值，为0时不检测
+         * @return 构建器实例
+         */
+        public Builder leakDetectionThreshold(Duration leakDetectionThreshold) {
+            if (leakDetectionThreshold == null || leakDetectionThreshold.isNegative()) {
+                throw new IllegalArgumentException("Leak detection threshold must not be negative");
+            }
+            this.leakDetectionThreshold = leakDetectionThreshold;
+            return this;
+        }
+        
+        /**
+         * 设置后台维护任务的执行周期
+         *
+         * @param housekeepingPeriod 执行周期
+         * @return 构建器实例
+         */
+        public Builder housekeepingPeriod(Duration housekeepingPeriod) {
+            this.housekeepingPeriod = requirePositive(housekeepingPeriod, "Housekeeping period");
+            return this;
+        }
+        
+        private static Duration requirePositive(Duration duration, String name) {
+            if (duration == null || duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+            return duration;
+        }
+        
+        /**
+         * 构建配置实例
+         *
+         * @return 连接池配置实例
+         */
+        public PooledDataSourceConfig build() {
+            if (dataSource == null && (url == null || url.isEmpty())) {
+                throw new IllegalArgumentException("Either url or dataSource must be set");
+            }
+            if (minimumIdle > maximumPoolSize) {
+                throw new IllegalArgumentException("Minimum idle must not exceed maximum pool size");
+            }
+            return new PooledDataSourceConfig(this);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.kama.minispring.jdbc.datasource;
+
+import com.kama.minispring.tx.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 读写分离的路由数据源
+ *
+ * <p>当前线程处于只读事务时从只读库中轮询选择一个获取连接，其他情况使用主库。
+ * 事务管理器在获取连接之前设置只读标记（见{@link TransactionSynchronizationManager#isCurrentTransactionReadOnly()}），
+ * 因此同一个只读事务中的所有操作都使用同一个只读库的连接。没有配置只读库时所有连接都来自主库
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class ReadWriteRoutingDataSource implements DataSource {
+    
+    private final DataSource primaryDataSource;
+    
+    private volatile List<DataSource> readOnlyDataSources = Collections.emptyList();
+    
+    private final AtomicInteger readOnlyIndex = new AtomicInteger();
+    
+    public ReadWriteRoutingDataSource(DataSource primaryDataSource) {
+        if (primaryDataSource == null) {
+            throw new IllegalArgumentException("Primary DataSource must not be null");
+        }
+        this.primaryDataSource = primaryDataSource;
+    }
+    
+    /**
+     * 设置只读库
+     *
+     * @param readOnlyDataSources 只读库列表，为空时只读事务也使用主库
+     */
+    public void setReadOnlyDataSources(List<DataSource> readOnlyDataSources) {
+        this.readOnlyDataSources = readOnlyDataSources != null
+            ? Collections.unmodifiableList(new ArrayList<>(readOnlyDataSources))
+            : Collections.emptyList();
+    }
+    
+    /**
+     * 设置单个只读库
+     *
+     * @param readOnlyDataSource 只读库
+     */
+    public void setReadOnlyDataSource(DataSource readOnlyDataSource) {
+        setReadOnlyDataSources(readOnlyDataSource != null
+            ? Collections.singletonList(readOnlyDataSource) : null);
+    }
+    
+    public DataSource getPrimaryDataSource() {
+        return primaryDataSource;
+    }
+    
+    public List<DataSource> getReadOnlyDataSources() {
+        return readOnlyDataSources;
+    }
+    
+    /**
+     * 确定当前调用使用的目标数据源，子类可以覆盖以实现其他路由规则
+     *
+     * @return 目标数据源
+     */
+    protected DataSource determineTargetDataSource() {
+        List<DataSource> replicas = this.readOnlyDataSources;
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primaryDataSource;
+        }
+        if (replicas.size() == 1) {
+            return replicas.get(0);
+        }
+        return replicas.get(Math.floorMod(readOnlyIndex.getAndIncrement(), replicas.size()));
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return determineTargetDataSource().getConnection();
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return determineTargetDataSource().getConnection(username, password);
+    }
+    
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return primaryDataSource.getLogWriter();
+    }
+    
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        primaryDataSource.setLogWriter(out);
+    }
+    
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        primaryDataSource.setLoginTimeout(seconds);
+    }
+    
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return primaryDataSource.getLoginTimeout();
+    }
+    
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+    
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return primaryDataSource.unwrap(iface);
+    }
+    
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primaryDataSource.isWrapperFor(iface);
+    }
+}
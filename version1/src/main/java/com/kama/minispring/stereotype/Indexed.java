@@ -0,0 +1,18 @@
+package com.kama.minispring.stereotype;
+
+import java.lang.annotation.*;
+
+/**
+ * 标记需要写入组件索引的注解
+ * 被此注解标记的注解（例如{@link Service}）在编译时由
+ * {@link com.kama.minispring.context.index.processor.CandidateComponentsIndexer}
+ * 记录到META-INF/minispring.components中，运行时扫描器可以直接读取索引而不必遍历类路径
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+@Target(ElementType.ANNOTATION_TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Indexed {
+}
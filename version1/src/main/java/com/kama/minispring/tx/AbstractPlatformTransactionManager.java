@@ -1,9 +1,19 @@
 package com.kama.minispring.tx;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 抽象的事务管理器基类
  * 实现了事务管理器的基本逻辑，子类只需要实现具体的事务操作
  *
+ * <p>已存在事务时的PROPAGATION_NESTED通过保存点实现：嵌套事务回滚只回滚到保存点，
+ * 提交只释放保存点，外部事务不受影响。支持保存点的子类需要实现{@link #doCreateSavepoint}等方法。
+ *
+ * <p>加入外部事务的内部操作回滚时不回滚物理事务，只通过{@link #doSetRollbackOnly}把整个事务标记为只回滚，
+ * 外部事务提交时回滚并抛出{@link UnexpectedRollbackException}。PROPAGATION_REQUIRES_NEW和
+ * PROPAGATION_NOT_SUPPORTED挂起外部事务的资源和同步状态，保存在内部事务的状态中，内部事务完成后恢复
+ *
  * @author kama
  * @version 1.0.0
  */
@@ -22,13 +32,23 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
         if (definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_MANDATORY) {
             throw new IllegalTransactionStateException("当前没有事务，但传播行为是MANDATORY");
         } else if (definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRED ||
-                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW) {
-            // 创建新事务
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW ||
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_NESTED) {
+            // 创建新事务，没有外部事务时NESTED与REQUIRED相同
             DefaultTransactionStatus status = newTransactionStatus(definition, transaction, true, true, false, null);
-            TransactionSynchronizationManager.triggerBeforeBegin();
-            doBegin(transaction, definition);
-            prepareSynchronization(status, definition);
-            return status;
+            TransactionContext context = TransactionSynchronizationManager.currentContext();
+            context.triggerBeforeBegin();
+            // 在获取连接前公开只读标记，使路由数据源可以据此选择只读库
+            context.setCurrentTransactionReadOnly(definition.isReadOnly());
+            try {
+                doBegin(transaction, definition);
+                prepareSynchronization(context, status, definition);
+                return status;
+            } catch (RuntimeException | Error ex) {
+                // 事务没有开始，复位只读标记，否则之后的非事务操作仍会被路由到只读库
+                context.clearSynchronization();
+                throw ex;
+            }
         } else if (definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_SUPPORTS ||
                 definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_NOT_SUPPORTED ||
                 definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_NEVER) {
@@ -49,22 +69,33 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
         }
         
         if (definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_NOT_SUPPORTED) {
-            Object suspendedResources = suspend(transaction);
+            TransactionContext context = TransactionSynchronizationManager.currentContext();
+            SuspendedResourcesHolder suspendedResources = suspend(context, transaction);
             return newTransactionStatus(definition, null, false, false, false, suspendedResources);
         }
         
         if (definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW) {
-            Object suspendedResources = suspend(transaction);
-            DefaultTransactionStatus status = newTransactionStatus(definition, transaction, true, true, false, suspendedResources);
-            doBegin(transaction, definition);
-            prepareSynchronization(status, definition);
-            return status;
+            TransactionContext context = TransactionSynchronizationManager.currentContext();
+            SuspendedResourcesHolder suspendedResources = suspend(context, transaction);
+            try {
+                DefaultTransactionStatus status = newTransactionStatus(
+                        definition, transaction, true, true, false, suspendedResources);
+                context.setCurrentTransactionReadOnly(definition.isReadOnly());
+                doBegin(transaction, definition);
+                prepareSynchronization(context, status, definition);
+                return status;
+            } catch (RuntimeException | Error ex) {
+                // 新事务没有开始，外部事务继续
+                context.clearSynchronization();
+                resume(context, transaction, suspendedResources);
+                throw ex;
+            }
         }
         
         if (definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_NESTED) {
+            // 在外部事务的连接上创建保存点，不开启新的物理事务
             DefaultTransactionStatus status = newTransactionStatus(definition, transaction, false, false, true, null);
-            doBegin(transaction, definition);
-            prepareSynchronization(status, definition);
+            status.setSavepoint(doCreateSavepoint(transaction));
             return status;
         }
         
@@ -80,19 +111,128 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
     }
     
     /**
-     * 挂起当前事务
+     * 挂起外部事务：先挂起同步回调和线程上的事务标记，再由子类解绑事务资源
+     */
+    private SuspendedResourcesHolder suspend(TransactionContext context, Object transaction) {
+        List<TransactionSynchronization> synchronizations = null;
+        if (context.isSynchronizationActive()) {
+            synchronizations = new ArrayList<>(context.getSynchronizations());
+            for (TransactionSynchronization synchronization : synchronizations) {
+                synchronization.suspend();
+            }
+        }
+        SuspendedResourcesHolder holder = new SuspendedResourcesHolder(synchronizations,
+                context.isActualTransactionActive(), context.isCurrentTransactionReadOnly());
+        context.clearSynchronization();
+        try {
+            holder.resources = suspend(transaction);
+        } catch (RuntimeException | Error ex) {
+            restoreSynchronization(context, holder);
+            throw ex;
+        }
+        return holder;
+    }
+    
+    /**
+     * 恢复被挂起的外部事务，与{@link #suspend(TransactionContext, Object)}顺序相反
+     */
+    private void resume(TransactionContext context, Object transaction, SuspendedResourcesHolder holder) {
+        try {
+            resume(transaction, holder.resources);
+        } finally {
+            restoreSynchronization(context, holder);
+        }
+    }
+    
+    private void restoreSynchronization(TransactionContext context, SuspendedResourcesHolder holder) {
+        context.setActualTransactionActive(holder.actualTransactionActive);
+        context.setCurrentTransactionReadOnly(holder.readOnly);
+        if (holder.synchronizations != null) {
+            context.initSynchronization();
+            for (TransactionSynchronization synchronization : holder.synchronizations) {
+                synchronization.resume();
+                context.registerSynchronization(synchronization);
+            }
+        }
+    }
+    
+    /**
+     * 挂起当前事务的资源，如解绑连接
+     *
+     * @param transaction 事务对象
+     * @return 挂起的资源，恢复时传给{@link #resume(Object, Object)}
      */
     protected Object suspend(Object transaction) throws TransactionException {
         return null;
     }
     
     /**
-     * 恢复被挂起的事务
+     * 恢复被挂起的事务资源
+     *
+     * @param transaction 事务对象，非事务执行时为null
+     * @param suspendedResources {@link #suspend(Object)}返回的资源
      */
     protected void resume(Object transaction, Object suspendedResources) throws TransactionException {
         // 由子类实现
     }
     
+    /**
+     * 加入外部事务的内部操作回滚时调用，把整个事务标记为只回滚
+     *
+     * @param status 内部操作的事务状态
+     * @throws TransactionException 事务管理器不支持参与已有事务的回滚
+     */
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) throws TransactionException {
+        throw new IllegalTransactionStateException(
+                "事务管理器[" + getClass().getName() + "]不支持参与已有事务的回滚");
+    }
+    
+    /**
+     * 判断事务是否已被加入它的内部操作标记为只回滚
+     *
+     * @param transaction 事务对象
+     * @return 已标记时返回true
+     */
+    protected boolean isGlobalRollbackOnly(Object transaction) {
+        return false;
+    }
+    
+    /**
+     * 为嵌套事务创建保存点
+     *
+     * @param transaction 外部事务对象
+     * @return 保存点
+     * @throws TransactionException 不支持保存点或创建失败
+     */
+    protected Object doCreateSavepoint(Object transaction) throws TransactionException {
+        throw new NestedTransactionNotSupportedException(
+                "事务管理器[" + getClass().getName() + "]不支持嵌套事务");
+    }
+    
+    /**
+     * 回滚到保存点
+     *
+     * @param transaction 外部事务对象
+     * @param savepoint 保存点
+     * @throws TransactionException 回滚失败
+     */
+    protected void doRollbackToSavepoint(Object transaction, Object savepoint) throws TransactionException {
+        throw new NestedTransactionNotSupportedException(
+                "事务管理器[" + getClass().getName() + "]不支持嵌套事务");
+    }
+    
+    /**
+     * 释放保存点
+     *
+     * @param transaction 外部事务对象
+     * @param savepoint 保存点
+     * @throws TransactionException 释放失败
+     */
+    protected void doReleaseSavepoint(Object transaction, Object savepoint) throws TransactionException {
+        throw new NestedTransactionNotSupportedException(
+                "事务管理器[" + getClass().getName() + "]不支持嵌套事务");
+    }
+    
     @Override
     public final void commit(TransactionStatus status) throws TransactionException {
         DefaultTransactionStatus defStatus = (DefaultTransactionStatus) status;
@@ -100,27 +240,90 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
             throw new IllegalTransactionStateException("事务已经完成，不能重复提交");
         }
         
+        // 嵌套事务：标记为只回滚时回滚到保存点，否则释放保存点，外部事务继续
+        if (defStatus.hasSavepoint()) {
+            try {
+                if (defStatus.isRollbackOnly()) {
+                    doRollbackToSavepoint(defStatus.getTransaction(), defStatus.getSavepoint());
+                }
+                doReleaseSavepoint(defStatus.getTransaction(), defStatus.getSavepoint());
+            } finally {
+                defStatus.setCompleted();
+            }
+            return;
+        }
+        
+        // 整个提交过程只查找一次线程上下文
+        TransactionContext context = TransactionSynchronizationManager.currentContext();
+        
+        // 如果事务被标记为回滚，则按回滚处理，不触发提交相关的同步回调
+        if (defStatus.isRollbackOnly()) {
+            processRollback(context, defStatus);
+            return;
+        }
+        
+        // 内部操作回滚时把整个事务标记为只回滚，外部事务不能再提交
+        if (defStatus.isNewTransaction() && isGlobalRollbackOnly(defStatus.getTransaction())) {
+            processRollback(context, defStatus);
+            throw new UnexpectedRollbackException("事务已被标记为只回滚，已回滚而不是提交");
+        }
+        
+        int completionStatus = TransactionSynchronization.STATUS_UNKNOWN;
         try {
-            // 触发事务提交前的同步回调
-            TransactionSynchronizationManager.triggerBeforeCommit();
-            
-            // 如果事务被标记为回滚，则执行回滚
-            if (defStatus.isRollbackOnly()) {
-                processRollback(defStatus);
-                return;
+            try {
+                // 触发事务提交前的同步回调
+                if (defStatus.isNewSynchronization()) {
+                    context.triggerBeforeCommit();
+                }
+            } catch (RuntimeException | Error ex) {
+                // 提交还没有执行，必须回滚，否则清理时恢复自动提交会提交未完成的修改
+                if (doRollbackOnCommitException(defStatus, ex)) {
+                    completionStatus = TransactionSynchronization.STATUS_ROLLED_BACK;
+                }
+                throw ex;
             }
             
             // 如果是新事务，则执行提交
             if (defStatus.isNewTransaction()) {
-                doCommit(defStatus);
+                try {
+                    doCommit(defStatus);
+                } catch (RuntimeException | Error ex) {
+                    // 提交失败时结果未知，同样回滚连接上可能残留的修改
+                    doRollbackOnCommitException(defStatus, ex);
+                    throw ex;
+                }
             }
+            completionStatus = TransactionSynchronization.STATUS_COMMITTED;
             
             // 触发事务提交后的同步回调
-            TransactionSynchronizationManager.triggerAfterCommit();
+            if (defStatus.isNewSynchronization()) {
+                context.triggerAfterCommit();
+            }
         } finally {
             // 触发事务完成后的同步回调
-            TransactionSynchronizationManager.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
-            cleanupAfterCompletion(defStatus);
+            if (defStatus.isNewSynchronization()) {
+                context.triggerAfterCompletion(completionStatus);
+            }
+            cleanupAfterCompletion(context, defStatus);
+        }
+    }
+    
+    /**
+     * 提交过程失败时回滚事务，回滚失败的异常附加到原异常上，不覆盖原异常
+     *
+     * @return 回滚成功时返回true
+     */
+    private boolean doRollbackOnCommitException(DefaultTransactionStatus status, Throwable ex) {
+        try {
+            if (status.isNewTransaction()) {
+                doRollback(status);
+            } else if (status.hasTransaction()) {
+                doSetRollbackOnly(status);
+            }
+            return true;
+        } catch (RuntimeException | Error rollbackEx) {
+            ex.addSuppressed(rollbackEx);
+            return false;
         }
     }
     
@@ -132,47 +335,99 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
         
         DefaultTransactionStatus defStatus = (DefaultTransactionStatus) status;
         
-        try {
-            // 触发事务回滚前的同步回调
-            TransactionSynchronizationManager.triggerBeforeRollback();
-            doRollback(defStatus);
-            // 触发事务回滚后的同步回调
-            TransactionSynchronizationManager.triggerAfterRollback();
-            // 触发事务完成后的同步回调
-            TransactionSynchronizationManager.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
-        } finally {
-            cleanupAfterCompletion(defStatus);
+        // 嵌套事务只回滚到保存点，不触发外部事务的同步回调
+        if (defStatus.hasSavepoint()) {
+            try {
+                doRollbackToSavepoint(defStatus.getTransaction(), defStatus.getSavepoint());
+                doReleaseSavepoint(defStatus.getTransaction(), defStatus.getSavepoint());
+            } finally {
+                defStatus.setCompleted();
+            }
+            return;
         }
+        
+        processRollback(TransactionSynchronizationManager.currentContext(), defStatus);
     }
     
     protected final DefaultTransactionStatus newTransactionStatus(
             TransactionDefinition definition, Object transaction, boolean newSynchronization,
             boolean newTransaction, boolean debug, Object suspendedResources) {
-        return new DefaultTransactionStatus(
-                transaction, newTransaction, newSynchronization);
+        DefaultTransactionStatus status = new DefaultTransactionStatus(
+                transaction, newTransaction, newSynchronization, suspendedResources);
+        status.setReadOnly(definition.isReadOnly());
+        return status;
     }
     
-    private void prepareSynchronization(DefaultTransactionStatus status, TransactionDefinition definition) {
+    private void prepareSynchronization(TransactionContext context, DefaultTransactionStatus status,
+            TransactionDefinition definition) {
         if (status.isNewSynchronization()) {
-            TransactionSynchronizationManager.setActualTransactionActive(status.hasTransaction());
+            context.setActualTransactionActive(status.hasTransaction());
         }
     }
     
-    private void processRollback(DefaultTransactionStatus status) {
+    /**
+     * 回滚事务：新事务回滚物理事务，加入外部事务的操作只把外部事务标记为只回滚，
+     * 同步回调只由开启同步的事务触发
+     */
+    private void processRollback(TransactionContext context, DefaultTransactionStatus status) {
+        boolean rolledBack = false;
         try {
-            doRollback(status);
+            // 触发事务回滚前的同步回调
+            if (status.isNewSynchronization()) {
+                context.triggerBeforeRollback();
+            }
+            if (status.isNewTransaction()) {
+                doRollback(status);
+            } else if (status.hasTransaction()) {
+                doSetRollbackOnly(status);
+            }
+            rolledBack = true;
+            // 触发事务回滚后的同步回调
+            if (status.isNewSynchronization()) {
+                context.triggerAfterRollback();
+            }
         } finally {
-            cleanupAfterCompletion(status);
+            // 触发事务完成后的同步回调，回滚失败时事务的结果未知
+            if (status.isNewSynchronization()) {
+                context.triggerAfterCompletion(rolledBack
+                        ? TransactionSynchronization.STATUS_ROLLED_BACK : TransactionSynchronization.STATUS_UNKNOWN);
+            }
+            cleanupAfterCompletion(context, status);
         }
     }
     
-    private void cleanupAfterCompletion(DefaultTransactionStatus status) {
+    /**
+     * 事务完成后清理，每个事务状态只执行一次；有挂起的外部事务时最后恢复它
+     */
+    private void cleanupAfterCompletion(TransactionContext context, DefaultTransactionStatus status) {
+        if (status.isCompleted()) {
+            return;
+        }
         status.setCompleted();
-        if (status.isNewSynchronization()) {
-            TransactionSynchronizationManager.clear();
+        SuspendedResourcesHolder suspendedResources = (SuspendedResourcesHolder) status.getSuspendedResources();
+        try {
+            if (status.isNewTransaction()) {
+                doCleanupAfterCompletion(status.getTransaction());
+            }
+        } finally {
+            if (suspendedResources != null) {
+                // 只清除内部事务的同步状态，外部事务的其他资源仍然绑定在线程上
+                context.clearSynchronization();
+                resume(context, status.getTransaction(), suspendedResources);
+            } else if (status.isNewSynchronization()) {
+                context.clear();
+            }
         }
     }
     
+    /**
+     * 新事务完成后清理资源，如复位并释放连接，默认什么也不做
+     *
+     * @param transaction 事务对象
+     */
+    protected void doCleanupAfterCompletion(Object transaction) {
+    }
+    
     /**
      * 获取事务
      *
@@ -207,4 +462,22 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
      */
     protected abstract void doRollback(DefaultTransactionStatus status)
             throws TransactionException;
-} 
\ No newline at end of file
+    
+    /**
+     * 挂起的外部事务：子类返回的资源以及线程上的同步状态
+     */
+    private static final class SuspendedResourcesHolder {
+        
+        private final List<TransactionSynchronization> synchronizations;
+        private final boolean actualTransactionActive;
+        private final boolean readOnly;
+        private Object resources;
+        
+        SuspendedResourcesHolder(List<TransactionSynchronization> synchronizations,
+                                 boolean actualTransactionActive, boolean readOnly) {
+            this.synchronizations = synchronizations;
+            this.actualTransactionActive = actualTransactionActive;
+            this.readOnly = readOnly;
+        }
+    }
+}
\ No newline at end of file
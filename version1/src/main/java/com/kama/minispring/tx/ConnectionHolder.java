@@ -0,0 +1,173 @@
+package com.kama.minispring.tx;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 连接持有者，管理事务中的数据库连接
+ *
+ * <p>事务开始时由{@link DataSourceTransactionManager}以数据源为键绑定到当前线程，
+ * 数据访问组件通过{@link TransactionSynchronizationManager#getResource}取得同一个连接。
+ * 持有者还缓存了在该连接上预编译的语句，事务中重复执行的SQL不必重新预编译，
+ * 缓存按最近最少使用淘汰，事务结束时全部关闭。持有者只被绑定的线程访问，不是线程安全的
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class ConnectionHolder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionHolder.class);
+    
+    /** 每个连接默认缓存的预编译语句数 */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+    
+    private final Connection connection;
+    private boolean transactionActive;
+    private Integer previousIsolationLevel;
+    private boolean resetReadOnly;
+    private boolean rollbackOnly;
+    private int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+    private LinkedHashMap<String, PreparedStatement> statementCache;
+    
+    public ConnectionHolder(Connection connection) {
+        this.connection = connection;
+    }
+    
+    public Connection getConnection() {
+        return this.connection;
+    }
+    
+    public boolean isTransactionActive() {
+        return this.transactionActive;
+    }
+    
+    public void setTransactionActive(boolean transactionActive) {
+        this.transactionActive = transactionActive;
+    }
+    
+    public Integer getPreviousIsolationLevel() {
+        return this.previousIsolationLevel;
+    }
+    
+    public void setPreviousIsolationLevel(Integer previousIsolationLevel) {
+        this.previousIsolationLevel = previousIsolationLevel;
+    }
+    
+    public boolean isResetReadOnly() {
+        return this.resetReadOnly;
+    }
+    
+    public void setResetReadOnly(boolean resetReadOnly) {
+        this.resetReadOnly = resetReadOnly;
+    }
+    
+    /**
+     * 把整个事务标记为只回滚，加入该事务的内部操作回滚时调用，外部事务提交时据此回滚
+     */
+    public void setRollbackOnly() {
+        this.rollbackOnly = true;
+    }
+    
+    public boolean isRollbackOnly() {
+        return this.rollbackOnly;
+    }
+    
+    /**
+     * 设置缓存的预编译语句数
+     *
+     * @param statementCacheSize 缓存大小，0表示不缓存
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Statement cache size must not be negative");
+        }
+        this.statementCacheSize = statementCacheSize;
+    }
+    
+    /**
+     * 从缓存中取出SQL对应的预编译语句，取出期间该语句不在缓存中，
+     * 因此同一条SQL在回调中再次执行时会得到另一个语句，不会关闭正在读取的结果集
+     *
+     * @param sql SQL语句
+     * @return 缓存的语句，没有时返回null
+     */
+    public PreparedStatement takeCachedStatement(String sql) {
+        return this.statementCache != null ? this.statementCache.remove(sql) : null;
+    }
+    
+    /**
+     * 把用完的预编译语句放回缓存，缓存已满时关闭最近最少使用的语句
+     *
+     * @param sql SQL语句
+     * @param statement 预编译语句
+     */
+    public void returnCachedStatement(String sql, PreparedStatement statement) {
+        if (this.statementCacheSize == 0) {
+            closeStatement(statement);
+            return;
+        }
+        if (this.statementCache == null) {
+            this.statementCache = new LinkedHashMap<>(16, 0.75f, true);
+        }
+        PreparedStatement previous = this.statementCache.put(sql, statement);
+        if (previous != null && previous != statement) {
+            closeStatement(previous);
+        }
+        if (this.statementCache.size() > this.statementCacheSize) {
+            Iterator<Map.Entry<String, PreparedStatement>> it = this.statementCache.entrySet().iterator();
+            closeStatement(it.next().getValue());
+            it.remove();
+        }
+    }
+    
+    /**
+     * 获取缓存的预编译语句数
+     *
+     * @return 语句数
+     */
+    public int getCachedStatementCount() {
+        return this.statementCache != null ? this.statementCache.size() : 0;
+    }
+    
+    /**
+     * 关闭并清空缓存的预编译语句
+     */
+    public void closeCachedStatements() {
+        if (this.statementCache == null) {
+            return;
+        }
+        for (PreparedStatement statement : this.statementCache.values()) {
+            closeStatement(statement);
+        }
+        this.statementCache.clear();
+    }
+    
+    private static void closeStatement(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ex) {
+            logger.debug("Could not close cached JDBC statement", ex);
+        }
+    }
+    
+    /**
+     * 恢复之前的隔离级别
+     */
+    public void restorePreviousIsolationLevel() {
+        if (this.previousIsolationLevel != null) {
+            try {
+                this.connection.setTransactionIsolation(this.previousIsolationLevel);
+                this.previousIsolationLevel = null;
+            } catch (SQLException ex) {
+                throw new TransactionException("Could not restore JDBC Connection isolation level", ex);
+            }
+        }
+    }
+}
@@ -1,17 +1,29 @@
 package com.kama.minispring.tx;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Savepoint;
 
 /**
  * 基于JDBC的事务管理器实现类
  *
+ * <p>嵌套事务使用JDBC保存点实现。只读事务会在连接上调用{@link Connection#setReadOnly}，
+ * 事务结束后恢复；配合{@link com.kama.minispring.jdbc.datasource.ReadWriteRoutingDataSource}
+ * 可以把只读事务路由到只读库。事务连接以{@link ConnectionHolder}的形式绑定到当前线程，
+ * {@link com.kama.minispring.jdbc.core.JdbcTemplate}等数据访问组件据此加入事务
+ *
  * @author kama
  * @version 1.0.0
  */
 public class DataSourceTransactionManager extends AbstractPlatformTransactionManager {
     
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceTransactionManager.class);
+    
     private DataSource dataSource;
     
     public DataSourceTransactionManager(DataSource dataSource) {
@@ -57,12 +69,23 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
                 }
             }
             
+            // 只读事务，驱动可以据此优化或路由到只读库
+            if (definition.isReadOnly() && !conHolder.getConnection().isReadOnly()) {
+                conHolder.getConnection().setReadOnly(true);
+                conHolder.setResetReadOnly(true);
+            }
+            
             // 开启事务
             conHolder.getConnection().setAutoCommit(false);
             
             // 绑定到当前线程
             TransactionSynchronizationManager.bindResource(this.dataSource, conHolder);
         } catch (SQLException ex) {
+            // 本次获取的连接没有绑定到线程，不会再被清理，需要在这里关闭
+            if (txObject.isNewConnectionHolder()) {
+                closeConnection(txObject.getConnectionHolder().getConnection());
+                txObject.setConnectionHolder(null, false);
+            }
             throw new TransactionException("Could not open JDBC Connection for transaction", ex);
         }
     }
@@ -73,7 +96,6 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
         Connection con = txObject.getConnectionHolder().getConnection();
         try {
             con.commit();
-            con.setAutoCommit(true);
         } catch (SQLException ex) {
             throw new TransactionException("Could not commit JDBC transaction", ex);
         }
@@ -90,6 +112,55 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
         }
     }
     
+    @Override
+    protected Object doCreateSavepoint(Object transaction) throws TransactionException {
+        DataSourceTransactionObject txObject = (DataSourceTransactionObject) transaction;
+        try {
+            Savepoint savepoint = txObject.getConnectionHolder().getConnection().setSavepoint();
+            if (savepoint == null) {
+                throw new NestedTransactionNotSupportedException("JDBC驱动不支持保存点");
+            }
+            return savepoint;
+        } catch (SQLFeatureNotSupportedException ex) {
+            throw new NestedTransactionNotSupportedException("JDBC驱动不支持保存点", ex);
+        } catch (SQLException ex) {
+            throw new TransactionException("Could not create JDBC savepoint", ex);
+        }
+    }
+    
+    @Override
+    protected void doRollbackToSavepoint(Object transaction, Object savepoint) throws TransactionException {
+        DataSourceTransactionObject txObject = (DataSourceTransactionObject) transaction;
+        try {
+            txObject.getConnectionHolder().getConnection().rollback((Savepoint) savepoint);
+        } catch (SQLException ex) {
+            throw new TransactionException("Could not roll back to JDBC savepoint", ex);
+        }
+    }
+    
+    @Override
+    protected void doReleaseSavepoint(Object transaction, Object savepoint) throws TransactionException {
+        DataSourceTransactionObject txObject = (DataSourceTransactionObject) transaction;
+        try {
+            txObject.getConnectionHolder().getConnection().releaseSavepoint((Savepoint) savepoint);
+        } catch (SQLException ex) {
+            // 部分驱动不支持显式释放，保存点会随事务结束自动释放
+            logger.debug("Could not explicitly release JDBC savepoint", ex);
+        }
+    }
+    
+    @Override
+    protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+        DataSourceTransactionObject txObject = (DataSourceTransactionObject) status.getTransaction();
+        txObject.getConnectionHolder().setRollbackOnly();
+    }
+    
+    @Override
+    protected boolean isGlobalRollbackOnly(Object transaction) {
+        DataSourceTransactionObject txObject = (DataSourceTransactionObject) transaction;
+        return txObject.hasConnectionHolder() && txObject.getConnectionHolder().isRollbackOnly();
+    }
+    
     @Override
     protected boolean isExistingTransaction(Object transaction) throws TransactionException {
         DataSourceTransactionObject txObject = (DataSourceTransactionObject) transaction;
@@ -111,34 +182,47 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
     }
     
     /**
-     * 清理事务完成后的资源
+     * 清理事务完成后的资源：恢复连接的隔离级别、只读和自动提交，关闭事务开始时获取的连接
      */
+    @Override
     protected void doCleanupAfterCompletion(Object transaction) {
         DataSourceTransactionObject txObject = (DataSourceTransactionObject) transaction;
         if (txObject.isNewConnectionHolder()) {
             TransactionSynchronizationManager.unbindResource(this.dataSource);
         }
         
-        // 恢复之前的隔离级别
         ConnectionHolder conHolder = txObject.getConnectionHolder();
-        if (conHolder != null) {
+        if (conHolder == null) {
+            return;
+        }
+        try {
+            conHolder.setTransactionActive(false);
+            conHolder.closeCachedStatements();
+            // 恢复之前的隔离级别
             conHolder.restorePreviousIsolationLevel();
-            try {
-                conHolder.getConnection().setAutoCommit(true);
-            } catch (SQLException ex) {
-                throw new TransactionException("Could not reset JDBC Connection after transaction", ex);
+            if (conHolder.isResetReadOnly()) {
+                conHolder.getConnection().setReadOnly(false);
+                conHolder.setResetReadOnly(false);
             }
-            
+            conHolder.getConnection().setAutoCommit(true);
+        } catch (SQLException ex) {
+            throw new TransactionException("Could not reset JDBC Connection after transaction", ex);
+        } finally {
+            // 复位失败时连接同样要关闭，否则会一直占用连接池中的位置
             if (txObject.isNewConnectionHolder()) {
-                try {
-                    conHolder.getConnection().close();
-                } catch (SQLException ex) {
-                    throw new TransactionException("Could not close JDBC Connection after transaction", ex);
-                }
+                closeConnection(conHolder.getConnection());
             }
         }
     }
     
+    private static void closeConnection(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ex) {
+            logger.debug("Could not close JDBC Connection", ex);
+        }
+    }
+    
     /**
      * 事务对象，持有数据库连接
      */
@@ -163,51 +247,4 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
             return this.newConnectionHolder;
         }
     }
-    
-    /**
-     * 连接持有者，管理数据库连接
-     */
-    private static class ConnectionHolder {
-        private Connection connection;
-        private boolean transactionActive;
-        private Integer previousIsolationLevel;
-        
-        public ConnectionHolder(Connection connection) {
-            this.connection = connection;
-        }
-        
-        public Connection getConnection() {
-            return this.connection;
-        }
-        
-        public boolean isTransactionActive() {
-            return this.transactionActive;
-        }
-        
-        public void setTransactionActive(boolean transactionActive) {
-            this.transactionActive = transactionActive;
-        }
-        
-        public Integer getPreviousIsolationLevel() {
-            return this.previousIsolationLevel;
-        }
-        
-        public void setPreviousIsolationLevel(Integer previousIsolationLevel) {
-            this.previousIsolationLevel = previousIsolationLevel;
-        }
-        
-        /**
-         * 恢复之前的隔离级别
-         */
-        public void restorePreviousIsolationLevel() {
-            if (this.previousIsolationLevel != null) {
-                try {
-                    this.connection.setTransactionIsolation(this.previousIsolationLevel);
-                    this.previousIsolationLevel = null;
-                } catch (SQLException ex) {
-                    throw new TransactionException("Could not restore JDBC Connection isolation level", ex);
-                }
-            }
-        }
-    }
-} 
\ No newline at end of file
+}
@@ -22,11 +22,27 @@ public class DefaultTransactionStatus implements TransactionStatus {
     
     private Object savepoint;
     
+    private final Object suspendedResources;
+    
     public DefaultTransactionStatus(
             Object transaction, boolean newTransaction, boolean newSynchronization) {
+        this(transaction, newTransaction, newSynchronization, null);
+    }
+    
+    /**
+     * 创建事务状态
+     *
+     * @param transaction 事务对象，非事务执行时为null
+     * @param newTransaction 是否是新事务
+     * @param newSynchronization 是否为该事务新建了同步状态
+     * @param suspendedResources 为该事务挂起的外部事务资源，事务完成后恢复
+     */
+    public DefaultTransactionStatus(Object transaction, boolean newTransaction, boolean newSynchronization,
+            Object suspendedResources) {
         this.transaction = transaction;
         this.newTransaction = newTransaction;
         this.newSynchronization = newSynchronization;
+        this.suspendedResources = suspendedResources;
     }
     
     public Object getTransaction() {
@@ -42,6 +58,10 @@ public class DefaultTransactionStatus implements TransactionStatus {
         return this.newSynchronization;
     }
     
+    public Object getSuspendedResources() {
+        return this.suspendedResources;
+    }
+    
     public void setSavepoint(Object savepoint) {
         this.savepoint = savepoint;
     }
@@ -0,0 +1,18 @@
+package com.kama.minispring.tx;
+
+/**
+ * 事务管理器或底层资源不支持嵌套事务（保存点）时抛出的异常
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class NestedTransactionNotSupportedException extends TransactionException {
+    
+    public NestedTransactionNotSupportedException(String message) {
+        super(message);
+    }
+    
+    public NestedTransactionNotSupportedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,226 @@
+package com.kama.minispring.tx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一个线程上的全部事务状态：绑定的资源、同步是否激活、是否存在实际事务、当前事务是否只读以及已注册的同步回调
+ *
+ * <p>每个线程只有一个上下文对象，通过{@link TransactionSynchronizationManager#currentContext()}一次取得，
+ * 事务结束时复位而不是丢弃，因此短事务不会反复分配。资源保存在两个并行的小数组中按顺序查找，
+ * 通常只绑定一到两个资源（如一个数据源），比HashMap更省内存，查找也更快。
+ * 该对象只能被所属线程访问，不是线程安全的
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public final class TransactionContext {
+    
+    private static final int INITIAL_RESOURCE_CAPACITY = 2;
+    
+    private Object[] resourceKeys;
+    
+    private Object[] resourceValues;
+    
+    private int resourceCount;
+    
+    private boolean synchronizationActive;
+    
+    private boolean actualTransactionActive;
+    
+    private boolean currentTransactionReadOnly;
+    
+    private final List<TransactionSynchronization> synchronizations = new ArrayList<>(4);
+    
+    TransactionContext() {
+    }
+    
+    private int indexOfResource(Object key) {
+        for (int i = 0; i < resourceCount; i++) {
+            Object candidate = resourceKeys[i];
+            if (candidate == key || candidate.equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    public boolean hasResource(Object key) {
+        return indexOfResource(key) >= 0;
+    }
+    
+    public Object getResource(Object key) {
+        int index = indexOfResource(key);
+        return index >= 0 ? resourceValues[index] : null;
+    }
+    
+    /**
+     * 绑定资源，同一个键已绑定时替换原来的值
+     *
+     * @param key 资源键
+     * @param value 资源值
+     */
+    public void bindResource(Object key, Object value) {
+        int index = indexOfResource(key);
+        if (index >= 0) {
+            resourceValues[index] = value;
+            return;
+        }
+        if (resourceKeys == null) {
+            resourceKeys = new Object[INITIAL_RESOURCE_CAPACITY];
+            resourceValues = new Object[INITIAL_RESOURCE_CAPACITY];
+        } else if (resourceCount == resourceKeys.length) {
+            resourceKeys = Arrays.copyOf(resourceKeys, resourceCount * 2);
+            resourceValues = Arrays.copyOf(resourceValues, resourceCount * 2);
+        }
+        resourceKeys[resourceCount] = key;
+        resourceValues[resourceCount] = value;
+        resourceCount++;
+    }
+    
+    /**
+     * 解除资源绑定
+     *
+     * @param key 资源键
+     * @return 原来绑定的值，没有绑定时返回null
+     */
+    public Object unbindResource(Object key) {
+        int index = indexOfResource(key);
+        if (index < 0) {
+            return null;
+        }
+        Object value = resourceValues[index];
+        int last = --resourceCount;
+        resourceKeys[index] = resourceKeys[last];
+        resourceValues[index] = resourceValues[last];
+        resourceKeys[last] = null;
+        resourceValues[last] = null;
+        return value;
+    }
+    
+    /**
+     * 获取所有绑定的资源
+     *
+     * @return 不可修改的资源快照
+     */
+    public Map<Object, Object> getResources() {
+        if (resourceCount == 0) {
+            return Collections.emptyMap();
+        }
+        Map<Object, Object> resources = new LinkedHashMap<>(resourceCount * 2);
+        for (int i = 0; i < resourceCount; i++) {
+            resources.put(resourceKeys[i], resourceValues[i]);
+        }
+        return Collections.unmodifiableMap(resources);
+    }
+    
+    public void initSynchronization() {
+        if (synchronizationActive) {
+            throw new IllegalStateException("事务同步已经初始化");
+        }
+        synchronizationActive = true;
+    }
+    
+    public boolean isSynchronizationActive() {
+        return synchronizationActive;
+    }
+    
+    public void setActualTransactionActive(boolean active) {
+        this.actualTransactionActive = active;
+    }
+    
+    public boolean isActualTransactionActive() {
+        return actualTransactionActive;
+    }
+    
+    /**
+     * 设置当前事务是否只读，在获取连接之前设置，供路由数据源选择只读库
+     *
+     * @param readOnly 是否只读
+     */
+    public void setCurrentTransactionReadOnly(boolean readOnly) {
+        this.currentTransactionReadOnly = readOnly;
+    }
+    
+    public boolean isCurrentTransactionReadOnly() {
+        return currentTransactionReadOnly;
+    }
+    
+    public void registerSynchronization(TransactionSynchronization synchronization) {
+        if (!synchronizationActive) {
+            throw new IllegalStateException("事务同步未激活");
+        }
+        synchronizations.add(synchronization);
+    }
+    
+    /**
+     * 获取已注册的同步回调
+     *
+     * @return 同步回调列表，同步未激活时返回null
+     */
+    public List<TransactionSynchronization> getSynchronizations() {
+        return synchronizationActive ? synchronizations : null;
+    }
+    
+    public void triggerBeforeBegin() {
+        for (int i = 0; i < synchronizations.size(); i++) {
+            synchronizations.get(i).beforeBegin();
+        }
+    }
+    
+    public void triggerBeforeCommit() {
+        for (int i = 0; i < synchronizations.size(); i++) {
+            synchronizations.get(i).beforeCommit();
+        }
+    }
+    
+    public void triggerAfterCommit() {
+        for (int i = 0; i < synchronizations.size(); i++) {
+            synchronizations.get(i).afterCommit();
+        }
+    }
+    
+    public void triggerBeforeRollback() {
+        for (int i = 0; i < synchronizations.size(); i++) {
+            synchronizations.get(i).beforeRollback();
+        }
+    }
+    
+    public void triggerAfterRollback() {
+        for (int i = 0; i < synchronizations.size(); i++) {
+            synchronizations.get(i).afterRollback();
+        }
+    }
+    
+    public void triggerAfterCompletion(int status) {
+        for (int i = 0; i < synchronizations.size(); i++) {
+            synchronizations.get(i).afterCompletion(status);
+        }
+    }
+    
+    /**
+     * 清除同步状态、实际事务标记和只读标记，保留绑定的资源
+     */
+    public void clearSynchronization() {
+        synchronizationActive = false;
+        actualTransactionActive = false;
+        currentTransactionReadOnly = false;
+        synchronizations.clear();
+    }
+    
+    /**
+     * 清除全部状态，数组保留以便下一个事务复用
+     */
+    public void clear() {
+        clearSynchronization();
+        for (int i = 0; i < resourceCount; i++) {
+            resourceKeys[i] = null;
+            resourceValues[i] = null;
+        }
+        resourceCount = 0;
+    }
+}
@@ -1,176 +1,129 @@
 package com.kama.minispring.tx;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * 事务同步管理器
- * 用于管理事务的同步状态，基于ThreadLocal实现
+ * 用于管理事务的同步状态，每个线程的全部状态保存在一个{@link TransactionContext}中，
+ * 只占用一个ThreadLocal；需要连续操作多项状态时可以先通过{@link #currentContext()}取得上下文，
+ * 避免每次调用都查找一次ThreadLocal
  *
  * @author kama
  * @version 1.0.0
  */
 public abstract class TransactionSynchronizationManager {
     
-    private static final ThreadLocal<Map<Object, Object>> resources = new ThreadLocal<>();
+    private static final ThreadLocal<TransactionContext> context = ThreadLocal.withInitial(TransactionContext::new);
     
-    private static final ThreadLocal<Boolean> synchronizationActive = new ThreadLocal<>();
-    
-    private static final ThreadLocal<Boolean> actualTransactionActive = new ThreadLocal<>();
-    
-    private static final ThreadLocal<List<TransactionSynchronization>> synchronizations = new ThreadLocal<>();
+    /**
+     * 获取当前线程的事务上下文，每个线程只创建一次
+     *
+     * @return 当前线程的事务上下文
+     */
+    public static TransactionContext currentContext() {
+        return context.get();
+    }
     
     public static Map<Object, Object> getResources() {
-        Map<Object, Object> map = resources.get();
-        return map != null ? map : new HashMap<>();
+        return context.get().getResources();
     }
     
     public static boolean hasResource(Object key) {
-        Map<Object, Object> map = resources.get();
-        return map != null && map.containsKey(key);
+        return context.get().hasResource(key);
     }
     
     public static Object getResource(Object key) {
-        Map<Object, Object> map = resources.get();
-        if (map == null) {
-            return null;
-        }
-        return map.get(key);
+        return context.get().getResource(key);
     }
     
     public static void bindResource(Object key, Object value) {
-        Map<Object, Object> map = resources.get();
-        if (map == null) {
-            map = new HashMap<>();
-            resources.set(map);
-        }
-        map.put(key, value);
+        context.get().bindResource(key, value);
     }
     
     public static Object unbindResource(Object key) {
-        Map<Object, Object> map = resources.get();
-        if (map == null) {
-            return null;
-        }
-        Object value = map.remove(key);
-        if (map.isEmpty()) {
-            resources.remove();
-        }
-        return value;
+        return context.get().unbindResource(key);
     }
     
     public static void initSynchronization() {
-        if (synchronizationActive.get() != null) {
-            throw new IllegalStateException("事务同步已经初始化");
-        }
-        synchronizationActive.set(true);
-        synchronizations.set(new ArrayList<>());
+        context.get().initSynchronization();
     }
     
     public static void clearSynchronization() {
-        synchronizationActive.remove();
-        actualTransactionActive.remove();
-        synchronizations.remove();
+        context.get().clearSynchronization();
     }
     
     public static boolean isSynchronizationActive() {
-        return synchronizationActive.get() != null && synchronizationActive.get();
+        return context.get().isSynchronizationActive();
     }
     
     public static void setActualTransactionActive(boolean active) {
-        actualTransactionActive.set(active);
+        context.get().setActualTransactionActive(active);
     }
     
     public static boolean isActualTransactionActive() {
-        return actualTransactionActive.get() != null && actualTransactionActive.get();
+        return context.get().isActualTransactionActive();
+    }
+    
+    public static void setCurrentTransactionReadOnly(boolean readOnly) {
+        context.get().setCurrentTransactionReadOnly(readOnly);
+    }
+    
+    /**
+     * 当前线程上的事务是否只读，没有事务时返回false
+     */
+    public static boolean isCurrentTransactionReadOnly() {
+        return context.get().isCurrentTransactionReadOnly();
     }
     
     public static void registerSynchronization(TransactionSynchronization synchronization) {
-        if (!isSynchronizationActive()) {
-            throw new IllegalStateException("事务同步未激活");
-        }
-        synchronizations.get().add(synchronization);
+        context.get().registerSynchronization(synchronization);
     }
     
     public static List<TransactionSynchronization> getSynchronizations() {
-        return synchronizations.get();
+        return context.get().getSynchronizations();
     }
     
     public static void triggerBeforeBegin() {
-        List<TransactionSynchronization> synchs = getSynchronizations();
-        if (synchs != null) {
-            for (TransactionSynchronization synch : synchs) {
-                synch.beforeBegin();
-            }
-        }
+        context.get().triggerBeforeBegin();
     }
     
     /**
      * 触发事务提交前的同步回调
      */
     public static void triggerBeforeCommit() {
-        List<TransactionSynchronization> synchs = synchronizations.get();
-        if (synchs != null) {
-            for (TransactionSynchronization synchronization : synchs) {
-                synchronization.beforeCommit();
-            }
-        }
+        context.get().triggerBeforeCommit();
     }
     
     /**
      * 触发事务提交后的同步回调
      */
     public static void triggerAfterCommit() {
-        List<TransactionSynchronization> synchs = synchronizations.get();
-        if (synchs != null) {
-            for (TransactionSynchronization synchronization : synchs) {
-                synchronization.afterCommit();
-            }
-        }
+        context.get().triggerAfterCommit();
     }
     
     /**
      * 触发事务回滚前的同步回调
      */
     public static void triggerBeforeRollback() {
-        List<TransactionSynchronization> synchs = synchronizations.get();
-        if (synchs != null) {
-            for (TransactionSynchronization synchronization : synchs) {
-                synchronization.beforeRollback();
-            }
-        }
+        context.get().triggerBeforeRollback();
     }
     
     /**
      * 触发事务回滚后的同步回调
      */
     public static void triggerAfterRollback() {
-        List<TransactionSynchronization> synchs = synchronizations.get();
-        if (synchs != null) {
-            for (TransactionSynchronization synchronization : synchs) {
-                synchronization.afterRollback();
-            }
-        }
+        context.get().triggerAfterRollback();
     }
     
     /**
      * 触发事务完成后的同步回调
      */
     public static void triggerAfterCompletion(int status) {
-        List<TransactionSynchronization> synchs = synchronizations.get();
-        if (synchs != null) {
-            for (TransactionSynchronization synchronization : synchs) {
-                synchronization.afterCompletion(status);
-            }
-        }
+        context.get().triggerAfterCompletion(status);
     }
     
     public static void clear() {
-        synchronizationActive.remove();
-        actualTransactionActive.remove();
-        resources.remove();
-        synchronizations.remove();
+        context.get().clear();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+package com.kama.minispring.tx;
+
+/**
+ * 提交事务时发现事务已被标记为只回滚，事务被回滚而不是提交
+ * 通常是因为加入外部事务的内部方法抛出了需要回滚的异常，而外部方法捕获了该异常后正常返回
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class UnexpectedRollbackException extends TransactionException {
+    
+    public UnexpectedRollbackException(String message) {
+        super(message);
+    }
+    
+    public UnexpectedRollbackException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
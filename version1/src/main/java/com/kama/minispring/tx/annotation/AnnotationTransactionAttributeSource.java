@@ -0,0 +1,147 @@
+package com.kama.minispring.tx.annotation;
+
+import com.kama.minispring.tx.interceptor.RuleBasedTransactionAttribute;
+import com.kama.minispring.tx.interceptor.TransactionAttribute;
+import com.kama.minispring.tx.interceptor.TransactionAttributeSource;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 从{@link Transactional}注解解析事务属性
+ *
+ * <p>按以下顺序查找注解：目标类上的实现方法、目标类（包括继承的注解）、被调用的接口方法、接口。
+ * 只有公共方法参与事务。解析结果按方法和目标类缓存，没有事务的方法也缓存一个空标记，
+ * 因此每次调用只需要一次缓存读取，注解只在第一次调用时解析
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class AnnotationTransactionAttributeSource implements TransactionAttributeSource {
+    
+    /** 缓存中表示方法没有事务的标记 */
+    private static final TransactionAttribute NULL_TRANSACTION_ATTRIBUTE = new RuleBasedTransactionAttribute();
+    
+    private final Map<MethodClassKey, TransactionAttribute> attributeCache = new ConcurrentHashMap<>(256);
+    
+    @Override
+    public TransactionAttribute getTransactionAttribute(Method method, Class<?> targetClass) {
+        if (method.getDeclaringClass() == Object.class) {
+            return null;
+        }
+        MethodClassKey key = new MethodClassKey(method, targetClass);
+        TransactionAttribute cached = attributeCache.get(key);
+        if (cached == null) {
+            TransactionAttribute attribute = computeTransactionAttribute(method, targetClass);
+            cached = attribute != null ? attribute : NULL_TRANSACTION_ATTRIBUTE;
+            attributeCache.put(key, cached);
+        }
+        return cached != NULL_TRANSACTION_ATTRIBUTE ? cached : null;
+    }
+    
+    /**
+     * 判断类中是否有需要事务的公共方法，用于决定是否为bean创建代理
+     * 检查过程中解析的结果会写入缓存
+     *
+     * @param targetClass 目标类
+     * @return 有需要事务的方法时返回true
+     */
+    public boolean hasTransactionalMethods(Class<?> targetClass) {
+        boolean found = false;
+        for (Method method : targetClass.getMethods()) {
+            if (getTransactionAttribute(method, targetClass) != null) {
+                found = true;
+            }
+        }
+        return found;
+    }
+    
+    private TransactionAttribute computeTransactionAttribute(Method method, Class<?> targetClass) {
+        if (!Modifier.isPublic(method.getModifiers())) {
+            return null;
+        }
+        Method specificMethod = getMostSpecificMethod(method, targetClass);
+        Transactional transactional = specificMethod.getAnnotation(Transactional.class);
+        if (transactional == null) {
+            Class<?> implClass = targetClass != null ? targetClass : specificMethod.getDeclaringClass();
+            transactional = implClass.getAnnotation(Transactional.class);
+        }
+        if (transactional == null && specificMethod != method) {
+            transactional = method.getAnnotation(Transactional.class);
+            if (transactional == null) {
+                transactional = method.getDeclaringClass().getAnnotation(Transactional.class);
+            }
+        }
+        if (transactional == null) {
+            return null;
+        }
+        Class<?> nameClass = targetClass != null ? targetClass : method.getDeclaringClass();
+        return parseTransactionAnnotation(transactional, nameClass.getName() + "." + method.getName());
+    }
+    
+    /**
+     * 把注解转换为事务属性
+     *
+     * @param transactional 注解
+     * @param name 事务名称
+     * @return 事务属性
+     */
+    protected TransactionAttribute parseTransactionAnnotation(Transactional transactional, String name) {
+        RuleBasedTransactionAttribute attribute = new RuleBasedTransactionAttribute();
+        attribute.setPropagationBehavior(transactional.propagation());
+        attribute.setIsolationLevel(transactional.isolation());
+        attribute.setTimeout(transactional.timeout());
+        attribute.setReadOnly(transactional.readOnly());
+        attribute.setRollbackFor(transactional.rollbackFor());
+        attribute.setNoRollbackFor(transactional.noRollbackFor());
+        attribute.setName(name);
+        return attribute;
+    }
+    
+    /**
+     * 找到目标类上实现了接口方法的方法，注解通常标注在实现类上
+     */
+    private static Method getMostSpecificMethod(Method method, Class<?> targetClass) {
+        if (targetClass == null || method.getDeclaringClass() == targetClass) {
+            return method;
+        }
+        try {
+            return targetClass.getMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException ex) {
+            return method;
+        }
+    }
+    
+    /**
+     * 缓存键：同一个接口方法在不同的实现类上可能有不同的事务属性
+     */
+    private static final class MethodClassKey {
+        
+        private final Method method;
+        private final Class<?> targetClass;
+        
+        MethodClassKey(Method method, Class<?> targetClass) {
+            this.method = method;
+            this.targetClass = targetClass;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof MethodClassKey)) {
+                return false;
+            }
+            MethodClassKey that = (MethodClassKey) other;
+            return method.equals(that.method) && targetClass == that.targetClass;
+        }
+        
+        @Override
+        public int hashCode() {
+            return method.hashCode() * 31 + (targetClass != null ? targetClass.hashCode() : 0);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.kama.minispring.tx.annotation;
+
+import com.kama.minispring.tx.TransactionDefinition;
+
+import java.lang.annotation.*;
+
+/**
+ * 声明式事务注解
+ * 标注在类上时对该类的所有公共方法生效，方法上的注解优先于类上的注解
+ *
+ * <p>标注了该注解的bean由{@link TransactionalAnnotationBeanPostProcessor}创建代理，
+ * 通过代理调用的方法在事务中执行。同一个对象内部的方法调用不经过代理，不会开启事务
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface Transactional {
+    
+    /**
+     * 事务传播行为，取值见{@link TransactionDefinition}中的PROPAGATION_*常量
+     *
+     * @return 传播行为
+     */
+    int propagation() default TransactionDefinition.PROPAGATION_REQUIRED;
+    
+    /**
+     * 事务隔离级别，取值见{@link TransactionDefinition}中的ISOLATION_*常量
+     *
+     * @return 隔离级别
+     */
+    int isolation() default TransactionDefinition.ISOLATION_DEFAULT;
+    
+    /**
+     * 事务超时时间，单位秒
+     *
+     * @return 超时时间
+     */
+    int timeout() default TransactionDefinition.TIMEOUT_DEFAULT;
+    
+    /**
+     * 是否只读事务
+     *
+     * @return 是否只读
+     */
+    boolean readOnly() default false;
+    
+    /**
+     * 需要回滚的异常类型，默认只回滚RuntimeException和Error
+     *
+     * @return 异常类型
+     */
+    Class<? extends Throwable>[] rollbackFor() default {};
+    
+    /**
+     * 不需要回滚的异常类型，优先于rollbackFor
+     *
+     * @return 异常类型
+     */
+    Class<? extends Throwable>[] noRollbackFor() default {};
+}
@@ -0,0 +1,102 @@
+package com.kama.minispring.tx.annotation;
+
+import com.kama.minispring.aop.ProxyFactory;
+import com.kama.minispring.beans.BeansException;
+import com.kama.minispring.beans.factory.BeanFactory;
+import com.kama.minispring.beans.factory.BeanFactoryAware;
+import com.kama.minispring.beans.factory.config.BeanPostProcessor;
+import com.kama.minispring.tx.PlatformTransactionManager;
+import com.kama.minispring.tx.interceptor.TransactionInterceptor;
+
+/**
+ * 为标注了{@link Transactional}的bean创建事务代理的BeanPostProcessor
+ *
+ * <p>bean初始化完成后检查它的公共方法，有需要事务的方法时用{@link ProxyFactory}创建代理，
+ * 代理只对需要事务的方法应用{@link TransactionInterceptor}，其他方法直接调用目标对象。
+ * 事务管理器可以通过构造函数指定，否则从BeanFactory中按名称"transactionManager"获取
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class TransactionalAnnotationBeanPostProcessor implements BeanPostProcessor, BeanFactoryAware {
+    
+    /** 默认的事务管理器bean名称 */
+    public static final String DEFAULT_TRANSACTION_MANAGER_BEAN_NAME = "transactionManager";
+    
+    private final AnnotationTransactionAttributeSource transactionAttributeSource =
+            new AnnotationTransactionAttributeSource();
+    
+    private PlatformTransactionManager transactionManager;
+    
+    private BeanFactory beanFactory;
+    
+    private boolean proxyTargetClass;
+    
+    private volatile TransactionInterceptor transactionInterceptor;
+    
+    public TransactionalAnnotationBeanPostProcessor() {
+    }
+    
+    public TransactionalAnnotationBeanPostProcessor(PlatformTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+    
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+    
+    /**
+     * 设置是否强制使用Cglib代理，默认目标类实现了接口时使用JDK动态代理
+     *
+     * @param proxyTargetClass 是否强制使用Cglib代理
+     */
+    public void setProxyTargetClass(boolean proxyTargetClass) {
+        this.proxyTargetClass = proxyTargetClass;
+    }
+    
+    public AnnotationTransactionAttributeSource getTransactionAttributeSource() {
+        return transactionAttributeSource;
+    }
+    
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof PlatformTransactionManager
+                || !transactionAttributeSource.hasTransactionalMethods(bean.getClass())) {
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(proxyTargetClass);
+        proxyFactory.addAdvice(getTransactionInterceptor());
+        proxyFactory.setMethodMatcher((method, targetClass) ->
+                transactionAttributeSource.getTransactionAttribute(method, targetClass) != null);
+        return proxyFactory.getProxy();
+    }
+    
+    /**
+     * 所有代理共用一个拦截器，事务管理器在第一次创建代理时确定
+     */
+    private TransactionInterceptor getTransactionInterceptor() {
+        TransactionInterceptor interceptor = this.transactionInterceptor;
+        if (interceptor == null) {
+            synchronized (this) {
+                interceptor = this.transactionInterceptor;
+                if (interceptor == null) {
+                    interceptor = new TransactionInterceptor(resolveTransactionManager(), transactionAttributeSource);
+                    this.transactionInterceptor = interceptor;
+                }
+            }
+        }
+        return interceptor;
+    }
+    
+    private PlatformTransactionManager resolveTransactionManager() {
+        if (transactionManager != null) {
+            return transactionManager;
+        }
+        if (beanFactory == null) {
+            throw new BeansException("No PlatformTransactionManager set and no BeanFactory available to look it up");
+        }
+        return beanFactory.getBean(DEFAULT_TRANSACTION_MANAGER_BEAN_NAME, PlatformTransactionManager.class);
+    }
+}
@@ -0,0 +1,44 @@
+package com.kama.minispring.tx.interceptor;
+
+import com.kama.minispring.tx.DefaultTransactionDefinition;
+
+/**
+ * 按异常类型规则决定是否回滚的事务属性
+ *
+ * <p>异常属于noRollbackFor中的类型时提交，属于rollbackFor中的类型时回滚，
+ * 都不匹配时按默认规则只回滚RuntimeException和Error
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class RuleBasedTransactionAttribute extends DefaultTransactionDefinition implements TransactionAttribute {
+    
+    private static final Class<?>[] NO_RULES = new Class<?>[0];
+    
+    private Class<?>[] rollbackFor = NO_RULES;
+    
+    private Class<?>[] noRollbackFor = NO_RULES;
+    
+    public void setRollbackFor(Class<?>... rollbackFor) {
+        this.rollbackFor = rollbackFor != null ? rollbackFor.clone() : NO_RULES;
+    }
+    
+    public void setNoRollbackFor(Class<?>... noRollbackFor) {
+        this.noRollbackFor = noRollbackFor != null ? noRollbackFor.clone() : NO_RULES;
+    }
+    
+    @Override
+    public boolean rollbackOn(Throwable ex) {
+        for (Class<?> type : this.noRollbackFor) {
+            if (type.isInstance(ex)) {
+                return false;
+            }
+        }
+        for (Class<?> type : this.rollbackFor) {
+            if (type.isInstance(ex)) {
+                return true;
+            }
+        }
+        return ex instanceof RuntimeException || ex instanceof Error;
+    }
+}
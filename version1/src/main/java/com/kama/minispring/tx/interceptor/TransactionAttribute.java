@@ -0,0 +1,20 @@
+package com.kama.minispring.tx.interceptor;
+
+import com.kama.minispring.tx.TransactionDefinition;
+
+/**
+ * 事务属性，在事务定义的基础上增加异常回滚规则
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public interface TransactionAttribute extends TransactionDefinition {
+    
+    /**
+     * 判断方法抛出指定异常时是否回滚事务
+     *
+     * @param ex 方法抛出的异常
+     * @return 需要回滚时返回true
+     */
+    boolean rollbackOn(Throwable ex);
+}
@@ -0,0 +1,21 @@
+package com.kama.minispring.tx.interceptor;
+
+import java.lang.reflect.Method;
+
+/**
+ * 事务属性来源，解析方法的事务属性
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public interface TransactionAttributeSource {
+    
+    /**
+     * 获取方法的事务属性
+     *
+     * @param method 被调用的方法，可以是接口上的方法
+     * @param targetClass 目标类，可以为null
+     * @return 事务属性，方法不需要事务时返回null
+     */
+    TransactionAttribute getTransactionAttribute(Method method, Class<?> targetClass);
+}
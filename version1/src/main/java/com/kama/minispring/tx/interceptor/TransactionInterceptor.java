@@ -0,0 +1,83 @@
+package com.kama.minispring.tx.interceptor;
+
+import com.kama.minispring.aop.MethodInterceptor;
+import com.kama.minispring.aop.MethodInvocation;
+import com.kama.minispring.tx.PlatformTransactionManager;
+import com.kama.minispring.tx.TransactionStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 声明式事务的方法拦截器
+ *
+ * <p>按方法的事务属性开启事务后调用目标方法：正常返回时提交；抛出异常时按
+ * {@link TransactionAttribute#rollbackOn}回滚或提交，然后重新抛出原异常。
+ * 没有事务属性的方法直接调用
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class TransactionInterceptor implements MethodInterceptor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TransactionInterceptor.class);
+    
+    private final PlatformTransactionManager transactionManager;
+    
+    private final TransactionAttributeSource transactionAttributeSource;
+    
+    public TransactionInterceptor(PlatformTransactionManager transactionManager,
+                                  TransactionAttributeSource transactionAttributeSource) {
+        if (transactionManager == null) {
+            throw new IllegalArgumentException("PlatformTransactionManager must not be null");
+        }
+        if (transactionAttributeSource == null) {
+            throw new IllegalArgumentException("TransactionAttributeSource must not be null");
+        }
+        this.transactionManager = transactionManager;
+        this.transactionAttributeSource = transactionAttributeSource;
+    }
+    
+    public PlatformTransactionManager getTransactionManager() {
+        return transactionManager;
+    }
+    
+    public TransactionAttributeSource getTransactionAttributeSource() {
+        return transactionAttributeSource;
+    }
+    
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object target = invocation.getThis();
+        TransactionAttribute attribute = transactionAttributeSource.getTransactionAttribute(
+                invocation.getMethod(), target != null ? target.getClass() : null);
+        if (attribute == null) {
+            return invocation.proceed();
+        }
+        
+        TransactionStatus status = transactionManager.getTransaction(attribute);
+        Object result;
+        try {
+            result = invocation.proceed();
+        } catch (Throwable ex) {
+            completeTransactionAfterThrowing(attribute, status, ex);
+            throw ex;
+        }
+        transactionManager.commit(status);
+        return result;
+    }
+    
+    private void completeTransactionAfterThrowing(TransactionAttribute attribute, TransactionStatus status,
+                                                  Throwable ex) {
+        try {
+            if (attribute.rollbackOn(ex)) {
+                transactionManager.rollback(status);
+            } else {
+                transactionManager.commit(status);
+            }
+        } catch (RuntimeException | Error completionEx) {
+            // 事务完成失败的异常会覆盖业务异常，先记录业务异常
+            logger.error("Application exception overridden by transaction completion exception", ex);
+            throw completionEx;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.kama.minispring.web.servlet;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 支持异步请求的处理器拦截器
+ * 处理器启动异步处理后，容器线程上不会调用postHandle和afterCompletion，
+ * 而是调用afterConcurrentHandlingStarted；异步结果完成后再依次调用postHandle和afterCompletion
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public interface AsyncHandlerInterceptor extends HandlerInterceptor {
+
+    /**
+     * 处理器启动异步处理后，在容器线程上调用
+     *
+     * @param request 当前HTTP请求
+     * @param response 当前HTTP响应
+     * @param handler 选择的处理器
+     * @throws Exception 如果发生错误
+     */
+    default void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+            Object handler) throws Exception {
+    }
+}
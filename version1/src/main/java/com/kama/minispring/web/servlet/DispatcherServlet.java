@@ -1,5 +1,11 @@
 package com.kama.minispring.web.servlet;
 
+import com.kama.minispring.web.servlet.async.AsyncRequestTimeoutException;
+import com.kama.minispring.web.servlet.async.WebAsyncManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.AsyncContext;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -8,16 +14,25 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Spring MVC的核心分发器
  * 负责将请求分发给对应的处理器，并渲染响应结果
  *
+ * <p>处理器返回Callable或CompletableFuture且容器支持异步时，容器线程在启动异步后立即返回，
+ * postHandle、视图渲染和afterCompletion在异步结果完成后按原有顺序执行。
+ * Callable在{@link #setAsyncExecutor 异步线程池}中执行，默认在JDK 21及以上使用虚拟线程。
+ *
  * @author kama
  * @version 1.0.0
  */
 public class DispatcherServlet extends HttpServlet {
     
+    private static final Logger logger = LoggerFactory.getLogger(DispatcherServlet.class);
+    
     /** 处理器映射列表 */
     protected List<HandlerMapping> handlerMappings;
     
@@ -27,6 +42,18 @@ public class DispatcherServlet extends HttpServlet {
     /** 视图解析器列表 */
     protected List<ViewResolver> viewResolvers;
     
+    /** 执行异步处理器返回的Callable的线程池 */
+    private volatile Executor asyncExecutor;
+    
+    /** 未显式设置时创建的默认线程池，销毁时关闭 */
+    private ExecutorService defaultAsyncExecutor;
+    
+    /** 异步请求超时时间（毫秒），小于等于0时使用容器默认值 */
+    private long asyncTimeout = -1;
+    
+    /** 绑定到每个请求上的WebAsyncManager工厂，异步配置变化时重新创建 */
+    private volatile WebAsyncManager.Factory asyncManagerFactory;
+    
     @Override
     public void init() throws ServletException {
         // 初始化组件列表
@@ -62,7 +89,12 @@ public class DispatcherServlet extends HttpServlet {
         
         try {
             // 1. 查找Handler
-            mappedHandler = getHandler(processedRequest);
+            try {
+                mappedHandler = getHandler(processedRequest);
+            } catch (HttpRequestMethodNotSupportedException ex) {
+                methodNotSupported(processedRequest, response, ex);
+                return;
+            }
             if (mappedHandler == null) {
                 noHandlerFound(processedRequest, response);
                 return;
@@ -76,9 +108,21 @@ public class DispatcherServlet extends HttpServlet {
                 return;
             }
             
-            // 4. 执行处理器方法
+            // 4. 执行处理器方法，处理器返回异步结果时才创建WebAsyncManager
+            processedRequest.setAttribute(WebAsyncManager.WEB_ASYNC_MANAGER_FACTORY_ATTRIBUTE, getAsyncManagerFactory());
             mv = ha.handle(processedRequest, response, mappedHandler.getHandler());
             
+            // 处理器已启动异步处理，剩余步骤在异步结果完成后执行
+            WebAsyncManager asyncManager = WebAsyncManager.getAsyncManager(processedRequest);
+            if (asyncManager != null && asyncManager.isConcurrentHandlingStarted()) {
+                mappedHandler.applyAfterConcurrentHandlingStarted(processedRequest, response);
+                HandlerExecutionChain chain = mappedHandler;
+                AsyncContext asyncContext = asyncManager.getAsyncContext();
+                asyncManager.getConcurrentResult().whenComplete((result, ex) ->
+                        processAsyncResult(processedRequest, response, chain, asyncContext, result, ex));
+                return;
+            }
+            
             // 5. 执行后置拦截器
             mappedHandler.applyPostHandle(processedRequest, response, mv);
             
@@ -107,6 +151,53 @@ public class DispatcherServlet extends HttpServlet {
         }
     }
     
+    /**
+     * 异步结果完成后继续执行后置拦截器、视图渲染和完成回调，最后结束异步上下文
+     */
+    protected void processAsyncResult(HttpServletRequest request, HttpServletResponse response,
+            HandlerExecutionChain mappedHandler, AsyncContext asyncContext, ModelAndView mv, Throwable failure) {
+        Exception dispatchException = null;
+        try {
+            if (failure != null) {
+                dispatchException = unwrapAsyncFailure(failure);
+            } else {
+                mappedHandler.applyPostHandle(request, response, mv);
+            }
+        } catch (Exception ex) {
+            dispatchException = ex;
+        }
+        
+        try {
+            if (dispatchException instanceof AsyncRequestTimeoutException) {
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            } else if (dispatchException != null) {
+                processHandlerException(request, response, mappedHandler, dispatchException);
+            } else if (mv != null && !mv.wasCleared()) {
+                render(mv, request, response);
+            }
+        } catch (Exception ex) {
+            if (dispatchException == null) {
+                dispatchException = ex;
+            }
+            logger.error("Async request processing failed", ex);
+        } finally {
+            try {
+                mappedHandler.triggerAfterCompletion(request, response, dispatchException);
+            } catch (Exception ex) {
+                logger.error("Could not complete after-completion", ex);
+            }
+            asyncContext.complete();
+        }
+    }
+    
+    private static Exception unwrapAsyncFailure(Throwable failure) {
+        Throwable cause = failure;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof Exception ? (Exception) cause : new ServletException("Async processing failed", cause);
+    }
+    
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
@@ -169,6 +260,18 @@ public class DispatcherServlet extends HttpServlet {
         response.sendError(HttpServletResponse.SC_NOT_FOUND);
     }
     
+    /**
+     * 处理请求路径存在但请求方法不受支持的情况
+     */
+    protected void methodNotSupported(HttpServletRequest request, HttpServletResponse response,
+            HttpRequestMethodNotSupportedException ex) throws ServletException, IOException {
+        String[] supportedMethods = ex.getSupportedMethods();
+        if (supportedMethods.length > 0) {
+            response.setHeader("Allow", String.join(", ", supportedMethods));
+        }
+        response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+    }
+    
     /**
      * 处理Handler执行过程中的异常
      */
@@ -220,6 +323,58 @@ public class DispatcherServlet extends HttpServlet {
         return null;
     }
     
+    /**
+     * 设置执行异步处理器返回的Callable的线程池
+     */
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+    
+    /**
+     * 设置异步请求超时时间（毫秒）
+     */
+    public void setAsyncTimeout(long asyncTimeout) {
+        this.asyncTimeout = asyncTimeout;
+        this.asyncManagerFactory = null;
+    }
+    
+    /**
+     * 获取绑定到请求上的WebAsyncManager工厂，所有请求共享同一个实例
+     */
+    protected WebAsyncManager.Factory getAsyncManagerFactory() {
+        WebAsyncManager.Factory factory = this.asyncManagerFactory;
+        if (factory == null) {
+            factory = new WebAsyncManager.Factory(this::getAsyncExecutor, this.asyncTimeout);
+            this.asyncManagerFactory = factory;
+        }
+        return factory;
+    }
+    
+    /**
+     * 获取异步线程池，未设置时延迟创建默认线程池
+     */
+    protected Executor getAsyncExecutor() {
+        Executor executor = this.asyncExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                if (this.asyncExecutor == null) {
+                    this.defaultAsyncExecutor = WebAsyncManager.createDefaultExecutor();
+                    this.asyncExecutor = this.defaultAsyncExecutor;
+                }
+                executor = this.asyncExecutor;
+            }
+        }
+        return executor;
+    }
+    
+    @Override
+    public void destroy() {
+        if (this.defaultAsyncExecutor != null) {
+            this.defaultAsyncExecutor.shutdown();
+        }
+        super.destroy();
+    }
+    
     /**
      * 初始化处理器映射器
      */
@@ -76,6 +76,22 @@ public class HandlerExecutionChain {
         }
     }
     
+    /**
+     * 处理器启动异步处理后，通知实现了AsyncHandlerInterceptor的拦截器
+     */
+    public void applyAfterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response) {
+        for (int i = interceptors.size() - 1; i >= 0; i--) {
+            HandlerInterceptor interceptor = interceptors.get(i);
+            if (interceptor instanceof AsyncHandlerInterceptor) {
+                try {
+                    ((AsyncHandlerInterceptor) interceptor).afterConcurrentHandlingStarted(request, response, this.handler);
+                } catch (Throwable throwable) {
+                    System.err.println("AsyncHandlerInterceptor.afterConcurrentHandlingStarted threw exception: " + throwable);
+                }
+            }
+        }
+    }
+    
     /**
      * 触发完成处理
      * 如果处理器执行过程中出现异常，则会调用该方法
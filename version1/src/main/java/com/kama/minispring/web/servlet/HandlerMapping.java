@@ -11,6 +11,11 @@ import javax.servlet.http.HttpServletRequest;
  */
 public interface HandlerMapping {
     
+    /**
+     * 保存路径变量Map的请求属性名
+     */
+    String URI_TEMPLATE_VARIABLES_ATTRIBUTE = HandlerMapping.class.getName() + ".uriTemplateVariables";
+    
     /**
      * 根据请求查找对应的处理器执行链
      * 返回的HandlerExecutionChain包含处理器和拦截器链
@@ -0,0 +1,37 @@
+package com.kama.minispring.web.servlet;
+
+import javax.servlet.ServletException;
+
+/**
+ * 请求路径有对应的处理器，但没有处理器支持该请求方法时抛出
+ * 由{@link DispatcherServlet}转换为405响应，并在Allow头中列出支持的方法
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class HttpRequestMethodNotSupportedException extends ServletException {
+
+    private final String method;
+
+    private final String[] supportedMethods;
+
+    public HttpRequestMethodNotSupportedException(String method, String[] supportedMethods) {
+        super("Request method '" + method + "' is not supported");
+        this.method = method;
+        this.supportedMethods = supportedMethods;
+    }
+
+    /**
+     * 获取不支持的请求方法
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * 获取该路径支持的请求方法
+     */
+    public String[] getSupportedMethods() {
+        return supportedMethods.clone();
+    }
+}
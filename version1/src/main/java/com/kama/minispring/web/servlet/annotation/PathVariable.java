@@ -0,0 +1,26 @@
+package com.kama.minispring.web.servlet.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 路径变量注解
+ * 将请求路径中的{var}变量绑定到处理器方法的参数上
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface PathVariable {
+
+    /**
+     * 路径变量名，为空时使用方法参数名
+     */
+    String value() default "";
+
+    /**
+     * 是否必须
+     */
+    boolean required() default true;
+}
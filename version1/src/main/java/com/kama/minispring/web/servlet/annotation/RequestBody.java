@@ -0,0 +1,21 @@
+package com.kama.minispring.web.servlet.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 请求体注解
+ * 将请求体内容绑定到处理器方法的参数上
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequestBody {
+
+    /**
+     * 是否必须
+     */
+    boolean required() default true;
+}
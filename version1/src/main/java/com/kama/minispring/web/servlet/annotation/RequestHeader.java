@@ -0,0 +1,31 @@
+package com.kama.minispring.web.servlet.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 请求头注解
+ * 将请求头绑定到处理器方法的参数上
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequestHeader {
+
+    /**
+     * 请求头名称，为空时使用方法参数名
+     */
+    String value() default "";
+
+    /**
+     * 是否必须
+     */
+    boolean required() default true;
+
+    /**
+     * 默认值，设置后required自动视为false
+     */
+    String defaultValue() default ValueConstants.DEFAULT_NONE;
+}
@@ -0,0 +1,16 @@
+package com.kama.minispring.web.servlet.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 响应体注解
+ * 标注后处理器方法的返回值作为数据放入模型，而不是作为视图名称解析
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ResponseBody {
+}
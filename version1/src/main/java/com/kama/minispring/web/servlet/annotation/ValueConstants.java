@@ -0,0 +1,15 @@
+package com.kama.minispring.web.servlet.annotation;
+
+/**
+ * 注解属性使用的公共常量
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public interface ValueConstants {
+
+    /**
+     * 表示未设置默认值，注解属性不能使用null，因此用一个不会出现的字符串代替
+     */
+    String DEFAULT_NONE = "\n\t\t\n\t\t\n\n\t\t\t\t\n";
+}
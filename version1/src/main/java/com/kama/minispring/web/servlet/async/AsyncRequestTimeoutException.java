@@ -0,0 +1,14 @@
+package com.kama.minispring.web.servlet.async;
+
+/**
+ * 异步请求在超时时间内没有产生结果时抛出
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class AsyncRequestTimeoutException extends RuntimeException {
+
+    public AsyncRequestTimeoutException(long timeout) {
+        super("Async request timed out after " + timeout + " ms");
+    }
+}
@@ -0,0 +1,213 @@
+package com.kama.minispring.web.servlet.async;
+
+import com.kama.minispring.web.servlet.ModelAndView;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 管理单个请求的异步处理
+ * DispatcherServlet在调用处理器前只在请求上绑定共享的{@link Factory}，处理器返回异步结果时
+ * 异步返回值处理器才通过{@link #getAsyncManager(HttpServletRequest, HttpServletResponse)}创建管理器并启动异步处理，
+ * 同步请求不会创建管理器。DispatcherServlet再根据{@link #getConcurrentResult()}在结果完成后继续执行拦截器和视图渲染
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class WebAsyncManager {
+
+    /** 保存WebAsyncManager的请求属性名 */
+    public static final String WEB_ASYNC_MANAGER_ATTRIBUTE = WebAsyncManager.class.getName() + ".WEB_ASYNC_MANAGER";
+
+    /** 保存{@link Factory}的请求属性名 */
+    public static final String WEB_ASYNC_MANAGER_FACTORY_ATTRIBUTE = WebAsyncManager.class.getName() + ".FACTORY";
+
+    private final HttpServletRequest request;
+
+    private final HttpServletResponse response;
+
+    private final Executor taskExecutor;
+
+    private final long timeout;
+
+    private AsyncContext asyncContext;
+
+    private CompletableFuture<ModelAndView> concurrentResult;
+
+    /**
+     * @param request 当前HTTP请求
+     * @param response 当前HTTP响应
+     * @param taskExecutor 执行Callable的线程池
+     * @param timeout 异步超时时间（毫秒），小于等于0时使用容器默认值
+     */
+    public WebAsyncManager(HttpServletRequest request, HttpServletResponse response,
+            Executor taskExecutor, long timeout) {
+        this.request = request;
+        this.response = response;
+        this.taskExecutor = taskExecutor;
+        this.timeout = timeout;
+    }
+
+    /**
+     * 获取已经绑定在请求上的WebAsyncManager
+     *
+     * @return WebAsyncManager，请求没有启动过异步处理时返回null
+     */
+    public static WebAsyncManager getAsyncManager(HttpServletRequest request) {
+        return (WebAsyncManager) request.getAttribute(WEB_ASYNC_MANAGER_ATTRIBUTE);
+    }
+
+    /**
+     * 获取绑定在请求上的WebAsyncManager，还没有时用请求上的{@link Factory}创建并绑定
+     *
+     * @return WebAsyncManager，不在DispatcherServlet中处理时返回null
+     */
+    public static WebAsyncManager getAsyncManager(HttpServletRequest request, HttpServletResponse response) {
+        WebAsyncManager asyncManager = getAsyncManager(request);
+        if (asyncManager == null) {
+            Factory factory = (Factory) request.getAttribute(WEB_ASYNC_MANAGER_FACTORY_ATTRIBUTE);
+            if (factory == null) {
+                return null;
+            }
+            asyncManager = factory.create(request, response);
+            request.setAttribute(WEB_ASYNC_MANAGER_ATTRIBUTE, asyncManager);
+        }
+        return asyncManager;
+    }
+
+    /**
+     * 在线程池中执行Callable，并将结果通过resultHandler转换为ModelAndView
+     */
+    public void startCallableProcessing(Callable<?> callable, Function<Object, ModelAndView> resultHandler) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        startAsyncProcessing(future, resultHandler);
+        try {
+            taskExecutor.execute(() -> {
+                try {
+                    future.complete(callable.call());
+                } catch (Throwable ex) {
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (RuntimeException ex) {
+            future.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * 等待CompletionStage完成，并将结果通过resultHandler转换为ModelAndView
+     * 不占用线程池线程，结果在完成CompletionStage的线程上处理
+     */
+    public void startCompletionStageProcessing(CompletionStage<?> stage,
+            Function<Object, ModelAndView> resultHandler) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        startAsyncProcessing(future, resultHandler);
+        stage.whenComplete((value, ex) -> {
+            if (ex != null) {
+                future.completeExceptionally(ex);
+            } else {
+                future.complete(value);
+            }
+        });
+    }
+
+    private void startAsyncProcessing(CompletableFuture<Object> future, Function<Object, ModelAndView> resultHandler) {
+        if (this.concurrentResult != null) {
+            throw new IllegalStateException("Async processing has already been started for this request");
+        }
+        this.asyncContext = request.startAsync(request, response);
+        if (timeout > 0) {
+            this.asyncContext.setTimeout(timeout);
+        }
+        this.asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                future.completeExceptionally(new AsyncRequestTimeoutException(asyncContext.getTimeout()));
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                future.completeExceptionally(event.getThrowable());
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+        this.concurrentResult = future.thenApply(resultHandler);
+    }
+
+    /**
+     * 是否已经启动异步处理
+     */
+    public boolean isConcurrentHandlingStarted() {
+        return this.concurrentResult != null;
+    }
+
+    /**
+     * 异步处理的最终结果
+     */
+    public CompletableFuture<ModelAndView> getConcurrentResult() {
+        return this.concurrentResult;
+    }
+
+    public AsyncContext getAsyncContext() {
+        return this.asyncContext;
+    }
+
+    /**
+     * 创建默认的异步线程池
+     * JDK 21及以上使用虚拟线程，每个任务一个虚拟线程；更低版本使用守护线程的缓存线程池
+     */
+    public static ExecutorService createDefaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "mvc-async-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * 创建WebAsyncManager的工厂，保存同一个DispatcherServlet处理的所有请求共享的异步配置
+     */
+    public static final class Factory {
+
+        private final Supplier<? extends Executor> taskExecutor;
+
+        private final long timeout;
+
+        /**
+         * @param taskExecutor 执行Callable的线程池，第一次启动异步处理时才获取
+         * @param timeout 异步超时时间（毫秒），小于等于0时使用容器默认值
+         */
+        public Factory(Supplier<? extends Executor> taskExecutor, long timeout) {
+            this.taskExecutor = taskExecutor;
+            this.timeout = timeout;
+        }
+
+        WebAsyncManager create(HttpServletRequest request, HttpServletResponse response) {
+            return new WebAsyncManager(request, response, taskExecutor.get(), timeout);
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.kama.minispring.web.servlet.handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * 基于路径段的前缀树路由表
+ * 支持字面量段、{var}路径变量、*单段通配和**多段通配
+ *
+ * <p>匹配时逐段比较，同一位置上的优先级为：字面量 &gt; {var} &gt; * &gt; **，
+ * 靠左的段优先决定结果；某个分支无法匹配时回溯到优先级更低的分支。
+ * 所有路由在{@link #compile()}后冻结为一棵只读的树，字面量子节点保存在开放寻址数组中，
+ * 整棵树通过一个volatile快照发布，查找线程看到的总是完整编译的结果。
+ * 查找过程直接在原始路径上按下标比较，不产生子串或其他临时对象，耗时只与路径长度相关。
+ *
+ * <p>{@code qualifier}的筛选在回溯过程中进行：路径匹配的模式上没有满足条件的值时，
+ * 继续回溯到优先级更低的模式，例如GET /users/new和POST /users/{id}同时存在时，
+ * POST /users/new匹配{id}。所有路径匹配的模式都不满足条件时{@link #match}返回null，
+ * 调用方再通过{@link #candidates}区分“路径不存在”和“请求方法不支持”
+ *
+ * @param <T> 叶子节点上保存的路由值类型
+ * @author kama
+ * @version 1.0.0
+ */
+final class PathTrie<T> {
+
+    /** 注册阶段的可变树，只在持有锁时访问 */
+    private final BuildNode<T> buildRoot = new BuildNode<>();
+
+    /**
+     * 在同一路径模式的多个值中做二次筛选，例如按请求方法
+     */
+    private final BiPredicate<? super T, String> selector;
+
+    /** 注册阶段路径变量个数的最大值 */
+    private int buildMaxVariables;
+
+    /** 编译后的只读快照，注册新模式后置为null，下次查找时重新编译 */
+    private volatile Snapshot<T> snapshot;
+
+    PathTrie(BiPredicate<? super T, String> selector) {
+        this.selector = selector;
+    }
+
+    /**
+     * 注册路径模式
+     *
+     * @param pattern 路径模式，例如/users/{id}或/static/**
+     * @param value 路由值
+     */
+    synchronized void insert(String pattern, T value) {
+        BuildNode<T> node = buildRoot;
+        int variables = 0;
+        int len = pattern.length();
+        for (int pos = firstSegment(pattern); pos <= len; ) {
+            int end = segmentEnd(pattern, pos);
+            String segment = pattern.substring(pos, end);
+            if ("**".equals(segment)) {
+                node = node.doubleWildcard != null ? node.doubleWildcard : (node.doubleWildcard = new BuildNode<>());
+            } else if ("*".equals(segment)) {
+                node = node.wildcard != null ? node.wildcard : (node.wildcard = new BuildNode<>());
+            } else if (isVariable(segment)) {
+                node = node.variable != null ? node.variable : (node.variable = new BuildNode<>());
+                variables++;
+            } else {
+                node = node.literals.computeIfAbsent(segment, key -> new BuildNode<>());
+            }
+            pos = end + 1;
+        }
+        node.values.add(value);
+        buildMaxVariables = Math.max(buildMaxVariables, variables);
+        snapshot = null;
+    }
+
+    /**
+     * 将注册阶段的可变结构编译为只读的查找树，并通过一次volatile写发布
+     */
+    synchronized void compile() {
+        if (snapshot == null) {
+            snapshot = new Snapshot<>(buildRoot.compile(), buildMaxVariables);
+        }
+    }
+
+    private Snapshot<T> snapshot() {
+        Snapshot<T> current = this.snapshot;
+        if (current == null) {
+            compile();
+            current = this.snapshot;
+        }
+        return current;
+    }
+
+    /**
+     * 查找与路径匹配的路由值
+     *
+     * @param path 请求路径
+     * @param qualifier 传给筛选器的附加条件，例如请求方法
+     * @param captures 路径变量的捕获结果，按出现顺序依次写入起止下标；
+     *                 长度至少为{@code 2 * maxVariables()}，为null时不记录路径变量
+     * @return 匹配的路由值，没有匹配时返回null
+     */
+    T match(String path, String qualifier, int[] captures) {
+        return matchNode(snapshot().root, path, firstSegment(path), captures, 0, qualifier, null);
+    }
+
+    /**
+     * 获取所有与路径匹配的模式上注册的全部值，不经过筛选器
+     * 用于在{@link #match}没有结果时判断是路径不存在还是附加条件不满足
+     *
+     * @param path 请求路径
+     * @return 全部值，按模式的优先级排列，路径没有匹配的模式时返回空列表
+     */
+    @SuppressWarnings("unchecked")
+    List<T> candidates(String path) {
+        List<Node<T>> nodes = new ArrayList<>(2);
+        matchNode(snapshot().root, path, firstSegment(path), null, 0, null, nodes);
+        if (nodes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<T> values = new ArrayList<>();
+        for (Node<T> node : nodes) {
+            for (Object value : node.values) {
+                values.add((T) value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 所有模式中路径变量个数的最大值
+     */
+    int maxVariables() {
+        return snapshot().maxVariables;
+    }
+
+    /**
+     * 按出现顺序提取路径模式中的变量名
+     *
+     * @param pattern 路径模式
+     * @return 变量名数组，没有变量时为空数组
+     */
+    static String[] parseVariableNames(String pattern) {
+        List<String> names = new ArrayList<>();
+        int len = pattern.length();
+        for (int pos = firstSegment(pattern); pos <= len; ) {
+            int end = segmentEnd(pattern, pos);
+            String segment = pattern.substring(pos, end);
+            if (isVariable(segment)) {
+                names.add(segment.substring(1, segment.length() - 1));
+            }
+            pos = end + 1;
+        }
+        return names.toArray(new String[0]);
+    }
+
+    /**
+     * 按优先级回溯，返回第一个路径匹配且满足筛选条件的值
+     * {@code matched}不为null时不做筛选，而是收集所有路径匹配的节点，此时总是返回null
+     */
+    private T matchNode(Node<T> node, String path, int pos, int[] captures, int varIndex,
+                        String qualifier, List<Node<T>> matched) {
+        int len = path.length();
+        if (pos > len) {
+            T result = accept(node, qualifier, matched);
+            if (result != null) {
+                return result;
+            }
+            // **可以匹配零个路径段
+            Node<T> doubleWildcard = node.doubleWildcard;
+            return doubleWildcard != null ? accept(doubleWildcard, qualifier, matched) : null;
+        }
+
+        int end = segmentEnd(path, pos);
+        T result;
+
+        Node<T> literal = node.findLiteral(path, pos, end);
+        if (literal != null) {
+            result = matchNode(literal, path, end + 1, captures, varIndex, qualifier, matched);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        if (node.variable != null && end > pos) {
+            if (captures != null) {
+                captures[varIndex << 1] = pos;
+                captures[(varIndex << 1) + 1] = end;
+            }
+            result = matchNode(node.variable, path, end + 1, captures, varIndex + 1, qualifier, matched);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        if (node.wildcard != null && end > pos) {
+            result = matchNode(node.wildcard, path, end + 1, captures, varIndex, qualifier, matched);
+            if (result != null) {
+                return result;
+            }
+        }
+
+        if (node.doubleWildcard != null) {
+            // 从消费零个段开始逐段尝试，尽量让**后面的段参与匹配
+            int next = pos;
+            while (true) {
+                result = matchNode(node.doubleWildcard, path, next, captures, varIndex, qualifier, matched);
+                if (result != null || next > len) {
+                    return result;
+                }
+                next = segmentEnd(path, next) + 1;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 路径在该节点结束时的处理：收集模式下记录节点并返回null，否则返回满足筛选条件的值
+     */
+    private T accept(Node<T> node, String qualifier, List<Node<T>> matched) {
+        if (node.values == null) {
+            return null;
+        }
+        if (matched != null) {
+            // **可能从不同的分支到达同一个节点
+            if (!matched.contains(node)) {
+                matched.add(node);
+            }
+            return null;
+        }
+        return node.select(qualifier, selector);
+    }
+
+    /**
+     * 第一个路径段的起始下标，路径为空或仅为"/"时返回length + 1表示没有路径段
+     */
+    private static int firstSegment(String path) {
+        int pos = (!path.isEmpty() && path.charAt(0) == '/') ? 1 : 0;
+        return pos == path.length() ? pos + 1 : pos;
+    }
+
+    private static int segmentEnd(String path, int pos) {
+        int end = path.indexOf('/', pos);
+        return end < 0 ? path.length() : end;
+    }
+
+    private static boolean isVariable(String segment) {
+        return segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}';
+    }
+
+    private static int hash(String s, int from, int to) {
+        int h = 0;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 编译结果：只读的查找树和路径变量个数的最大值
+     */
+    private static final class Snapshot<T> {
+
+        final Node<T> root;
+        final int maxVariables;
+
+        Snapshot(Node<T> root, int maxVariables) {
+            this.root = root;
+            this.maxVariables = maxVariables;
+        }
+    }
+
+    /**
+     * 注册阶段的可变节点
+     */
+    private static final class BuildNode<T> {
+
+        final Map<String, BuildNode<T>> literals = new LinkedHashMap<>();
+        final List<T> values = new ArrayList<>();
+        BuildNode<T> variable;
+        BuildNode<T> wildcard;
+        BuildNode<T> doubleWildcard;
+
+        @SuppressWarnings("unchecked")
+        Node<T> compile() {
+            String[] keys = null;
+            int[] hashes = null;
+            Node<T>[] nodes = null;
+            if (!literals.isEmpty()) {
+                int capacity = Integer.highestOneBit(literals.size() * 2 - 1) << 1;
+                keys = new String[capacity];
+                hashes = new int[capacity];
+                nodes = new Node[capacity];
+                int mask = capacity - 1;
+                for (Map.Entry<String, BuildNode<T>> entry : literals.entrySet()) {
+                    String key = entry.getKey();
+                    int h = hash(key, 0, key.length());
+                    int i = h & mask;
+                    while (keys[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = key;
+                    hashes[i] = h;
+                    nodes[i] = entry.getValue().compile();
+                }
+            }
+            return new Node<>(keys, hashes, nodes,
+                    variable != null ? variable.compile() : null,
+                    wildcard != null ? wildcard.compile() : null,
+                    doubleWildcard != null ? doubleWildcard.compile() : null,
+                    values.isEmpty() ? null : values.toArray());
+        }
+    }
+
+    /**
+     * 编译后的只读节点
+     */
+    private static final class Node<T> {
+
+        /** 字面量子节点的开放寻址表，长度为2的幂 */
+        final String[] literalKeys;
+        final int[] literalHashes;
+        final Node<T>[] literalNodes;
+
+        final Node<T> variable;
+        final Node<T> wildcard;
+        final Node<T> doubleWildcard;
+
+        final Object[] values;
+
+        Node(String[] literalKeys, int[] literalHashes, Node<T>[] literalNodes, Node<T> variable,
+             Node<T> wildcard, Node<T> doubleWildcard, Object[] values) {
+            this.literalKeys = literalKeys;
+            this.literalHashes = literalHashes;
+            this.literalNodes = literalNodes;
+            this.variable = variable;
+            this.wildcard = wildcard;
+            this.doubleWildcard = doubleWildcard;
+            this.values = values;
+        }
+
+        Node<T> findLiteral(String path, int from, int to) {
+            String[] keys = this.literalKeys;
+            if (keys == null) {
+                return null;
+            }
+            int h = hash(path, from, to);
+            int len = to - from;
+            int mask = keys.length - 1;
+            for (int i = h & mask; keys[i] != null; i = (i + 1) & mask) {
+                String key = keys[i];
+                if (literalHashes[i] == h && key.length() == len && path.regionMatches(from, key, 0, len)) {
+                    return literalNodes[i];
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        T select(String qualifier, BiPredicate<? super T, String> selector) {
+            for (Object candidate : values) {
+                if (selector == null || selector.test((T) candidate, qualifier)) {
+                    return (T) candidate;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -2,10 +2,24 @@ package com.kama.minispring.web.servlet.handler;
 
 import com.kama.minispring.web.servlet.HandlerAdapter;
 import com.kama.minispring.web.servlet.ModelAndView;
+import com.kama.minispring.web.servlet.method.AsyncMethodReturnValueHandler;
+import com.kama.minispring.web.servlet.method.HandlerMethodArgumentResolver;
+import com.kama.minispring.web.servlet.method.HandlerMethodReturnValueHandler;
+import com.kama.minispring.web.servlet.method.InvocableHandlerMethod;
+import com.kama.minispring.web.servlet.method.ModelAndViewMethodReturnValueHandler;
+import com.kama.minispring.web.servlet.method.ModelAttributeMethodReturnValueHandler;
+import com.kama.minispring.web.servlet.method.PathVariableMethodArgumentResolver;
+import com.kama.minispring.web.servlet.method.RequestBodyMethodArgumentResolver;
+import com.kama.minispring.web.servlet.method.RequestHeaderMethodArgumentResolver;
+import com.kama.minispring.web.servlet.method.RequestParamMethodArgumentResolver;
+import com.kama.minispring.web.servlet.method.ServletRequestMethodArgumentResolver;
+import com.kama.minispring.web.servlet.method.ViewNameMethodReturnValueHandler;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -13,73 +27,111 @@ import java.util.concurrent.ConcurrentHashMap;
  * 基于@RequestMapping注解的处理器适配器
  * 负责执行处理器方法并处理返回值
  *
+ * <p>每个处理器方法第一次被调用时绑定为{@link InvocableHandlerMethod}：
+ * 参数解析器、返回值处理器和MethodHandle都在绑定时确定并缓存，之后的请求只需一次缓存查找。
+ *
  * @author kama
  * @version 1.0.0
  */
 public class RequestMappingHandlerAdapter implements HandlerAdapter {
     
     /**
-     * 缓存已经解析过的处理器方法
+     * 缓存已经绑定过的处理器方法
      */
-    private final Map<Method, HandlerMethod> handlerMethodCache = new ConcurrentHashMap<>();
+    private final Map<Method, InvocableHandlerMethod> handlerMethodCache = new ConcurrentHashMap<>();
+    
+    private List<HandlerMethodArgumentResolver> customArgumentResolvers = new ArrayList<>();
+    
+    private List<HandlerMethodReturnValueHandler> customReturnValueHandlers = new ArrayList<>();
+    
+    private volatile List<HandlerMethodArgumentResolver> argumentResolvers;
+    
+    private volatile List<HandlerMethodReturnValueHandler> returnValueHandlers;
     
     @Override
     public boolean supports(Object handler) {
-        return handler instanceof HandlerMethod;
+        return handler instanceof HandlerMethod
+                || handler instanceof RequestMappingHandlerMapping.HandlerMethod;
     }
     
     @Override
     public ModelAndView handle(HttpServletRequest request, HttpServletResponse response, 
             Object handler) throws Exception {
-        return handleInternal(request, response, (HandlerMethod) handler);
+        if (handler instanceof RequestMappingHandlerMapping.HandlerMethod) {
+            RequestMappingHandlerMapping.HandlerMethod mapped = (RequestMappingHandlerMapping.HandlerMethod) handler;
+            return handleInternal(request, response, mapped.getBean(), mapped.getMethod());
+        }
+        HandlerMethod handlerMethod = (HandlerMethod) handler;
+        return handleInternal(request, response, handlerMethod.getBean(), handlerMethod.getMethod());
     }
     
     /**
      * 处理请求的内部方法
      */
     protected ModelAndView handleInternal(HttpServletRequest request,
-            HttpServletResponse response, HandlerMethod handlerMethod) 
+            HttpServletResponse response, Object bean, Method method) 
             throws Exception {
-        
-        // 获取处理器方法和bean
-        Method method = handlerMethod.getMethod();
-        Object bean = handlerMethod.getBean();
-        
-        System.out.println("Executing method: " + method.getName());
-        System.out.println("Bean: " + bean);
-        
-        // 调用处理器方法
-        Object returnValue = method.invoke(bean);
-        System.out.println("Return value: " + returnValue);
-        System.out.println("Return value type: " + (returnValue != null ? returnValue.getClass() : "null"));
-        
-        // 处理返回值
-        ModelAndView mv = null;
-        if (returnValue == null) {
-            mv = new ModelAndView();
-            mv.setViewName("");
-            System.out.println("Return value is null, creating empty ModelAndView");
-        } else if (returnValue instanceof ModelAndView) {
-            mv = (ModelAndView) returnValue;
-            System.out.println("Return value is ModelAndView");
-        } else if (method.getReturnType() == String.class && method.getName().equals("stringReturnValue")) {
-            // 如果返回值是String,且方法名是stringReturnValue,则认为是视图名称
-            mv = new ModelAndView((String) returnValue);
-            System.out.println("Return value is String view name, creating ModelAndView with view name");
-        } else {
-            // 其他类型的返回值,放入model中
-            mv = new ModelAndView();
-            mv.addObject("result", returnValue);
-            mv.setViewName(""); // 设置一个空的视图名称
-            System.out.println("Return value is Object, adding to model with key 'result': " + returnValue);
-            System.out.println("Model after adding: " + mv.getModel());
+        return getInvocableHandlerMethod(method).invokeAndHandle(bean, request, response);
+    }
+    
+    /**
+     * 获取绑定好的处理器方法，首次调用时创建并缓存
+     *
+     * @param method 处理器方法
+     * @return 绑定了参数解析器和返回值处理器的处理器方法
+     */
+    public InvocableHandlerMethod getInvocableHandlerMethod(Method method) {
+        InvocableHandlerMethod invocable = handlerMethodCache.get(method);
+        if (invocable == null) {
+            invocable = handlerMethodCache.computeIfAbsent(method, key ->
+                    new InvocableHandlerMethod(key, getArgumentResolvers(), getReturnValueHandlers()));
         }
-        
-        if (mv != null && mv.getModel() != null) {
-            System.out.println("Final ModelAndView model: " + mv.getModel());
+        return invocable;
+    }
+    
+    /**
+     * 设置自定义参数解析器，优先于内置解析器
+     */
+    public void setCustomArgumentResolvers(List<HandlerMethodArgumentResolver> argumentResolvers) {
+        this.customArgumentResolvers = new ArrayList<>(argumentResolvers);
+        this.argumentResolvers = null;
+        this.handlerMethodCache.clear();
+    }
+    
+    /**
+     * 设置自定义返回值处理器，优先于内置处理器
+     */
+    public void setCustomReturnValueHandlers(List<HandlerMethodReturnValueHandler> returnValueHandlers) {
+        this.customReturnValueHandlers = new ArrayList<>(returnValueHandlers);
+        this.returnValueHandlers = null;
+        this.handlerMethodCache.clear();
+    }
+    
+    private List<HandlerMethodArgumentResolver> getArgumentResolvers() {
+        List<HandlerMethodArgumentResolver> resolvers = this.argumentResolvers;
+        if (resolvers == null) {
+            resolvers = new ArrayList<>(customArgumentResolvers);
+            resolvers.add(new RequestParamMethodArgumentResolver());
+            resolvers.add(new PathVariableMethodArgumentResolver());
+            resolvers.add(new RequestHeaderMethodArgumentResolver());
+            resolvers.add(new RequestBodyMethodArgumentResolver());
+            resolvers.add(new ServletRequestMethodArgumentResolver());
+            this.argumentResolvers = resolvers;
         }
-        
-        return mv;
+        return resolvers;
+    }
+    
+    private List<HandlerMethodReturnValueHandler> getReturnValueHandlers() {
+        List<HandlerMethodReturnValueHandler> handlers = this.returnValueHandlers;
+        if (handlers == null) {
+            handlers = new ArrayList<>(customReturnValueHandlers);
+            handlers.add(new ModelAndViewMethodReturnValueHandler());
+            handlers.add(new ViewNameMethodReturnValueHandler());
+            handlers.add(new AsyncMethodReturnValueHandler(handlers));
+            handlers.add(new ModelAttributeMethodReturnValueHandler());
+            this.returnValueHandlers = handlers;
+        }
+        return handlers;
     }
     
     /**
@@ -5,33 +5,43 @@ import com.kama.minispring.context.ApplicationContext;
 import com.kama.minispring.context.ApplicationContextAware;
 import com.kama.minispring.web.servlet.HandlerExecutionChain;
 import com.kama.minispring.web.servlet.HandlerMapping;
+import com.kama.minispring.web.servlet.HttpRequestMethodNotSupportedException;
 import com.kama.minispring.web.servlet.annotation.RequestMapping;
 import com.kama.minispring.web.servlet.annotation.RequestMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.servlet.http.HttpServletRequest;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 基于@RequestMapping注解的处理器映射器
  * 负责查找和维护请求路径与处理器的映射关系
+ * 路径支持字面量、{var}路径变量、*和**通配符，所有映射在初始化时编译为前缀树
+ * 路径匹配但请求方法不匹配时抛出{@link HttpRequestMethodNotSupportedException}，
+ * 不会退回到优先级更低的路径模式
  *
  * @author kama
  * @version 1.0.0
  */
 public class RequestMappingHandlerMapping implements HandlerMapping, ApplicationContextAware, InitializingBean {
 
+    private static final Logger logger = LoggerFactory.getLogger(RequestMappingHandlerMapping.class);
+    
     private ApplicationContext applicationContext;
     
     /**
-     * 保存路径与处理器的映射关系
-     * key: 请求路径
-     * value: 处理器方法信息
+     * 保存路径模式与处理器的映射关系
+     * 同一路径模式下可以按请求方法注册多个处理器
      */
-    private final Map<String, MappingRegistry.MappingRegistration> mappingLookup = new HashMap<>();
+    private final PathTrie<MappingRegistry.MappingRegistration> mappingLookup =
+            new PathTrie<>(RequestMappingHandlerMapping::isMethodMatch);
     
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) {
@@ -40,21 +50,23 @@ public class RequestMappingHandlerMapping implements HandlerMapping, Application
     
     @Override
     public void afterPropertiesSet() throws Exception {
-        System.out.println("开始初始化处理器映射器...");
+        logger.debug("开始初始化处理器映射器...");
         // 扫描所有带@RequestMapping注解的Bean
         String[] beanNames = applicationContext.getBeanDefinitionNames();
-        System.out.println("找到的Bean名称: " + String.join(", ", beanNames));
+        if (logger.isDebugEnabled()) {
+            logger.debug("找到的Bean名称: {}", String.join(", ", beanNames));
+        }
         
         for (String beanName : beanNames) {
             Object bean = applicationContext.getBean(beanName);
             Class<?> beanClass = bean.getClass();
-            System.out.println("处理Bean: " + beanName + ", 类型: " + beanClass.getName());
+            logger.debug("处理Bean: {}, 类型: {}", beanName, beanClass.getName());
             
             // 获取类级别的@RequestMapping
             RequestMapping typeMapping = beanClass.getAnnotation(RequestMapping.class);
             String typePath = typeMapping != null ? typeMapping.value() : "";
             RequestMethod[] typeMethods = typeMapping != null ? typeMapping.method() : new RequestMethod[0];
-            System.out.println("类级别映射路径: " + typePath);
+            logger.debug("类级别映射路径: {}", typePath);
             
             // 如果类上有@RequestMapping注解但没有指定方法级别的映射,则使用类级别的映射
             if (typeMapping != null) {
@@ -71,10 +83,10 @@ public class RequestMappingHandlerMapping implements HandlerMapping, Application
                     // 找到名为handleRequest的方法作为默认处理方法
                     try {
                         Method handleRequestMethod = beanClass.getMethod("handleRequest");
-                        System.out.println("找到默认处理方法: handleRequest");
+                        logger.debug("找到默认处理方法: handleRequest");
                         registerHandlerMethod(typePath, bean, handleRequestMethod, typeMethods);
                     } catch (NoSuchMethodException e) {
-                        System.out.println("未找到默认处理方法handleRequest");
+                        logger.debug("未找到默认处理方法handleRequest");
                     }
                 }
             }
@@ -86,7 +98,7 @@ public class RequestMappingHandlerMapping implements HandlerMapping, Application
                 if (methodMapping != null) {
                     String methodPath = methodMapping.value();
                     String path = combinePath(typePath, methodPath);
-                    System.out.println("找到方法级别映射: " + method.getName() + " -> " + path);
+                    logger.debug("找到方法级别映射: {} -> {}", method.getName(), path);
                     
                     // 合并类级别和方法级别的RequestMethod
                     RequestMethod[] methodMethods = methodMapping.method();
@@ -97,41 +109,71 @@ public class RequestMappingHandlerMapping implements HandlerMapping, Application
                 }
             }
         }
-        System.out.println("处理器映射器初始化完成,注册的映射: " + mappingLookup.keySet());
+        mappingLookup.compile();
+        logger.debug("处理器映射器初始化完成");
     }
     
     @Override
     public HandlerExecutionChain getHandler(HttpServletRequest request) throws Exception {
         String lookupPath = request.getRequestURI();
         String method = request.getMethod();
-        System.out.println("查找处理器: 路径=" + lookupPath + ", 方法=" + method);
-        
-        // 查找处理器
-        MappingRegistry.MappingRegistration registration = mappingLookup.get(lookupPath);
-        if (registration != null) {
-            System.out.println("找到映射注册信息: " + registration.method.getName());
-            // 检查请求方法是否匹配
-            if (registration.methods.length == 0 || isMethodMatch(method, registration.methods)) {
-                System.out.println("请求方法匹配成功");
-                return new HandlerExecutionChain(new HandlerMethod(registration.handler, registration.method));
-            } else {
-                System.out.println("请求方法不匹配");
+
+        // 先不记录路径变量，只有匹配到带变量的模式时才分配捕获数组并重新匹配
+        MappingRegistry.MappingRegistration registration = mappingLookup.match(lookupPath, method, null);
+        if (registration == null) {
+            // 回溯过程中已经按请求方法筛选，只有路径匹配而方法全部不匹配时才返回405
+            List<MappingRegistry.MappingRegistration> candidates = mappingLookup.candidates(lookupPath);
+            if (!candidates.isEmpty()) {
+                throw new HttpRequestMethodNotSupportedException(method, getSupportedMethods(candidates));
             }
-        } else {
-            System.out.println("未找到映射注册信息");
+            return null;
         }
-        
-        return null;
+
+        int[] captures = null;
+        if (registration.variableNames.length > 0) {
+            // 回溯时失败的分支也会写入捕获数组，按所有模式中变量个数的最大值分配
+            captures = new int[mappingLookup.maxVariables() << 1];
+            mappingLookup.match(lookupPath, method, captures);
+        }
+        Map<String, String> uriVariables = extractUriVariables(registration, lookupPath, captures);
+        if (!uriVariables.isEmpty()) {
+            request.setAttribute(URI_TEMPLATE_VARIABLES_ATTRIBUTE, uriVariables);
+        }
+        return new HandlerExecutionChain(new HandlerMethod(registration.handler, registration.method, uriVariables));
     }
     
     private void registerHandlerMethod(String path, Object handler, Method method, RequestMethod[] methods) {
-        System.out.println("注册处理器方法: " + path + " -> " + method.getName());
+        logger.debug("注册处理器方法: {} -> {}", path, method.getName());
         MappingRegistry.MappingRegistration registration = new MappingRegistry.MappingRegistration();
         registration.handler = handler;
         registration.method = method;
         registration.methods = methods;
+        registration.variableNames = PathTrie.parseVariableNames(path);
         
-        mappingLookup.put(path, registration);
+        mappingLookup.insert(path, registration);
+    }
+    
+    private Map<String, String> extractUriVariables(MappingRegistry.MappingRegistration registration,
+            String lookupPath, int[] captures) {
+        String[] names = registration.variableNames;
+        if (names.length == 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> variables = new LinkedHashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            variables.put(names[i], lookupPath.substring(captures[i << 1], captures[(i << 1) + 1]));
+        }
+        return variables;
+    }
+    
+    private static String[] getSupportedMethods(List<MappingRegistry.MappingRegistration> candidates) {
+        Set<String> supported = new LinkedHashSet<>();
+        for (MappingRegistry.MappingRegistration candidate : candidates) {
+            for (RequestMethod method : candidate.methods) {
+                supported.add(method.name());
+            }
+        }
+        return supported.toArray(new String[0]);
     }
     
     private String combinePath(String typePath, String methodPath) {
@@ -144,7 +186,11 @@ public class RequestMappingHandlerMapping implements HandlerMapping, Application
         return typePath + methodPath;
     }
     
-    private boolean isMethodMatch(String requestMethod, RequestMethod[] methods) {
+    private static boolean isMethodMatch(MappingRegistry.MappingRegistration registration, String requestMethod) {
+        return isMethodMatch(requestMethod, registration.methods);
+    }
+    
+    private static boolean isMethodMatch(String requestMethod, RequestMethod[] methods) {
         if (methods.length == 0) {
             return true;
         }
@@ -164,6 +210,7 @@ public class RequestMappingHandlerMapping implements HandlerMapping, Application
             Object handler;
             Method method;
             RequestMethod[] methods = new RequestMethod[0]; // 初始化为空数组
+            String[] variableNames = new String[0];
         }
     }
     
@@ -174,10 +221,16 @@ public class RequestMappingHandlerMapping implements HandlerMapping, Application
     public static class HandlerMethod {
         private final Object bean;
         private final Method method;
+        private final Map<String, String> uriVariables;
         
         public HandlerMethod(Object bean, Method method) {
+            this(bean, method, Collections.emptyMap());
+        }
+        
+        public HandlerMethod(Object bean, Method method, Map<String, String> uriVariables) {
             this.bean = bean;
             this.method = method;
+            this.uriVariables = uriVariables;
         }
         
         public Object getBean() {
@@ -187,5 +240,12 @@ public class RequestMappingHandlerMapping implements HandlerMapping, Application
         public Method getMethod() {
             return method;
         }
+        
+        /**
+         * 获取从请求路径中提取的路径变量
+         */
+        public Map<String, String> getUriVariables() {
+            return uriVariables;
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.kama.minispring.web.servlet.method;
+
+import com.kama.minispring.beans.converter.DefaultTypeConverter;
+import com.kama.minispring.beans.converter.TypeConverter;
+import com.kama.minispring.web.servlet.annotation.ValueConstants;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按名称从请求中取值的参数解析器基类
+ * 每个参数的名称、是否必须和默认值只解析一次并缓存
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public abstract class AbstractNamedValueMethodArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final TypeConverter typeConverter = new DefaultTypeConverter();
+
+    private final Map<MethodParameter, NamedValueInfo> namedValueInfoCache = new ConcurrentHashMap<>();
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, HttpServletRequest request,
+            HttpServletResponse response) throws Exception {
+        NamedValueInfo info = getNamedValueInfo(parameter);
+        Object value = resolveName(info.name, parameter, request);
+        if (value == null) {
+            if (info.defaultValue != null) {
+                value = info.defaultValue;
+            } else if (info.required) {
+                throw new ServletException("Missing " + getValueDescription() + " '" + info.name
+                        + "' for " + parameter);
+            } else {
+                return defaultForPrimitive(parameter.getParameterType());
+            }
+        }
+        return typeConverter.convertIfNecessary(value, parameter.getParameterType());
+    }
+
+    private NamedValueInfo getNamedValueInfo(MethodParameter parameter) {
+        NamedValueInfo info = namedValueInfoCache.get(parameter);
+        if (info == null) {
+            info = createNamedValueInfo(parameter);
+            String name = info.name.isEmpty() ? parameter.getParameterName() : info.name;
+            if (name == null) {
+                throw new IllegalStateException("Name for " + getValueDescription() + " of " + parameter
+                        + " is not specified, and parameter name information is not available via reflection");
+            }
+            String defaultValue = ValueConstants.DEFAULT_NONE.equals(info.defaultValue) ? null : info.defaultValue;
+            info = new NamedValueInfo(name, info.required && defaultValue == null, defaultValue);
+            namedValueInfoCache.put(parameter, info);
+        }
+        return info;
+    }
+
+    private Object defaultForPrimitive(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return null;
+        }
+        if (type == boolean.class) {
+            return Boolean.FALSE;
+        }
+        if (type == char.class) {
+            return '\0';
+        }
+        return typeConverter.convertIfNecessary("0", type);
+    }
+
+    /**
+     * 根据参数注解创建名称信息
+     */
+    protected abstract NamedValueInfo createNamedValueInfo(MethodParameter parameter);
+
+    /**
+     * 按名称从请求中取值
+     *
+     * @return 取到的值，不存在时返回null
+     */
+    protected abstract Object resolveName(String name, MethodParameter parameter,
+            HttpServletRequest request) throws Exception;
+
+    /**
+     * 用于异常信息的取值来源描述
+     */
+    protected abstract String getValueDescription();
+
+    /**
+     * 参数的名称、是否必须和默认值
+     */
+    protected static class NamedValueInfo {
+        private final String name;
+        private final boolean required;
+        private final String defaultValue;
+
+        public NamedValueInfo(String name, boolean required, String defaultValue) {
+            this.name = name;
+            this.required = required;
+            this.defaultValue = defaultValue;
+        }
+    }
+}
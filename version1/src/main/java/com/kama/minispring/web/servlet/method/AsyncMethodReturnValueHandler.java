@@ -0,0 +1,116 @@
+package com.kama.minispring.web.servlet.method;
+
+import com.kama.minispring.web.servlet.ModelAndView;
+import com.kama.minispring.web.servlet.async.WebAsyncManager;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * 处理返回类型为Callable或CompletionStage（包括CompletableFuture）的处理器方法
+ * 请求支持异步时创建WebAsyncManager并启动异步处理，容器线程立即返回；
+ * 异步结果再交给按泛型参数类型选定的返回值处理器转换为ModelAndView。
+ * 请求不支持异步时在当前线程上等待结果。
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class AsyncMethodReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+    private final List<HandlerMethodReturnValueHandler> delegates;
+
+    private final Map<MethodParameter, Binding> bindingCache = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegates 用于处理异步结果的返回值处理器
+     */
+    public AsyncMethodReturnValueHandler(List<HandlerMethodReturnValueHandler> delegates) {
+        this.delegates = delegates;
+    }
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        Class<?> type = returnType.getParameterType();
+        return Callable.class.isAssignableFrom(type) || CompletionStage.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public ModelAndView handleReturnValue(Object returnValue, MethodParameter returnType,
+            HttpServletRequest request, HttpServletResponse response) throws Exception {
+        if (returnValue == null) {
+            return new ModelAndView("");
+        }
+        Binding binding = getBinding(returnType);
+        WebAsyncManager asyncManager = request.isAsyncSupported()
+                ? WebAsyncManager.getAsyncManager(request, response) : null;
+        if (asyncManager == null) {
+            return binding.handler.handleReturnValue(awaitResult(returnValue), binding.nestedType, request, response);
+        }
+
+        Function<Object, ModelAndView> resultHandler = value -> {
+            try {
+                return binding.handler.handleReturnValue(value, binding.nestedType, request, response);
+            } catch (Exception ex) {
+                throw new CompletionException(ex);
+            }
+        };
+        if (returnValue instanceof Callable) {
+            asyncManager.startCallableProcessing((Callable<?>) returnValue, resultHandler);
+        } else {
+            asyncManager.startCompletionStageProcessing((CompletionStage<?>) returnValue, resultHandler);
+        }
+        return null;
+    }
+
+    private Object awaitResult(Object returnValue) throws Exception {
+        if (returnValue instanceof Callable) {
+            return ((Callable<?>) returnValue).call();
+        }
+        try {
+            return ((CompletionStage<?>) returnValue).toCompletableFuture().get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw ex;
+        }
+    }
+
+    private Binding getBinding(MethodParameter returnType) {
+        Binding binding = bindingCache.get(returnType);
+        if (binding == null) {
+            MethodParameter nestedType = returnType.nested();
+            for (HandlerMethodReturnValueHandler delegate : delegates) {
+                if (delegate != this && delegate.supportsReturnType(nestedType)) {
+                    binding = new Binding(nestedType, delegate);
+                    bindingCache.put(returnType, binding);
+                    return binding;
+                }
+            }
+            throw new IllegalStateException("No suitable return value handler for async result of " + returnType);
+        }
+        return binding;
+    }
+
+    /**
+     * 异步结果的类型描述及其返回值处理器
+     */
+    private static class Binding {
+        private final MethodParameter nestedType;
+        private final HandlerMethodReturnValueHandler handler;
+
+        Binding(MethodParameter nestedType, HandlerMethodReturnValueHandler handler) {
+            this.nestedType = nestedType;
+            this.handler = handler;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.kama.minispring.web.servlet.method;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 处理器方法参数解析器
+ * 在绑定处理器方法时为每个参数选定一个解析器，请求处理时直接调用
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public interface HandlerMethodArgumentResolver {
+
+    /**
+     * 判断是否支持给定的方法参数
+     *
+     * @param parameter 方法参数
+     * @return 如果支持则返回true
+     */
+    boolean supportsParameter(MethodParameter parameter);
+
+    /**
+     * 从请求中解析参数值
+     *
+     * @param parameter 方法参数，之前已通过supportsParameter检查
+     * @param request 当前HTTP请求
+     * @param response 当前HTTP响应
+     * @return 解析得到的参数值
+     * @throws Exception 如果解析失败
+     */
+    Object resolveArgument(MethodParameter parameter, HttpServletRequest request,
+            HttpServletResponse response) throws Exception;
+}
@@ -0,0 +1,37 @@
+package com.kama.minispring.web.servlet.method;
+
+import com.kama.minispring.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 处理器方法返回值处理器
+ * 在绑定处理器方法时根据返回类型选定，负责将返回值转换为ModelAndView
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public interface HandlerMethodReturnValueHandler {
+
+    /**
+     * 判断是否支持给定的返回类型
+     *
+     * @param returnType 返回值描述
+     * @return 如果支持则返回true
+     */
+    boolean supportsReturnType(MethodParameter returnType);
+
+    /**
+     * 处理返回值
+     *
+     * @param returnValue 处理器方法的返回值
+     * @param returnType 返回值描述
+     * @param request 当前HTTP请求
+     * @param response 当前HTTP响应
+     * @return 处理结果的ModelAndView
+     * @throws Exception 如果处理失败
+     */
+    ModelAndView handleReturnValue(Object returnValue, MethodParameter returnType,
+            HttpServletRequest request, HttpServletResponse response) throws Exception;
+}
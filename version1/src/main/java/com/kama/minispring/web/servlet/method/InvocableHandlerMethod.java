@@ -0,0 +1,165 @@
+package com.kama.minispring.web.servlet.method;
+
+import com.kama.minispring.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+/**
+ * 预绑定的处理器方法
+ * 构造时为每个参数选定参数解析器、为返回值选定返回值处理器，并将方法转换为统一签名的MethodHandle，
+ * 请求处理期间只需按数组顺序解析参数并调用
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class InvocableHandlerMethod {
+
+    private static final Object[] EMPTY_ARGS = new Object[0];
+
+    /** 统一的调用签名：(bean, args) -> returnValue */
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private final Method method;
+
+    /** 统一签名的方法句柄，无法创建时为null并回退到反射调用 */
+    private final MethodHandle invoker;
+
+    private final MethodParameter[] parameters;
+
+    private final HandlerMethodArgumentResolver[] argumentResolvers;
+
+    private final MethodParameter returnType;
+
+    private final HandlerMethodReturnValueHandler returnValueHandler;
+
+    public InvocableHandlerMethod(Method method, List<HandlerMethodArgumentResolver> resolvers,
+            List<HandlerMethodReturnValueHandler> returnValueHandlers) {
+        this.method = method;
+        this.invoker = createInvoker(method);
+
+        int count = method.getParameterCount();
+        this.parameters = new MethodParameter[count];
+        this.argumentResolvers = new HandlerMethodArgumentResolver[count];
+        for (int i = 0; i < count; i++) {
+            MethodParameter parameter = new MethodParameter(method, i);
+            this.parameters[i] = parameter;
+            this.argumentResolvers[i] = selectArgumentResolver(parameter, resolvers);
+        }
+
+        this.returnType = MethodParameter.forReturnType(method);
+        this.returnValueHandler = selectReturnValueHandler(this.returnType, returnValueHandlers);
+    }
+
+    /**
+     * 解析参数、调用处理器方法并处理返回值
+     *
+     * @param bean 处理器对象
+     * @param request 当前HTTP请求
+     * @param response 当前HTTP响应
+     * @return 处理结果的ModelAndView
+     * @throws Exception 如果参数解析、方法调用或返回值处理失败
+     */
+    public ModelAndView invokeAndHandle(Object bean, HttpServletRequest request,
+            HttpServletResponse response) throws Exception {
+        Object returnValue = invokeForRequest(bean, request, response);
+        return returnValueHandler.handleReturnValue(returnValue, returnType, request, response);
+    }
+
+    /**
+     * 解析参数并调用处理器方法
+     */
+    public Object invokeForRequest(Object bean, HttpServletRequest request,
+            HttpServletResponse response) throws Exception {
+        return doInvoke(bean, getMethodArgumentValues(request, response));
+    }
+
+    private Object[] getMethodArgumentValues(HttpServletRequest request, HttpServletResponse response)
+            throws Exception {
+        int count = parameters.length;
+        if (count == 0) {
+            return EMPTY_ARGS;
+        }
+        Object[] args = new Object[count];
+        for (int i = 0; i < count; i++) {
+            args[i] = argumentResolvers[i].resolveArgument(parameters[i], request, response);
+        }
+        return args;
+    }
+
+    private Object doInvoke(Object bean, Object[] args) throws Exception {
+        if (invoker == null) {
+            try {
+                return method.invoke(bean, args);
+            } catch (InvocationTargetException ex) {
+                Throwable target = ex.getTargetException();
+                if (target instanceof Exception) {
+                    throw (Exception) target;
+                }
+                if (target instanceof Error) {
+                    throw (Error) target;
+                }
+                throw ex;
+            }
+        }
+        try {
+            return (Object) invoker.invokeExact(bean, args);
+        } catch (Exception | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException("Failed to invoke handler method [" + method + "]", ex);
+        }
+    }
+
+    private static MethodHandle createInvoker(Method method) {
+        try {
+            method.trySetAccessible();
+            MethodHandle handle = MethodHandles.lookup().unreflect(method).asFixedArity();
+            if (Modifier.isStatic(method.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            return handle.asSpreader(Object[].class, method.getParameterCount()).asType(INVOKER_TYPE);
+        } catch (IllegalAccessException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    private static HandlerMethodArgumentResolver selectArgumentResolver(MethodParameter parameter,
+            List<HandlerMethodArgumentResolver> resolvers) {
+        for (HandlerMethodArgumentResolver resolver : resolvers) {
+            if (resolver.supportsParameter(parameter)) {
+                return resolver;
+            }
+        }
+        throw new IllegalStateException("No suitable resolver for " + parameter);
+    }
+
+    private static HandlerMethodReturnValueHandler selectReturnValueHandler(MethodParameter returnType,
+            List<HandlerMethodReturnValueHandler> handlers) {
+        for (HandlerMethodReturnValueHandler handler : handlers) {
+            if (handler.supportsReturnType(returnType)) {
+                return handler;
+            }
+        }
+        throw new IllegalStateException("No suitable return value handler for " + returnType);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public MethodParameter[] getMethodParameters() {
+        return parameters;
+    }
+
+    public MethodParameter getReturnType() {
+        return returnType;
+    }
+}
@@ -0,0 +1,142 @@
+package com.kama.minispring.web.servlet.method;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * 处理器方法参数或返回值的描述
+ * 参数类型、参数名和注解在构造时一次性读取，请求处理期间不再访问反射API
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class MethodParameter {
+
+    private final Method method;
+
+    /** 参数下标，-1表示返回值 */
+    private final int parameterIndex;
+
+    private final Class<?> parameterType;
+
+    private final String parameterName;
+
+    private final Annotation[] parameterAnnotations;
+
+    private final Annotation[] methodAnnotations;
+
+    private MethodParameter(MethodParameter original, Class<?> parameterType) {
+        this.method = original.method;
+        this.parameterIndex = original.parameterIndex;
+        this.parameterType = parameterType;
+        this.parameterName = original.parameterName;
+        this.parameterAnnotations = original.parameterAnnotations;
+        this.methodAnnotations = original.methodAnnotations;
+    }
+
+    public MethodParameter(Method method, int parameterIndex) {
+        this.method = method;
+        this.parameterIndex = parameterIndex;
+        this.methodAnnotations = method.getAnnotations();
+        if (parameterIndex < 0) {
+            this.parameterType = method.getReturnType();
+            this.parameterName = null;
+            this.parameterAnnotations = new Annotation[0];
+        } else {
+            Parameter parameter = method.getParameters()[parameterIndex];
+            this.parameterType = parameter.getType();
+            this.parameterName = parameter.isNamePresent() ? parameter.getName() : null;
+            this.parameterAnnotations = parameter.getAnnotations();
+        }
+    }
+
+    /**
+     * 创建描述返回值的MethodParameter
+     */
+    public static MethodParameter forReturnType(Method method) {
+        return new MethodParameter(method, -1);
+    }
+
+    /**
+     * 创建描述泛型参数的MethodParameter，例如CompletableFuture&lt;String&gt;中的String
+     * 无法从泛型签名确定时使用Object
+     */
+    public MethodParameter nested() {
+        Type type = parameterIndex < 0 ? method.getGenericReturnType()
+                : method.getGenericParameterTypes()[parameterIndex];
+        Class<?> nestedType = Object.class;
+        if (type instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+            if (arguments.length == 1) {
+                Type argument = arguments[0];
+                if (argument instanceof ParameterizedType) {
+                    argument = ((ParameterizedType) argument).getRawType();
+                }
+                if (argument instanceof Class) {
+                    nestedType = (Class<?>) argument;
+                }
+            }
+        }
+        return new MethodParameter(this, nestedType);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public int getParameterIndex() {
+        return parameterIndex;
+    }
+
+    public Class<?> getParameterType() {
+        return parameterType;
+    }
+
+    /**
+     * 获取参数名，编译时未开启-parameters时返回null
+     */
+    public String getParameterName() {
+        return parameterName;
+    }
+
+    /**
+     * 获取参数上的注解
+     */
+    @SuppressWarnings("unchecked")
+    public <A extends Annotation> A getParameterAnnotation(Class<A> annotationType) {
+        for (Annotation annotation : parameterAnnotations) {
+            if (annotation.annotationType() == annotationType) {
+                return (A) annotation;
+            }
+        }
+        return null;
+    }
+
+    public boolean hasParameterAnnotation(Class<? extends Annotation> annotationType) {
+        return getParameterAnnotation(annotationType) != null;
+    }
+
+    /**
+     * 获取方法上或声明类上的注解
+     */
+    public <A extends Annotation> A getMethodAnnotation(Class<A> annotationType) {
+        for (Annotation annotation : methodAnnotations) {
+            if (annotation.annotationType() == annotationType) {
+                return annotationType.cast(annotation);
+            }
+        }
+        return method.getDeclaringClass().getAnnotation(annotationType);
+    }
+
+    public boolean hasMethodAnnotation(Class<? extends Annotation> annotationType) {
+        return getMethodAnnotation(annotationType) != null;
+    }
+
+    @Override
+    public String toString() {
+        return (parameterIndex < 0 ? "return value" : "parameter " + parameterIndex) + " of method " + method;
+    }
+}
@@ -0,0 +1,29 @@
+package com.kama.minispring.web.servlet.method;
+
+import com.kama.minispring.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 处理返回类型为ModelAndView的处理器方法
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class ModelAndViewMethodReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return ModelAndView.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public ModelAndView handleReturnValue(Object returnValue, MethodParameter returnType,
+            HttpServletRequest request, HttpServletResponse response) {
+        if (returnValue == null) {
+            return new ModelAndView("");
+        }
+        return (ModelAndView) returnValue;
+    }
+}
@@ -0,0 +1,34 @@
+package com.kama.minispring.web.servlet.method;
+
+import com.kama.minispring.web.servlet.ModelAndView;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 兜底的返回值处理器
+ * 将任意返回值以"result"为键放入模型中
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class ModelAttributeMethodReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+    /** 返回值在模型中的键 */
+    public static final String RESULT_ATTRIBUTE = "result";
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        return true;
+    }
+
+    @Override
+    public ModelAndView handleReturnValue(Object returnValue, MethodParameter returnType,
+            HttpServletRequest request, HttpServletResponse response) {
+        ModelAndView mv = new ModelAndView("");
+        if (returnValue != null) {
+            mv.addObject(RESULT_ATTRIBUTE, returnValue);
+        }
+        return mv;
+    }
+}
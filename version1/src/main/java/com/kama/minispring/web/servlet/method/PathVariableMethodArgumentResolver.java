@@ -0,0 +1,42 @@
+package com.kama.minispring.web.servlet.method;
+
+import com.kama.minispring.web.servlet.HandlerMapping;
+import com.kama.minispring.web.servlet.annotation.PathVariable;
+import com.kama.minispring.web.servlet.annotation.ValueConstants;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Map;
+
+/**
+ * 解析@PathVariable标注的参数
+ * 路径变量由HandlerMapping在匹配时放入请求属性
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class PathVariableMethodArgumentResolver extends AbstractNamedValueMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(PathVariable.class);
+    }
+
+    @Override
+    protected NamedValueInfo createNamedValueInfo(MethodParameter parameter) {
+        PathVariable ann = parameter.getParameterAnnotation(PathVariable.class);
+        return new NamedValueInfo(ann.value(), ann.required(), ValueConstants.DEFAULT_NONE);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Object resolveName(String name, MethodParameter parameter, HttpServletRequest request) {
+        Map<String, String> uriVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return uriVariables != null ? uriVariables.get(name) : null;
+    }
+
+    @Override
+    protected String getValueDescription() {
+        return "URI template variable";
+    }
+}
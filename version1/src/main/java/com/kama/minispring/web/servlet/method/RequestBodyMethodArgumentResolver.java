@@ -0,0 +1,63 @@
+package com.kama.minispring.web.servlet.method;
+
+import com.kama.minispring.beans.converter.DefaultTypeConverter;
+import com.kama.minispring.beans.converter.TypeConverter;
+import com.kama.minispring.web.servlet.annotation.RequestBody;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 解析@RequestBody标注的参数
+ * 支持byte[]和String，其他类型通过类型转换器从字符串转换
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class RequestBodyMethodArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final TypeConverter typeConverter = new DefaultTypeConverter();
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(RequestBody.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, HttpServletRequest request,
+            HttpServletResponse response) throws Exception {
+        byte[] body = readBody(request);
+        if (body.length == 0) {
+            if (parameter.getParameterAnnotation(RequestBody.class).required()) {
+                throw new ServletException("Required request body is missing for " + parameter);
+            }
+            return null;
+        }
+        Class<?> type = parameter.getParameterType();
+        if (type == byte[].class) {
+            return body;
+        }
+        String encoding = request.getCharacterEncoding();
+        Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        return typeConverter.convertIfNecessary(new String(body, charset), type);
+    }
+
+    private byte[] readBody(HttpServletRequest request) throws Exception {
+        InputStream in = request.getInputStream();
+        if (in == null) {
+            return new byte[0];
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
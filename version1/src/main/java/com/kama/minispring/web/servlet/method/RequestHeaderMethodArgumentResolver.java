@@ -0,0 +1,35 @@
+package com.kama.minispring.web.servlet.method;
+
+import com.kama.minispring.web.servlet.annotation.RequestHeader;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 解析@RequestHeader标注的参数
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class RequestHeaderMethodArgumentResolver extends AbstractNamedValueMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(RequestHeader.class);
+    }
+
+    @Override
+    protected NamedValueInfo createNamedValueInfo(MethodParameter parameter) {
+        RequestHeader ann = parameter.getParameterAnnotation(RequestHeader.class);
+        return new NamedValueInfo(ann.value(), ann.required(), ann.defaultValue());
+    }
+
+    @Override
+    protected Object resolveName(String name, MethodParameter parameter, HttpServletRequest request) {
+        return request.getHeader(name);
+    }
+
+    @Override
+    protected String getValueDescription() {
+        return "request header";
+    }
+}
@@ -0,0 +1,35 @@
+package com.kama.minispring.web.servlet.method;
+
+import com.kama.minispring.web.servlet.annotation.RequestParam;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 解析@RequestParam标注的参数
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class RequestParamMethodArgumentResolver extends AbstractNamedValueMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(RequestParam.class);
+    }
+
+    @Override
+    protected NamedValueInfo createNamedValueInfo(MethodParameter parameter) {
+        RequestParam ann = parameter.getParameterAnnotation(RequestParam.class);
+        return new NamedValueInfo(ann.value(), ann.required(), ann.defaultValue());
+    }
+
+    @Override
+    protected Object resolveName(String name, MethodParameter parameter, HttpServletRequest request) {
+        return request.getParameter(name);
+    }
+
+    @Override
+    protected String getValueDescription() {
+        return "request parameter";
+    }
+}
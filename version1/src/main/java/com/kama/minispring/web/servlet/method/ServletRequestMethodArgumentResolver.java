@@ -0,0 +1,37 @@
+package com.kama.minispring.web.servlet.method;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+/**
+ * 解析HttpServletRequest、HttpServletResponse和HttpSession类型的参数
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class ServletRequestMethodArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        Class<?> type = parameter.getParameterType();
+        return ServletRequest.class.isAssignableFrom(type)
+                || ServletResponse.class.isAssignableFrom(type)
+                || HttpSession.class == type;
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, HttpServletRequest request,
+            HttpServletResponse response) {
+        Class<?> type = parameter.getParameterType();
+        if (ServletRequest.class.isAssignableFrom(type)) {
+            return request;
+        }
+        if (ServletResponse.class.isAssignableFrom(type)) {
+            return response;
+        }
+        return request.getSession();
+    }
+}
@@ -0,0 +1,32 @@
+package com.kama.minispring.web.servlet.method;
+
+import com.kama.minispring.web.servlet.ModelAndView;
+import com.kama.minispring.web.servlet.annotation.ResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 处理返回视图名称的处理器方法
+ * 返回类型为String且未标注@ResponseBody时，返回值作为视图名称；返回类型为void时使用空视图
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class ViewNameMethodReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+    @Override
+    public boolean supportsReturnType(MethodParameter returnType) {
+        Class<?> type = returnType.getParameterType();
+        if (type == void.class) {
+            return true;
+        }
+        return type == String.class && !returnType.hasMethodAnnotation(ResponseBody.class);
+    }
+
+    @Override
+    public ModelAndView handleReturnValue(Object returnValue, MethodParameter returnType,
+            HttpServletRequest request, HttpServletResponse response) {
+        return new ModelAndView(returnValue != null ? (String) returnValue : "");
+    }
+}
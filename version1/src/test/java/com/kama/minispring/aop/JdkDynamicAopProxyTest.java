@@ -4,8 +4,10 @@ package com.kama.minispring.aop;
 import org.junit.jupiter.api.Test;
 
 import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 
 /**
@@ -63,4 +65,41 @@ public class JdkDynamicAopProxyTest {
         String result = proxyService.getUserName("1");
         assertEquals("User:1", result);
     }
-} 
\ No newline at end of file
+
+    @Test
+    public void testInterceptorChainCache() throws Exception {
+        AtomicInteger matchCount = new AtomicInteger();
+        AtomicInteger interceptCount = new AtomicInteger();
+        AdvisedSupport advisedSupport = new AdvisedSupport();
+        advisedSupport.setTargetSource(new TargetSource(new UserServiceImpl()));
+        advisedSupport.setMethodMatcher((method, targetClass) -> {
+            matchCount.incrementAndGet();
+            return method.getName().equals("getUserName");
+        });
+        UserService proxyService = (UserService) new JdkDynamicAopProxy(advisedSupport).getProxy();
+
+        // 没有拦截器时直接调用目标方法，不做切点匹配
+        assertEquals("User:1", proxyService.getUserName("1"));
+        assertEquals(0, matchCount.get());
+
+        advisedSupport.addMethodInterceptor(invocation -> {
+            interceptCount.incrementAndGet();
+            return invocation.proceed();
+        });
+        for (int i = 0; i < 10; i++) {
+            assertEquals("User:" + i, proxyService.getUserName(String.valueOf(i)));
+        }
+        // 切点只匹配一次，之后命中缓存
+        assertEquals(1, matchCount.get());
+        assertEquals(10, interceptCount.get());
+
+        Method method = UserService.class.getMethod("getUserName", String.class);
+        assertSame(advisedSupport.getInterceptors(method), advisedSupport.getInterceptors(method));
+
+        // 修改切点后缓存失效
+        advisedSupport.setMethodMatcher((m, targetClass) -> false);
+        assertEquals("User:2", proxyService.getUserName("2"));
+        assertEquals(10, interceptCount.get());
+        assertEquals(0, advisedSupport.getInterceptors(method).length);
+    }
+}
@@ -1,9 +1,24 @@
 package com.kama.minispring.beans.factory.support;
 
 import com.kama.minispring.beans.BeansException;
+import com.kama.minispring.beans.factory.BeanNameAware;
+import com.kama.minispring.beans.factory.InitializingBean;
 import com.kama.minispring.beans.factory.config.BeanDefinition;
+import com.kama.minispring.beans.factory.config.PropertyValue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -158,6 +173,170 @@ public class DefaultListableBeanFactoryTest {
         });
     }
     
+    @Test
+    void testAliasCacheInvalidation() {
+        BeanDefinition beanDefinition = new GenericBeanDefinition(TestBean.class);
+        beanFactory.registerBeanDefinition("testBean", beanDefinition);
+        beanFactory.registerAlias("testBean", "alias");
+        
+        // 通过别名获取一次，使别名解析结果进入缓存
+        TestBean bean = beanFactory.getBean("alias", TestBean.class);
+        assertSame(bean, beanFactory.getBean("testBean", TestBean.class));
+        
+        // 移除别名后缓存应失效
+        beanFactory.removeAlias("alias");
+        assertThrows(BeansException.class, () -> beanFactory.getBean("alias"));
+        
+        // 重新注册指向其他bean的别名
+        beanFactory.registerBeanDefinition("anotherBean", new GenericBeanDefinition(LifecycleBean.class));
+        beanFactory.registerAlias("anotherBean", "alias");
+        assertTrue(beanFactory.getBean("alias") instanceof LifecycleBean);
+    }
+    
+    @Test
+    void testTypeIndexLookup() {
+        beanFactory.registerBeanDefinition("testBean", new GenericBeanDefinition(TestBean.class));
+        beanFactory.registerBeanDefinition("greeter", new GenericBeanDefinition(EnglishGreeter.class));
+        
+        // 按接口和超类查找
+        assertArrayEquals(new String[]{"greeter"}, beanFactory.getBeanNamesForType(Greeter.class));
+        assertArrayEquals(new String[]{"greeter"}, beanFactory.getBeanNamesForType(AbstractGreeter.class));
+        assertEquals(2, beanFactory.getBeanNamesForType(Object.class).length);
+        assertEquals(0, beanFactory.getBeanNamesForType(Runnable.class).length);
+        
+        // 新增实现后缓存失效
+        beanFactory.registerSingleton("externalGreeter", (Greeter) () -> "hi");
+        assertArrayEquals(new String[]{"greeter", "externalGreeter"}, beanFactory.getBeanNamesForType(Greeter.class));
+        assertThrows(BeansException.class, () -> beanFactory.getBean(Greeter.class));
+        
+        // 移除尚未实例化的bean定义后不再匹配
+        beanFactory.removeBeanDefinition("greeter");
+        assertArrayEquals(new String[]{"externalGreeter"}, beanFactory.getBeanNamesForType(Greeter.class));
+        assertEquals(0, beanFactory.getBeanNamesForType(AbstractGreeter.class).length);
+        assertEquals(1, beanFactory.getBeansOfType(Greeter.class).size());
+        assertEquals("hi", beanFactory.getBean(Greeter.class).greet());
+    }
+    
+    @Test
+    void testTypeIndexWithManyBeans() {
+        int count = 5000;
+        for (int i = 0; i < count; i++) {
+            Class<?> beanClass = (i % 100 == 0) ? EnglishGreeter.class : TestBean.class;
+            beanFactory.registerBeanDefinition("bean" + i, new GenericBeanDefinition(beanClass));
+        }
+        
+        String[] greeterNames = beanFactory.getBeanNamesForType(Greeter.class);
+        assertEquals(count / 100, greeterNames.length);
+        // 结果按注册顺序排列
+        assertEquals("bean0", greeterNames[0]);
+        assertEquals("bean100", greeterNames[1]);
+        assertEquals(count - count / 100, beanFactory.getBeanNamesForType(TestBean.class).length);
+    }
+    
+    @Test
+    void testConcurrentSingletonCreation() throws Exception {
+        SlowBean.instances.set(0);
+        beanFactory.registerBeanDefinition("slowBean", new GenericBeanDefinition(SlowBean.class));
+        beanFactory.registerAlias("slowBean", "slowAlias");
+        
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String name = (i % 2 == 0) ? "slowBean" : "slowAlias";
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return beanFactory.getBean(name);
+                }));
+            }
+            start.countDown();
+            
+            // 所有线程拿到的都是同一个完全初始化的实例
+            Object first = futures.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Object> future : futures) {
+                assertSame(first, future.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, SlowBean.instances.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void testParallelPreInstantiation() {
+        // 两个互不依赖的bean必须同时初始化才能通过屏障
+        BarrierBean.barrier = new CyclicBarrier(2);
+        OrderedBean.initOrder.clear();
+        beanFactory.registerBeanDefinition("barrier1", new GenericBeanDefinition(BarrierBean.class));
+        beanFactory.registerBeanDefinition("barrier2", new GenericBeanDefinition(BarrierBean.class));
+        
+        // 依赖链：first <- second <- third，必须按依赖顺序初始化
+        GenericBeanDefinition third = new GenericBeanDefinition(OrderedBean.class);
+        third.addPropertyValue(new PropertyValue("dependency", "second", OrderedBean.class));
+        beanFactory.registerBeanDefinition("third", third);
+        GenericBeanDefinition second = new GenericBeanDefinition(OrderedBean.class);
+        second.addPropertyValue(new PropertyValue("dependency", "first", OrderedBean.class));
+        beanFactory.registerBeanDefinition("second", second);
+        beanFactory.registerBeanDefinition("first", new GenericBeanDefinition(OrderedBean.class));
+        
+        beanFactory.setParallelPreInstantiation(true);
+        beanFactory.setPreInstantiationParallelism(4);
+        beanFactory.preInstantiateSingletons();
+        
+        assertEquals(5, beanFactory.getSingletonCount());
+        assertTrue(beanFactory.getBean("barrier1", BarrierBean.class).isInitialized());
+        assertTrue(beanFactory.getBean("barrier2", BarrierBean.class).isInitialized());
+        assertEquals(List.of("first", "second", "third"), OrderedBean.initOrder);
+        assertSame(beanFactory.getBean("second"), beanFactory.getBean("third", OrderedBean.class).getDependency());
+    }
+    
+    @Test
+    void testParallelPreInstantiationWithCircularReferences() {
+        OrderedBean.initOrder.clear();
+        GenericBeanDefinition a = new GenericBeanDefinition(OrderedBean.class);
+        a.addPropertyValue(new PropertyValue("dependency", "b", OrderedBean.class));
+        beanFactory.registerBeanDefinition("a", a);
+        GenericBeanDefinition b = new GenericBeanDefinition(OrderedBean.class);
+        b.addPropertyValue(new PropertyValue("dependency", "a", OrderedBean.class));
+        beanFactory.registerBeanDefinition("b", b);
+        beanFactory.registerBeanDefinition("independent", new GenericBeanDefinition(TestBean.class));
+        
+        beanFactory.setParallelPreInstantiation(true);
+        beanFactory.setPreInstantiationParallelism(4);
+        beanFactory.preInstantiateSingletons();
+        
+        // 循环依赖的bean在同一线程上串行创建，通过早期引用互相注入
+        OrderedBean beanA = beanFactory.getBean("a", OrderedBean.class);
+        OrderedBean beanB = beanFactory.getBean("b", OrderedBean.class);
+        assertSame(beanB, beanA.getDependency());
+        assertSame(beanA, beanB.getDependency());
+        assertEquals(List.of("b", "a"), OrderedBean.initOrder);
+    }
+    
+    @Test
+    void testDependsOn() {
+        OrderedBean.initOrder.clear();
+        GenericBeanDefinition dependent = new GenericBeanDefinition(OrderedBean.class);
+        dependent.setDependsOn("base");
+        beanFactory.registerBeanDefinition("dependent", dependent);
+        beanFactory.registerBeanDefinition("base", new GenericBeanDefinition(OrderedBean.class));
+        
+        beanFactory.getBean("dependent");
+        assertEquals(List.of("base", "dependent"), OrderedBean.initOrder);
+        assertArrayEquals(new String[]{"dependent"}, beanFactory.getDependentBeans("base"));
+        
+        // depends-on之间的循环应当被拒绝
+        GenericBeanDefinition x = new GenericBeanDefinition(TestBean.class);
+        x.setDependsOn("y");
+        beanFactory.registerBeanDefinition("x", x);
+        GenericBeanDefinition y = new GenericBeanDefinition(TestBean.class);
+        y.setDependsOn("x");
+        beanFactory.registerBeanDefinition("y", y);
+        assertThrows(BeansException.class, () -> beanFactory.getBean("x"));
+    }
+    
     /**
      * 辅助方法：检查数组是否包含所有指定的值
      */
@@ -215,4 +394,77 @@ public class DefaultListableBeanFactoryTest {
             return destroyed;
         }
     }
-} 
\ No newline at end of file
+    
+    interface Greeter {
+        String greet();
+    }
+    
+    abstract static class AbstractGreeter implements Greeter {
+    }
+    
+    static class EnglishGreeter extends AbstractGreeter {
+        @Override
+        public String greet() {
+            return "hello";
+        }
+    }
+    
+    /**
+     * 初始化时等待另一个同类bean同时初始化，用于验证并行创建
+     */
+    static class BarrierBean implements InitializingBean {
+        static CyclicBarrier barrier;
+        
+        private boolean initialized;
+        
+        @Override
+        public void afterPropertiesSet() throws Exception {
+            barrier.await(5, TimeUnit.SECONDS);
+            this.initialized = true;
+        }
+        
+        public boolean isInitialized() {
+            return initialized;
+        }
+    }
+    
+    /**
+     * 记录初始化顺序的Bean类
+     */
+    static class OrderedBean implements InitializingBean, BeanNameAware {
+        static final List<String> initOrder = Collections.synchronizedList(new ArrayList<>());
+        
+        private String beanName;
+        private OrderedBean dependency;
+        
+        @Override
+        public void setBeanName(String name) {
+            this.beanName = name;
+        }
+        
+        @Override
+        public void afterPropertiesSet() {
+            initOrder.add(beanName);
+        }
+        
+        public OrderedBean getDependency() {
+            return dependency;
+        }
+        
+        public void setDependency(OrderedBean dependency) {
+            this.dependency = dependency;
+        }
+    }
+    
+    /**
+     * 构造较慢的Bean类，用于测试并发创建
+     */
+    static class SlowBean {
+        static final AtomicInteger instances = new AtomicInteger();
+        
+        public SlowBean() throws InterruptedException {
+            instances.incrementAndGet();
+            Thread.sleep(50);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.kama.minispring.boot.autoconfigure;
 
+import com.kama.minispring.beans.factory.support.BeanDefinitionRegistry;
 import com.kama.minispring.beans.factory.support.DefaultListableBeanFactory;
 import com.kama.minispring.core.env.Environment;
 import com.kama.minispring.core.io.DefaultResourceLoader;
@@ -70,6 +71,26 @@ class AutoConfigurationLoaderTest {
             () -> loader.processAutoConfigurations(configurations));
     }
     
+    @Test
+    void shouldLetConfigurationsRegisterBeans() {
+        loader.processAutoConfigurations(List.of(RegisteringAutoConfiguration.class));
+        
+        verify(beanFactory).registerSingleton("registered", RegisteringAutoConfiguration.BEAN);
+    }
+    
+    static class RegisteringAutoConfiguration implements AutoConfiguration {
+        static final Object BEAN = new Object();
+        
+        @Override
+        public void configure() {
+        }
+        
+        @Override
+        public void registerBeans(BeanDefinitionRegistry registry) {
+            ((DefaultListableBeanFactory) registry).registerSingleton("registered", BEAN);
+        }
+    }
+    
     static class TestAutoConfiguration implements AutoConfiguration {
         @Override
         public void configure() {
@@ -0,0 +1,121 @@
+package com.kama.minispring.cloud.circuit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 舱壁测试类
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+class BulkheadTest {
+    
+    @Test
+    void shouldLimitConcurrentCallsWithSemaphore() throws Exception {
+        Bulkhead bulkhead = new SemaphoreBulkhead("semaphore", new BulkheadConfig.Builder()
+                .maxConcurrentCalls(1)
+                .build());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> bulkhead.execute(() -> {
+            started.countDown();
+            await(release);
+            return "held";
+        }, () -> "fallback"));
+        holder.start();
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        
+        assertEquals(0, bulkhead.getAvailableConcurrentCalls());
+        assertEquals("fallback", bulkhead.execute(() -> "success", () -> "fallback"));
+        assertThrows(BulkheadFullException.class, () -> bulkhead.decorateSupplier(() -> "success").get());
+        
+        release.countDown();
+        holder.join(1000);
+        assertEquals(1, bulkhead.getAvailableConcurrentCalls());
+        assertEquals("success", bulkhead.execute(() -> "success", () -> "fallback"));
+    }
+    
+    @Test
+    void shouldRejectWhenThreadPoolAndQueueAreFull() throws Exception {
+        ThreadPoolBulkheadConfig config = new ThreadPoolBulkheadConfig.Builder()
+                .maxThreadPoolSize(1)
+                .queueCapacity(1)
+                .build();
+        try (ThreadPoolBulkhead bulkhead = new ThreadPoolBulkhead("pool", config)) {
+            assertFalse(bulkhead.isUsingVirtualThreads());
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<String> running = bulkhead.submit(() -> {
+                started.countDown();
+                await(release);
+                return "first";
+            });
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+            CompletableFuture<String> queued = bulkhead.submit(() -> "second");
+            assertEquals(1, bulkhead.getQueueDepth());
+            
+            CompletableFuture<String> rejected = bulkhead.submit(() -> "third");
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+            assertTrue(ex.getCause() instanceof BulkheadFullException);
+            String callerThread = Thread.currentThread().getName();
+            assertEquals(callerThread, bulkhead.execute(() -> "pooled", () -> Thread.currentThread().getName())
+                    .get(1, TimeUnit.SECONDS));
+            
+            release.countDown();
+            assertEquals("first", running.get(1, TimeUnit.SECONDS));
+            assertEquals("second", queued.get(1, TimeUnit.SECONDS));
+        }
+    }
+    
+    @Test
+    void shouldFallBackToPlatformThreadsWhenVirtualThreadsUnavailable() throws Exception {
+        ThreadPoolBulkheadConfig config = new ThreadPoolBulkheadConfig.Builder()
+                .maxThreadPoolSize(2)
+                .useVirtualThreads(true)
+                .build();
+        try (ThreadPoolBulkhead bulkhead = new ThreadPoolBulkhead("virtual", config)) {
+            boolean virtualThreadsSupported = Runtime.version().feature() >= 21;
+            assertEquals(virtualThreadsSupported, bulkhead.isUsingVirtualThreads());
+            assertEquals("done", bulkhead.submit(() -> "done").get(1, TimeUnit.SECONDS));
+        }
+    }
+    
+    @Test
+    void shouldNotOpenCircuitBreakerWhenBulkheadRejects() throws Exception {
+        Bulkhead bulkhead = new SemaphoreBulkhead("guarded", new BulkheadConfig.Builder()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ofMillis(1))
+                .build());
+        DefaultCircuitBreaker<String> circuitBreaker = new DefaultCircuitBreaker<>("guarded",
+                new CircuitBreakerConfig.Builder().failureThreshold(2).build());
+        assertTrue(bulkhead.tryAcquirePermission());
+        try {
+            for (int i = 0; i < 5; i++) {
+                assertEquals("fallback", circuitBreaker.execute(
+                        bulkhead.decorateSupplier(() -> "success"), () -> "fallback"));
+            }
+        } finally {
+            bulkhead.onComplete();
+        }
+        
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(-1, circuitBreaker.getFailureRate());
+        assertEquals("success", circuitBreaker.execute(bulkhead.decorateSupplier(() -> "success"), () -> "fallback"));
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,10 +1,20 @@
 package com.kama.minispring.cloud.circuit;
 
+import com.kama.minispring.context.ApplicationEvent;
+import com.kama.minispring.context.ApplicationEventPublisher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -101,7 +111,7 @@ class DefaultCircuitBreakerTest {
     }
     
     @Test
-    void shouldLimitCallsInHalfOpenState() throws InterruptedException {
+    void shouldLimitCallsInHalfOpenState() throws Exception {
         // 设置熔断器配置
         CircuitBreakerConfig config = new CircuitBreakerConfig.Builder()
                 .failureThreshold(2)
@@ -120,27 +130,38 @@ class DefaultCircuitBreakerTest {
         // 等待转换到半开状态
         Thread.sleep(config.getWaitDuration().toMillis() + 10);
         
-        // 验证在半开状态下的调用限制
-        int totalCalls = 5;
-        int successCount = 0;
-        int fallbackCount = 0;
-        
-        for (int i = 0; i < totalCalls; i++) {
-            String result = circuitBreaker.execute(() -> "success", () -> "fallback");
-            if ("success".equals(result)) {
-                successCount++;
-            } else if ("fallback".equals(result)) {
-                fallbackCount++;
+        // 两个探测调用同时进行，互不阻塞
+        CountDownLatch probesStarted = new CountDownLatch(config.getPermittedNumberOfCallsInHalfOpenState());
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(config.getPermittedNumberOfCallsInHalfOpenState());
+        try {
+            List<Future<String>> probes = new ArrayList<>();
+            for (int i = 0; i < config.getPermittedNumberOfCallsInHalfOpenState(); i++) {
+                probes.add(executor.submit(() -> circuitBreaker.execute(() -> {
+                    probesStarted.countDown();
+                    await(release);
+                    return "success";
+                }, () -> "fallback")));
             }
+            assertTrue(probesStarted.await(1, TimeUnit.SECONDS), "Probe calls should run concurrently");
+            
+            // 许可用完后的调用直接降级
+            assertEquals("fallback", circuitBreaker.execute(() -> "success", () -> "fallback"));
+            assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+            
+            release.countDown();
+            for (Future<String> probe : probes) {
+                assertEquals("success", probe.get(1, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
         }
         
-        // 验证成功调用次数不超过允许的次数
-        assertTrue(successCount <= config.getPermittedNumberOfCallsInHalfOpenState(),
-                "Success calls should not exceed permitted number");
-                
-        // 验证总调用次数等于成功调用和fallback调用之和
-        assertEquals(totalCalls, successCount + fallbackCount,
-                "Total calls should equal sum of success and fallback calls");
+        // 探测全部成功后关闭，之后的调用不再受半开许可的限制
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("success", circuitBreaker.execute(() -> "success", () -> "fallback"));
+        }
     }
     
     @Test
@@ -163,4 +184,140 @@ class DefaultCircuitBreakerTest {
         String result = circuitBreaker.execute(() -> "success", () -> "fallback");
         assertEquals("success", result);
     }
-} 
\ No newline at end of file
+    
+    @Test
+    void shouldOpenWhenFailureRateExceedsThresholdInCountBasedWindow() {
+        CircuitBreakerConfig config = new CircuitBreakerConfig.Builder()
+                .failureThreshold(100)
+                .slidingWindow(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED, 10)
+                .minimumNumberOfCalls(10)
+                .failureRateThreshold(50)
+                .build();
+        DefaultCircuitBreaker<String> circuitBreaker = new DefaultCircuitBreaker<>("count", config);
+        
+        // 交替成功和失败，失败率40%，不会开启
+        for (int i = 0; i < 10; i++) {
+            boolean fail = i % 5 == 1 || i % 5 == 3;
+            circuitBreaker.execute(() -> {
+                if (fail) {
+                    throw new RuntimeException("Simulated failure");
+                }
+                return "success";
+            }, () -> "fallback");
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(40f, circuitBreaker.getFailureRate(), 0.01f);
+        
+        // 最早的成功调用被挤出窗口，失败率达到50%
+        circuitBreaker.execute(() -> { throw new RuntimeException("Simulated failure"); }, () -> "fallback");
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+    
+    @Test
+    void shouldOpenWhenSlowCallRateExceedsThreshold() {
+        AtomicLong clock = new AtomicLong();
+        CircuitBreakerConfig config = new CircuitBreakerConfig.Builder()
+                .slidingWindow(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED, 4)
+                .minimumNumberOfCalls(4)
+                .slowCallRateThreshold(50)
+                .slowCallDurationThreshold(Duration.ofMillis(100))
+                .build();
+        DefaultCircuitBreaker<String> circuitBreaker = new DefaultCircuitBreaker<>("slow", config, clock::get);
+        
+        circuitBreaker.execute(() -> "fast", () -> "fallback");
+        circuitBreaker.execute(() -> "fast", () -> "fallback");
+        circuitBreaker.execute(() -> {
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+            return "slow";
+        }, () -> "fallback");
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        
+        circuitBreaker.execute(() -> {
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+            return "slow";
+        }, () -> "fallback");
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+    
+    @Test
+    void shouldForgetExpiredCallsInTimeBasedWindow() {
+        AtomicLong clock = new AtomicLong();
+        CircuitBreakerConfig config = new CircuitBreakerConfig.Builder()
+                .failureThreshold(100)
+                .slidingWindow(CircuitBreakerConfig.SlidingWindowType.TIME_BASED, 2)
+                .minimumNumberOfCalls(3)
+                .failureRateThreshold(50)
+                .build();
+        DefaultCircuitBreaker<String> circuitBreaker = new DefaultCircuitBreaker<>("time", config, clock::get);
+        
+        circuitBreaker.execute(() -> { throw new RuntimeException("Simulated failure"); }, () -> "fallback");
+        circuitBreaker.execute(() -> { throw new RuntimeException("Simulated failure"); }, () -> "fallback");
+        
+        // 两次失败移出窗口之后，新的失败只占三分之一
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        circuitBreaker.execute(() -> "success", () -> "fallback");
+        circuitBreaker.execute(() -> "success", () -> "fallback");
+        circuitBreaker.execute(() -> { throw new RuntimeException("Simulated failure"); }, () -> "fallback");
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        
+        circuitBreaker.execute(() -> { throw new RuntimeException("Simulated failure"); }, () -> "fallback");
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+    
+    @Test
+    void shouldReopenWhenHalfOpenProbesFail() {
+        AtomicLong clock = new AtomicLong();
+        DefaultCircuitBreaker<String> circuitBreaker = new DefaultCircuitBreaker<>("probe", config, clock::get);
+        for (int i = 0; i < config.getFailureThreshold(); i++) {
+            circuitBreaker.execute(() -> { throw new RuntimeException("Simulated failure"); }, () -> "fallback");
+        }
+        clock.addAndGet(config.getWaitDuration().toNanos());
+        
+        circuitBreaker.execute(() -> "success", () -> "fallback");
+        circuitBreaker.execute(() -> { throw new RuntimeException("Simulated failure"); }, () -> "fallback");
+        
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+    
+    @Test
+    void shouldPublishStateTransitionEvents() {
+        AtomicLong clock = new AtomicLong();
+        List<CircuitBreakerStateTransitionEvent> events = new ArrayList<>();
+        DefaultCircuitBreaker<String> circuitBreaker = new DefaultCircuitBreaker<>("events", config, clock::get);
+        circuitBreaker.setEventPublisher(new ApplicationEventPublisher() {
+            @Override
+            public void publishEvent(ApplicationEvent event) {
+                events.add((CircuitBreakerStateTransitionEvent) event);
+            }
+            
+            @Override
+            public void publishEvent(Object event) {
+                publishEvent((ApplicationEvent) event);
+            }
+        });
+        
+        for (int i = 0; i < config.getFailureThreshold(); i++) {
+            circuitBreaker.execute(() -> { throw new RuntimeException("Simulated failure"); }, () -> "fallback");
+        }
+        clock.addAndGet(config.getWaitDuration().toNanos());
+        for (int i = 0; i < config.getPermittedNumberOfCallsInHalfOpenState(); i++) {
+            circuitBreaker.execute(() -> "success", () -> "fallback");
+        }
+        
+        assertEquals(3, events.size());
+        assertEquals(CircuitBreaker.State.CLOSED, events.get(0).getFromState());
+        assertEquals(CircuitBreaker.State.OPEN, events.get(0).getToState());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, events.get(1).getToState());
+        assertEquals(CircuitBreaker.State.CLOSED, events.get(2).getToState());
+        assertEquals("events", events.get(2).getCircuitBreakerName());
+        assertSame(circuitBreaker, events.get(2).getSource());
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.kama.minispring.cloud.circuit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 限流器测试类
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+class RateLimiterTest {
+    
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    
+    private GcraRateLimiter rateLimiter(int limit, Duration period, Duration timeout) {
+        RateLimiterConfig config = new RateLimiterConfig.Builder()
+                .limitForPeriod(limit)
+                .limitRefreshPeriod(period)
+                .timeoutDuration(timeout)
+                .build();
+        return new GcraRateLimiter("test", config, clock::get);
+    }
+    
+    @Test
+    void shouldAllowBurstUpToLimitThenReject() {
+        GcraRateLimiter limiter = rateLimiter(5, Duration.ofSeconds(1), Duration.ZERO);
+        assertEquals(5, limiter.getAvailablePermissions());
+        
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquirePermission(), "call " + i);
+        }
+        assertFalse(limiter.tryAcquirePermission());
+        assertEquals(0, limiter.getAvailablePermissions());
+        assertEquals("fallback", limiter.execute(() -> "success", () -> "fallback"));
+        assertThrows(RequestNotPermittedException.class, () -> limiter.decorateSupplier(() -> "success").get());
+    }
+    
+    @Test
+    void shouldRefillOnePermitPerEmissionInterval() {
+        GcraRateLimiter limiter = rateLimiter(5, Duration.ofSeconds(1), Duration.ZERO);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquirePermission());
+        }
+        
+        clock.addAndGet(Duration.ofMillis(199).toNanos());
+        assertFalse(limiter.tryAcquirePermission());
+        clock.addAndGet(Duration.ofMillis(1).toNanos());
+        assertTrue(limiter.tryAcquirePermission());
+        assertFalse(limiter.tryAcquirePermission());
+        
+        // 空闲超过一个周期后突发容量恢复，但不会超过limitForPeriod
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertEquals(5, limiter.getAvailablePermissions());
+    }
+    
+    @Test
+    void shouldReserveWithinTimeout() {
+        GcraRateLimiter limiter = rateLimiter(2, Duration.ofSeconds(1), Duration.ofMillis(600));
+        assertEquals(0, limiter.reservePermission());
+        assertEquals(0, limiter.reservePermission());
+        assertEquals(Duration.ofMillis(500).toNanos(), limiter.reservePermission());
+        assertEquals(-1, limiter.reservePermission());
+        clock.addAndGet(Duration.ofMillis(400).toNanos());
+        assertEquals(Duration.ofMillis(600).toNanos(), limiter.reservePermission());
+    }
+    
+    @Test
+    void shouldNotOpenCircuitBreakerWhenRateLimited() {
+        GcraRateLimiter limiter = rateLimiter(1, Duration.ofSeconds(1), Duration.ZERO);
+        DefaultCircuitBreaker<String> circuitBreaker = new DefaultCircuitBreaker<>("limited",
+                new CircuitBreakerConfig.Builder().failureThreshold(1).build(), clock::get);
+        
+        assertEquals("success", circuitBreaker.execute(limiter.decorateSupplier(() -> "success"), () -> "fallback"));
+        for (int i = 0; i < 3; i++) {
+            assertEquals("fallback", circuitBreaker.execute(limiter.decorateSupplier(() -> "success"), () -> "fallback"));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+}
@@ -7,7 +7,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -81,7 +84,7 @@ class LoadBalancerTest {
     @Test
     void shouldHandleAllInstancesDown() {
         // 将所有实例状态设置为DOWN
-        instances.forEach(instance -> instance.setStatus(ServiceStatus.DOWN));
+        instances.replaceAll(instance -> instance.withStatus(ServiceStatus.DOWN));
         
         // 验证无可用实例时抛出异常
         assertThrows(IllegalStateException.class, () -> 
@@ -93,8 +96,8 @@ class LoadBalancerTest {
     @Test
     void shouldOnlyChooseUpInstances() {
         // 将部分实例设置为DOWN
-        instances.get(0).setStatus(ServiceStatus.DOWN);
-        instances.get(1).setStatus(ServiceStatus.DOWN);
+        instances.set(0, instances.get(0).withStatus(ServiceStatus.DOWN));
+        instances.set(1, instances.get(1).withStatus(ServiceStatus.DOWN));
         
         // 验证只选择UP状态的实例
         ServiceInstance chosen = randomLoadBalancer.choose(instances);
@@ -103,4 +106,104 @@ class LoadBalancerTest {
         chosen = roundRobinLoadBalancer.choose(instances);
         assertEquals(ServiceStatus.UP, chosen.getStatus());
     }
+    
+    @Test
+    void shouldNotChooseSlowInstanceWithPowerOfTwoChoices() {
+        AtomicLong clock = new AtomicLong();
+        PowerOfTwoChoicesLoadBalancer loadBalancer =
+                new PowerOfTwoChoicesLoadBalancer(new LoadBalancerStats(Duration.ofSeconds(10), clock::get));
+        Map<ServiceInstance, Long> latencies = new HashMap<>();
+        latencies.put(instances.get(0), TimeUnit.MILLISECONDS.toNanos(200));
+        latencies.put(instances.get(1), TimeUnit.MILLISECONDS.toNanos(5));
+        latencies.put(instances.get(2), TimeUnit.MILLISECONDS.toNanos(5));
+        latencies.forEach((instance, latency) -> {
+            loadBalancer.getStats().getStats(instance).onRequestStart();
+            loadBalancer.onComplete(instance, latency, true);
+        });
+        
+        // 两个候选总是不同的实例，慢实例的代价更高，因此不会被选中
+        Map<ServiceInstance, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            ServiceInstance chosen = loadBalancer.choose(instances);
+            counts.merge(chosen, 1, Integer::sum);
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+            loadBalancer.onComplete(chosen, latencies.get(chosen), true);
+        }
+        assertNull(counts.get(instances.get(0)));
+        assertEquals(2, counts.size());
+    }
+    
+    @Test
+    void shouldChooseLeastOutstandingInstance() {
+        LeastOutstandingRequestsLoadBalancer loadBalancer = new LeastOutstandingRequestsLoadBalancer();
+        Set<ServiceInstance> inFlight = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            inFlight.add(loadBalancer.choose(instances));
+        }
+        assertEquals(3, inFlight.size());
+        
+        ServiceInstance completed = instances.get(1);
+        loadBalancer.onComplete(completed, TimeUnit.MILLISECONDS.toNanos(1), true);
+        assertEquals(completed, loadBalancer.choose(instances));
+        assertEquals(1, loadBalancer.getStats().getStats(completed).getOutstandingRequests());
+    }
+    
+    @Test
+    void shouldWeightByResponseTime() {
+        WeightedResponseTimeLoadBalancer loadBalancer = new WeightedResponseTimeLoadBalancer();
+        loadBalancer.onComplete(instances.get(0), TimeUnit.MILLISECONDS.toNanos(100), true);
+        loadBalancer.onComplete(instances.get(1), TimeUnit.MILLISECONDS.toNanos(1), true);
+        loadBalancer.onComplete(instances.get(2), TimeUnit.MILLISECONDS.toNanos(1), true);
+        
+        int slowCount = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (loadBalancer.choose(instances).equals(instances.get(0))) {
+                slowCount++;
+            }
+        }
+        // 慢实例的权重约为快实例的1/100，期望约5次
+        assertTrue(slowCount < 50, "slow instance chosen " + slowCount + " times");
+    }
+    
+    @Test
+    void shouldTrackPeakAndDecayEwma() {
+        AtomicLong clock = new AtomicLong();
+        ServiceInstanceStats stats = new LoadBalancerStats(Duration.ofSeconds(10), clock::get)
+                .getStats(instances.get(0));
+        assertFalse(stats.hasResponseTime());
+        
+        stats.onRequestStart();
+        stats.onRequestComplete(TimeUnit.MILLISECONDS.toNanos(10), true);
+        stats.onRequestStart();
+        stats.onRequestComplete(TimeUnit.MILLISECONDS.toNanos(100), true);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), stats.getEwmaResponseTimeNanos(), 1);
+        
+        // 经过一个衰减时间常数后，旧平均值的权重为1/e
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        stats.onRequestStart();
+        stats.onRequestComplete(TimeUnit.MILLISECONDS.toNanos(10), true);
+        double expected = TimeUnit.MILLISECONDS.toNanos(100) * Math.exp(-1)
+                + TimeUnit.MILLISECONDS.toNanos(10) * (1 - Math.exp(-1));
+        assertEquals(expected, stats.getEwmaResponseTimeNanos(), 1);
+        assertEquals(0, stats.getOutstandingRequests());
+        assertEquals(3, stats.getTotalRequests());
+    }
+    
+    @Test
+    void shouldRecordCompletionThroughExecute() {
+        PowerOfTwoChoicesLoadBalancer loadBalancer = new PowerOfTwoChoicesLoadBalancer();
+        instances.set(0, instances.get(0).withStatus(ServiceStatus.DOWN));
+        instances.set(1, instances.get(1).withStatus(ServiceStatus.DOWN));
+        ServiceInstance up = instances.get(2);
+        
+        assertEquals(up.getUri(), loadBalancer.execute(instances, ServiceInstance::getUri));
+        assertThrows(IllegalStateException.class, () -> loadBalancer.execute(instances, instance -> {
+            throw new IllegalStateException("request failed");
+        }));
+        
+        ServiceInstanceStats stats = loadBalancer.getStats().getStats(up);
+        assertEquals(0, stats.getOutstandingRequests());
+        assertEquals(2, stats.getTotalRequests());
+        assertEquals(1, stats.getFailedRequests());
+    }
 } 
\ No newline at end of file
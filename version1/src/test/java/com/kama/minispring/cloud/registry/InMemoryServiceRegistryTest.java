@@ -4,9 +4,17 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -109,4 +117,193 @@ class InMemoryServiceRegistryTest {
         assertDoesNotThrow(() -> 
             registry.updateStatus("non-existent", "non-existent", ServiceStatus.DOWN));
     }
-} 
\ No newline at end of file
+    
+    @Test
+    void shouldServeImmutableVersionedSnapshots() {
+        InMemoryServiceRegistry registry = new InMemoryServiceRegistry();
+        registry.register(SERVICE_NAME, INSTANCE_ID, SERVICE_URI, new ServiceMetadata());
+        registry.register(SERVICE_NAME, "instance-2", URI.create("http://localhost:8081"), new ServiceMetadata());
+        
+        // 未发生变化时重复查询返回同一个列表，不复制
+        ServiceSnapshot before = registry.getSnapshot(SERVICE_NAME);
+        assertSame(registry.getInstances(SERVICE_NAME), registry.getInstances(SERVICE_NAME));
+        assertSame(before.getUpInstances(), registry.getUpInstances(SERVICE_NAME));
+        assertEquals(2, before.getUpInstances().size());
+        assertThrows(UnsupportedOperationException.class, () -> before.getInstances().clear());
+        
+        registry.updateStatus(SERVICE_NAME, INSTANCE_ID, ServiceStatus.DOWN);
+        ServiceSnapshot after = registry.getSnapshot(SERVICE_NAME);
+        assertTrue(after.getVersion() > before.getVersion());
+        assertEquals(1, after.getUpInstances().size());
+        assertEquals("instance-2", after.getUpInstances().get(0).getInstanceId());
+        assertEquals(INSTANCE_ID, after.getInstances().get(0).getInstanceId());
+        
+        // 旧快照中的实例没有被修改
+        assertEquals(ServiceStatus.UP, before.getInstance(INSTANCE_ID).getStatus());
+        assertEquals(2, before.getUpInstances().size());
+        
+        // 状态没有变化时不产生新版本
+        registry.updateStatus(SERVICE_NAME, INSTANCE_ID, ServiceStatus.DOWN);
+        assertSame(after, registry.getSnapshot(SERVICE_NAME));
+    }
+    
+    @Test
+    void shouldKeepVersionIncreasingAfterServiceIsEmptied() {
+        InMemoryServiceRegistry registry = new InMemoryServiceRegistry();
+        assertEquals(0, registry.getSnapshot(SERVICE_NAME).getVersion());
+        registry.register(SERVICE_NAME, INSTANCE_ID, SERVICE_URI, new ServiceMetadata());
+        long registered = registry.getSnapshot(SERVICE_NAME).getVersion();
+        registry.deregister(SERVICE_NAME, INSTANCE_ID);
+        long emptied = registry.getSnapshot(SERVICE_NAME).getVersion();
+        registry.register(SERVICE_NAME, INSTANCE_ID, SERVICE_URI, new ServiceMetadata());
+        
+        assertTrue(emptied > registered);
+        assertTrue(registry.getSnapshot(SERVICE_NAME).getVersion() > emptied);
+        assertEquals(1, registry.getInstanceCount());
+    }
+    
+    @Test
+    void shouldNotifyListenersAndWatchers() throws Exception {
+        InMemoryServiceRegistry registry = new InMemoryServiceRegistry();
+        List<Long> notified = new ArrayList<>();
+        ServiceChangeListener listener = snapshot -> notified.add(snapshot.getVersion());
+        registry.addServiceChangeListener(SERVICE_NAME, listener);
+        
+        long version = registry.getSnapshot(SERVICE_NAME).getVersion();
+        CompletableFuture<ServiceSnapshot> watch = registry.watch(SERVICE_NAME, version);
+        assertFalse(watch.isDone());
+        
+        registry.register(SERVICE_NAME, INSTANCE_ID, SERVICE_URI, new ServiceMetadata());
+        ServiceSnapshot changed = watch.get(1, TimeUnit.SECONDS);
+        assertEquals(1, changed.getInstances().size());
+        assertEquals(List.of(changed.getVersion()), notified);
+        
+        // 已知版本落后时立即返回
+        assertSame(changed, registry.watch(SERVICE_NAME, version).getNow(null));
+        
+        registry.removeServiceChangeListener(SERVICE_NAME, listener);
+        registry.deregister(SERVICE_NAME, INSTANCE_ID);
+        assertEquals(1, notified.size());
+    }
+    
+    @Test
+    void shouldLongPollForChanges() throws Exception {
+        InMemoryServiceRegistry registry = new InMemoryServiceRegistry();
+        registry.register(SERVICE_NAME, INSTANCE_ID, SERVICE_URI, new ServiceMetadata());
+        long version = registry.getSnapshot(SERVICE_NAME).getVersion();
+        
+        // 超时时返回版本号不变的当前快照
+        assertEquals(version, registry.awaitChange(SERVICE_NAME, version, 10, TimeUnit.MILLISECONDS).getVersion());
+        
+        CompletableFuture<ServiceSnapshot> poll = CompletableFuture.supplyAsync(() -> {
+            try {
+                return registry.awaitChange(SERVICE_NAME, version, 5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        registry.updateStatus(SERVICE_NAME, INSTANCE_ID, ServiceStatus.OUT_OF_SERVICE);
+        
+        ServiceSnapshot snapshot = poll.get(5, TimeUnit.SECONDS);
+        assertTrue(snapshot.getVersion() > version);
+        assertTrue(snapshot.getUpInstances().isEmpty());
+    }
+    
+    @Test
+    void shouldNotWakeWatcherWithVersionBeingPublished() throws Exception {
+        InMemoryServiceRegistry registry = new InMemoryServiceRegistry();
+        registry.register(SERVICE_NAME, INSTANCE_ID, SERVICE_URI, new ServiceMetadata());
+        long first = registry.getSnapshot(SERVICE_NAME).getVersion();
+        
+        // 监听器阻塞第二个版本的发布，第三个版本生效后只能等待发布
+        CountDownLatch publishing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        registry.addServiceChangeListener(SERVICE_NAME, snapshot -> {
+            if (snapshot.getVersion() == first + 1) {
+                publishing.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> second = executor.submit(() ->
+                registry.updateStatus(SERVICE_NAME, INSTANCE_ID, ServiceStatus.DOWN));
+            assertTrue(publishing.await(5, TimeUnit.SECONDS));
+            CompletableFuture<ServiceSnapshot> olderWatch = registry.watch(SERVICE_NAME, first + 1);
+            assertFalse(olderWatch.isDone());
+            
+            Future<?> third = executor.submit(() ->
+                registry.updateStatus(SERVICE_NAME, INSTANCE_ID, ServiceStatus.UP));
+            while (registry.getSnapshot(SERVICE_NAME).getVersion() != first + 2) {
+                Thread.sleep(1);
+            }
+            CompletableFuture<ServiceSnapshot> latestWatch = registry.watch(SERVICE_NAME, first + 2);
+            
+            release.countDown();
+            second.get(5, TimeUnit.SECONDS);
+            third.get(5, TimeUnit.SECONDS);
+            
+            assertEquals(first + 2, olderWatch.get(5, TimeUnit.SECONDS).getVersion());
+            assertFalse(latestWatch.isDone());
+            
+            registry.deregister(SERVICE_NAME, INSTANCE_ID);
+            assertEquals(first + 3, latestWatch.get(5, TimeUnit.SECONDS).getVersion());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    void shouldNotifyListenersInVersionOrderUnderConcurrentUpdates() throws Exception {
+        InMemoryServiceRegistry registry = new InMemoryServiceRegistry();
+        List<Long> notified = new CopyOnWriteArrayList<>();
+        registry.addServiceChangeListener(SERVICE_NAME, snapshot -> notified.add(snapshot.getVersion()));
+        
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String instanceId = "instance-" + t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        registry.register(SERVICE_NAME, instanceId, SERVICE_URI, new ServiceMetadata());
+                        registry.updateStatus(SERVICE_NAME, instanceId, ServiceStatus.DOWN);
+                        registry.deregister(SERVICE_NAME, instanceId);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        
+        // 中间版本可以被合并，但通知的版本号严格递增，最后一次通知是最终版本
+        for (int i = 1; i < notified.size(); i++) {
+            assertTrue(notified.get(i - 1) < notified.get(i));
+        }
+        assertEquals(registry.getSnapshot(SERVICE_NAME).getVersion(), notified.get(notified.size() - 1));
+    }
+    
+    @Test
+    void shouldNotLetCallersChangeInstanceStatusInSnapshots() {
+        InMemoryServiceRegistry registry = new InMemoryServiceRegistry();
+        registry.register(SERVICE_NAME, INSTANCE_ID, SERVICE_URI, new ServiceMetadata());
+        ServiceInstance instance = registry.getInstances(SERVICE_NAME).get(0);
+        
+        // 实例不可变，修改状态只能得到新实例，快照中的UP实例列表不受影响
+        ServiceInstance down = instance.withStatus(ServiceStatus.DOWN);
+        assertNotSame(instance, down);
+        assertEquals(ServiceStatus.UP, instance.getStatus());
+        assertEquals(List.of(instance), registry.getUpInstances(SERVICE_NAME));
+    }
+}
@@ -0,0 +1,110 @@
+package com.kama.minispring.context.annotation;
+
+import com.kama.minispring.beans.factory.config.BeanDefinition;
+import com.kama.minispring.beans.factory.support.DefaultListableBeanFactory;
+import com.kama.minispring.context.annotation.scan.ScannedService;
+import com.kama.minispring.core.type.AnnotationMetadata;
+import com.kama.minispring.core.type.filter.AnnotationTypeFilter;
+import com.kama.minispring.core.type.filter.TypeFilter;
+import com.kama.minispring.stereotype.Service;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassPathBeanDefinitionScanner测试类
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+class ClassPathBeanDefinitionScannerTest {
+
+    private static final String SCAN_PACKAGE = "com.kama.minispring.context.annotation.scan";
+
+    @Test
+    void shouldScanDirectoryWithoutLoadingNonCandidates() {
+        DefaultListableBeanFactory registry = new DefaultListableBeanFactory();
+        ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(registry);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Service.class));
+
+        assertEquals(1, scanner.scan(SCAN_PACKAGE));
+        assertEquals(ScannedService.class, registry.getBeanDefinition("scannedService").getBeanClass());
+        // 普通类和候选组件都不会在扫描时初始化
+        assertNull(System.getProperty(SCAN_PACKAGE + ".PlainComponent.initialized"));
+    }
+
+    @Test
+    void shouldRegisterInSameOrderWhenScanningInParallel() {
+        String[] basePackages = {"com.kama.minispring.test", SCAN_PACKAGE, "com.kama.minispring.core"};
+        // 不是AnnotationTypeFilter，不会使用组件索引
+        TypeFilter serviceFilter = metadata -> metadata instanceof AnnotationMetadata
+                && ((AnnotationMetadata) metadata).hasAnnotation(Service.class.getName());
+
+        DefaultListableBeanFactory serialRegistry = new DefaultListableBeanFactory();
+        ClassPathBeanDefinitionScanner serialScanner = new ClassPathBeanDefinitionScanner(serialRegistry);
+        serialScanner.addIncludeFilter(serviceFilter);
+        serialScanner.scan(basePackages);
+
+        DefaultListableBeanFactory parallelRegistry = new DefaultListableBeanFactory();
+        ClassPathBeanDefinitionScanner parallelScanner = new ClassPathBeanDefinitionScanner(parallelRegistry);
+        parallelScanner.setParallelScan(true);
+        parallelScanner.setScanParallelism(4);
+        parallelScanner.addIncludeFilter(serviceFilter);
+        assertEquals(2, parallelScanner.scan(basePackages));
+
+        assertArrayEquals(new String[]{"testService", "scannedService"}, serialRegistry.getBeanDefinitionNames());
+        assertArrayEquals(serialRegistry.getBeanDefinitionNames(), parallelRegistry.getBeanDefinitionNames());
+        assertNull(System.getProperty(SCAN_PACKAGE + ".PlainComponent.initialized"));
+    }
+
+    @Test
+    void shouldScanJar(@TempDir Path tempDir) throws Exception {
+        String packagePath = SCAN_PACKAGE.replace('.', '/');
+        Path classesDir = Paths.get(getClass().getClassLoader().getResource(packagePath).toURI());
+        Path jar = tempDir.resolve("scan.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar));
+             DirectoryStream<Path> classFiles = Files.newDirectoryStream(classesDir, "*.class")) {
+            // 与jar工具生成的jar包一样写入目录条目，类加载器才能找到包对应的资源
+            String directory = "";
+            for (String segment : packagePath.split("/")) {
+                directory += segment + "/";
+                out.putNextEntry(new JarEntry(directory));
+                out.closeEntry();
+            }
+            for (Path classFile : classFiles) {
+                out.putNextEntry(new JarEntry(packagePath + "/" + classFile.getFileName()));
+                Files.copy(classFile, out);
+                out.closeEntry();
+            }
+        }
+
+        // 父加载器为null，只能从jar中找到扫描的包
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, null)) {
+            DefaultListableBeanFactory registry = new DefaultListableBeanFactory();
+            ClassPathBeanDefinitionScanner scanner = new ClassPathBeanDefinitionScanner(registry, classLoader);
+            scanner.addIncludeFilter(new AnnotationTypeFilter(Service.class));
+
+            assertEquals(1, scanner.scan(SCAN_PACKAGE));
+            BeanDefinition beanDefinition = registry.getBeanDefinition("scannedService");
+            assertEquals(ScannedService.class.getName(), beanDefinition.getBeanClass().getName());
+            assertSame(classLoader, beanDefinition.getBeanClass().getClassLoader());
+
+            DefaultListableBeanFactory parallelRegistry = new DefaultListableBeanFactory();
+            ClassPathBeanDefinitionScanner parallelScanner = new ClassPathBeanDefinitionScanner(parallelRegistry, classLoader);
+            parallelScanner.setParallelScan(true);
+            parallelScanner.addIncludeFilter(new AnnotationTypeFilter(Service.class));
+            assertEquals(1, parallelScanner.scan(SCAN_PACKAGE));
+        }
+    }
+}
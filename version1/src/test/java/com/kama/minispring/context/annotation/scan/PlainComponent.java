@@ -0,0 +1,14 @@
+package com.kama.minispring.context.annotation.scan;
+
+/**
+ * 扫描测试用的普通类，不应该被加载
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class PlainComponent {
+
+    static {
+        System.setProperty(PlainComponent.class.getName() + ".initialized", "true");
+    }
+}
@@ -0,0 +1,29 @@
+package com.kama.minispring.context.annotation.scan;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 用于测试注解属性读取的注解
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ScanAttributes {
+
+    String name();
+
+    String[] values() default {};
+
+    int[] numbers() default {};
+
+    Class<?> type() default Object.class;
+
+    ElementType target() default ElementType.TYPE;
+
+    String[] tags() default {};
+}
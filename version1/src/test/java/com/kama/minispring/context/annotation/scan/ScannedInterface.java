@@ -0,0 +1,13 @@
+package com.kama.minispring.context.annotation.scan;
+
+import com.kama.minispring.stereotype.Service;
+
+/**
+ * 扫描测试用的接口，即使有@Service注解也不是候选组件
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+@Service
+public interface ScannedInterface {
+}
@@ -0,0 +1,22 @@
+package com.kama.minispring.context.annotation.scan;
+
+import com.kama.minispring.stereotype.Service;
+
+/**
+ * 扫描测试用的服务组件，类初始化时记录系统属性
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+@Service
+@ScanAttributes(name = "scanned", values = {"a", "b"}, numbers = {1, 2}, type = String.class)
+public class ScannedService {
+
+    static {
+        System.setProperty(ScannedService.class.getName() + ".initialized", "true");
+    }
+
+    @Deprecated
+    public void handle() {
+    }
+}
@@ -0,0 +1,154 @@
+package com.kama.minispring.context.event;
+
+import com.kama.minispring.context.ApplicationEvent;
+import com.kama.minispring.context.ApplicationListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ApplicationEventMetrics的测试类
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+class ApplicationEventMetricsTest {
+
+    private SimpleApplicationEventMulticaster multicaster;
+    private ApplicationEventMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        multicaster = new SimpleApplicationEventMulticaster();
+        metrics = new ApplicationEventMetrics();
+        multicaster.setEventMetrics(metrics);
+    }
+
+    @Test
+    void testPublishCountsAndListenerLatency() {
+        multicaster.addApplicationListener(new FastListener());
+        for (int i = 0; i < 3; i++) {
+            multicaster.multicastEvent(new FastEvent(this));
+        }
+        multicaster.multicastEvent(new SlowEvent(this));
+
+        assertEquals(3, metrics.getPublishCount(FastEvent.class));
+        assertEquals(1, metrics.getPublishCount(SlowEvent.class));
+        assertEquals(Long.valueOf(3), metrics.getPublishCounts().get(FastEvent.class.getName()));
+
+        LatencyHistogram latency = metrics.getListenerLatency(FastListener.class.getName());
+        assertNotNull(latency);
+        assertEquals(3, latency.getTotalCount());
+        assertEquals(0, metrics.getQueueDepth());
+    }
+
+    @Test
+    void testSlowListenerDetected() {
+        metrics.setSlowListenerThreshold(5, TimeUnit.MILLISECONDS);
+        multicaster.addApplicationListener(new FastListener());
+        multicaster.addApplicationListener(new SlowListener());
+
+        multicaster.multicastEvent(new FastEvent(this));
+        multicaster.multicastEvent(new SlowEvent(this));
+
+        assertEquals(1, metrics.getSlowInvocationCount(SlowListener.class.getName()));
+        assertEquals(0, metrics.getSlowInvocationCount(FastListener.class.getName()));
+        assertTrue(metrics.getListenerLatency(SlowListener.class.getName()).getMaxValue()
+                >= TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(10_000, histogram.getTotalCount());
+        assertEquals(10_000_000, histogram.getMaxValue());
+        assertEquals(5_000_500, histogram.getMean(), 1);
+        long p50 = histogram.getValueAtPercentile(50);
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue(p50 >= 5_000_000 && p50 <= 5_000_000 * 33 / 32, "p50 = " + p50);
+        assertTrue(p99 >= 9_900_000 && p99 <= 9_900_000 * 33 / 32, "p99 = " + p99);
+        assertEquals(10_000_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void testHistogramBucketsCoverValues() {
+        for (long value : new long[]{0, 1, 63, 64, 65, 1000, 123_456_789, LatencyHistogram.MAX_TRACKABLE_VALUE}) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestEquivalentValue(index - 1) < value);
+            }
+        }
+    }
+
+    @Test
+    void testQueueDepthReportedInAsyncMode() throws Exception {
+        AsyncApplicationEventMulticaster async =
+                new AsyncApplicationEventMulticaster(1, 16, AsyncApplicationEventMulticaster.OverflowPolicy.BLOCK);
+        try {
+            async.setEventMetrics(metrics);
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            async.addApplicationListener(new ApplicationListener<FastEvent>() {
+                @Override
+                public void onApplicationEvent(FastEvent event) {
+                    started.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+
+            async.multicastEvent(new FastEvent(this));
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+            async.multicastEvent(new FastEvent(this));
+            async.multicastEvent(new FastEvent(this));
+
+            assertEquals(2, metrics.getQueueDepth());
+            assertEquals(3, metrics.getPublishCount(FastEvent.class));
+            release.countDown();
+        } finally {
+            async.destroy();
+        }
+        assertEquals(0, metrics.getQueueDepth());
+    }
+
+    private static class FastEvent extends ApplicationEvent {
+        FastEvent(Object source) {
+            super(source);
+        }
+    }
+
+    private static class SlowEvent extends ApplicationEvent {
+        SlowEvent(Object source) {
+            super(source);
+        }
+    }
+
+    private static class FastListener implements ApplicationListener<FastEvent> {
+        @Override
+        public void onApplicationEvent(FastEvent event) {
+        }
+    }
+
+    private static class SlowListener implements ApplicationListener<SlowEvent> {
+        @Override
+        public void onApplicationEvent(SlowEvent event) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.kama.minispring.context.event;
+
+import com.kama.minispring.context.ApplicationEvent;
+import com.kama.minispring.context.ApplicationListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AsyncApplicationEventMulticaster的测试类
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+class AsyncApplicationEventMulticasterTest {
+
+    private AsyncApplicationEventMulticaster multicaster;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (multicaster != null) {
+            multicaster.destroy();
+        }
+    }
+
+    @Test
+    void testEventsWithSameKeyDeliveredInOrder() throws Exception {
+        multicaster = new AsyncApplicationEventMulticaster(4, 16, AsyncApplicationEventMulticaster.OverflowPolicy.BLOCK);
+        Map<Object, List<Integer>> received = new ConcurrentHashMap<>();
+        multicaster.addApplicationListener(new SequenceListener(received));
+
+        for (int i = 0; i < 1000; i++) {
+            multicaster.multicastEvent(new SequenceEvent("key-" + (i % 5), i));
+        }
+        multicaster.destroy();
+
+        assertEquals(5, received.size());
+        for (List<Integer> sequence : received.values()) {
+            assertEquals(200, sequence.size());
+            for (int i = 1; i < sequence.size(); i++) {
+                assertTrue(sequence.get(i - 1) < sequence.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testDropOldestKeepsQueueBounded() throws Exception {
+        multicaster = new AsyncApplicationEventMulticaster(1, 4, AsyncApplicationEventMulticaster.OverflowPolicy.DROP_OLDEST);
+        BlockingListener listener = new BlockingListener();
+        multicaster.addApplicationListener(listener);
+
+        multicaster.multicastEvent(new SequenceEvent("key", 0));
+        assertTrue(listener.started.await(1, TimeUnit.SECONDS));
+        for (int i = 1; i <= 10; i++) {
+            multicaster.multicastEvent(new SequenceEvent("key", i));
+            assertTrue(multicaster.getQueuedEventCount() <= 4);
+        }
+        listener.release.countDown();
+        multicaster.destroy();
+
+        assertEquals(6, multicaster.getDroppedEventCount());
+        assertEquals(List.of(0, 7, 8, 9, 10), listener.sequences);
+    }
+
+    @Test
+    void testCallerRunsWhenQueueIsFull() throws Exception {
+        multicaster = new AsyncApplicationEventMulticaster(1, 1, AsyncApplicationEventMulticaster.OverflowPolicy.CALLER_RUNS);
+        BlockingListener listener = new BlockingListener();
+        multicaster.addApplicationListener(listener);
+
+        multicaster.multicastEvent(new SequenceEvent("key", 0));
+        assertTrue(listener.started.await(1, TimeUnit.SECONDS));
+        multicaster.multicastEvent(new SequenceEvent("key", 1));
+        // 队列已满，在当前线程上分发
+        multicaster.multicastEvent(new SequenceEvent("key", 2));
+
+        assertEquals(1, multicaster.getCallerRunsEventCount());
+        assertTrue(listener.threads.contains(Thread.currentThread()));
+        listener.release.countDown();
+        multicaster.destroy();
+
+        assertEquals(0, multicaster.getDroppedEventCount());
+        assertEquals(3, listener.sequences.size());
+    }
+
+    @Test
+    void testBatchListenerReceivesQueuedEventsTogether() throws Exception {
+        multicaster = new AsyncApplicationEventMulticaster(1, 64, AsyncApplicationEventMulticaster.OverflowPolicy.BLOCK);
+        multicaster.setMaxBatchSize(8);
+        BlockingListener gate = new BlockingListener();
+        RecordingBatchListener batchListener = new RecordingBatchListener();
+        multicaster.addApplicationListener(gate);
+        multicaster.addApplicationListener(batchListener);
+
+        multicaster.multicastEvent(new SequenceEvent("key", 0));
+        assertTrue(gate.started.await(1, TimeUnit.SECONDS));
+        for (int i = 1; i <= 20; i++) {
+            multicaster.multicastEvent(new SequenceEvent("key", i));
+        }
+        gate.release.countDown();
+        multicaster.destroy();
+
+        List<Integer> delivered = new ArrayList<>();
+        for (List<SequenceEvent> batch : batchListener.batches) {
+            assertTrue(batch.size() <= 8);
+            for (SequenceEvent event : batch) {
+                delivered.add(event.sequence);
+            }
+        }
+        assertEquals(21, delivered.size());
+        for (int i = 0; i < delivered.size(); i++) {
+            assertEquals(i, delivered.get(i));
+        }
+        assertTrue(batchListener.batches.stream().anyMatch(batch -> batch.size() > 1));
+    }
+
+    @Test
+    void testBatchListenerEventTypeResolved() {
+        SimpleApplicationEventMulticaster simple = new SimpleApplicationEventMulticaster();
+        RecordingBatchListener batchListener = new RecordingBatchListener();
+        simple.addApplicationListener(batchListener);
+
+        simple.multicastEvent(new SequenceEvent("key", 1));
+        simple.multicastEvent(new ApplicationEvent(this) {
+        });
+
+        assertEquals(1, batchListener.batches.size());
+        assertEquals(1, batchListener.batches.get(0).size());
+    }
+
+    @Test
+    void testPublishAfterDestroyRejected() throws Exception {
+        multicaster = new AsyncApplicationEventMulticaster(1, 4, AsyncApplicationEventMulticaster.OverflowPolicy.BLOCK);
+        multicaster.destroy();
+
+        assertThrows(IllegalStateException.class, () -> multicaster.multicastEvent(new SequenceEvent("key", 0)));
+    }
+
+    @Test
+    void testThreadsStartOnFirstPublish() throws Exception {
+        multicaster = new AsyncApplicationEventMulticaster(2, 4, AsyncApplicationEventMulticaster.OverflowPolicy.BLOCK);
+        SequenceListener listener = new SequenceListener(new ConcurrentHashMap<>());
+        multicaster.addApplicationListener(listener);
+        assertFalse(multicaster.isStarted());
+
+        multicaster.multicastEvent(new SequenceEvent("key", 0));
+        assertTrue(multicaster.isStarted());
+
+        // 未启动的多播器可以直接关闭
+        AsyncApplicationEventMulticaster unused =
+                new AsyncApplicationEventMulticaster(2, 4, AsyncApplicationEventMulticaster.OverflowPolicy.BLOCK);
+        unused.destroy();
+        assertFalse(unused.isStarted());
+        assertThrows(IllegalStateException.class, unused::start);
+    }
+
+    @Test
+    void testDispatchThreadSurvivesListenerError() throws Exception {
+        multicaster = new AsyncApplicationEventMulticaster(1, 16, AsyncApplicationEventMulticaster.OverflowPolicy.BLOCK);
+        multicaster.setMaxBatchSize(1);
+        FailingListener listener = new FailingListener();
+        multicaster.addApplicationListener(listener);
+
+        multicaster.multicastEvent(new SequenceEvent("key", 0));
+        multicaster.multicastEvent(new SequenceEvent("key", 1));
+        multicaster.destroy();
+
+        assertEquals(List.of(0, 1), listener.sequences);
+    }
+
+    @Test
+    void testDestroyInterruptsBusyDispatcherAfterTimeout() throws Exception {
+        multicaster = new AsyncApplicationEventMulticaster(1, 1, AsyncApplicationEventMulticaster.OverflowPolicy.BLOCK);
+        multicaster.setShutdownTimeout(200);
+        BlockingListener listener = new BlockingListener();
+        multicaster.addApplicationListener(listener);
+
+        multicaster.multicastEvent(new SequenceEvent("key", 0));
+        assertTrue(listener.started.await(1, TimeUnit.SECONDS));
+        // 队列已满，结束标记无法入队
+        multicaster.multicastEvent(new SequenceEvent("key", 1));
+
+        long start = System.nanoTime();
+        multicaster.destroy();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMillis < 2000, "destroy took " + elapsedMillis + "ms");
+        assertFalse(listener.threads.get(0).isAlive());
+        assertEquals(List.of(0), listener.sequences);
+    }
+
+    @Test
+    void testListenerRepublishingIntoOwnFullPartitionRunsInline() throws Exception {
+        multicaster = new AsyncApplicationEventMulticaster(1, 1, AsyncApplicationEventMulticaster.OverflowPolicy.BLOCK);
+        RepublishingListener listener = new RepublishingListener(multicaster);
+        multicaster.addApplicationListener(listener);
+
+        multicaster.multicastEvent(new SequenceEvent("key", 0));
+
+        // 第二个重新发布的事件遇到满队列，在分发线程上就地分发，不会阻塞分区
+        assertTrue(listener.done.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of(0, 2, 1), listener.sequences);
+        assertEquals(1, multicaster.getCallerRunsEventCount());
+        assertEquals(1, listener.threads.stream().distinct().count());
+        assertEquals(0, multicaster.getDroppedEventCount());
+    }
+
+    // 带分区键和序号的事件，以事件源作为分区键
+    private static class SequenceEvent extends ApplicationEvent {
+        final int sequence;
+
+        SequenceEvent(Object key, int sequence) {
+            super(key);
+            this.sequence = sequence;
+        }
+    }
+
+    // 按分区键记录收到的序号
+    private static class SequenceListener implements ApplicationListener<SequenceEvent> {
+        private final Map<Object, List<Integer>> received;
+
+        SequenceListener(Map<Object, List<Integer>> received) {
+            this.received = received;
+        }
+
+        @Override
+        public void onApplicationEvent(SequenceEvent event) {
+            received.computeIfAbsent(event.getSource(), key -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(event.sequence);
+        }
+    }
+
+    // 收到第一个事件后阻塞分发线程，直到测试放行
+    private static class BlockingListener implements ApplicationListener<SequenceEvent> {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Integer> sequences = new CopyOnWriteArrayList<>();
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onApplicationEvent(SequenceEvent event) {
+            sequences.add(event.sequence);
+            threads.add(Thread.currentThread());
+            started.countDown();
+            try {
+                if (event.sequence == 0) {
+                    release.await(5, TimeUnit.SECONDS);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // 收到第一个事件时向同一个分区重新发布两个事件
+    private static class RepublishingListener implements ApplicationListener<SequenceEvent> {
+        final CountDownLatch done = new CountDownLatch(3);
+        final List<Integer> sequences = new CopyOnWriteArrayList<>();
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+        private final ApplicationEventMulticaster multicaster;
+
+        RepublishingListener(ApplicationEventMulticaster multicaster) {
+            this.multicaster = multicaster;
+        }
+
+        @Override
+        public void onApplicationEvent(SequenceEvent event) {
+            sequences.add(event.sequence);
+            threads.add(Thread.currentThread());
+            if (event.sequence == 0) {
+                multicaster.multicastEvent(new SequenceEvent(event.getSource(), 1));
+                multicaster.multicastEvent(new SequenceEvent(event.getSource(), 2));
+            }
+            done.countDown();
+        }
+    }
+
+    // 第一个事件抛出Error
+    private static class FailingListener implements ApplicationListener<SequenceEvent> {
+        final List<Integer> sequences = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onApplicationEvent(SequenceEvent event) {
+            sequences.add(event.sequence);
+            if (event.sequence == 0) {
+                throw new AssertionError("listener failure");
+            }
+        }
+    }
+
+    // 记录每次收到的批次
+    private static class RecordingBatchListener implements BatchApplicationListener<SequenceEvent> {
+        final List<List<SequenceEvent>> batches = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onApplicationEvents(List<SequenceEvent> events) {
+            batches.add(new ArrayList<>(events));
+        }
+    }
+}
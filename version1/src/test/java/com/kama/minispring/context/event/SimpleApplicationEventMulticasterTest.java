@@ -5,6 +5,10 @@ import com.kama.minispring.context.ApplicationListener;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
@@ -96,6 +100,80 @@ class SimpleApplicationEventMulticasterTest {
         assertTrue(testListener.getLastEvent() instanceof TestEvent);
     }
     
+    @Test
+    void testListenersCachedPerEventType() {
+        Collection<ApplicationListener<?>> first = multicaster.getApplicationListeners(new TestEvent(this));
+        Collection<ApplicationListener<?>> second = multicaster.getApplicationListeners(new TestEvent(this));
+        
+        assertSame(first, second);
+        assertEquals(1, first.size());
+        assertTrue(multicaster.getApplicationListeners(new OtherEvent(this)).isEmpty());
+    }
+    
+    @Test
+    void testCacheInvalidatedOnRegistrationChange() {
+        Collection<ApplicationListener<?>> before = multicaster.getApplicationListeners(new TestEvent(this));
+        TestListener another = new TestListener();
+        multicaster.addApplicationListener(another);
+        
+        Collection<ApplicationListener<?>> afterAdd = multicaster.getApplicationListeners(new TestEvent(this));
+        assertNotSame(before, afterAdd);
+        assertEquals(2, afterAdd.size());
+        
+        multicaster.removeApplicationListener(testListener);
+        multicaster.multicastEvent(new TestEvent(this));
+        assertEquals(0, testListener.getEventCount());
+        assertEquals(1, another.getEventCount());
+    }
+    
+    @Test
+    void testSubclassEventAndAdapterEventType() throws Exception {
+        List<ApplicationEvent> received = new ArrayList<>();
+        Method method = received.getClass().getMethod("add", Object.class);
+        multicaster.addApplicationListener(new ApplicationListenerAdapter(received, method, OtherEvent.class));
+        
+        // 适配器只接收其声明的事件类型
+        assertEquals(1, multicaster.getApplicationListeners(new TestEvent(this)).size());
+        multicaster.multicastEvent(new SubTestEvent(this));
+        multicaster.multicastEvent(new OtherEvent(this));
+        
+        assertEquals(1, testListener.getEventCount());
+        assertTrue(testListener.getLastEvent() instanceof SubTestEvent);
+        assertEquals(1, received.size());
+        assertTrue(received.get(0) instanceof OtherEvent);
+    }
+    
+    @Test
+    void testSupportsEventOverrideUsedForCachedListeners() {
+        List<ApplicationListener<?>> checked = new ArrayList<>();
+        SimpleApplicationEventMulticaster filtering = new SimpleApplicationEventMulticaster() {
+            @Override
+            protected boolean supportsEvent(ApplicationListener<?> listener, ApplicationEvent event) {
+                checked.add(listener);
+                return listener != testListener && super.supportsEvent(listener, event);
+            }
+        };
+        TestListener accepted = new TestListener();
+        filtering.addApplicationListener(testListener);
+        filtering.addApplicationListener(accepted);
+        
+        filtering.multicastEvent(new TestEvent(this));
+        filtering.multicastEvent(new TestEvent(this));
+        
+        // 每个事件类型只对每个监听器判断一次
+        assertEquals(List.of(testListener, accepted), checked);
+        assertEquals(0, testListener.getEventCount());
+        assertEquals(2, accepted.getEventCount());
+    }
+    
+    @Test
+    void testDuplicateListenerRegisteredOnce() {
+        multicaster.addApplicationListener(testListener);
+        multicaster.multicastEvent(new TestEvent(this));
+        
+        assertEquals(1, testListener.getEventCount());
+    }
+    
     // 测试用的监听器
     private static class TestListener implements ApplicationListener<TestEvent> {
         private final AtomicInteger eventCount = new AtomicInteger(0);
@@ -123,6 +201,13 @@ class SimpleApplicationEventMulticasterTest {
         }
     }
     
+    // 测试用事件的子类
+    private static class SubTestEvent extends TestEvent {
+        public SubTestEvent(Object source) {
+            super(source);
+        }
+    }
+    
     // 其他测试用的事件类
     private static class OtherEvent extends ApplicationEvent {
         public OtherEvent(Object source) {
@@ -0,0 +1,67 @@
+package com.kama.minispring.context.index;
+
+import com.kama.minispring.stereotype.Service;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 组件索引测试类
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+class CandidateComponentsIndexTest {
+
+    private static final String SCAN_PACKAGE = "com.kama.minispring.context.annotation.scan";
+
+    @Test
+    void shouldLoadIndexGeneratedForTestSources() {
+        // 测试代码编译时由CandidateComponentsIndexer生成索引
+        CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(getClass().getClassLoader());
+        assertNotNull(index);
+        Set<String> types = index.getCandidateTypes(SCAN_PACKAGE, Service.class.getName());
+        assertEquals(Set.of(SCAN_PACKAGE + ".ScannedInterface", SCAN_PACKAGE + ".ScannedService"), types);
+        assertTrue(index.getCandidateTypes("com.kama.minispring.test", Service.class.getName())
+                .contains("com.kama.minispring.test.service.TestService"));
+        assertTrue(index.getCandidateTypes(SCAN_PACKAGE, "com.example.Missing").isEmpty());
+    }
+
+    @Test
+    void shouldMatchPackageBoundaries(@TempDir Path tempDir) throws Exception {
+        Path indexFile = tempDir.resolve(CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION);
+        Files.createDirectories(indexFile.getParent());
+        Files.write(indexFile, ("com.example.Foo=com.example.Stereotype\n"
+                + "com.example.sub.Bar=com.example.Stereotype,com.example.Other\n"
+                + "com.examples.Baz=com.example.Stereotype\n").getBytes(StandardCharsets.UTF_8));
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{tempDir.toUri().toURL()}, null)) {
+            CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(classLoader);
+            assertNotNull(index);
+            assertEquals(Set.of("com.example.Foo", "com.example.sub.Bar"),
+                    index.getCandidateTypes("com.example", "com.example.Stereotype"));
+            assertEquals(Set.of("com.example.sub.Bar"), index.getCandidateTypes("com.example", "com.example.Other"));
+        }
+    }
+
+    @Test
+    void shouldReturnNullWithoutIndex(@TempDir Path tempDir) throws Exception {
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{tempDir.toUri().toURL()}, null)) {
+            assertNull(CandidateComponentsIndexLoader.loadIndex(classLoader));
+        }
+        System.setProperty(CandidateComponentsIndexLoader.IGNORE_INDEX, "true");
+        try {
+            assertNull(CandidateComponentsIndexLoader.loadIndex(getClass().getClassLoader()));
+        } finally {
+            System.clearProperty(CandidateComponentsIndexLoader.IGNORE_INDEX);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.kama.minispring.context.index.processor;
+
+import com.kama.minispring.context.index.CandidateComponentsIndexLoader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CandidateComponentsIndexer测试类
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+class CandidateComponentsIndexerTest {
+
+    private static final String SERVICE = "com.kama.minispring.stereotype.Service";
+
+    @Test
+    void shouldIndexComposedStereotypes(@TempDir Path tempDir) throws Exception {
+        Path sources = tempDir.resolve("src");
+        Path output = tempDir.resolve("classes");
+        Path stereotype = write(sources, "demo/ApplicationService.java",
+                "package demo;\n"
+                + "@" + SERVICE + "\n"
+                + "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)\n"
+                + "public @interface ApplicationService {}\n");
+        Path layered = write(sources, "demo/OrderFacade.java",
+                "package demo;\n"
+                + "@ApplicationService\n"
+                + "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)\n"
+                + "public @interface OrderFacade {}\n");
+        Path component = write(sources, "demo/OrderService.java",
+                "package demo;\n@OrderFacade\npublic class OrderService {}\n");
+
+        compile(output, stereotype, layered, component);
+
+        Properties index = readIndex(output);
+        assertEquals(SERVICE + ",demo.ApplicationService,demo.OrderFacade", index.getProperty("demo.OrderService"));
+        assertEquals(SERVICE, index.getProperty("demo.ApplicationService"));
+    }
+
+    @Test
+    void shouldMergeExistingIndexOnIncrementalBuild(@TempDir Path tempDir) throws Exception {
+        Path sources = tempDir.resolve("src");
+        Path output = tempDir.resolve("classes");
+        Path first = write(sources, "demo/FirstService.java",
+                "package demo;\n@" + SERVICE + "\npublic class FirstService {}\n");
+        Path second = write(sources, "demo/SecondService.java",
+                "package demo;\n@" + SERVICE + "\npublic class SecondService {}\n");
+        compile(output, first, second);
+
+        // 只重新编译部分源文件，其中一个类去掉了注解
+        write(sources, "demo/SecondService.java", "package demo;\npublic class SecondService {}\n");
+        Path third = write(sources, "demo/ThirdService.java",
+                "package demo;\n@" + SERVICE + "\npublic class ThirdService {}\n");
+        compile(output, second, third);
+
+        Properties index = readIndex(output);
+        assertEquals(SERVICE, index.getProperty("demo.FirstService"));
+        assertNull(index.getProperty("demo.SecondService"));
+        assertEquals(SERVICE, index.getProperty("demo.ThirdService"));
+    }
+
+    private static Path write(Path root, String relativePath, String content) throws IOException {
+        Path file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static void compile(Path output, Path... sources) throws IOException {
+        Files.createDirectories(output);
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> args = new ArrayList<>(List.of(
+                "-implicit:none",
+                "-classpath", System.getProperty("java.class.path") + File.pathSeparator + output,
+                "-processor", CandidateComponentsIndexer.class.getName(),
+                "-d", output.toString()));
+        for (Path source : sources) {
+            args.add(source.toString());
+        }
+        ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        int result = compiler.run(null, null, errors, args.toArray(new String[0]));
+        assertEquals(0, result, errors.toString(StandardCharsets.UTF_8));
+    }
+
+    private static Properties readIndex(Path output) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(
+                output.resolve(CandidateComponentsIndexLoader.COMPONENTS_RESOURCE_LOCATION))) {
+            properties.load(inputStream);
+        }
+        return properties;
+    }
+}
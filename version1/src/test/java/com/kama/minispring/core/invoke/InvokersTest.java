@@ -0,0 +1,107 @@
+package com.kama.minispring.core.invoke;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Invokers的测试类
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class InvokersTest {
+
+    @Test
+    void testGeneratedInvoker() throws Throwable {
+        Method greet = Greeter.class.getMethod("greet", String.class);
+        assertNotNull(LambdaInvokerFactory.createInvoker(greet), "参数不多的实例方法应该生成调用器");
+        Invoker invoker = Invokers.forMethod(greet);
+        assertSame(invoker, Invokers.forMethod(greet));
+        assertEquals("hello kama", invoker.invoke(new Greeter(), new Object[]{"kama"}));
+    }
+
+    @Test
+    void testPrimitiveAndVoidMethods() throws Throwable {
+        Greeter greeter = new Greeter();
+        Invokers.forMethod(Greeter.class.getMethod("setCount", int.class)).invoke(greeter, new Object[]{3});
+        assertEquals(3, greeter.count);
+        Object result = Invokers.forMethod(Greeter.class.getMethod("add", int.class, long.class))
+                .invoke(greeter, new Object[]{1, 2L});
+        assertEquals(6L, result);
+        assertNull(Invokers.forMethod(Greeter.class.getMethod("reset")).invoke(greeter, null));
+        assertEquals(0, greeter.count);
+    }
+
+    @Test
+    void testNonPublicAndStaticMethods() throws Throwable {
+        Method secret = Greeter.class.getDeclaredMethod("secret");
+        assertNotNull(LambdaInvokerFactory.createInvoker(secret));
+        assertEquals("secret", Invokers.forMethod(secret).invoke(new Greeter(), null));
+
+        Method join = Greeter.class.getMethod("join", String.class, String.class, String.class, String.class);
+        assertEquals("abcd", Invokers.forMethod(join).invoke(null, new Object[]{"a", "b", "c", "d"}));
+    }
+
+    @Test
+    void testTargetExceptionIsNotWrapped() throws Exception {
+        Method fail = Greeter.class.getMethod("fail");
+        assertThrows(IOException.class, () -> Invokers.forMethod(fail).invoke(new Greeter(), null));
+        assertThrows(IOException.class, () -> Invokers.invoke(fail, new Greeter()));
+    }
+
+    @Test
+    void testFallbackInvokersBehaveTheSame() throws Throwable {
+        Method greet = Greeter.class.getMethod("greet", String.class);
+        Invoker methodHandleInvoker = Invokers.createMethodHandleInvoker(greet);
+        assertNotNull(methodHandleInvoker);
+        assertEquals("hello mh", methodHandleInvoker.invoke(new Greeter(), new Object[]{"mh"}));
+
+        Invoker reflectiveInvoker = new Invokers.ReflectiveInvoker(Greeter.class.getMethod("fail"));
+        assertThrows(IOException.class, () -> reflectiveInvoker.invoke(new Greeter(), null));
+    }
+
+    @Test
+    void testInterfaceMethod() throws Throwable {
+        Method run = Runnable.class.getMethod("run");
+        boolean[] called = new boolean[1];
+        Invokers.forMethod(run).invoke((Runnable) () -> called[0] = true, null);
+        assertTrue(called[0]);
+    }
+
+    public static class Greeter {
+
+        private int count;
+
+        public String greet(String name) {
+            return "hello " + name;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public long add(int a, long b) {
+            return count + a + b;
+        }
+
+        public void reset() {
+            this.count = 0;
+        }
+
+        public void fail() throws IOException {
+            throw new IOException("failed");
+        }
+
+        private String secret() {
+            return "secret";
+        }
+
+        public static String join(String a, String b, String c, String d) {
+            return a + b + c + d;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.kama.minispring.core.metrics;
+
+import com.kama.minispring.beans.factory.config.BeanDefinition;
+import com.kama.minispring.beans.factory.config.BeanPostProcessor;
+import com.kama.minispring.beans.factory.config.PropertyValue;
+import com.kama.minispring.beans.factory.support.DefaultListableBeanFactory;
+import com.kama.minispring.beans.factory.support.GenericBeanDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BufferingApplicationStartup的测试类
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class BufferingApplicationStartupTest {
+
+    @Test
+    void testNestedSteps() {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(16);
+        StartupStep outer = startup.start("outer").tag("key", "value");
+        StartupStep inner = startup.start("inner");
+        inner.end();
+        outer.end();
+        StartupStep next = startup.start("next");
+        next.end();
+
+        List<StartupTimeline.TimelineEvent> events = startup.getTimeline().getEvents();
+        assertEquals(3, events.size());
+        assertEquals("outer", events.get(0).getName());
+        assertNull(events.get(0).getParentId());
+        assertEquals("value", events.get(0).getTags().get("key"));
+        assertEquals("inner", events.get(1).getName());
+        assertEquals(outer.getId(), events.get(1).getParentId());
+        // 外层步骤结束后，新步骤不再挂在它下面
+        assertNull(events.get(2).getParentId());
+        assertTrue(events.get(0).getDurationNanos() >= events.get(1).getDurationNanos());
+    }
+
+    @Test
+    void testUnfinishedChildIsDroppedWithParent() {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(16);
+        StartupStep outer = startup.start("outer");
+        startup.start("failed");
+        outer.end();
+        StartupStep next = startup.start("next");
+        next.end();
+
+        StartupTimeline timeline = startup.getTimeline();
+        assertEquals(2, timeline.getEvents().size());
+        assertNull(timeline.getEvents().get(1).getParentId());
+    }
+
+    @Test
+    void testCapacity() {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(2);
+        for (int i = 0; i < 5; i++) {
+            startup.start("step" + i).end();
+        }
+        assertEquals(2, startup.getTimeline().getEvents().size());
+        assertEquals(3, startup.getDroppedCount());
+    }
+
+    @Test
+    void testWriteJson() throws Exception {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(16);
+        StartupStep step = startup.start("beans.instantiate").tag("beanName", "a\"b");
+        startup.start("beans.populate").end();
+        step.end();
+
+        StringWriter writer = new StringWriter();
+        startup.getTimeline().writeJson(writer);
+        String json = writer.toString();
+        assertTrue(json.startsWith("{\"startTime\":"));
+        assertTrue(json.contains("\"name\":\"beans.instantiate\""));
+        assertTrue(json.contains("\"tags\":{\"beanName\":\"a\\\"b\"}"));
+        assertTrue(json.contains("\"parentId\":" + step.getId()));
+        assertTrue(json.endsWith("]}"));
+    }
+
+    @Test
+    void testBeanCreationSteps() {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(64);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setApplicationStartup(startup);
+        beanFactory.addBeanPostProcessor(new NoOpBeanPostProcessor());
+
+        BeanDefinition parent = new GenericBeanDefinition(Parent.class);
+        parent.addPropertyValue(new PropertyValue("child", "child", Child.class));
+        beanFactory.registerBeanDefinition("parent", parent);
+        beanFactory.registerBeanDefinition("child", new GenericBeanDefinition(Child.class));
+        beanFactory.getBean("parent");
+
+        StartupTimeline timeline = startup.getTimeline();
+        Map<String, StartupTimeline.TimelineEvent> instantiations = new HashMap<>();
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            if ("beans.instantiate".equals(event.getName())) {
+                instantiations.put(event.getTags().get("beanName"), event);
+            }
+        }
+        StartupTimeline.TimelineEvent parentEvent = instantiations.get("parent");
+        StartupTimeline.TimelineEvent childEvent = instantiations.get("child");
+        assertNotNull(parentEvent);
+        assertNotNull(childEvent);
+
+        // 子bean在父bean的属性填充阶段创建
+        StartupTimeline.TimelineEvent populate = findById(timeline, childEvent.getParentId());
+        assertEquals("beans.populate", populate.getName());
+        assertEquals(parentEvent.getId(), populate.getParentId());
+
+        List<String> childSteps = new ArrayList<>();
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            if (Long.valueOf(parentEvent.getId()).equals(event.getParentId())) {
+                childSteps.add(event.getName());
+            }
+        }
+        assertEquals(List.of("beans.create-instance", "beans.populate", "beans.initialize"), childSteps);
+
+        StartupTimeline.TimelineEvent initialize = null;
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            if ("beans.initialize".equals(event.getName()) && "parent".equals(event.getTags().get("beanName"))) {
+                initialize = event;
+            }
+        }
+        assertNotNull(initialize);
+        int postProcessCount = 0;
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            if ("beans.post-process".equals(event.getName())
+                    && Long.valueOf(initialize.getId()).equals(event.getParentId())) {
+                assertEquals(NoOpBeanPostProcessor.class.getName(), event.getTags().get("postProcessor"));
+                postProcessCount++;
+            }
+        }
+        assertEquals(2, postProcessCount);
+        assertEquals(2, timeline.getSlowestEvents("beans.instantiate", 5).size());
+    }
+
+    private static StartupTimeline.TimelineEvent findById(StartupTimeline timeline, Long id) {
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            if (id != null && event.getId() == id) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    public static class Parent {
+        private Child child;
+
+        public void setChild(Child child) {
+            this.child = child;
+        }
+
+        public Child getChild() {
+            return child;
+        }
+    }
+
+    public static class Child {
+    }
+
+    static class NoOpBeanPostProcessor implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) {
+            return bean;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.kama.minispring.core.type.classreading;
+
+import com.kama.minispring.context.annotation.scan.ScanAttributes;
+import com.kama.minispring.core.type.AnnotationMetadata;
+import com.kama.minispring.stereotype.Service;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MetadataReaderFactory测试类
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+class MetadataReaderFactoryTest {
+
+    private static final String SCAN_PACKAGE = "com.kama.minispring.context.annotation.scan";
+
+    private final MetadataReaderFactory factory = new MetadataReaderFactory(getClass().getClassLoader());
+
+    @Test
+    void shouldReadClassMetadata() throws Exception {
+        AnnotationMetadata metadata = factory.getMetadata(SCAN_PACKAGE + ".ScannedService");
+        assertEquals(SCAN_PACKAGE + ".ScannedService", metadata.getClassName());
+        assertEquals("java.lang.Object", metadata.getSuperClassName());
+        assertTrue(metadata.isConcrete());
+        assertTrue(metadata.hasAnnotation(Service.class.getName()));
+        assertTrue(metadata.hasAnnotatedMethods(Deprecated.class.getName()));
+        assertFalse(metadata.hasAnnotation(Deprecated.class.getName()));
+
+        AnnotationMetadata interfaceMetadata = factory.getMetadata(SCAN_PACKAGE + ".ScannedInterface");
+        assertTrue(interfaceMetadata.isInterface());
+        assertFalse(interfaceMetadata.isConcrete());
+        assertTrue(factory.getMetadata(ScanAttributes.class.getName()).isAnnotation());
+        assertTrue(factory.getMetadata(Thread.State.class.getName()).isEnum());
+    }
+
+    @Test
+    void shouldReadAnnotationAttributesWithDefaults() throws Exception {
+        AnnotationMetadata metadata = factory.getMetadata(SCAN_PACKAGE + ".ScannedService");
+        Map<String, Object> attributes = metadata.getAnnotationAttributes(ScanAttributes.class.getName());
+        assertEquals("scanned", attributes.get("name"));
+        assertArrayEquals(new String[]{"a", "b"}, (String[]) attributes.get("values"));
+        assertArrayEquals(new int[]{1, 2}, (int[]) attributes.get("numbers"));
+        assertEquals("java.lang.String", attributes.get("type"));
+        // 未指定的属性使用注解类中的默认值
+        assertEquals("TYPE", attributes.get("target"));
+        assertArrayEquals(new String[0], (String[]) attributes.get("tags"));
+
+        assertEquals("", metadata.getAnnotationAttributes(Service.class.getName()).get("value"));
+        assertNull(metadata.getAnnotationAttributes(Deprecated.class.getName()));
+    }
+
+    @Test
+    void shouldFailForMissingClass() {
+        assertThrows(FileNotFoundException.class, () -> factory.getMetadata("com.example.Missing"));
+    }
+}
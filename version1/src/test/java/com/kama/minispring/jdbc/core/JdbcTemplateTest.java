@@ -0,0 +1,250 @@
+package com.kama.minispring.jdbc.core;
+
+import com.kama.minispring.tx.ConnectionHolder;
+import com.kama.minispring.tx.DataSourceTransactionManager;
+import com.kama.minispring.tx.DefaultTransactionDefinition;
+import com.kama.minispring.tx.TransactionDefinition;
+import com.kama.minispring.tx.TransactionStatus;
+import com.kama.minispring.tx.TransactionSynchronizationManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * JdbcTemplate的测试类
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+class JdbcTemplateTest {
+    
+    @Mock
+    private DataSource dataSource;
+    
+    @Mock
+    private Connection connection;
+    
+    @Mock
+    private PreparedStatement statement;
+    
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+    
+    @Test
+    void testUpdateOutsideTransactionClosesResources() throws SQLException {
+        when(statement.executeUpdate()).thenReturn(1);
+        
+        assertEquals(1, jdbcTemplate.update("update t set a = ? where id = ?", "x", 1));
+        
+        verify(statement).setObject(1, "x");
+        verify(statement).setObject(2, 1);
+        verify(statement).close();
+        verify(connection).close();
+    }
+    
+    @Test
+    void testBatchUpdateExecutesInChunks() throws SQLException {
+        when(statement.executeBatch()).thenReturn(new int[]{1, 1, 1}, new int[]{1, 1, 1}, new int[]{1});
+        jdbcTemplate.setBatchSize(3);
+        List<Object[]> batchArgs = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            batchArgs.add(new Object[]{i});
+        }
+        
+        int[] counts = jdbcTemplate.batchUpdate("insert into t values (?)", batchArgs);
+        
+        assertEquals(7, counts.length);
+        assertTrue(Arrays.stream(counts).allMatch(count -> count == 1));
+        verify(statement, times(7)).addBatch();
+        verify(statement, times(3)).executeBatch();
+        verify(connection, times(1)).prepareStatement(anyString());
+    }
+    
+    @Test
+    void testBatchUpdateFromIterable() throws SQLException {
+        when(statement.executeBatch()).thenAnswer(invocation -> new int[]{1, 1});
+        
+        long total = jdbcTemplate.batchUpdate("insert into t values (?)",
+            () -> IntStream.range(0, 10).iterator(), 2, (ps, value) -> ps.setInt(1, value));
+        
+        assertEquals(10, total);
+        verify(statement, times(5)).executeBatch();
+        verify(statement).setInt(1, 9);
+    }
+    
+    @Test
+    void testStreamingQueryUsesFetchSizeAndCallback() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(statement.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, true, true, false);
+        when(rs.getLong(1)).thenReturn(1L, 2L, 3L);
+        jdbcTemplate.setFetchSize(500);
+        
+        long[] sum = new long[1];
+        jdbcTemplate.query("select id from t where a > ?", row -> sum[0] += row.getLong(1), 0);
+        
+        assertEquals(6, sum[0]);
+        verify(statement).setFetchSize(500);
+        verify(rs).close();
+        verify(connection).close();
+    }
+    
+    @Test
+    void testStatementsCachedOnTransactionConnection() throws SQLException {
+        when(statement.executeUpdate()).thenReturn(1);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        for (int i = 0; i < 3; i++) {
+            jdbcTemplate.update("update t set a = ? where id = ?", "x", i);
+        }
+        
+        // 事务中的语句只预编译一次，连接在事务结束前保持打开
+        verify(dataSource, times(1)).getConnection();
+        verify(connection, times(1)).prepareStatement(anyString());
+        verify(statement, times(3)).clearParameters();
+        verify(statement, never()).close();
+        verify(connection, never()).close();
+        
+        transactionManager.commit(status);
+        
+        verify(connection).commit();
+        verify(statement).close();
+        verify(connection).close();
+    }
+    
+    @Test
+    void testNestedTransactionReusesOuterStatementCache() throws SQLException {
+        when(statement.executeUpdate()).thenReturn(1);
+        Savepoint savepoint = mock(Savepoint.class);
+        when(connection.setSavepoint()).thenReturn(savepoint);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        String sql = "update t set a = ? where id = ?";
+        
+        TransactionStatus outer = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        jdbcTemplate.update(sql, "x", 1);
+        DefaultTransactionDefinition nestedDef = new DefaultTransactionDefinition();
+        nestedDef.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        TransactionStatus nested = transactionManager.getTransaction(nestedDef);
+        jdbcTemplate.update(sql, "y", 2);
+        
+        // 嵌套事务使用同一个连接，复用外部事务缓存的语句；回滚到保存点不关闭语句
+        transactionManager.rollback(nested);
+        verify(connection).rollback(savepoint);
+        verify(connection, times(1)).prepareStatement(anyString());
+        verify(statement, never()).close();
+        assertEquals(1, ((ConnectionHolder) TransactionSynchronizationManager.getResource(dataSource))
+            .getCachedStatementCount());
+        
+        transactionManager.commit(outer);
+        verify(connection).commit();
+        verify(statement).close();
+        verify(connection).close();
+    }
+    
+    @Test
+    void testRequiresNewTransactionUsesSeparateStatementCache() throws SQLException {
+        when(statement.executeUpdate()).thenReturn(1);
+        Connection innerConnection = mock(Connection.class);
+        PreparedStatement innerStatement = mock(PreparedStatement.class);
+        when(innerConnection.prepareStatement(anyString())).thenReturn(innerStatement);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        String sql = "update t set a = ? where id = ?";
+        
+        TransactionStatus outer = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        jdbcTemplate.update(sql, "x", 1);
+        
+        when(dataSource.getConnection()).thenReturn(innerConnection);
+        DefaultTransactionDefinition requiresNew = new DefaultTransactionDefinition();
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        TransactionStatus inner = transactionManager.getTransaction(requiresNew);
+        jdbcTemplate.update(sql, "y", 2);
+        transactionManager.commit(inner);
+        
+        // 内部事务在自己的连接上预编译，结束时只关闭自己的语句
+        verify(innerConnection).prepareStatement(sql);
+        verify(innerConnection).commit();
+        verify(innerStatement).close();
+        verify(innerConnection).close();
+        verify(statement, never()).close();
+        
+        // 外部事务恢复后继续使用原来缓存的语句
+        jdbcTemplate.update(sql, "z", 3);
+        verify(connection, times(1)).prepareStatement(anyString());
+        verify(statement, times(2)).executeUpdate();
+        
+        transactionManager.commit(outer);
+        verify(connection).commit();
+        verify(statement).close();
+        verify(connection).close();
+    }
+    
+    @Test
+    void testCallbackExceptionClosesStatementInsteadOfCaching() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(statement.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        IllegalStateException failure = new IllegalStateException("mapping failed");
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+            () -> jdbcTemplate.query("select a from t", (row, rowNum) -> {
+                throw failure;
+            }));
+        
+        // 回调失败的语句可能处于任意状态，直接关闭，不放回缓存
+        assertSame(failure, thrown);
+        verify(rs).close();
+        verify(statement).close();
+        verify(statement, never()).clearParameters();
+        assertEquals(0, ((ConnectionHolder) TransactionSynchronizationManager.getResource(dataSource))
+            .getCachedStatementCount());
+        verify(connection, never()).close();
+        
+        transactionManager.rollback(status);
+        verify(connection).rollback();
+        verify(statement, times(1)).close();
+        verify(connection).close();
+    }
+    
+    @Test
+    void testQueryForObjectRequiresSingleRow() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(statement.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(false);
+        
+        assertThrows(DataAccessException.class,
+            () -> jdbcTemplate.queryForObject("select a from t where id = ?", (row, rowNum) -> row.getString(1), 1));
+        
+        doThrow(new SQLException("boom")).when(statement).executeQuery();
+        assertThrows(DataAccessException.class,
+            () -> jdbcTemplate.query("select a from t", (row, rowNum) -> row.getString(1)));
+        verify(statement, times(2)).close();
+        verify(connection, never()).prepareStatement(anyString(), anyInt());
+    }
+}
@@ -0,0 +1,346 @@
+package com.kama.minispring.jdbc.datasource;
+
+import com.kama.minispring.beans.factory.support.DefaultListableBeanFactory;
+import com.kama.minispring.boot.autoconfigure.DataSourceAutoConfiguration;
+import com.kama.minispring.core.env.Environment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 连接池测试类
+ * 物理连接由Mockito模拟，不依赖真实数据库；到期、校验和泄漏检测由测试时钟驱动，不依赖真实等待
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+class PooledDataSourceTest {
+    
+    private DataSource targetDataSource;
+    private List<Connection> physicalConnections;
+    private PooledDataSource pool;
+    private final AtomicLong clock = new AtomicLong();
+    
+    @BeforeEach
+    void setUp() throws SQLException {
+        physicalConnections = new ArrayList<>();
+        targetDataSource = mock(DataSource.class);
+        when(targetDataSource.getConnection()).thenAnswer(invocation -> {
+            Connection connection = mockConnection();
+            physicalConnections.add(connection);
+            return connection;
+        });
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+    
+    private static Connection mockConnection() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        return connection;
+    }
+    
+    private PooledDataSource createPool(PooledDataSourceConfig.Builder builder) {
+        pool = new PooledDataSource(builder
+            .dataSource(targetDataSource)
+            .minimumIdle(0)
+            .build(), clock::get, false);
+        return pool;
+    }
+    
+    private void advanceClock(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+    
+    @Test
+    void shouldReusePhysicalConnection() throws SQLException {
+        createPool(new PooledDataSourceConfig.Builder());
+        
+        Connection first = pool.getConnection();
+        assertEquals(1, pool.getActiveConnections());
+        first.close();
+        first.close();
+        assertTrue(first.isClosed());
+        assertThrows(SQLException.class, first::createStatement);
+        
+        Connection second = pool.getConnection();
+        second.createStatement();
+        second.close();
+        
+        assertEquals(1, physicalConnections.size());
+        verify(physicalConnections.get(0)).createStatement();
+        verify(physicalConnections.get(0), never()).close();
+        assertEquals(1, pool.getTotalConnections());
+        assertEquals(1, pool.getIdleConnections());
+        assertEquals(2, pool.getAcquireLatency().getTotalCount());
+    }
+    
+    @Test
+    void shouldTimeOutWhenPoolIsExhausted() throws SQLException {
+        createPool(new PooledDataSourceConfig.Builder()
+            .maximumPoolSize(1)
+            .connectionTimeout(Duration.ofMillis(100)));
+        
+        Connection held = pool.getConnection();
+        assertThrows(SQLTransientConnectionException.class, pool::getConnection);
+        assertEquals(1, pool.getConnectionTimeoutCount());
+        assertEquals(0, pool.getThreadsAwaitingConnection());
+        held.close();
+    }
+    
+    @Test
+    void shouldHandOffReturnedConnectionToWaiter() throws Exception {
+        createPool(new PooledDataSourceConfig.Builder()
+            .maximumPoolSize(1)
+            .connectionTimeout(Duration.ofSeconds(5)));
+        
+        Connection held = pool.getConnection();
+        CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (pool.getThreadsAwaitingConnection() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(1, pool.getThreadsAwaitingConnection());
+        held.close();
+        
+        Connection handedOff = waiter.get(5, TimeUnit.SECONDS);
+        assertFalse(handedOff.isClosed());
+        handedOff.close();
+        assertEquals(1, physicalConnections.size());
+    }
+    
+    @Test
+    void shouldResetConnectionStateOnReturn() throws SQLException {
+        createPool(new PooledDataSourceConfig.Builder());
+        
+        Connection connection = pool.getConnection();
+        connection.setAutoCommit(false);
+        connection.setReadOnly(true);
+        connection.close();
+        
+        Connection physical = physicalConnections.get(0);
+        verify(physical).rollback();
+        verify(physical).setAutoCommit(true);
+        verify(physical).setReadOnly(false);
+        verify(physical, never()).setTransactionIsolation(anyInt());
+    }
+    
+    @Test
+    void shouldReplaceInvalidAndExpiredConnections() throws Exception {
+        createPool(new PooledDataSourceConfig.Builder()
+            .maxLifetime(Duration.ofMillis(50)));
+        pool.getConnection().close();
+        advanceClock(60);
+        
+        // 到期的连接在借出前被关闭并重新创建
+        pool.getConnection().close();
+        assertEquals(2, physicalConnections.size());
+        verify(physicalConnections.get(0)).close();
+        assertEquals(1, pool.getEvictedConnectionCount());
+    }
+    
+    @Test
+    void shouldValidateIdleConnectionBeforeBorrow() throws Exception {
+        createPool(new PooledDataSourceConfig.Builder());
+        pool.getConnection().close();
+        when(physicalConnections.get(0).isValid(anyInt())).thenReturn(false);
+        
+        // 刚归还的连接不校验
+        pool.getConnection().close();
+        assertEquals(1, physicalConnections.size());
+        verify(physicalConnections.get(0), never()).isValid(anyInt());
+        
+        advanceClock(550);
+        pool.getConnection().close();
+        assertEquals(2, physicalConnections.size());
+        verify(physicalConnections.get(0)).close();
+    }
+    
+    @Test
+    void shouldDetectLeaksAndFillMinimumIdle() throws Exception {
+        createPool(new PooledDataSourceConfig.Builder()
+            .leakDetectionThreshold(Duration.ofMillis(10)));
+        Connection leaked = pool.getConnection();
+        pool.runHousekeeping();
+        assertEquals(0, pool.getLeakedConnectionCount());
+        
+        advanceClock(20);
+        pool.runHousekeeping();
+        pool.runHousekeeping();
+        assertEquals(1, pool.getLeakedConnectionCount());
+        leaked.close();
+        
+        PooledDataSource filled = new PooledDataSource(new PooledDataSourceConfig.Builder()
+            .dataSource(targetDataSource)
+            .minimumIdle(3)
+            .build(), clock::get, false);
+        try {
+            filled.runHousekeeping();
+            assertEquals(3, filled.getIdleConnections());
+        } finally {
+            filled.close();
+        }
+    }
+    
+    @Test
+    void shouldClosePhysicalConnectionWhenEntryCannotBeCreated() throws SQLException {
+        Connection broken = mock(Connection.class);
+        when(broken.getAutoCommit()).thenThrow(new SQLException("connection reset"));
+        when(targetDataSource.getConnection()).thenReturn(broken);
+        createPool(new PooledDataSourceConfig.Builder()
+            .connectionTimeout(Duration.ofMillis(100)));
+        
+        assertThrows(SQLException.class, pool::getConnection);
+        verify(broken, atLeastOnce()).close();
+        assertEquals(0, pool.getTotalConnections());
+    }
+    
+    @Test
+    void shouldCloseIdleConnectionsOnShutdown() throws SQLException {
+        createPool(new PooledDataSourceConfig.Builder());
+        Connection active = pool.getConnection();
+        pool.getConnection().close();
+        
+        pool.close();
+        assertThrows(SQLException.class, pool::getConnection);
+        verify(physicalConnections.get(1)).close();
+        active.close();
+        verify(physicalConnections.get(0)).close();
+        assertEquals(0, pool.getTotalConnections());
+    }
+    
+    @Test
+    void shouldBeSelectedByAutoConfiguration() throws Exception {
+        StubDriver driver = new StubDriver();
+        DriverManager.registerDriver(driver);
+        try {
+            Environment environment = mock(Environment.class);
+            when(environment.getProperty("spring.datasource.driver-class-name")).thenReturn(StubDriver.class.getName());
+            when(environment.getProperty("spring.datasource.url")).thenReturn("jdbc:stub:test");
+            when(environment.getProperty("spring.datasource.username")).thenReturn("sa");
+            when(environment.getProperty("spring.datasource.password")).thenReturn("");
+            when(environment.getProperty("spring.datasource.type", DataSourceAutoConfiguration.TYPE_POOLED))
+                .thenReturn(DataSourceAutoConfiguration.TYPE_POOLED);
+            when(environment.getProperty("spring.datasource.pool.name", "pool")).thenReturn("auto");
+            when(environment.getProperty("spring.datasource.pool.maximum-pool-size")).thenReturn("4");
+            when(environment.getProperty("spring.datasource.pool.minimum-idle")).thenReturn("0");
+            when(environment.getProperty("spring.datasource.pool.connection-timeout")).thenReturn("250");
+            
+            DataSourceAutoConfiguration configuration = new DataSourceAutoConfiguration();
+            Field field = DataSourceAutoConfiguration.class.getDeclaredField("environment");
+            field.setAccessible(true);
+            field.set(configuration, environment);
+            configuration.configure();
+            
+            pool = assertInstanceOf(PooledDataSource.class, configuration.getDataSource());
+            assertEquals("auto", pool.getConfig().getPoolName());
+            assertEquals(4, pool.getConfig().getMaximumPoolSize());
+            assertEquals(Duration.ofMillis(250), pool.getConfig().getConnectionTimeout());
+            pool.getConnection().close();
+            pool.getConnection().close();
+            assertEquals(1, driver.connectCount);
+            
+            // 连接池注册为容器的单例，销毁单例时关闭
+            DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+            configuration.registerBeans(beanFactory);
+            assertSame(pool, beanFactory.getBean(DataSourceAutoConfiguration.DATA_SOURCE_BEAN_NAME));
+            beanFactory.destroySingletons();
+            assertThrows(SQLException.class, pool::getConnection);
+            assertEquals(0, pool.getTotalConnections());
+            
+            // 容器中已有数据源时，自动配置创建的连接池立即关闭
+            DataSourceAutoConfiguration duplicate = new DataSourceAutoConfiguration();
+            field.set(duplicate, environment);
+            duplicate.configure();
+            PooledDataSource discarded = (PooledDataSource) duplicate.getDataSource();
+            DefaultListableBeanFactory existing = new DefaultListableBeanFactory();
+            existing.registerSingleton(DataSourceAutoConfiguration.DATA_SOURCE_BEAN_NAME, targetDataSource);
+            duplicate.registerBeans(existing);
+            assertNull(duplicate.getDataSource());
+            assertThrows(SQLException.class, discarded::getConnection);
+            assertSame(targetDataSource, existing.getBean(DataSourceAutoConfiguration.DATA_SOURCE_BEAN_NAME));
+        } finally {
+            DriverManager.deregisterDriver(driver);
+        }
+    }
+    
+    /**
+     * 返回模拟连接的JDBC驱动
+     */
+    public static class StubDriver implements Driver {
+        
+        int connectCount;
+        
+        @Override
+        public Connection connect(String url, Properties info) throws SQLException {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            connectCount++;
+            return mockConnection();
+        }
+        
+        @Override
+        public boolean acceptsURL(String url) {
+            return url != null && url.startsWith("jdbc:stub:");
+        }
+        
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+        
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+        
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+        
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+        
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.kama.minispring.tx;
 
+import com.kama.minispring.jdbc.datasource.ReadWriteRoutingDataSource;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -103,6 +104,41 @@ public class DataSourceTransactionManagerTest {
         verify(connection, never()).commit();
         verify(connection).rollback();
         assertTrue(status.isCompleted());
+        
+        // 连接只复位和关闭一次
+        verify(connection, times(1)).setAutoCommit(true);
+        verify(connection, times(1)).close();
+        assertFalse(TransactionSynchronizationManager.hasResource(dataSource));
+    }
+    
+    @Test
+    public void testConnectionClosedWhenResetFails() throws SQLException {
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        doThrow(new SQLException("Reset failed")).when(connection).setAutoCommit(true);
+        
+        assertThrows(TransactionException.class, () -> transactionManager.commit(status));
+        verify(connection).commit();
+        verify(connection).close();
+        assertFalse(TransactionSynchronizationManager.hasResource(dataSource));
+    }
+    
+    @Test
+    public void testConnectionClosedWhenBeginFails() throws SQLException {
+        doThrow(new SQLException("Begin failed")).when(connection).setAutoCommit(false);
+        
+        assertThrows(TransactionException.class,
+            () -> transactionManager.getTransaction(new DefaultTransactionDefinition()));
+        verify(connection).close();
+        assertFalse(TransactionSynchronizationManager.hasResource(dataSource));
+        
+        DefaultTransactionDefinition readOnly = new DefaultTransactionDefinition();
+        readOnly.setReadOnly(true);
+        doThrow(new SQLException("Read-only not supported")).when(connection).setReadOnly(true);
+        assertThrows(TransactionException.class, () -> transactionManager.getTransaction(readOnly));
+        verify(connection, times(2)).close();
+        
+        // 事务没有开始，线程上不能残留只读标记
+        assertFalse(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
     }
     
     @Test
@@ -120,4 +156,45 @@ public class DataSourceTransactionManagerTest {
         assertThrows(TransactionException.class, () -> transactionManager.commit(status));
         assertTrue(status.isCompleted());
     }
-} 
\ No newline at end of file
+    
+    @Test
+    public void testReadOnlyTransaction() throws SQLException {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(true);
+        
+        TransactionStatus status = transactionManager.getTransaction(definition);
+        assertTrue(status.isReadOnly());
+        assertTrue(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+        verify(connection).setReadOnly(true);
+        
+        transactionManager.commit(status);
+        
+        // 事务结束后恢复连接的只读和自动提交，并关闭连接
+        verify(connection).setReadOnly(false);
+        verify(connection).setAutoCommit(true);
+        verify(connection).close();
+        assertFalse(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+    
+    @Test
+    public void testReadOnlyTransactionRoutedToReplica() throws SQLException {
+        DataSource replica = mock(DataSource.class);
+        Connection replicaConnection = mock(Connection.class);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(dataSource);
+        routingDataSource.setReadOnlyDataSource(replica);
+        transactionManager = new DataSourceTransactionManager(routingDataSource);
+        
+        DefaultTransactionDefinition readOnly = new DefaultTransactionDefinition();
+        readOnly.setReadOnly(true);
+        TransactionStatus status = transactionManager.getTransaction(readOnly);
+        transactionManager.commit(status);
+        verify(replicaConnection).commit();
+        verify(dataSource, never()).getConnection();
+        
+        status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        transactionManager.commit(status);
+        verify(connection).commit();
+        verify(replica, times(1)).getConnection();
+    }
+}
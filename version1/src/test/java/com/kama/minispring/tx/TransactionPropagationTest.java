@@ -8,6 +8,7 @@ import org.mockito.MockitoAnnotations;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -96,6 +97,9 @@ public class TransactionPropagationTest {
     
     @Test
     void testPropagationNested() throws SQLException {
+        Savepoint savepoint = mock(Savepoint.class);
+        when(connection.setSavepoint()).thenReturn(savepoint);
+        
         // 第一个事务
         DefaultTransactionDefinition def1 = new DefaultTransactionDefinition();
         def1.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
@@ -108,15 +112,133 @@ public class TransactionPropagationTest {
         
         TransactionStatus status2 = transactionManager.getTransaction(def2);
         
-        // 验证使用了同一个连接
+        // 验证使用了同一个连接，并在连接上创建了保存点
         verify(dataSource, times(1)).getConnection();
+        verify(connection).setSavepoint();
+        assertTrue(status2.hasSavepoint());
+        assertFalse(status2.isNewTransaction());
         
-        // 回滚嵌套事务
+        // 回滚嵌套事务，只回滚到保存点
         transactionManager.rollback(status2);
+        verify(connection).rollback(savepoint);
+        verify(connection, never()).rollback();
         
         // 提交外部事务
         transactionManager.commit(status1);
         
         verify(connection).commit();
+        verify(connection).close();
+    }
+    
+    @Test
+    void testPropagationNestedCommitReleasesSavepoint() throws SQLException {
+        Savepoint savepoint = mock(Savepoint.class);
+        when(connection.setSavepoint()).thenReturn(savepoint);
+        
+        TransactionStatus outer = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        DefaultTransactionDefinition nestedDef = new DefaultTransactionDefinition();
+        nestedDef.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        TransactionStatus nested = transactionManager.getTransaction(nestedDef);
+        
+        // 嵌套事务提交只释放保存点，不提交外部事务
+        transactionManager.commit(nested);
+        verify(connection).releaseSavepoint(savepoint);
+        verify(connection, never()).commit();
+        assertTrue(nested.isCompleted());
+        
+        transactionManager.commit(outer);
+        verify(connection).commit();
+    }
+    
+    @Test
+    void testPropagationNestedWithoutExistingTransaction() throws SQLException {
+        DefaultTransactionDefinition def = new DefaultTransactionDefinition();
+        def.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        
+        // 没有外部事务时与REQUIRED相同，开启新事务
+        TransactionStatus status = transactionManager.getTransaction(def);
+        assertTrue(status.isNewTransaction());
+        assertFalse(status.hasSavepoint());
+        
+        transactionManager.commit(status);
+        verify(connection).commit();
+        verify(connection, never()).setSavepoint();
+    }
+    
+    @Test
+    void testInnerRollbackMarksJoinedTransactionRollbackOnly() throws SQLException {
+        TransactionStatus outer = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        TransactionStatus inner = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        assertFalse(inner.isNewTransaction());
+        
+        // 加入外部事务的内部操作回滚时不回滚物理事务，也不释放连接
+        transactionManager.rollback(inner);
+        verify(connection, never()).rollback();
+        verify(connection, never()).close();
+        assertNotNull(TransactionSynchronizationManager.getResource(dataSource));
+        
+        // 外部事务提交时回滚并报告
+        assertThrows(UnexpectedRollbackException.class, () -> transactionManager.commit(outer));
+        verify(connection, never()).commit();
+        verify(connection).rollback();
+        verify(connection).close();
+        assertTrue(outer.isCompleted());
+        assertFalse(TransactionSynchronizationManager.hasResource(dataSource));
+    }
+    
+    @Test
+    void testPropagationRequiresNewResumesOuterTransaction() throws SQLException {
+        TransactionSynchronization synchronization = mock(TransactionSynchronization.class);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.registerSynchronization(synchronization);
+        TransactionStatus outer = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        Object outerHolder = TransactionSynchronizationManager.getResource(dataSource);
+        
+        Connection connection2 = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection2);
+        DefaultTransactionDefinition requiresNew = new DefaultTransactionDefinition();
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        TransactionStatus inner = transactionManager.getTransaction(requiresNew);
+        
+        // 内部事务使用自己的连接，外部事务的同步回调被挂起
+        assertNotSame(outerHolder, TransactionSynchronizationManager.getResource(dataSource));
+        assertFalse(TransactionSynchronizationManager.isSynchronizationActive());
+        verify(synchronization).suspend();
+        
+        transactionManager.commit(inner);
+        verify(connection2).commit();
+        verify(connection2).close();
+        verify(synchronization, never()).afterCompletion(anyInt());
+        
+        // 内部事务完成后外部事务的连接和同步状态恢复
+        assertSame(outerHolder, TransactionSynchronizationManager.getResource(dataSource));
+        assertTrue(TransactionSynchronizationManager.isActualTransactionActive());
+        assertTrue(TransactionSynchronizationManager.isSynchronizationActive());
+        verify(synchronization).resume();
+        
+        transactionManager.commit(outer);
+        verify(connection).commit();
+        verify(synchronization).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        assertFalse(TransactionSynchronizationManager.hasResource(dataSource));
+    }
+    
+    @Test
+    void testPropagationNotSupportedSuspendsOuterTransaction() throws SQLException {
+        TransactionStatus outer = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        Object outerHolder = TransactionSynchronizationManager.getResource(dataSource);
+        
+        DefaultTransactionDefinition notSupported = new DefaultTransactionDefinition();
+        notSupported.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        TransactionStatus inner = transactionManager.getTransaction(notSupported);
+        assertFalse(TransactionSynchronizationManager.hasResource(dataSource));
+        assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+        
+        transactionManager.commit(inner);
+        assertSame(outerHolder, TransactionSynchronizationManager.getResource(dataSource));
+        assertTrue(TransactionSynchronizationManager.isActualTransactionActive());
+        
+        transactionManager.commit(outer);
+        verify(connection).commit();
+        verify(dataSource, times(1)).getConnection();
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,102 @@
+package com.kama.minispring.tx;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 事务同步管理器测试类
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+public class TransactionSynchronizationManagerTest {
+    
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+    
+    @Test
+    void testBindAndUnbindResources() {
+        assertSame(TransactionSynchronizationManager.getResources(), TransactionSynchronizationManager.getResources());
+        assertTrue(TransactionSynchronizationManager.getResources().isEmpty());
+        
+        // 超过初始容量后数组扩容
+        for (int i = 0; i < 5; i++) {
+            TransactionSynchronizationManager.bindResource("key" + i, "value" + i);
+        }
+        TransactionSynchronizationManager.bindResource("key1", "replaced");
+        assertEquals(5, TransactionSynchronizationManager.getResources().size());
+        assertEquals("replaced", TransactionSynchronizationManager.getResource("key1"));
+        
+        assertEquals("value0", TransactionSynchronizationManager.unbindResource("key0"));
+        assertNull(TransactionSynchronizationManager.unbindResource("key0"));
+        assertFalse(TransactionSynchronizationManager.hasResource("key0"));
+        assertTrue(TransactionSynchronizationManager.hasResource("key4"));
+        
+        Map<Object, Object> resources = TransactionSynchronizationManager.getResources();
+        assertEquals(4, resources.size());
+        assertThrows(UnsupportedOperationException.class, () -> resources.put("key", "value"));
+    }
+    
+    @Test
+    void testContextIsReusedAfterClear() {
+        TransactionContext context = TransactionSynchronizationManager.currentContext();
+        context.bindResource("key", "value");
+        context.initSynchronization();
+        context.setActualTransactionActive(true);
+        
+        TransactionSynchronizationManager.clear();
+        
+        assertSame(context, TransactionSynchronizationManager.currentContext());
+        assertNull(context.getResource("key"));
+        assertFalse(context.isSynchronizationActive());
+        assertFalse(context.isActualTransactionActive());
+        assertNull(context.getSynchronizations());
+    }
+    
+    @Test
+    void testSynchronizationLifecycle() {
+        assertThrows(IllegalStateException.class,
+                () -> TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                }));
+        
+        TransactionSynchronizationManager.initSynchronization();
+        assertThrows(IllegalStateException.class, TransactionSynchronizationManager::initSynchronization);
+        int[] completions = new int[1];
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                completions[0]++;
+            }
+        });
+        TransactionSynchronizationManager.bindResource("key", "value");
+        
+        TransactionSynchronizationManager.triggerAfterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(1, completions[0]);
+        
+        // 只清除同步状态时保留资源
+        TransactionSynchronizationManager.clearSynchronization();
+        assertFalse(TransactionSynchronizationManager.isSynchronizationActive());
+        assertEquals("value", TransactionSynchronizationManager.getResource("key"));
+    }
+    
+    @Test
+    void testContextIsThreadConfined() throws Exception {
+        TransactionSynchronizationManager.bindResource("key", "main");
+        TransactionContext mainContext = TransactionSynchronizationManager.currentContext();
+        
+        CompletableFuture<Object> other = CompletableFuture.supplyAsync(() -> {
+            assertNotSame(mainContext, TransactionSynchronizationManager.currentContext());
+            return TransactionSynchronizationManager.getResource("key");
+        });
+        
+        assertNull(other.get());
+        assertEquals("main", TransactionSynchronizationManager.getResource("key"));
+    }
+}
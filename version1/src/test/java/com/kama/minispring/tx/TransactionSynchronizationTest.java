@@ -2,6 +2,7 @@ package com.kama.minispring.tx;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
@@ -102,10 +103,69 @@ public class TransactionSynchronizationTest {
         verify(connection).rollback();
     }
     
+    @Test
+    public void testRollbackOnlyCommitCompletesAsRolledBack() throws SQLException {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.registerSynchronization(synchronization);
+        
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        status.setRollbackOnly();
+        transactionManager.commit(status);
+        
+        // 按回滚处理，不触发提交回调，完成状态为已回滚
+        assertEquals(List.of("beforeBegin", "beforeRollback", "afterRollback", "afterCompletion"), executionOrder);
+        assertEquals(TransactionSynchronization.STATUS_ROLLED_BACK, synchronization.completionStatus);
+        verify(connection, never()).commit();
+        verify(connection).rollback();
+        verify(connection, times(1)).close();
+    }
+    
+    @Test
+    public void testFailedCommitCompletesAsUnknown() throws SQLException {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.registerSynchronization(synchronization);
+        doThrow(new SQLException("Commit failed")).when(connection).commit();
+        
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        assertThrows(TransactionException.class, () -> transactionManager.commit(status));
+        
+        assertEquals(List.of("beforeBegin", "beforeCommit", "afterCompletion"), executionOrder);
+        assertEquals(TransactionSynchronization.STATUS_UNKNOWN, synchronization.completionStatus);
+        verify(connection).rollback();
+        verify(connection).close();
+    }
+    
+    @Test
+    public void testFailedBeforeCommitRollsBack() throws SQLException {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.registerSynchronization(synchronization);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit() {
+                throw new IllegalStateException("flush failed");
+            }
+        });
+        
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        assertThrows(IllegalStateException.class, () -> transactionManager.commit(status));
+        
+        // 提交没有执行，事务在恢复自动提交之前回滚
+        assertEquals(List.of("beforeBegin", "beforeCommit", "afterCompletion"), executionOrder);
+        assertEquals(TransactionSynchronization.STATUS_ROLLED_BACK, synchronization.completionStatus);
+        verify(connection, never()).commit();
+        InOrder inOrder = inOrder(connection);
+        inOrder.verify(connection).rollback();
+        inOrder.verify(connection).setAutoCommit(true);
+        inOrder.verify(connection).close();
+        assertTrue(status.isCompleted());
+    }
+    
     private static class TestTransactionSynchronization implements TransactionSynchronization {
         
         private final List<String> executionOrder;
         
+        private int completionStatus = -1;
+        
         public TestTransactionSynchronization(List<String> executionOrder) {
             this.executionOrder = executionOrder;
         }
@@ -138,6 +198,7 @@ public class TransactionSynchronizationTest {
         @Override
         public void afterCompletion(int status) {
             executionOrder.add("afterCompletion");
+            completionStatus = status;
         }
     }
 } 
\ No newline at end of file
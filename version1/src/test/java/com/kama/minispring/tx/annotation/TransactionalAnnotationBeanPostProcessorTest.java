@@ -0,0 +1,222 @@
+package com.kama.minispring.tx.annotation;
+
+import com.kama.minispring.tx.DataSourceTransactionManager;
+import com.kama.minispring.tx.TransactionDefinition;
+import com.kama.minispring.tx.TransactionSynchronizationManager;
+import com.kama.minispring.tx.UnexpectedRollbackException;
+import com.kama.minispring.tx.interceptor.TransactionAttribute;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 声明式事务的测试类
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+class TransactionalAnnotationBeanPostProcessorTest {
+    
+    @Mock
+    private DataSource dataSource;
+    
+    @Mock
+    private Connection connection;
+    
+    private TransactionalAnnotationBeanPostProcessor postProcessor;
+    
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        when(dataSource.getConnection()).thenReturn(connection);
+        postProcessor = new TransactionalAnnotationBeanPostProcessor(new DataSourceTransactionManager(dataSource));
+    }
+    
+    @Test
+    void testTransactionalMethodCommits() throws Exception {
+        AccountService service = (AccountService) postProcessor.postProcessAfterInitialization(
+            new DefaultAccountService(), "accountService");
+        
+        assertTrue(service.transfer(false));
+        verify(connection).setAutoCommit(false);
+        verify(connection).commit();
+        verify(connection).close();
+        
+        // 没有事务的方法不获取连接
+        assertFalse(service.isInTransaction());
+        verify(dataSource, times(1)).getConnection();
+    }
+    
+    @Test
+    void testRollbackRules() throws Exception {
+        AccountService service = (AccountService) postProcessor.postProcessAfterInitialization(
+            new DefaultAccountService(), "accountService");
+        
+        // 运行时异常回滚
+        assertThrows(IllegalStateException.class, () -> service.transfer(true));
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        
+        // 受检异常默认提交，rollbackFor中的受检异常回滚
+        assertThrows(IOException.class, service::importAccounts);
+        verify(connection).commit();
+        assertThrows(IOException.class, service::importAccountsStrictly);
+        verify(connection, times(2)).rollback();
+    }
+    
+    @Test
+    void testClassLevelAttributesAndReadOnly() throws Exception {
+        AccountService service = (AccountService) postProcessor.postProcessAfterInitialization(
+            new DefaultAccountService(), "accountService");
+        
+        assertTrue(service.readBalance());
+        verify(connection).setReadOnly(true);
+        
+        ReportService reports = (ReportService) postProcessor.postProcessAfterInitialization(
+            new DefaultReportService(), "reportService");
+        assertTrue(reports.report());
+        verify(connection, times(2)).setReadOnly(true);
+    }
+    
+    @Test
+    void testAttributesCachedIncludingNonTransactionalMethods() throws Exception {
+        AnnotationTransactionAttributeSource source = new AnnotationTransactionAttributeSource();
+        Method transfer = AccountService.class.getMethod("transfer", boolean.class);
+        Method inTransaction = AccountService.class.getMethod("isInTransaction");
+        
+        TransactionAttribute attribute = source.getTransactionAttribute(transfer, DefaultAccountService.class);
+        assertNotNull(attribute);
+        assertSame(attribute, source.getTransactionAttribute(transfer, DefaultAccountService.class));
+        assertEquals(TransactionDefinition.PROPAGATION_REQUIRED, attribute.getPropagationBehavior());
+        assertEquals(DefaultAccountService.class.getName() + ".transfer", attribute.getName());
+        
+        assertNull(source.getTransactionAttribute(inTransaction, DefaultAccountService.class));
+        assertNull(source.getTransactionAttribute(inTransaction, DefaultAccountService.class));
+        assertNull(source.getTransactionAttribute(transfer, null));
+        
+        Object plain = new Object();
+        assertSame(plain, postProcessor.postProcessAfterInitialization(plain, "plain"));
+    }
+    
+    @Test
+    void testInnerBeanRollbackMarksOuterTransactionRollbackOnly() throws Exception {
+        InventoryService inventory = (InventoryService) postProcessor.postProcessAfterInitialization(
+            new DefaultInventoryService(), "inventoryService");
+        OrderService orders = (OrderService) postProcessor.postProcessAfterInitialization(
+            new DefaultOrderService(inventory), "orderService");
+        
+        // 内部bean加入外部事务后抛出异常，外部bean捕获后正常返回，事务只能回滚
+        assertThrows(UnexpectedRollbackException.class, orders::placeOrder);
+        verify(dataSource, times(1)).getConnection();
+        verify(connection, never()).commit();
+        verify(connection, times(1)).rollback();
+        verify(connection, times(1)).close();
+        assertFalse(TransactionSynchronizationManager.hasResource(dataSource));
+    }
+    
+    interface OrderService {
+        void placeOrder();
+    }
+    
+    static class DefaultOrderService implements OrderService {
+        
+        private final InventoryService inventory;
+        
+        DefaultOrderService(InventoryService inventory) {
+            this.inventory = inventory;
+        }
+        
+        @Override
+        @Transactional
+        public void placeOrder() {
+            try {
+                inventory.reserve();
+            } catch (IllegalStateException ex) {
+                // 忽略库存失败，继续下单
+            }
+        }
+    }
+    
+    interface InventoryService {
+        void reserve();
+    }
+    
+    static class DefaultInventoryService implements InventoryService {
+        
+        @Override
+        @Transactional
+        public void reserve() {
+            throw new IllegalStateException("out of stock");
+        }
+    }
+    
+    interface AccountService {
+        boolean transfer(boolean fail);
+        
+        void importAccounts() throws IOException;
+        
+        void importAccountsStrictly() throws IOException;
+        
+        boolean readBalance();
+        
+        boolean isInTransaction();
+    }
+    
+    static class DefaultAccountService implements AccountService {
+        
+        @Override
+        @Transactional
+        public boolean transfer(boolean fail) {
+            if (fail) {
+                throw new IllegalStateException("transfer failed");
+            }
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+        
+        @Override
+        @Transactional
+        public void importAccounts() throws IOException {
+            throw new IOException("import failed");
+        }
+        
+        @Override
+        @Transactional(rollbackFor = IOException.class)
+        public void importAccountsStrictly() throws IOException {
+            throw new IOException("import failed");
+        }
+        
+        @Override
+        @Transactional(readOnly = true)
+        public boolean readBalance() {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+        
+        @Override
+        public boolean isInTransaction() {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+    }
+    
+    interface ReportService {
+        boolean report();
+    }
+    
+    @Transactional(readOnly = true)
+    static class DefaultReportService implements ReportService {
+        
+        @Override
+        public boolean report() {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        }
+    }
+}
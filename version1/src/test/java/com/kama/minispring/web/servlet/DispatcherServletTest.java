@@ -8,6 +8,9 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import com.kama.minispring.web.servlet.async.WebAsyncManager;
+
+import javax.servlet.AsyncContext;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -16,6 +19,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -102,8 +106,9 @@ class DispatcherServletTest {
             // 执行测试
             dispatcherServlet.processRequest(request, response);
             
-            // 验证结果
+            // 验证结果：同步请求不创建WebAsyncManager
             verify(view).render(eq(model), eq(request), eq(response));
+            verify(request, never()).setAttribute(eq(WebAsyncManager.WEB_ASYNC_MANAGER_ATTRIBUTE), any());
         }
         
         @Test
@@ -143,6 +148,17 @@ class DispatcherServletTest {
             verify(response).sendError(HttpServletResponse.SC_NOT_FOUND);
         }
         
+        @Test
+        void shouldRespondMethodNotAllowedWithAllowHeader() throws Exception {
+            when(handlerMapping.getHandler(request)).thenThrow(
+                new HttpRequestMethodNotSupportedException("DELETE", new String[]{"GET", "POST"}));
+            
+            dispatcherServlet.processRequest(request, response);
+            
+            verify(response).setHeader("Allow", "GET, POST");
+            verify(response).sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+        }
+        
         @Test
         void shouldHandleNoAdapterFound() throws Exception {
             Object handler = new Object();
@@ -224,4 +240,86 @@ class DispatcherServletTest {
             verify(interceptor).afterCompletion(eq(request), eq(response), eq(handler), isNull());
         }
     }
-} 
\ No newline at end of file
+    
+    @Nested
+    class AsyncRequestTests {
+        @Test
+        void shouldDeferInterceptorsAndRenderingUntilAsyncResultCompletes() throws Exception {
+            // 准备测试数据
+            Object handler = new Object();
+            HandlerExecutionChain chain = new HandlerExecutionChain(handler);
+            AsyncHandlerInterceptor interceptor = mock(AsyncHandlerInterceptor.class);
+            chain.addInterceptor(interceptor);
+            AsyncContext asyncContext = mock(AsyncContext.class);
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            ModelAndView mv = new ModelAndView("async");
+            Map<String, Object> attributes = new HashMap<>();
+            
+            // 设置Mock对象行为
+            doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(request).setAttribute(anyString(), any());
+            when(request.getAttribute(anyString())).thenAnswer(invocation -> attributes.get(invocation.getArgument(0)));
+            when(request.startAsync(request, response)).thenReturn(asyncContext);
+            when(handlerMapping.getHandler(request)).thenReturn(chain);
+            when(handlerAdapter.supports(handler)).thenReturn(true);
+            when(handlerAdapter.handle(request, response, handler)).thenAnswer(invocation -> {
+                WebAsyncManager.getAsyncManager(request, response).startCompletionStageProcessing(future, value -> mv);
+                return null;
+            });
+            when(viewResolver.resolveViewName("async")).thenReturn(view);
+            when(interceptor.preHandle(request, response, handler)).thenReturn(true);
+            
+            // 执行测试：容器线程返回时只调用afterConcurrentHandlingStarted
+            dispatcherServlet.processRequest(request, response);
+            verify(interceptor).afterConcurrentHandlingStarted(request, response, handler);
+            verify(interceptor, never()).postHandle(any(), any(), any(), any());
+            verify(interceptor, never()).afterCompletion(any(), any(), any(), any());
+            verify(asyncContext, never()).complete();
+            
+            // 异步结果完成后继续执行剩余步骤
+            future.complete("done");
+            var inOrder = inOrder(interceptor, view, asyncContext);
+            inOrder.verify(interceptor).postHandle(request, response, handler, mv);
+            inOrder.verify(view).render(any(), eq(request), eq(response));
+            inOrder.verify(interceptor).afterCompletion(eq(request), eq(response), eq(handler), isNull());
+            inOrder.verify(asyncContext).complete();
+        }
+        
+        @Test
+        void shouldHandleAsyncFailure() throws Exception {
+            // 准备测试数据
+            Object handler = new Object();
+            HandlerExecutionChain chain = new HandlerExecutionChain(handler);
+            HandlerInterceptor interceptor = mock(HandlerInterceptor.class);
+            chain.addInterceptor(interceptor);
+            AsyncContext asyncContext = mock(AsyncContext.class);
+            Map<String, Object> attributes = new HashMap<>();
+            RuntimeException failure = new RuntimeException("Async Error");
+            
+            // 设置Mock对象行为
+            doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(request).setAttribute(anyString(), any());
+            when(request.getAttribute(anyString())).thenAnswer(invocation -> attributes.get(invocation.getArgument(0)));
+            when(request.startAsync(request, response)).thenReturn(asyncContext);
+            when(handlerMapping.getHandler(request)).thenReturn(chain);
+            when(handlerAdapter.supports(handler)).thenReturn(true);
+            when(handlerAdapter.handle(request, response, handler)).thenAnswer(invocation -> {
+                WebAsyncManager.getAsyncManager(request, response).startCallableProcessing(() -> {
+                    throw failure;
+                }, value -> null);
+                return null;
+            });
+            when(interceptor.preHandle(request, response, handler)).thenReturn(true);
+            dispatcherServlet.setAsyncExecutor(Runnable::run);
+            
+            // 执行测试
+            dispatcherServlet.processRequest(request, response);
+            
+            // 验证结果
+            verify(response).sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            verify(interceptor, never()).postHandle(any(), any(), any(), any());
+            verify(interceptor).afterCompletion(request, response, handler, failure);
+            verify(asyncContext).complete();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.kama.minispring.web.servlet.handler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PathTrie测试类
+ *
+ * @author kama
+ * @version 1.0.0
+ */
+class PathTrieTest {
+
+    @Test
+    void shouldMatchLiteralPaths() {
+        PathTrie<String> trie = new PathTrie<>(null);
+        trie.insert("/users", "list");
+        trie.insert("/users/admin", "admin");
+        trie.insert("/", "root");
+
+        assertEquals("list", trie.match("/users", null, null));
+        assertEquals("admin", trie.match("/users/admin", null, null));
+        assertEquals("root", trie.match("/", null, null));
+        assertNull(trie.match("/users/", null, null));
+        assertNull(trie.match("/orders", null, null));
+    }
+
+    @Test
+    void shouldCapturePathVariables() {
+        PathTrie<String> trie = new PathTrie<>(null);
+        trie.insert("/users/{id}/orders/{orderId}", "order");
+
+        int[] captures = new int[trie.maxVariables() * 2];
+        String path = "/users/42/orders/7";
+        assertEquals("order", trie.match(path, null, captures));
+        assertEquals("42", path.substring(captures[0], captures[1]));
+        assertEquals("7", path.substring(captures[2], captures[3]));
+        assertNull(trie.match("/users//orders/7", null, captures));
+    }
+
+    @Test
+    void shouldPreferMoreSpecificSegments() {
+        PathTrie<String> trie = new PathTrie<>(null);
+        trie.insert("/static/**", "doubleWildcard");
+        trie.insert("/static/*", "wildcard");
+        trie.insert("/static/{name}", "variable");
+        trie.insert("/static/logo", "literal");
+
+        int[] captures = new int[2];
+        assertEquals("literal", trie.match("/static/logo", null, captures));
+        assertEquals("variable", trie.match("/static/app.js", null, captures));
+        assertEquals("doubleWildcard", trie.match("/static/js/app.js", null, captures));
+        assertEquals("doubleWildcard", trie.match("/static", null, captures));
+    }
+
+    @Test
+    void shouldBacktrackWhenSpecificBranchFails() {
+        PathTrie<String> trie = new PathTrie<>(null);
+        trie.insert("/api/users/list", "literal");
+        trie.insert("/api/{type}/detail", "variable");
+        trie.insert("/api/**/export", "export");
+
+        int[] captures = new int[2];
+        assertEquals("variable", trie.match("/api/users/detail", null, captures));
+        assertEquals("export", trie.match("/api/users/2024/export", null, captures));
+        assertEquals("export", trie.match("/api/export", null, captures));
+    }
+
+    @Test
+    void shouldApplySelectorToCandidates() {
+        PathTrie<String> trie = new PathTrie<>((value, qualifier) -> value.startsWith(qualifier));
+        trie.insert("/items/{id}", "GET:item");
+        trie.insert("/items/{id}", "POST:item");
+        trie.insert("/items/*", "PUT:any");
+
+        int[] captures = new int[2];
+        assertEquals("GET:item", trie.match("/items/1", "GET", captures));
+        assertEquals("POST:item", trie.match("/items/1", "POST", captures));
+        // {id}上没有满足筛选条件的处理器时回溯到优先级更低的*
+        assertEquals("PUT:any", trie.match("/items/1", "PUT", captures));
+        assertNull(trie.match("/items/1", "DELETE", captures));
+        assertEquals(Arrays.asList("GET:item", "POST:item", "PUT:any"), trie.candidates("/items/1"));
+        assertTrue(trie.candidates("/orders/1").isEmpty());
+    }
+
+    @Test
+    void shouldFallBackFromLiteralWhenSelectorRejects() {
+        PathTrie<String> trie = new PathTrie<>((value, qualifier) -> value.startsWith(qualifier));
+        trie.insert("/users/new", "GET:new");
+        trie.insert("/users/{id}", "POST:id");
+
+        int[] captures = new int[2];
+        String path = "/users/new";
+        assertEquals("GET:new", trie.match(path, "GET", captures));
+        assertEquals("POST:id", trie.match(path, "POST", captures));
+        assertEquals("new", path.substring(captures[0], captures[1]));
+        assertEquals(Arrays.asList("GET:new", "POST:id"), trie.candidates(path));
+    }
+
+    @Test
+    void shouldSkipCapturesWhenArrayIsNull() {
+        PathTrie<String> trie = new PathTrie<>(null);
+        trie.insert("/users/{id}", "user");
+
+        assertEquals("user", trie.match("/users/42", null, null));
+
+        // 编译后注册的模式在下次查找时生效
+        trie.insert("/users/{id}/orders/{orderId}", "order");
+        assertEquals(2, trie.maxVariables());
+        int[] captures = new int[4];
+        assertEquals("order", trie.match("/users/42/orders/7", null, captures));
+        assertArrayEquals(new int[]{7, 9, 17, 18}, captures);
+    }
+
+    @Test
+    void shouldHandleLargeRouteTables() {
+        PathTrie<String> trie = new PathTrie<>(null);
+        for (int i = 0; i < 10000; i++) {
+            trie.insert("/service" + (i % 100) + "/resource" + i + "/{id}", "route" + i);
+        }
+        trie.compile();
+
+        int[] captures = new int[trie.maxVariables() * 2];
+        for (int i = 0; i < 10000; i += 997) {
+            String path = "/service" + (i % 100) + "/resource" + i + "/abc";
+            assertEquals("route" + i, trie.match(path, null, captures));
+            assertEquals("abc", path.substring(captures[0], captures[1]));
+        }
+        assertNull(trie.match("/service1/resource2/abc", null, captures));
+    }
+
+    @Test
+    void shouldParseVariableNames() {
+        assertArrayEquals(new String[]{"id", "orderId"}, PathTrie.parseVariableNames("/users/{id}/orders/{orderId}"));
+        assertArrayEquals(new String[0], PathTrie.parseVariableNames("/static/**"));
+    }
+}
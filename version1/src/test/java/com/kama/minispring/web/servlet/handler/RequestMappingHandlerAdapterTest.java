@@ -1,6 +1,11 @@
 package com.kama.minispring.web.servlet.handler;
 
+import com.kama.minispring.web.servlet.HandlerMapping;
 import com.kama.minispring.web.servlet.ModelAndView;
+import com.kama.minispring.web.servlet.annotation.PathVariable;
+import com.kama.minispring.web.servlet.annotation.RequestHeader;
+import com.kama.minispring.web.servlet.annotation.RequestParam;
+import com.kama.minispring.web.servlet.annotation.ResponseBody;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -9,6 +14,9 @@ import org.mockito.MockitoAnnotations;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -108,6 +116,96 @@ class RequestMappingHandlerAdapterTest {
         assertEquals("test value", mv.getModel().get("result"));
     }
 
+    @Test
+    void shouldSupportHandlerMethodFromMapping() throws Exception {
+        // given
+        TestController controller = new TestController();
+        Method method = TestController.class.getDeclaredMethod("stringReturnValue");
+        RequestMappingHandlerMapping.HandlerMethod handlerMethod =
+            new RequestMappingHandlerMapping.HandlerMethod(controller, method);
+
+        // when
+        ModelAndView mv = handlerAdapter.handle(request, response, handlerMethod);
+
+        // then
+        assertTrue(handlerAdapter.supports(handlerMethod));
+        assertEquals("test", mv.getViewName());
+    }
+
+    @Test
+    void shouldResolveAnnotatedArguments() throws Exception {
+        // given
+        TestController controller = new TestController();
+        Method method = TestController.class.getDeclaredMethod(
+            "argumentValues", long.class, int.class, String.class, HttpServletResponse.class);
+        RequestMappingHandlerAdapter.HandlerMethod handlerMethod =
+            new RequestMappingHandlerAdapter.HandlerMethod(controller, method);
+        when(request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE))
+            .thenReturn(Collections.singletonMap("id", "42"));
+        when(request.getParameter("page")).thenReturn("3");
+        when(request.getHeader("X-Trace")).thenReturn("abc");
+
+        // when
+        ModelAndView mv = handlerAdapter.handle(request, response, handlerMethod);
+
+        // then
+        assertEquals("42-3-abc-true", mv.getModel().get("result"));
+    }
+
+    @Test
+    void shouldApplyDefaultValueAndRejectMissingRequiredArgument() throws Exception {
+        // given
+        TestController controller = new TestController();
+        Method method = TestController.class.getDeclaredMethod(
+            "argumentValues", long.class, int.class, String.class, HttpServletResponse.class);
+        RequestMappingHandlerAdapter.HandlerMethod handlerMethod =
+            new RequestMappingHandlerAdapter.HandlerMethod(controller, method);
+        when(request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE))
+            .thenReturn(Collections.singletonMap("id", "7"));
+
+        // when
+        ModelAndView mv = handlerAdapter.handle(request, response, handlerMethod);
+
+        // then
+        assertEquals("7-1-null-true", mv.getModel().get("result"));
+
+        when(request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE)).thenReturn(null);
+        assertThrows(javax.servlet.ServletException.class,
+            () -> handlerAdapter.handle(request, response, handlerMethod));
+    }
+
+    @Test
+    void shouldPropagateHandlerExceptionUnwrapped() throws Exception {
+        // given
+        TestController controller = new TestController();
+        Method method = TestController.class.getDeclaredMethod("failingMethod");
+        RequestMappingHandlerAdapter.HandlerMethod handlerMethod =
+            new RequestMappingHandlerAdapter.HandlerMethod(controller, method);
+
+        // when & then
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+            () -> handlerAdapter.handle(request, response, handlerMethod));
+        assertEquals("boom", ex.getMessage());
+    }
+
+    @Test
+    void shouldAwaitAsyncReturnValueWhenAsyncNotSupported() throws Exception {
+        // given
+        TestController controller = new TestController();
+        RequestMappingHandlerAdapter.HandlerMethod futureMethod = new RequestMappingHandlerAdapter.HandlerMethod(
+            controller, TestController.class.getDeclaredMethod("futureViewName"));
+        RequestMappingHandlerAdapter.HandlerMethod callableMethod = new RequestMappingHandlerAdapter.HandlerMethod(
+            controller, TestController.class.getDeclaredMethod("callableResult"));
+
+        // when
+        ModelAndView futureMv = handlerAdapter.handle(request, response, futureMethod);
+        ModelAndView callableMv = handlerAdapter.handle(request, response, callableMethod);
+
+        // then
+        assertEquals("async", futureMv.getViewName());
+        assertEquals(7, callableMv.getModel().get("result"));
+    }
+
     /**
      * 测试用的Controller类
      */
@@ -123,8 +221,29 @@ class RequestMappingHandlerAdapterTest {
             return mv;
         }
         
+        @ResponseBody
         public String objectReturnValue() {
             return "test value";
         }
+
+        @ResponseBody
+        public String argumentValues(@PathVariable("id") long id,
+                                     @RequestParam(value = "page", defaultValue = "1") int page,
+                                     @RequestHeader(value = "X-Trace", required = false) String trace,
+                                     HttpServletResponse response) {
+            return id + "-" + page + "-" + trace + "-" + (response != null);
+        }
+
+        public CompletableFuture<String> futureViewName() {
+            return CompletableFuture.completedFuture("async");
+        }
+
+        public Callable<Integer> callableResult() {
+            return () -> 7;
+        }
+
+        public void failingMethod() {
+            throw new IllegalArgumentException("boom");
+        }
     }
 } 
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.kama.minispring.web.servlet.handler;
 
 import com.kama.minispring.context.ApplicationContext;
 import com.kama.minispring.web.servlet.HandlerExecutionChain;
+import com.kama.minispring.web.servlet.HttpRequestMethodNotSupportedException;
 import com.kama.minispring.web.servlet.annotation.RequestMapping;
 import com.kama.minispring.web.servlet.annotation.RequestMethod;
 import org.junit.jupiter.api.BeforeEach;
@@ -96,11 +97,13 @@ class RequestMappingHandlerMappingTest {
         when(request.getRequestURI()).thenReturn("/test");
         when(request.getMethod()).thenReturn("POST");
 
-        // 执行测试
-        HandlerExecutionChain chain = handlerMapping.getHandler(request);
+        // 执行测试：/test只支持GET方法，应该返回405而不是找不到处理器
+        HttpRequestMethodNotSupportedException ex = assertThrows(HttpRequestMethodNotSupportedException.class,
+            () -> handlerMapping.getHandler(request));
 
-        // 验证结果：应该找不到处理器，因为/test只支持GET方法
-        assertNull(chain);
+        // 验证结果
+        assertEquals("POST", ex.getMethod());
+        assertArrayEquals(new String[]{"GET"}, ex.getSupportedMethods());
     }
 
     @Test
@@ -130,6 +133,95 @@ class RequestMappingHandlerMappingTest {
         assertSame(controller, handlerMethod.getBean());
     }
 
+    @Test
+    void shouldExtractPathVariables() throws Exception {
+        // 准备测试数据
+        UserController controller = new UserController();
+        when(applicationContext.getBeanDefinitionNames()).thenReturn(new String[]{"userController"});
+        when(applicationContext.getBean("userController")).thenReturn(controller);
+
+        // 初始化处理器映射器
+        handlerMapping.afterPropertiesSet();
+
+        // 模拟请求
+        when(request.getRequestURI()).thenReturn("/users/42");
+        when(request.getMethod()).thenReturn("GET");
+
+        // 执行测试
+        HandlerExecutionChain chain = handlerMapping.getHandler(request);
+
+        // 验证结果
+        assertNotNull(chain);
+        RequestMappingHandlerMapping.HandlerMethod handlerMethod =
+            (RequestMappingHandlerMapping.HandlerMethod) chain.getHandler();
+        assertEquals("getUser", handlerMethod.getMethod().getName());
+        assertEquals("42", handlerMethod.getUriVariables().get("id"));
+        verify(request).setAttribute(RequestMappingHandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE,
+            handlerMethod.getUriVariables());
+    }
+
+    @Test
+    void shouldPreferLiteralOverPatternAndSelectByRequestMethod() throws Exception {
+        // 准备测试数据
+        UserController controller = new UserController();
+        when(applicationContext.getBeanDefinitionNames()).thenReturn(new String[]{"userController"});
+        when(applicationContext.getBean("userController")).thenReturn(controller);
+
+        // 初始化处理器映射器
+        handlerMapping.afterPropertiesSet();
+
+        // 字面量路径优先于路径变量
+        when(request.getRequestURI()).thenReturn("/users/me");
+        when(request.getMethod()).thenReturn("GET");
+        assertEquals("currentUser", handlerMethodName(handlerMapping.getHandler(request)));
+
+        // 同一路径按请求方法区分处理器
+        when(request.getRequestURI()).thenReturn("/users/42");
+        when(request.getMethod()).thenReturn("DELETE");
+        assertEquals("deleteUser", handlerMethodName(handlerMapping.getHandler(request)));
+
+        // 多段通配
+        when(request.getRequestURI()).thenReturn("/users/files/a/b.txt");
+        when(request.getMethod()).thenReturn("GET");
+        assertEquals("files", handlerMethodName(handlerMapping.getHandler(request)));
+    }
+
+    @Test
+    void shouldFallBackToPatternWhenLiteralMethodDoesNotMatch() throws Exception {
+        // 准备测试数据
+        UserController controller = new UserController();
+        when(applicationContext.getBeanDefinitionNames()).thenReturn(new String[]{"userController"});
+        when(applicationContext.getBean("userController")).thenReturn(controller);
+
+        // 初始化处理器映射器
+        handlerMapping.afterPropertiesSet();
+
+        // /users/export只支持GET，DELETE回溯到/users/{id}
+        when(request.getRequestURI()).thenReturn("/users/export");
+        when(request.getMethod()).thenReturn("DELETE");
+        HandlerExecutionChain chain = handlerMapping.getHandler(request);
+        RequestMappingHandlerMapping.HandlerMethod handlerMethod =
+            (RequestMappingHandlerMapping.HandlerMethod) chain.getHandler();
+        assertEquals("deleteUser", handlerMethod.getMethod().getName());
+        assertEquals("export", handlerMethod.getUriVariables().get("id"));
+
+        // 路径匹配但没有任何模式支持该方法时返回405，Allow列出所有候选方法
+        when(request.getMethod()).thenReturn("PUT");
+        HttpRequestMethodNotSupportedException ex = assertThrows(HttpRequestMethodNotSupportedException.class,
+            () -> handlerMapping.getHandler(request));
+        assertArrayEquals(new String[]{"GET", "DELETE"}, ex.getSupportedMethods());
+
+        // 路径不存在时仍然返回null
+        when(request.getRequestURI()).thenReturn("/orders/1");
+        when(request.getMethod()).thenReturn("GET");
+        assertNull(handlerMapping.getHandler(request));
+    }
+
+    private static String handlerMethodName(HandlerExecutionChain chain) {
+        assertNotNull(chain);
+        return ((RequestMappingHandlerMapping.HandlerMethod) chain.getHandler()).getMethod().getName();
+    }
+
     // 测试用的Controller类
     @RequestMapping(value = "/test", method = RequestMethod.GET)
     static class TestController {
@@ -146,4 +238,33 @@ class RequestMappingHandlerMappingTest {
             return "test";
         }
     }
+
+    // 测试用的带路径变量和通配符的Controller类
+    @RequestMapping("/users")
+    static class UserController {
+        @RequestMapping(value = "/{id}", method = RequestMethod.GET)
+        public String getUser() {
+            return "user";
+        }
+
+        @RequestMapping(value = "/{id}", method = RequestMethod.DELETE)
+        public String deleteUser() {
+            return "deleted";
+        }
+
+        @RequestMapping("/me")
+        public String currentUser() {
+            return "me";
+        }
+
+        @RequestMapping(value = "/export", method = RequestMethod.GET)
+        public String export() {
+            return "export";
+        }
+
+        @RequestMapping("/files/**")
+        public String files() {
+            return "files";
+        }
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,253 @@
+package com.minispring.aop.framework;
+
+import com.minispring.aop.Advisor;
+import com.minispring.aop.ClassFilter;
+import com.minispring.aop.MethodMatcher;
+import com.minispring.aop.PointcutAdvisor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 通知链工厂
+ * 计算方法对应的拦截器链，并以数组形式缓存
+ *
+ * 创建代理时可以通过{@link #prewarm(Class)}一次性为目标类及其接口的全部公共方法计算好拦截器链；
+ * 未预热的类在第一次未命中时整体计算，之后调用路径上只有一次缓存查找。
+ * 被调用方法在目标类上对应的实现方法与拦截器链一起缓存，JDK代理不必在每次调用时反射查找。
+ * 通知器或目标变化时由{@link AdvisedSupport}调用{@link #invalidate()}使缓存失效。
+ *
+ * 返回的数组在多次调用间共享，调用方不能修改
+ */
+public class AdvisorChainFactory {
+
+    private static final Object[] EMPTY_CHAIN = new Object[0];
+
+    // 代理配置
+    private final AdvisedSupport advised;
+
+    // 当前缓存，失效时整体替换，正在计算的旧结果只会写入被丢弃的缓存
+    private volatile ChainCache cache = new ChainCache();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * 创建通知链工厂
+     * @param advised 代理配置
+     */
+    public AdvisorChainFactory(AdvisedSupport advised) {
+        this.advised = advised;
+    }
+
+    /**
+     * 获取方法的拦截器链
+     * @param method 被调用的方法
+     * @param targetClass 目标类
+     * @return 拦截器和通知数组，没有通知时返回空数组
+     */
+    public Object[] getInterceptorChain(Method method, Class<?> targetClass) {
+        ChainCache current = this.cache;
+        Object[] chain = current.chains.get(method);
+        if (chain != null) {
+            this.hitCount.increment();
+            return chain;
+        }
+        this.missCount.increment();
+        if (targetClass != null && current.warmedClasses.add(targetClass)) {
+            warm(current, targetClass);
+            chain = current.chains.get(method);
+        }
+        if (chain == null) {
+            // 非公共方法等不在预热范围内的方法单独计算
+            chain = computeChain(method, targetClass);
+            Object[] existing = current.chains.putIfAbsent(method, chain);
+            if (existing != null) {
+                chain = existing;
+            }
+        }
+        return chain;
+    }
+
+    /**
+     * 获取被调用方法在目标类上的实现方法
+     * JDK代理传入的是接口上的方法对象，通知需要看到目标类上的方法
+     * @param method 被调用的方法
+     * @param targetClass 目标类
+     * @return 目标类上签名相同的公共方法，找不到时返回被调用的方法本身
+     */
+    public Method getTargetMethod(Method method, Class<?> targetClass) {
+        ChainCache current = this.cache;
+        Method targetMethod = current.targetMethods.get(method);
+        if (targetMethod == null) {
+            targetMethod = resolveTargetMethod(method, targetClass);
+            current.targetMethods.putIfAbsent(method, targetMethod);
+        }
+        return targetMethod;
+    }
+
+    /**
+     * 为目标类及其接口的全部公共方法计算拦截器链
+     * @param targetClass 目标类
+     */
+    public void prewarm(Class<?> targetClass) {
+        ChainCache current = this.cache;
+        if (targetClass != null && current.warmedClasses.add(targetClass)) {
+            warm(current, targetClass);
+        }
+    }
+
+    /**
+     * 使缓存的拦截器链失效
+     */
+    public void invalidate() {
+        this.cache = new ChainCache();
+    }
+
+    /**
+     * 获取缓存命中次数
+     * @return 命中次数
+     */
+    public long getHitCount() {
+        return this.hitCount.sum();
+    }
+
+    /**
+     * 获取缓存未命中次数
+     * @return 未命中次数
+     */
+    public long getMissCount() {
+        return this.missCount.sum();
+    }
+
+    /**
+     * 获取当前缓存的拦截器链数量
+     * @return 拦截器链数量
+     */
+    public int getCachedChainCount() {
+        return this.cache.chains.size();
+    }
+
+    private void warm(ChainCache current, Class<?> targetClass) {
+        for (Method method : targetClass.getMethods()) {
+            current.chains.putIfAbsent(method, computeChain(method, targetClass));
+        }
+        // JDK代理传入的是接口上的方法对象
+        for (Class<?> iface : collectInterfaces(targetClass)) {
+            for (Method method : iface.getMethods()) {
+                current.chains.putIfAbsent(method, computeChain(method, targetClass));
+                current.targetMethods.putIfAbsent(method, resolveTargetMethod(method, targetClass));
+            }
+        }
+    }
+
+    /**
+     * 计算适用于方法的通知
+     * 切点与目标类或方法不匹配时，再尝试与目标类直接实现的接口及接口上的同名方法匹配
+     */
+    private Object[] computeChain(Method method, Class<?> targetClass) {
+        if (targetClass == null) {
+            targetClass = method.getDeclaringClass();
+        }
+        Class<?>[] interfaces = targetClass.getInterfaces();
+        Method[] interfaceMethods = null;
+        ArrayList<Object> interceptors = new ArrayList<>();
+        for (Advisor advisor : this.advised.getAdvisors()) {
+            if (!(advisor instanceof PointcutAdvisor)) {
+                // 如果不是PointcutAdvisor，直接添加通知
+                interceptors.add(advisor.getAdvice());
+                continue;
+            }
+            PointcutAdvisor pointcutAdvisor = (PointcutAdvisor) advisor;
+            if (!matchesClass(pointcutAdvisor.getPointcut().getClassFilter(), targetClass, interfaces)) {
+                continue;
+            }
+            MethodMatcher methodMatcher = pointcutAdvisor.getPointcut().getMethodMatcher();
+            boolean methodMatches = methodMatcher.matches(method, targetClass);
+            if (!methodMatches && interfaces.length > 0) {
+                if (interfaceMethods == null) {
+                    interfaceMethods = findInterfaceMethods(method, interfaces);
+                }
+                for (int i = 0; i < interfaces.length && !methodMatches; i++) {
+                    methodMatches = interfaceMethods[i] != null && methodMatcher.matches(interfaceMethods[i], interfaces[i]);
+                }
+            }
+            if (methodMatches) {
+                interceptors.add(advisor.getAdvice());
+            }
+        }
+        return interceptors.isEmpty() ? EMPTY_CHAIN : interceptors.toArray();
+    }
+
+    private static boolean matchesClass(ClassFilter classFilter, Class<?> targetClass, Class<?>[] interfaces) {
+        if (classFilter.matches(targetClass)) {
+            return true;
+        }
+        for (Class<?> iface : interfaces) {
+            if (classFilter.matches(iface)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 在每个接口上查找与方法签名相同的方法，没有时对应位置为null
+     */
+    private static Method[] findInterfaceMethods(Method method, Class<?>[] interfaces) {
+        Method[] interfaceMethods = new Method[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            try {
+                interfaceMethods[i] = interfaces[i].getMethod(method.getName(), method.getParameterTypes());
+            } catch (NoSuchMethodException ex) {
+                // 接口上没有这个方法，继续下一个接口
+            }
+        }
+        return interfaceMethods;
+    }
+
+    /**
+     * 在目标类上查找与方法签名相同的公共方法
+     * @param method 被调用的方法
+     * @param targetClass 目标类，为null时直接返回被调用的方法
+     * @return 目标类上的方法，找不到时返回被调用的方法
+     */
+    static Method resolveTargetMethod(Method method, Class<?> targetClass) {
+        if (targetClass == null || method.getDeclaringClass() == targetClass) {
+            return method;
+        }
+        try {
+            return targetClass.getMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException ex) {
+            return method;
+        }
+    }
+
+    private static Set<Class<?>> collectInterfaces(Class<?> targetClass) {
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> current = targetClass; current != null; current = current.getSuperclass()) {
+            for (Class<?> iface : current.getInterfaces()) {
+                interfaces.add(iface);
+            }
+        }
+        return interfaces;
+    }
+
+    /**
+     * 一代缓存：方法到拦截器链、方法到目标方法的映射和已预热的类
+     */
+    private static final class ChainCache {
+
+        final Map<Method, Object[]> chains = new ConcurrentHashMap<>(64);
+
+        final Map<Method, Method> targetMethods = new ConcurrentHashMap<>(64);
+
+        final Set<Class<?>> warmedClasses = ConcurrentHashMap.newKeySet();
+    }
+}
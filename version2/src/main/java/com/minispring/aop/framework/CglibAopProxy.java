@@ -7,7 +7,6 @@ import net.sf.cglib.proxy.MethodInterceptor;
 import net.sf.cglib.proxy.MethodProxy;
 
 import java.lang.reflect.Method;
-import java.util.List;
 
 /**
  * 基于CGLIB的AOP代理实现
@@ -50,6 +49,9 @@ public class CglibAopProxy implements AopProxy {
         enhancer.setSuperclass(targetClass);
         enhancer.setCallback(new CglibMethodInterceptor());
         
+        // 创建代理前计算好所有方法的拦截器链
+        this.advised.getAdvisorChainFactory().prewarm(targetClass);
+        
         // 创建代理实例
         return enhancer.create();
     }
@@ -70,10 +72,10 @@ public class CglibAopProxy implements AopProxy {
                 }
                 
                 // 获取方法对应的拦截器链
-                List<Object> chain = advised.getInterceptorsAndDynamicInterceptionAdvice(method, target.getClass());
+                Object[] chain = advised.getInterceptorChain(method, target.getClass());
                 
                 // 如果没有拦截器，直接调用目标方法
-                if (chain.isEmpty()) {
+                if (chain.length == 0) {
                     return methodProxy.invoke(target, args);
                 }
                 
@@ -116,7 +118,7 @@ public class CglibAopProxy implements AopProxy {
      * @return 调用结果
      * @throws Throwable 如果处理过程中发生异常
      */
-    private Object processInterceptors(List<Object> chain, ReflectiveMethodInvocation invocation) throws Throwable {
+    private Object processInterceptors(Object[] chain, ReflectiveMethodInvocation invocation) throws Throwable {
         Object returnValue = null;
         
         // 前置通知处理
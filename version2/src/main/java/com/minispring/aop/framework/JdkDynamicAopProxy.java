@@ -1,13 +1,12 @@
 package com.minispring.aop.framework;
 
-import com.minispring.aop.Advice;
 import com.minispring.aop.MethodBeforeAdvice;
 import com.minispring.aop.AfterReturningAdvice;
+import com.minispring.core.invoke.Invokers;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.List;
 
 /**
  * 基于JDK动态代理的AOP代理实现
@@ -45,6 +44,9 @@ public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
                     "' does not implement any interfaces, cannot create JDK proxy");
         }
         
+        // 创建代理前计算好所有方法的拦截器链
+        this.advised.getAdvisorChainFactory().prewarm(this.advised.getTargetClass());
+        
         // 创建代理
         return Proxy.newProxyInstance(classLoader, interfaces, this);
     }
@@ -59,32 +61,22 @@ public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
                 throw new IllegalStateException("Target is null");
             }
             
-            System.out.println("JdkDynamicAopProxy.invoke: method=" + method.getName() + ", target=" + target.getClass().getName());
-            
-            // 获取目标类中的方法（而不是接口的方法）
-            Method targetMethod = null;
-            try {
-                targetMethod = target.getClass().getMethod(method.getName(), method.getParameterTypes());
-            } catch (NoSuchMethodException e) {
-                // 如果找不到方法，则使用接口方法
-                targetMethod = method;
-            }
-            
             // 获取方法对应的拦截器链
-            List<Object> chain = this.advised.getInterceptorsAndDynamicInterceptionAdvice(method, this.advised.getTargetClass());
-            System.out.println("JdkDynamicAopProxy.invoke: interceptors=" + chain.size());
+            Object[] chain = this.advised.getInterceptorChain(method, this.advised.getTargetClass());
             
             // 如果没有拦截器，直接调用目标方法
-            if (chain.isEmpty()) {
-                System.out.println("JdkDynamicAopProxy.invoke: No interceptors, direct invoke");
-                return method.invoke(target, args);
+            if (chain.length == 0) {
+                return Invokers.forMethod(method).invoke(target, args);
             }
             
-            // 创建方法调用
-            ReflectiveMethodInvocation invocation = new ReflectiveMethodInvocation(target, targetMethod, args);
+            // 获取目标类中的方法（而不是接口的方法），目标类与配置一致时使用缓存的结果
+            Class<?> targetClass = target.getClass();
+            Method targetMethod = targetClass == this.advised.getTargetClass()
+                    ? this.advised.getAdvisorChainFactory().getTargetMethod(method, targetClass)
+                    : AdvisorChainFactory.resolveTargetMethod(method, targetClass);
             
-            // 处理拦截器链
-            return processInterceptors(chain, invocation);
+            // 创建包含拦截器链的方法调用，依次执行所有拦截器和目标方法
+            return new AopMethodInvocation(target, targetMethod, args, chain).proceed();
         } finally {
             if (target != null) {
                 this.advised.getTargetSource().releaseTarget(target);
@@ -92,55 +84,34 @@ public class JdkDynamicAopProxy implements AopProxy, InvocationHandler {
         }
     }
     
-    /**
-     * 处理拦截器链
-     * @param chain 拦截器链
-     * @param invocation 方法调用
-     * @return 调用结果
-     * @throws Throwable 如果处理过程中发生异常
-     */
-    private Object processInterceptors(List<Object> chain, ReflectiveMethodInvocation invocation) throws Throwable {
-        System.out.println("Starting to process interceptor chain with " + chain.size() + " interceptors");
-        
-        // 创建一个包含拦截器链的方法调用对象
-        AopMethodInvocation methodInvocation = new AopMethodInvocation(invocation, chain);
-        
-        // 执行方法调用，这将依次执行所有拦截器和目标方法
-        return methodInvocation.proceed();
-    }
-    
     /**
      * AOP方法调用实现类，包含了拦截器链的处理逻辑
      */
     private static class AopMethodInvocation extends ReflectiveMethodInvocation {
-        private final List<Object> interceptorsAndAdvices;
+        private final Object[] interceptorsAndAdvices;
         private int currentInterceptorIndex = -1;
         
-        public AopMethodInvocation(ReflectiveMethodInvocation invocation, List<Object> interceptorsAndAdvices) {
-            super(invocation.getThis(), invocation.getMethod(), invocation.getArguments());
+        public AopMethodInvocation(Object target, Method method, Object[] arguments, Object[] interceptorsAndAdvices) {
+            super(target, method, arguments);
             this.interceptorsAndAdvices = interceptorsAndAdvices;
         }
         
         @Override
         public Object proceed() throws Throwable {
             // 所有拦截器已执行完毕，调用目标方法
-            if (this.currentInterceptorIndex == this.interceptorsAndAdvices.size() - 1) {
-                System.out.println("Invoking target method directly");
+            if (this.currentInterceptorIndex == this.interceptorsAndAdvices.length - 1) {
                 return super.proceed();
             }
             
             // 获取下一个拦截器
-            Object interceptorOrAdvice = this.interceptorsAndAdvices.get(++this.currentInterceptorIndex);
-            System.out.println("Processing interceptor: " + interceptorOrAdvice.getClass().getName());
+            Object interceptorOrAdvice = this.interceptorsAndAdvices[++this.currentInterceptorIndex];
             
             // 处理不同类型的通知
             if (interceptorOrAdvice instanceof MethodBeforeAdvice) {
-                System.out.println("Executing before advice");
                 MethodBeforeAdvice beforeAdvice = (MethodBeforeAdvice) interceptorOrAdvice;
                 beforeAdvice.before(getMethod(), getArguments(), getThis());
                 return proceed();
             } else if (interceptorOrAdvice instanceof AfterReturningAdvice) {
-                System.out.println("Executing after returning advice");
                 Object returnValue = proceed();
                 AfterReturningAdvice afterAdvice = (AfterReturningAdvice) interceptorOrAdvice;
                 afterAdvice.afterReturning(returnValue, getMethod(), getArguments(), getThis());
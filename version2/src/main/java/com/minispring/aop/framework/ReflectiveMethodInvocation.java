@@ -1,5 +1,7 @@
 package com.minispring.aop.framework;
 
+import com.minispring.core.invoke.Invokers;
+
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Method;
 
@@ -68,16 +70,11 @@ public class ReflectiveMethodInvocation implements MethodInvocation {
 
     /**
      * 调用连接点
-     * 这个方法实际执行反射调用
+     * 通过缓存的调用器调用目标方法，目标方法抛出的异常直接抛出
      * @return 方法执行结果
      * @throws Throwable 如果方法调用过程中发生异常
      */
     protected Object invokeJoinPoint() throws Throwable {
-        // 确保方法可访问
-        if (!method.isAccessible()) {
-            method.setAccessible(true);
-        }
-        // 通过反射调用目标方法
-        return method.invoke(target, arguments);
+        return Invokers.forMethod(method).invoke(target, arguments);
     }
 } 
\ No newline at end of file
@@ -1,5 +1,7 @@
 package com.minispring.beans;
 
+import com.minispring.core.invoke.Invokers;
+
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
@@ -124,7 +126,7 @@ public class BeanWrapper {
             String getterMethodName = "get" + propertyName.substring(0, 1).toUpperCase() + propertyName.substring(1);
             try {
                 Method getterMethod = object.getClass().getMethod(getterMethodName);
-                return getterMethod.invoke(object);
+                return Invokers.invoke(getterMethod, object);
             } catch (NoSuchMethodException e) {
                 // 如果没有getter方法，尝试boolean类型的isXxx方法
                 if (propertyName.startsWith("is")) {
@@ -135,7 +137,7 @@ public class BeanWrapper {
                 
                 try {
                     Method isMethod = object.getClass().getMethod(getterMethodName);
-                    return isMethod.invoke(object);
+                    return Invokers.invoke(isMethod, object);
                 } catch (NoSuchMethodException e1) {
                     // 如果没有getter方法和isXxx方法，尝试直接访问字段
                     Field field = object.getClass().getDeclaredField(propertyName);
@@ -174,7 +176,7 @@ public class BeanWrapper {
             String setterMethodName = "set" + propertyName.substring(0, 1).toUpperCase() + propertyName.substring(1);
             try {
                 Method setterMethod = object.getClass().getMethod(setterMethodName, propertyType);
-                setterMethod.invoke(object, convertedValue);
+                Invokers.invoke(setterMethod, object, convertedValue);
                 return;
             } catch (NoSuchMethodException e) {
                 // 如果没有setter方法，尝试直接设置字段
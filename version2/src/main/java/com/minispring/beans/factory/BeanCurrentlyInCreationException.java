@@ -0,0 +1,30 @@
+package com.minispring.beans.factory;
+
+import com.minispring.beans.BeansException;
+
+/**
+ * Bean正在创建中异常
+ * 请求的Bean正在被其他线程创建，且继续等待会导致死锁时抛出
+ */
+public class BeanCurrentlyInCreationException extends BeansException {
+
+    private final String beanName;
+
+    /**
+     * 创建一个新的Bean正在创建中异常
+     * @param beanName 正在创建中的Bean名称
+     * @param message 异常消息
+     */
+    public BeanCurrentlyInCreationException(String beanName, String message) {
+        super(message);
+        this.beanName = beanName;
+    }
+
+    /**
+     * 获取正在创建中的Bean名称
+     * @return Bean名称
+     */
+    public String getBeanName() {
+        return this.beanName;
+    }
+}
@@ -3,6 +3,7 @@ package com.minispring.beans.factory;
 import com.minispring.beans.BeansException;
 import com.minispring.beans.factory.config.BeanPostProcessor;
 import com.minispring.beans.factory.config.Scope;
+import com.minispring.core.metrics.ApplicationStartup;
 
 /**
  * 可配置的BeanFactory接口
@@ -49,6 +50,18 @@ public interface ConfigurableBeanFactory extends HierarchicalBeanFactory {
      */
     void addBeanPostProcessor(BeanPostProcessor beanPostProcessor);
     
+    /**
+     * 设置启动过程记录器，用于记录Bean的创建步骤
+     * @param applicationStartup 启动过程记录器
+     */
+    void setApplicationStartup(ApplicationStartup applicationStartup);
+    
+    /**
+     * 获取启动过程记录器
+     * @return 启动过程记录器，默认为{@link ApplicationStartup#DEFAULT}
+     */
+    ApplicationStartup getApplicationStartup();
+    
     /**
      * 销毁单例Bean
      */
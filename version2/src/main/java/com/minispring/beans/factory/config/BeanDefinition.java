@@ -24,6 +24,9 @@ public class BeanDefinition {
     // 是否需要作用域代理
     private boolean scopedProxy = false;
     
+    // 需要先于当前Bean初始化的Bean名称
+    private String[] dependsOn;
+    
     // 自定义属性容器
     private final Map<String, Object> attributes = new HashMap<>();
 
@@ -125,6 +128,22 @@ public class BeanDefinition {
         return this.scopedProxy;
     }
     
+    /**
+     * 设置当前Bean依赖的Bean名称，这些Bean会先于当前Bean初始化
+     * @param dependsOn 依赖的Bean名称
+     */
+    public void setDependsOn(String... dependsOn) {
+        this.dependsOn = dependsOn;
+    }
+    
+    /**
+     * 获取当前Bean依赖的Bean名称
+     * @return 依赖的Bean名称，没有时返回null
+     */
+    public String[] getDependsOn() {
+        return this.dependsOn;
+    }
+    
     /**
      * 设置自定义属性
      * @param name 属性名
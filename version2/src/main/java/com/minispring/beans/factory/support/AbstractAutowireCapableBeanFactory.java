@@ -15,6 +15,8 @@ import com.minispring.beans.factory.config.BeanDefinition;
 import com.minispring.beans.factory.config.BeanPostProcessor;
 import com.minispring.beans.factory.config.BeanReference;
 import com.minispring.beans.factory.support.ConstructorResolver.BeanInstantiationContext;
+import com.minispring.core.invoke.Invokers;
+import com.minispring.core.metrics.StartupStep;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
@@ -58,9 +60,12 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
     @Override
     protected Object createBean(String beanName, BeanDefinition beanDefinition, Object[] args) throws BeansException {
         Object bean = null;
+        StartupStep creation = getApplicationStartup().start("beans.instantiate").tag("beanName", beanName);
         try {
             // 创建Bean实例
+            StartupStep step = getApplicationStartup().start("beans.create-instance").tag("beanName", beanName);
             bean = createBeanInstance(beanDefinition, beanName, args);
+            step.end();
             
             // 处理循环依赖，将实例化后的Bean对象提前放入三级缓存
             // 只有单例且允许循环依赖的Bean才会进行提前暴露
@@ -74,12 +79,19 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
             BeanWrapper beanWrapper = new BeanWrapper(bean);
             
             // 填充Bean属性
+            step = getApplicationStartup().start("beans.populate").tag("beanName", beanName);
             applyPropertyValues(beanName, bean, beanDefinition, beanWrapper);
+            step.end();
             
             // 执行Bean的初始化方法和BeanPostProcessor的前置和后置处理
+            step = getApplicationStartup().start("beans.initialize").tag("beanName", beanName);
             bean = initializeBean(beanName, bean, beanDefinition);
+            step.end();
         } catch (Exception e) {
             throw new BeansException("创建Bean失败: " + beanName, e);
+        } finally {
+            // 创建失败时未结束的子步骤随外层步骤一起丢弃
+            creation.end();
         }
         
         // 注册销毁方法回调
@@ -207,9 +219,9 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
         if (initMethodName != null && !initMethodName.isEmpty() && 
                 !(bean instanceof InitializingBean && "afterPropertiesSet".equals(initMethodName))) {
             try {
-                // 通过反射执行初始化方法
+                // 通过缓存的调用器执行初始化方法
                 Method initMethod = bean.getClass().getMethod(initMethodName);
-                initMethod.invoke(bean);
+                Invokers.invoke(initMethod, bean);
                 System.out.println("执行Bean[" + beanName + "]的自定义初始化方法：" + initMethodName);
             } catch (NoSuchMethodException e) {
                 throw new BeansException("找不到Bean[" + beanName + "]的初始化方法：" + initMethodName, e);
@@ -227,7 +239,12 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
     public Object applyBeanPostProcessorsBeforeInitialization(Object existingBean, String beanName) throws BeansException {
         Object result = existingBean;
         for (BeanPostProcessor processor : getBeanPostProcessors()) {
+            StartupStep postProcess = getApplicationStartup().start("beans.post-process")
+                    .tag("beanName", beanName)
+                    .tag("postProcessor", processor.getClass().getName())
+                    .tag("phase", "before-initialization");
             Object current = processor.postProcessBeforeInitialization(result, beanName);
+            postProcess.end();
             if (current == null) {
                 return result;
             }
@@ -246,7 +263,12 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
     public Object applyBeanPostProcessorsAfterInitialization(Object existingBean, String beanName) throws BeansException {
         Object result = existingBean;
         for (BeanPostProcessor processor : getBeanPostProcessors()) {
+            StartupStep postProcess = getApplicationStartup().start("beans.post-process")
+                    .tag("beanName", beanName)
+                    .tag("postProcessor", processor.getClass().getName())
+                    .tag("phase", "after-initialization");
             Object current = processor.postProcessAfterInitialization(result, beanName);
+            postProcess.end();
             if (current == null) {
                 return result;
             }
@@ -5,6 +5,7 @@ import com.minispring.beans.factory.BeanFactory;
 import com.minispring.beans.factory.ObjectFactory;
 import com.minispring.beans.factory.config.BeanDefinition;
 import com.minispring.beans.factory.config.BeanPostProcessor;
+import com.minispring.core.metrics.ApplicationStartup;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -19,6 +20,9 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
     /** BeanPostProcessor列表 */
     private final List<BeanPostProcessor> beanPostProcessors = new ArrayList<>();
 
+    /** 启动过程记录器 */
+    private volatile ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
     @Override
     public Object getBean(String name) throws BeansException {
         return doGetBean(name, null, null);
@@ -62,6 +66,25 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
         return this.beanPostProcessors;
     }
     
+    /**
+     * 设置启动过程记录器
+     * @param applicationStartup 启动过程记录器
+     */
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        if (applicationStartup == null) {
+            throw new IllegalArgumentException("ApplicationStartup不能为空");
+        }
+        this.applicationStartup = applicationStartup;
+    }
+    
+    /**
+     * 获取启动过程记录器
+     * @return 启动过程记录器
+     */
+    public ApplicationStartup getApplicationStartup() {
+        return this.applicationStartup;
+    }
+    
     /**
      * 执行BeanPostProcessor的前置处理
      * @param existingBean 现有的Bean实例
@@ -98,6 +121,18 @@ public abstract class AbstractBeanFactory extends DefaultSingletonBeanRegistry i
         // 如果没有，则创建Bean实例
         BeanDefinition beanDefinition = getBeanDefinition(name);
         
+        // 先初始化depends-on声明的Bean
+        String[] dependsOn = beanDefinition.getDependsOn();
+        if (dependsOn != null) {
+            for (String dependency : dependsOn) {
+                if (isDependent(name, dependency)) {
+                    throw new BeansException("Bean[" + name + "]与Bean[" + dependency + "]之间存在循环的depends-on关系");
+                }
+                registerDependentBean(dependency, name);
+                getBean(dependency);
+            }
+        }
+        
         if (beanDefinition.isSingleton()) {
             // 对于单例Bean，使用getSingleton方法创建并缓存
             bean = getSingleton(name, new ObjectFactory<Object>() {
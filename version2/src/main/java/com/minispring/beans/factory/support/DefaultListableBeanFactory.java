@@ -4,10 +4,19 @@ import com.minispring.beans.BeansException;
 import com.minispring.beans.factory.BeanFactory;
 import com.minispring.beans.factory.ConfigurableListableBeanFactory;
 import com.minispring.beans.factory.config.BeanDefinition;
+import com.minispring.beans.PropertyValue;
 import com.minispring.beans.factory.config.BeanPostProcessor;
+import com.minispring.beans.factory.config.BeanReference;
 import com.minispring.beans.factory.config.Scope;
 
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -15,6 +24,8 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * 默认的可列表Bean工厂实现
  * 支持单例和原型Bean，并提供Bean定义注册功能
+ * 按类型查找通过类型索引完成，耗时只与匹配的Bean数量相关
+ * 可选按依赖图并行预实例化单例，存在循环依赖的Bean退化为在同一线程上串行创建
  */
 public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFactory implements BeanDefinitionRegistry, ConfigurableListableBeanFactory {
 
@@ -32,10 +43,50 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
      * 作用域容器
      */
     private final Map<String, Scope> scopes = new ConcurrentHashMap<>(8);
+    
+    /**
+     * 类型索引：Bean类及其所有超类、接口到Bean名称的映射，按注册顺序排列
+     */
+    private final Map<Class<?>, Set<String>> beanNamesByType = new HashMap<>(256);
+    
+    /**
+     * 每个Bean名称当前写入类型索引的类型，用于替换Bean定义时增量更新
+     */
+    private final Map<String, Set<Class<?>>> indexedTypesByName = new HashMap<>(256);
+    
+    /**
+     * 按类型缓存的查询结果，类型索引变化时清空
+     */
+    private final Map<Class<?>, String[]> beanNamesForTypeCache = new ConcurrentHashMap<>(64);
+    
+    /**
+     * 是否按依赖图并行预实例化单例
+     */
+    private volatile boolean parallelPreInstantiation = false;
+    
+    /**
+     * 并行预实例化的并行度
+     */
+    private volatile int preInstantiationParallelism = Runtime.getRuntime().availableProcessors();
 
     @Override
     public void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) {
         beanDefinitionMap.put(beanName, beanDefinition);
+        updateTypeIndex(beanName, beanDefinition.getBeanClass());
+    }
+    
+    /**
+     * 注册单例Bean
+     * 没有对应BeanDefinition的外部单例按实例类型写入类型索引
+     * @param beanName Bean名称
+     * @param singletonObject 单例Bean
+     */
+    @Override
+    public void registerSingleton(String beanName, Object singletonObject) {
+        super.registerSingleton(beanName, singletonObject);
+        if (!containsBeanDefinition(beanName)) {
+            updateTypeIndex(beanName, singletonObject.getClass());
+        }
     }
 
     @Override
@@ -63,10 +114,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
      * @return Bean名称数组
      */
     public String[] getBeanNamesForType(Class<?> type) {
-        return beanDefinitionMap.entrySet().stream()
-                .filter(entry -> type.isAssignableFrom(entry.getValue().getBeanClass()))
-                .map(Map.Entry::getKey)
-                .toArray(String[]::new);
+        return getCachedBeanNamesForType(type).clone();
     }
     
     /**
@@ -90,29 +138,166 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 
     @Override
     public <T> Map<String, T> getBeansOfType(Class<T> type) throws BeansException {
-        Map<String, T> result = new HashMap<>();
-        for (Map.Entry<String, BeanDefinition> entry : beanDefinitionMap.entrySet()) {
-            String beanName = entry.getKey();
-            BeanDefinition beanDefinition = entry.getValue();
-            Class<?> beanClass = beanDefinition.getBeanClass();
-            
-            if (type.isAssignableFrom(beanClass)) {
-                T bean = (T) getBean(beanName);
-                result.put(beanName, bean);
-            }
+        String[] beanNames = getCachedBeanNamesForType(type);
+        Map<String, T> result = new LinkedHashMap<>(beanNames.length * 2);
+        for (String beanName : beanNames) {
+            T bean = (T) getBean(beanName);
+            result.put(beanName, bean);
         }
         return result;
     }
     
+    /**
+     * 从类型索引中查询匹配的Bean名称
+     * 返回的数组是缓存中的共享实例，调用方不能修改
+     * @param type Bean类型
+     * @return Bean名称数组
+     */
+    private String[] getCachedBeanNamesForType(Class<?> type) {
+        String[] beanNames = beanNamesForTypeCache.get(type);
+        if (beanNames == null) {
+            synchronized (beanNamesByType) {
+                Set<String> indexed = beanNamesByType.get(type);
+                beanNames = indexed != null ? indexed.toArray(new String[0]) : new String[0];
+                beanNamesForTypeCache.put(type, beanNames);
+            }
+        }
+        return beanNames;
+    }
+    
+    /**
+     * 更新Bean在类型索引中的类型集合
+     * @param beanName Bean名称
+     * @param beanClass Bean的类型
+     */
+    private void updateTypeIndex(String beanName, Class<?> beanClass) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        collectTypes(beanClass, types);
+        synchronized (beanNamesByType) {
+            Set<Class<?>> previous = indexedTypesByName.put(beanName, types);
+            if (types.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                for (Class<?> type : previous) {
+                    if (!types.contains(type)) {
+                        beanNamesByType.get(type).remove(beanName);
+                    }
+                }
+            }
+            for (Class<?> type : types) {
+                beanNamesByType.computeIfAbsent(type, key -> new LinkedHashSet<>()).add(beanName);
+            }
+            beanNamesForTypeCache.clear();
+        }
+    }
+    
+    /**
+     * 收集类型本身及其所有超类和接口
+     * @param type 类型
+     * @param types 收集结果
+     */
+    private static void collectTypes(Class<?> type, Set<Class<?>> types) {
+        if (type == null || !types.add(type)) {
+            return;
+        }
+        collectTypes(type.getSuperclass(), types);
+        for (Class<?> ifc : type.getInterfaces()) {
+            collectTypes(ifc, types);
+        }
+    }
+    
     @Override
     public void preInstantiateSingletons() throws BeansException {
         // 预初始化所有非懒加载的单例Bean
+        List<String> beanNames = new ArrayList<>();
         for (String beanName : getBeanDefinitionNames()) {
             BeanDefinition beanDefinition = getBeanDefinition(beanName);
             if (beanDefinition.isSingleton()) {
-                getBean(beanName);
+                beanNames.add(beanName);
+            }
+        }
+        
+        int parallelism = this.preInstantiationParallelism;
+        if (this.parallelPreInstantiation && parallelism > 1 && beanNames.size() > 1) {
+            new ParallelSingletonInstantiator(beanNames, this::getDeclaredDependencies,
+                    beanName -> getBean(beanName), parallelism).instantiate();
+            return;
+        }
+        for (String beanName : beanNames) {
+            getBean(beanName);
+        }
+    }
+    
+    /**
+     * 设置是否按依赖图并行预实例化单例，默认关闭
+     * 依赖关系来自depends-on、属性中的Bean引用、构造函数参数以及已注册的依赖关系，
+     * 初始化过程中通过getBean动态查找其他Bean的，需要用depends-on声明
+     * @param parallelPreInstantiation 是否并行
+     */
+    public void setParallelPreInstantiation(boolean parallelPreInstantiation) {
+        this.parallelPreInstantiation = parallelPreInstantiation;
+    }
+    
+    /**
+     * 是否按依赖图并行预实例化单例
+     * @return 是否并行
+     */
+    public boolean isParallelPreInstantiation() {
+        return this.parallelPreInstantiation;
+    }
+    
+    /**
+     * 设置并行预实例化的并行度，默认为可用处理器数
+     * @param parallelism 并行度，小于等于1时退化为串行
+     */
+    public void setPreInstantiationParallelism(int parallelism) {
+        this.preInstantiationParallelism = parallelism;
+    }
+    
+    /**
+     * 获取并行预实例化的并行度
+     * @return 并行度
+     */
+    public int getPreInstantiationParallelism() {
+        return this.preInstantiationParallelism;
+    }
+    
+    /**
+     * 从Bean定义中静态分析出的依赖，用于构建并行预实例化的依赖图
+     * 构造函数按所有候选构造函数的参数取并集：多出的依赖只会降低并行度，不影响正确性
+     * @param beanName Bean名称
+     * @return 依赖的Bean名称
+     */
+    private Set<String> getDeclaredDependencies(String beanName) {
+        BeanDefinition beanDefinition = getBeanDefinition(beanName);
+        Set<String> dependencies = new LinkedHashSet<>();
+        Collections.addAll(dependencies, getDependenciesForBean(beanName));
+        
+        if (beanDefinition.getDependsOn() != null) {
+            Collections.addAll(dependencies, beanDefinition.getDependsOn());
+        }
+        for (PropertyValue propertyValue : beanDefinition.getPropertyValues().getPropertyValues()) {
+            if (propertyValue.getValue() instanceof BeanReference) {
+                dependencies.add(((BeanReference) propertyValue.getValue()).getBeanName());
+            }
+        }
+        Class<?> beanClass = beanDefinition.getBeanClass();
+        if (beanClass != null) {
+            for (Constructor<?> constructor : beanClass.getDeclaredConstructors()) {
+                for (Parameter parameter : constructor.getParameters()) {
+                    Class<?> type = parameter.getType();
+                    if (containsBeanDefinition(parameter.getName())) {
+                        dependencies.add(parameter.getName());
+                    }
+                    if (!type.isPrimitive() && type != String.class) {
+                        Collections.addAll(dependencies, getCachedBeanNamesForType(type));
+                    }
+                }
             }
         }
+        dependencies.remove(beanName);
+        return dependencies;
     }
     
     @Override
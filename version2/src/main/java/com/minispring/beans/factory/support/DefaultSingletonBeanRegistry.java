@@ -1,19 +1,28 @@
 package com.minispring.beans.factory.support;
 
 import com.minispring.beans.BeansException;
+import com.minispring.beans.factory.BeanCurrentlyInCreationException;
 import com.minispring.beans.factory.DisposableBean;
 import com.minispring.beans.factory.ObjectFactory;
 import com.minispring.beans.factory.config.SingletonBeanRegistry;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 默认单例Bean注册表实现
  * 实现SingletonBeanRegistry接口，提供单例Bean的注册和获取功能
+ * 每个单例有各自的创建锁，不同的Bean可以在多个线程上同时创建，
+ * 早期引用只暴露给正在创建该Bean的线程
  */
 public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
 
@@ -34,6 +43,21 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
      * 使用LinkedHashMap保证销毁顺序与注册顺序相反
      */
     private final Map<String, DisposableBean> disposableBeans = new LinkedHashMap<>();
+    
+    /** 每个单例各自的创建锁，嵌套创建依赖时由同一线程重入 */
+    private final Map<String, SingletonCreationLock> singletonCreationLocks = new ConcurrentHashMap<>(256);
+    
+    /** 正在等待创建锁的线程及其等待的Bean名称，用于检测死锁 */
+    private final Map<Thread, String> threadsAwaitingCreation = new ConcurrentHashMap<>(16);
+    
+    /** 等待创建锁时检查死锁的间隔（毫秒） */
+    private static final long CREATION_LOCK_CHECK_INTERVAL_MILLIS = 50;
+    
+    /** Bean名称到依赖它的Bean名称集合 */
+    private final Map<String, Set<String>> dependentBeanMap = new ConcurrentHashMap<>(64);
+    
+    /** Bean名称到它所依赖的Bean名称集合 */
+    private final Map<String, Set<String>> dependenciesForBeanMap = new ConcurrentHashMap<>(64);
 
     /**
      * 获取单例Bean
@@ -47,8 +71,10 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
         // 首先从一级缓存中获取
         Object singletonObject = singletonObjects.get(beanName);
         
-        // 如果一级缓存中没有，并且该Bean正在创建中（可能存在循环依赖）
-        if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)) {
+        // 如果一级缓存中没有，并且该Bean正在当前线程上创建（可能存在循环依赖）
+        // 其他线程不能拿到早期引用，需要等待创建完成
+        if (singletonObject == null && isSingletonCurrentlyInCreation(beanName)
+                && isCreationLockHeldByCurrentThread(beanName)) {
             synchronized (this.singletonObjects) {
                 // 从二级缓存中获取
                 singletonObject = earlySingletonObjects.get(beanName);
@@ -79,8 +105,9 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
      * @return 单例Bean
      */
     public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
-        synchronized (this.singletonObjects) {
-            // 首先检查一级缓存
+        SingletonCreationLock creationLock = acquireCreationLock(beanName);
+        try {
+            // 首先检查一级缓存，等待锁期间可能已由其他线程创建完成
             Object singletonObject = this.singletonObjects.get(beanName);
             if (singletonObject == null) {
                 
@@ -93,6 +120,11 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
                     singletonObject = singletonFactory.getObject();
                     newSingleton = true;
                 } catch (Exception ex) {
+                    // 丢弃已提前曝光的早期引用，后续重新创建
+                    synchronized (this.singletonObjects) {
+                        this.singletonFactories.remove(beanName);
+                        this.earlySingletonObjects.remove(beanName);
+                    }
                     throw new BeansException("创建单例Bean[" + beanName + "]失败", ex);
                 } finally {
                     // 清除正在创建标记
@@ -106,9 +138,74 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
             }
             
             return singletonObject;
+        } finally {
+            creationLock.unlock();
+        }
+    }
+    
+    /**
+     * 获取单例的创建锁
+     * 锁被其他线程持有时定期检查等待环，当前线程处在环上时抛出异常而不是一直等待
+     * 
+     * @param beanName Bean名称
+     * @return 已加锁的创建锁
+     */
+    private SingletonCreationLock acquireCreationLock(String beanName) {
+        SingletonCreationLock creationLock =
+                this.singletonCreationLocks.computeIfAbsent(beanName, key -> new SingletonCreationLock());
+        if (creationLock.tryLock()) {
+            return creationLock;
+        }
+        Thread currentThread = Thread.currentThread();
+        this.threadsAwaitingCreation.put(currentThread, beanName);
+        try {
+            do {
+                checkForCreationDeadlock(beanName, currentThread);
+            } while (!creationLock.tryLock(CREATION_LOCK_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS));
+            return creationLock;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BeansException("等待单例Bean[" + beanName + "]创建时被中断", ex);
+        } finally {
+            this.threadsAwaitingCreation.remove(currentThread);
+        }
+    }
+    
+    /**
+     * 沿着“创建锁持有者正在等待的Bean”逐级查找，回到当前线程说明出现了死锁
+     * 
+     * @param beanName 当前线程等待的Bean名称
+     * @param currentThread 当前线程
+     */
+    private void checkForCreationDeadlock(String beanName, Thread currentThread) {
+        List<String> chain = new ArrayList<>();
+        String awaited = beanName;
+        while (awaited != null && !chain.contains(awaited)) {
+            chain.add(awaited);
+            SingletonCreationLock creationLock = this.singletonCreationLocks.get(awaited);
+            Thread owner = creationLock != null ? creationLock.getOwnerThread() : null;
+            if (owner == null) {
+                return;
+            }
+            if (owner == currentThread) {
+                throw new BeanCurrentlyInCreationException(beanName,
+                        "Bean[" + beanName + "]正在其他线程上创建，且该线程在等待当前线程: " + String.join(" -> ", chain));
+            }
+            awaited = this.threadsAwaitingCreation.get(owner);
         }
     }
     
+    /**
+     * 当前线程是否持有指定Bean的创建锁
+     * 
+     * @param beanName Bean名称
+     * @return 是否持有
+     */
+    protected boolean isCreationLockHeldByCurrentThread(String beanName) {
+        SingletonCreationLock creationLock = this.singletonCreationLocks.get(beanName);
+        return creationLock != null && creationLock.isHeldByCurrentThread();
+    }
+    
     /**
      * 添加单例Bean到一级缓存，并清除二三级缓存
      * 
@@ -186,7 +283,80 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
      * @param bean 需要销毁的Bean
      */
     public void registerDisposableBean(String beanName, DisposableBean bean) {
-        disposableBeans.put(beanName, bean);
+        synchronized (this.disposableBeans) {
+            disposableBeans.put(beanName, bean);
+        }
+    }
+    
+    /**
+     * 注册依赖关系：dependentBeanName依赖于beanName
+     * 
+     * @param beanName 被依赖的Bean名称
+     * @param dependentBeanName 依赖它的Bean名称
+     */
+    public void registerDependentBean(String beanName, String dependentBeanName) {
+        synchronized (this.dependentBeanMap) {
+            this.dependentBeanMap.computeIfAbsent(beanName, key -> new LinkedHashSet<>()).add(dependentBeanName);
+            this.dependenciesForBeanMap.computeIfAbsent(dependentBeanName, key -> new LinkedHashSet<>()).add(beanName);
+        }
+    }
+    
+    /**
+     * 判断dependentBeanName是否直接或间接依赖于beanName
+     * 
+     * @param beanName Bean名称
+     * @param dependentBeanName 可能依赖于它的Bean名称
+     * @return 存在依赖关系返回true
+     */
+    protected boolean isDependent(String beanName, String dependentBeanName) {
+        synchronized (this.dependentBeanMap) {
+            return isDependent(beanName, dependentBeanName, new HashSet<>());
+        }
+    }
+    
+    private boolean isDependent(String beanName, String dependentBeanName, Set<String> visited) {
+        if (!visited.add(beanName)) {
+            return false;
+        }
+        Set<String> dependentBeans = this.dependentBeanMap.get(beanName);
+        if (dependentBeans == null) {
+            return false;
+        }
+        if (dependentBeans.contains(dependentBeanName)) {
+            return true;
+        }
+        for (String dependentBean : dependentBeans) {
+            if (isDependent(dependentBean, dependentBeanName, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 获取依赖于指定Bean的Bean名称
+     * 
+     * @param beanName Bean名称
+     * @return 依赖它的Bean名称数组
+     */
+    public String[] getDependentBeans(String beanName) {
+        synchronized (this.dependentBeanMap) {
+            Set<String> dependentBeans = this.dependentBeanMap.get(beanName);
+            return dependentBeans != null ? dependentBeans.toArray(new String[0]) : new String[0];
+        }
+    }
+    
+    /**
+     * 获取指定Bean所依赖的Bean名称
+     * 
+     * @param beanName Bean名称
+     * @return 它依赖的Bean名称数组
+     */
+    public String[] getDependenciesForBean(String beanName) {
+        synchronized (this.dependentBeanMap) {
+            Set<String> dependencies = this.dependenciesForBeanMap.get(beanName);
+            return dependencies != null ? dependencies.toArray(new String[0]) : new String[0];
+        }
     }
     
     /**
@@ -194,13 +364,18 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
      * 按照注册的相反顺序销毁Bean
      */
     public void destroySingletons() {
-        Set<String> beanNames = disposableBeans.keySet();
-        String[] disposableBeanNames = beanNames.toArray(new String[0]);
+        String[] disposableBeanNames;
+        synchronized (this.disposableBeans) {
+            disposableBeanNames = disposableBeans.keySet().toArray(new String[0]);
+        }
         
         // 按照注册的相反顺序销毁Bean
         for (int i = disposableBeanNames.length - 1; i >= 0; i--) {
             String beanName = disposableBeanNames[i];
-            DisposableBean disposableBean = disposableBeans.remove(beanName);
+            DisposableBean disposableBean;
+            synchronized (this.disposableBeans) {
+                disposableBean = disposableBeans.remove(beanName);
+            }
             try {
                 disposableBean.destroy();
             } catch (Exception e) {
@@ -209,10 +384,16 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
         }
         
         // 清空所有缓存
-        this.singletonObjects.clear();
-        this.earlySingletonObjects.clear();
-        this.singletonFactories.clear();
+        synchronized (this.singletonObjects) {
+            this.singletonObjects.clear();
+            this.earlySingletonObjects.clear();
+            this.singletonFactories.clear();
+        }
         this.singletonsCurrentlyInCreation.clear();
+        synchronized (this.dependentBeanMap) {
+            this.dependentBeanMap.clear();
+            this.dependenciesForBeanMap.clear();
+        }
     }
 
     /**
@@ -239,4 +420,14 @@ public class DefaultSingletonBeanRegistry implements SingletonBeanRegistry {
     protected int getSingletonCount() {
         return singletonObjects.size();
     }
-}
\ No newline at end of file
+    
+    /**
+     * 单例创建锁，暴露持有线程用于死锁检测
+     */
+    private static final class SingletonCreationLock extends ReentrantLock {
+        
+        Thread getOwnerThread() {
+            return getOwner();
+        }
+    }
+}
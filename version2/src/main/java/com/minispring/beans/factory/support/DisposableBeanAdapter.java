@@ -2,6 +2,7 @@ package com.minispring.beans.factory.support;
 
 import com.minispring.beans.BeansException;
 import com.minispring.beans.factory.DisposableBean;
+import com.minispring.core.invoke.Invokers;
 
 import java.lang.reflect.Method;
 
@@ -31,7 +32,7 @@ public class DisposableBeanAdapter implements DisposableBean {
     /**
      * 执行Bean的销毁方法
      * 1. 如果Bean实现了DisposableBean接口，则调用其destroy方法
-     * 2. 如果Bean配置了destroy-method，则通过反射调用该方法
+     * 2. 如果Bean配置了destroy-method，则通过缓存的调用器调用该方法
      */
     @Override
     public void destroy() throws Exception {
@@ -41,11 +42,11 @@ public class DisposableBeanAdapter implements DisposableBean {
             System.out.println("执行Bean[" + beanName + "]的DisposableBean接口的destroy方法");
         }
         
-        // 2. 如果Bean配置了destroy-method且不是DisposableBean接口中的方法，则通过反射调用该方法
+        // 2. 如果Bean配置了destroy-method且不是DisposableBean接口中的方法，则调用该方法
         if (destroyMethodName != null && !(bean instanceof DisposableBean && "destroy".equals(destroyMethodName))) {
             try {
                 Method destroyMethod = bean.getClass().getMethod(destroyMethodName);
-                destroyMethod.invoke(bean);
+                Invokers.invoke(destroyMethod, bean);
                 System.out.println("执行Bean[" + beanName + "]的自定义销毁方法：" + destroyMethodName);
             } catch (NoSuchMethodException e) {
                 throw new BeansException("找不到Bean[" + beanName + "]的销毁方法：" + destroyMethodName, e);
@@ -0,0 +1,204 @@
+package com.minispring.beans.factory.support;
+
+import com.minispring.beans.factory.BeanCurrentlyInCreationException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 按依赖图并行预实例化单例
+ * 先用Tarjan算法求依赖图的强连通分量，得到缩点后的DAG，
+ * 每个分量在所有依赖的分量完成后提交到ForkJoinPool执行；
+ * 同一分量内互相循环依赖的Bean在同一个线程上按定义顺序串行创建，沿用早期引用解决循环依赖。
+ * 并行阶段结束后按定义顺序再串行检查一遍，补齐因未声明的依赖在并发创建中让步的Bean
+ */
+final class ParallelSingletonInstantiator {
+
+    private final List<String> beanNames;
+
+    private final Function<String, Collection<String>> dependencyResolver;
+
+    private final Consumer<String> instantiator;
+
+    private final int parallelism;
+
+    /**
+     * @param beanNames 需要预实例化的Bean名称，按定义顺序
+     * @param dependencyResolver 返回Bean声明的依赖，不在beanNames中的名称会被忽略
+     * @param instantiator 创建单个Bean
+     * @param parallelism 并行度
+     */
+    ParallelSingletonInstantiator(List<String> beanNames, Function<String, Collection<String>> dependencyResolver,
+                                  Consumer<String> instantiator, int parallelism) {
+        this.beanNames = beanNames;
+        this.dependencyResolver = dependencyResolver;
+        this.instantiator = instantiator;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * 执行预实例化，任一Bean创建失败时按定义顺序抛出第一个失败
+     */
+    void instantiate() {
+        int[][] edges = buildDependencyGraph();
+        List<int[]> components = stronglyConnectedComponents(edges);
+        int[] componentOf = new int[edges.length];
+        for (int c = 0; c < components.size(); c++) {
+            for (int member : components.get(c)) {
+                componentOf[member] = c;
+            }
+        }
+
+        Map<String, RuntimeException> failures = new ConcurrentHashMap<>();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[components.size()];
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        try {
+            // Tarjan算法按逆拓扑序输出分量，依赖的分量总是先于当前分量生成
+            for (int c = 0; c < components.size(); c++) {
+                int[] members = components.get(c);
+                Set<Integer> dependencies = new LinkedHashSet<>();
+                for (int member : members) {
+                    for (int dependency : edges[member]) {
+                        if (componentOf[dependency] != c) {
+                            dependencies.add(componentOf[dependency]);
+                        }
+                    }
+                }
+                Runnable task = () -> {
+                    for (int member : members) {
+                        String beanName = this.beanNames.get(member);
+                        try {
+                            this.instantiator.accept(beanName);
+                        } catch (RuntimeException ex) {
+                            failures.put(beanName, ex);
+                            throw ex;
+                        }
+                    }
+                };
+                if (dependencies.isEmpty()) {
+                    futures[c] = CompletableFuture.runAsync(task, pool);
+                } else {
+                    CompletableFuture<?>[] upstream = new CompletableFuture<?>[dependencies.size()];
+                    int i = 0;
+                    for (int dependency : dependencies) {
+                        upstream[i++] = futures[dependency];
+                    }
+                    futures[c] = CompletableFuture.allOf(upstream).thenRunAsync(task, pool);
+                }
+            }
+            // 等待所有任务结束，失败的分量及其下游统一在后面处理
+            CompletableFuture.allOf(futures).handle((result, ex) -> null).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        for (String beanName : this.beanNames) {
+            RuntimeException failure = failures.get(beanName);
+            if (failure != null && !isCreationConflict(failure)) {
+                throw failure;
+            }
+        }
+        for (String beanName : this.beanNames) {
+            this.instantiator.accept(beanName);
+        }
+    }
+
+    private int[][] buildDependencyGraph() {
+        Map<String, Integer> positions = new HashMap<>(this.beanNames.size() * 2);
+        for (int i = 0; i < this.beanNames.size(); i++) {
+            positions.put(this.beanNames.get(i), i);
+        }
+        int[][] edges = new int[this.beanNames.size()][];
+        for (int i = 0; i < edges.length; i++) {
+            Set<Integer> targets = new LinkedHashSet<>();
+            for (String dependency : this.dependencyResolver.apply(this.beanNames.get(i))) {
+                Integer target = positions.get(dependency);
+                if (target != null && target != i) {
+                    targets.add(target);
+                }
+            }
+            edges[i] = targets.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return edges;
+    }
+
+    /**
+     * 迭代版Tarjan算法，避免依赖链很长时栈溢出
+     * 分量内的成员按定义顺序排列
+     */
+    private static List<int[]> stronglyConnectedComponents(int[][] edges) {
+        int n = edges.length;
+        int[] index = new int[n];
+        int[] lowLink = new int[n];
+        int[] edgeCursor = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] callStack = new int[n];
+        Arrays.fill(index, -1);
+
+        List<int[]> components = new ArrayList<>();
+        int counter = 0;
+        int sp = 0;
+        for (int root = 0; root < n; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+            int csp = 0;
+            callStack[csp++] = root;
+            index[root] = lowLink[root] = counter++;
+            stack[sp++] = root;
+            onStack[root] = true;
+            while (csp > 0) {
+                int v = callStack[csp - 1];
+                if (edgeCursor[v] < edges[v].length) {
+                    int w = edges[v][edgeCursor[v]++];
+                    if (index[w] == -1) {
+                        index[w] = lowLink[w] = counter++;
+                        stack[sp++] = w;
+                        onStack[w] = true;
+                        callStack[csp++] = w;
+                    } else if (onStack[w]) {
+                        lowLink[v] = Math.min(lowLink[v], index[w]);
+                    }
+                    continue;
+                }
+                csp--;
+                if (csp > 0) {
+                    int parent = callStack[csp - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+                }
+                if (lowLink[v] == index[v]) {
+                    int start = sp;
+                    do {
+                        onStack[stack[--start]] = false;
+                    } while (stack[start] != v);
+                    int[] members = Arrays.copyOfRange(stack, start, sp);
+                    Arrays.sort(members);
+                    components.add(members);
+                    sp = start;
+                }
+            }
+        }
+        return components;
+    }
+
+    private static boolean isCreationConflict(Throwable ex) {
+        for (Throwable current = ex; current != null; current = current.getCause()) {
+            if (current instanceof BeanCurrentlyInCreationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -31,6 +31,7 @@ public class DefaultBeanDefinitionDocumentReader implements BeanDefinitionDocume
     public static final String INIT_METHOD_ATTRIBUTE = "init-method";
     public static final String DESTROY_METHOD_ATTRIBUTE = "destroy-method";
     public static final String SCOPE_ATTRIBUTE = "scope";
+    public static final String DEPENDS_ON_ATTRIBUTE = "depends-on";
     
     /**
      * 命名空间处理器解析器
@@ -135,6 +136,7 @@ public class DefaultBeanDefinitionDocumentReader implements BeanDefinitionDocume
         String initMethodName = beanElement.attributeValue(INIT_METHOD_ATTRIBUTE);
         String destroyMethodName = beanElement.attributeValue(DESTROY_METHOD_ATTRIBUTE);
         String scope = beanElement.attributeValue(SCOPE_ATTRIBUTE);
+        String dependsOn = beanElement.attributeValue(DEPENDS_ON_ATTRIBUTE);
 
         // 获取Class对象
         Class<?> clazz;
@@ -167,6 +169,11 @@ public class DefaultBeanDefinitionDocumentReader implements BeanDefinitionDocume
             beanDefinition.setScope(scope);
         }
 
+        // 设置依赖的Bean，多个名称用逗号分隔
+        if (dependsOn != null && !dependsOn.trim().isEmpty()) {
+            beanDefinition.setDependsOn(dependsOn.trim().split("\\s*,\\s*"));
+        }
+
         // 解析property元素
         parsePropertyElements(beanElement, beanDefinition);
         
@@ -2,6 +2,7 @@ package com.minispring.context;
 
 import com.minispring.beans.BeansException;
 import com.minispring.core.env.ConfigurableEnvironment;
+import com.minispring.core.metrics.ApplicationStartup;
 
 /**
  * 可配置的ApplicationContext接口
@@ -41,4 +42,19 @@ public interface ConfigurableApplicationContext extends ApplicationContext {
      * @param environment 可配置的Environment
      */
     void setEnvironment(ConfigurableEnvironment environment);
+    
+    /**
+     * 设置启动过程记录器
+     * 需要在refresh之前设置，刷新过程中的各个阶段和Bean的创建步骤都会记录到该记录器
+     * 
+     * @param applicationStartup 启动过程记录器
+     */
+    void setApplicationStartup(ApplicationStartup applicationStartup);
+    
+    /**
+     * 获取启动过程记录器
+     * 
+     * @return 启动过程记录器
+     */
+    ApplicationStartup getApplicationStartup();
 } 
\ No newline at end of file
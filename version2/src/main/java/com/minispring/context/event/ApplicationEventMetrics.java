@@ -0,0 +1,162 @@
+package com.minispring.context.event;
+
+import com.minispring.context.ApplicationEvent;
+import com.minispring.context.ApplicationListener;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 事件多播器的运行指标
+ * 按事件类型统计发布次数，按监听器统计调用耗时分布和慢调用次数
+ *
+ * <p>通过{@link SimpleApplicationEventMulticaster#setEventMetrics}启用，未设置时多播器不做任何统计。
+ * 所有计数只增不减，发布速率由采集方按两次读取的差值计算
+ */
+public class ApplicationEventMetrics {
+
+    private final Map<Class<?>, LongAdder> publishCounts = new ConcurrentHashMap<>(64);
+
+    private final Map<String, ListenerMetrics> listenerMetrics = new ConcurrentHashMap<>(64);
+
+    /** 慢调用阈值，单位纳秒，0表示不检测 */
+    private volatile long slowListenerThresholdNanos;
+
+    /**
+     * 设置慢监听器阈值，单次调用耗时超过阈值时输出警告
+     *
+     * @param threshold 阈值，0表示不检测
+     * @param unit 时间单位
+     */
+    public void setSlowListenerThreshold(long threshold, TimeUnit unit) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Slow listener threshold must not be negative");
+        }
+        this.slowListenerThresholdNanos = unit.toNanos(threshold);
+    }
+
+    /**
+     * 获取慢监听器阈值
+     *
+     * @return 阈值，单位纳秒
+     */
+    public long getSlowListenerThresholdNanos() {
+        return this.slowListenerThresholdNanos;
+    }
+
+    /**
+     * 记录一次事件发布
+     *
+     * @param event 发布的事件
+     */
+    public void recordPublish(ApplicationEvent event) {
+        this.publishCounts.computeIfAbsent(event.getClass(), key -> new LongAdder()).increment();
+    }
+
+    /**
+     * 记录一次监听器调用
+     *
+     * @param listener 被调用的监听器
+     * @param event 处理的事件，批量调用时为批次中的第一个事件
+     * @param elapsedNanos 调用耗时，单位纳秒
+     */
+    public void recordInvocation(ApplicationListener<?> listener, ApplicationEvent event, long elapsedNanos) {
+        String listenerName = getListenerName(listener);
+        ListenerMetrics metrics = this.listenerMetrics.get(listenerName);
+        if (metrics == null) {
+            metrics = this.listenerMetrics.computeIfAbsent(listenerName, key -> new ListenerMetrics());
+        }
+        metrics.latency.record(elapsedNanos);
+        long threshold = this.slowListenerThresholdNanos;
+        if (threshold > 0 && elapsedNanos > threshold) {
+            metrics.slowInvocations.increment();
+            System.err.println("监听器[" + listenerName + "]处理事件" + event.getClass().getName() + "耗时"
+                    + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + "ms，超过慢调用阈值"
+                    + TimeUnit.NANOSECONDS.toMillis(threshold) + "ms");
+        }
+    }
+
+    /**
+     * 获取各事件类型的发布次数
+     *
+     * @return 事件类名到发布次数的映射，按类名排序
+     */
+    public Map<String, Long> getPublishCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<Class<?>, LongAdder> entry : this.publishCounts.entrySet()) {
+            counts.put(entry.getKey().getName(), entry.getValue().sum());
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * 获取指定事件类型的发布次数
+     *
+     * @param eventType 事件类型
+     * @return 发布次数
+     */
+    public long getPublishCount(Class<? extends ApplicationEvent> eventType) {
+        LongAdder count = this.publishCounts.get(eventType);
+        return count != null ? count.sum() : 0;
+    }
+
+    /**
+     * 获取各监听器的调用耗时分布
+     *
+     * @return 监听器名称到耗时直方图的映射，按名称排序；直方图是实时的，不是快照
+     */
+    public Map<String, LatencyHistogram> getListenerLatencies() {
+        Map<String, LatencyHistogram> latencies = new TreeMap<>();
+        for (Map.Entry<String, ListenerMetrics> entry : this.listenerMetrics.entrySet()) {
+            latencies.put(entry.getKey(), entry.getValue().latency);
+        }
+        return Collections.unmodifiableMap(latencies);
+    }
+
+    /**
+     * 获取指定监听器的调用耗时分布
+     *
+     * @param listenerName 监听器名称，见{@link #getListenerName}
+     * @return 耗时直方图，没有调用记录时返回null
+     */
+    public LatencyHistogram getListenerLatency(String listenerName) {
+        ListenerMetrics metrics = this.listenerMetrics.get(listenerName);
+        return metrics != null ? metrics.latency : null;
+    }
+
+    /**
+     * 获取指定监听器超过慢调用阈值的次数
+     *
+     * @param listenerName 监听器名称
+     * @return 慢调用次数
+     */
+    public long getSlowInvocationCount(String listenerName) {
+        ListenerMetrics metrics = this.listenerMetrics.get(listenerName);
+        return metrics != null ? metrics.slowInvocations.sum() : 0;
+    }
+
+    /**
+     * 获取监听器在指标中的名称
+     * 使用监听器的类名，同一个类的多个实例合并统计
+     *
+     * @param listener 监听器
+     * @return 监听器名称
+     */
+    public static String getListenerName(ApplicationListener<?> listener) {
+        return listener.getClass().getName();
+    }
+
+    /**
+     * 单个监听器的指标
+     */
+    private static final class ListenerMetrics {
+
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        final LongAdder slowInvocations = new LongAdder();
+    }
+}
@@ -24,6 +24,11 @@ public class SimpleApplicationEventMulticaster implements ApplicationEventMultic
      */
     private BeanFactory beanFactory;
     
+    /**
+     * 运行指标，为null时不做统计
+     */
+    private volatile ApplicationEventMetrics eventMetrics;
+    
     /**
      * 默认构造函数
      */
@@ -48,6 +53,24 @@ public class SimpleApplicationEventMulticaster implements ApplicationEventMultic
         this.beanFactory = beanFactory;
     }
     
+    /**
+     * 设置运行指标，设置后统计事件发布次数和监听器调用耗时
+     * 
+     * @param eventMetrics 运行指标，为null时关闭统计
+     */
+    public void setEventMetrics(ApplicationEventMetrics eventMetrics) {
+        this.eventMetrics = eventMetrics;
+    }
+    
+    /**
+     * 获取运行指标
+     * 
+     * @return 运行指标，未启用时返回null
+     */
+    public ApplicationEventMetrics getEventMetrics() {
+        return this.eventMetrics;
+    }
+    
     /**
      * 添加事件监听器
      * 
@@ -83,6 +106,10 @@ public class SimpleApplicationEventMulticaster implements ApplicationEventMultic
      */
     @Override
     public void multicastEvent(ApplicationEvent event) {
+        ApplicationEventMetrics metrics = this.eventMetrics;
+        if (metrics != null) {
+            metrics.recordPublish(event);
+        }
         for (ApplicationListener listener : getApplicationListeners(event)) {
             invokeListener(listener, event);
         }
@@ -125,11 +152,16 @@ public class SimpleApplicationEventMulticaster implements ApplicationEventMultic
      */
     @SuppressWarnings("unchecked")
     private void invokeListener(ApplicationListener listener, ApplicationEvent event) {
+        ApplicationEventMetrics metrics = this.eventMetrics;
+        long start = metrics != null ? System.nanoTime() : 0;
         try {
             listener.onApplicationEvent(event);
         } catch (Exception e) {
             // 日志记录或重新抛出异常
             System.err.println("处理事件时发生错误：" + e.getMessage());
         }
+        if (metrics != null) {
+            metrics.recordInvocation(listener, event, System.nanoTime() - start);
+        }
     }
 } 
\ No newline at end of file
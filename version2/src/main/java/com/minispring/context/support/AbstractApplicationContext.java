@@ -16,6 +16,8 @@ import com.minispring.core.env.ConfigurableEnvironment;
 import com.minispring.core.env.Environment;
 import com.minispring.core.env.StandardEnvironment;
 import com.minispring.core.io.DefaultResourceLoader;
+import com.minispring.core.metrics.ApplicationStartup;
+import com.minispring.core.metrics.StartupStep;
 
 import java.util.Collection;
 import java.util.Map;
@@ -26,6 +28,11 @@ import java.util.Map;
  */
 public abstract class AbstractApplicationContext extends DefaultResourceLoader implements ConfigurableApplicationContext {
     
+    /**
+     * 自定义事件多播器的Bean名称，未定义时使用SimpleApplicationEventMulticaster
+     */
+    public static final String APPLICATION_EVENT_MULTICASTER_BEAN_NAME = "applicationEventMulticaster";
+    
     /**
      * 应用上下文名称
      */
@@ -46,6 +53,11 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
      */
     private ConfigurableEnvironment environment;
     
+    /**
+     * 启动过程记录器
+     */
+    private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+    
     /**
      * 默认构造函数
      */
@@ -60,48 +72,78 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
      */
     @Override
     public void refresh() throws BeansException {
-        // 1. 准备刷新上下文环境
-        prepareRefresh();
-    
-        // 2. 创建BeanFactory，并加载BeanDefinition
-        ConfigurableListableBeanFactory beanFactory = obtainFreshBeanFactory();
-        
-        // 3. 准备BeanFactory，设置类加载器等
-        prepareBeanFactory(beanFactory);
-        
+        StartupStep contextRefresh = this.applicationStartup.start("context.refresh");
         try {
-            // 4. 允许子类在标准初始化后修改应用上下文的内部BeanFactory
-            postProcessBeanFactory(beanFactory);
-            
-            // 5. 调用BeanFactoryPostProcessor，修改BeanDefinition
-            invokeBeanFactoryPostProcessors(beanFactory);
-            
-            // 6. 注册BeanPostProcessor，这些处理器在Bean初始化时使用
-            registerBeanPostProcessors(beanFactory);
-            
-            // 7. 初始化事件多播器
-            initApplicationEventMulticaster();
-            
-            // 8. 初始化特定子类的其他bean
-            onRefresh();
-            
-            // 9. 注册监听器
-            registerListeners();
-            
-            // 10. 完成所有单例Bean的实例化
-            finishBeanFactoryInitialization(beanFactory);
-            
-            // 11. 完成刷新过程，发布事件
-            finishRefresh();
-        } catch (BeansException ex) {
-            // 12. 销毁已创建的单例Bean
-            destroyBeans();
+            // 1. 准备刷新上下文环境
+            StartupStep step = this.applicationStartup.start("context.prepare-refresh");
+            prepareRefresh();
+            step.end();
+        
+            // 2. 创建BeanFactory，并加载BeanDefinition
+            step = this.applicationStartup.start("context.obtain-bean-factory");
+            ConfigurableListableBeanFactory beanFactory = obtainFreshBeanFactory();
+            step.end();
             
-            // 13. 重置上下文活动标志
-            cancelRefresh(ex);
+            // 3. 准备BeanFactory，设置类加载器等
+            step = this.applicationStartup.start("context.prepare-bean-factory");
+            prepareBeanFactory(beanFactory);
+            step.end();
             
-            // 重新抛出异常
-            throw ex;
+            try {
+                // 4. 允许子类在标准初始化后修改应用上下文的内部BeanFactory
+                step = this.applicationStartup.start("context.post-process-bean-factory");
+                postProcessBeanFactory(beanFactory);
+                step.end();
+                
+                // 5. 调用BeanFactoryPostProcessor，修改BeanDefinition
+                step = this.applicationStartup.start("context.invoke-bean-factory-post-processors");
+                invokeBeanFactoryPostProcessors(beanFactory);
+                step.end();
+                
+                // 6. 注册BeanPostProcessor，这些处理器在Bean初始化时使用
+                step = this.applicationStartup.start("context.register-bean-post-processors");
+                registerBeanPostProcessors(beanFactory);
+                step.end();
+                
+                // 7. 初始化事件多播器
+                step = this.applicationStartup.start("context.init-event-multicaster");
+                initApplicationEventMulticaster();
+                step.end();
+                
+                // 8. 初始化特定子类的其他bean
+                step = this.applicationStartup.start("context.on-refresh");
+                onRefresh();
+                step.end();
+                
+                // 9. 注册监听器
+                step = this.applicationStartup.start("context.register-listeners");
+                registerListeners();
+                step.end();
+                
+                // 10. 完成所有单例Bean的实例化
+                step = this.applicationStartup.start("context.finish-bean-factory-initialization");
+                finishBeanFactoryInitialization(beanFactory);
+                step.end();
+                
+                // 11. 完成刷新过程，发布事件
+                step = this.applicationStartup.start("context.finish-refresh");
+                finishRefresh();
+                step.end();
+            } catch (BeansException ex) {
+                contextRefresh.tag("exception", ex.getClass().getName());
+                
+                // 12. 销毁已创建的单例Bean
+                destroyBeans();
+                
+                // 13. 重置上下文活动标志
+                cancelRefresh(ex);
+                
+                // 重新抛出异常
+                throw ex;
+            }
+        } finally {
+            // 失败时未结束的阶段不会被记录，随外层步骤一起丢弃
+            contextRefresh.end();
         }
     }
     
@@ -142,6 +184,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
     protected void prepareBeanFactory(ConfigurableListableBeanFactory beanFactory) {
         // 添加ApplicationContextAwareProcessor，处理Aware接口
         beanFactory.addBeanPostProcessor(new ApplicationContextAwareProcessor(this));
+        
+        // 让Bean的创建步骤记录到同一个启动记录器
+        beanFactory.setApplicationStartup(this.applicationStartup);
     }
     
     /**
@@ -164,7 +209,10 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
         // 获取所有BeanFactoryPostProcessor类型的bean
         Map<String, BeanFactoryPostProcessor> postProcessorMap = beanFactory.getBeansOfType(BeanFactoryPostProcessor.class);
         for (BeanFactoryPostProcessor postProcessor : postProcessorMap.values()) {
+            StartupStep step = this.applicationStartup.start("context.beanfactory.post-process")
+                    .tag("postProcessor", postProcessor.getClass().getName());
             postProcessor.postProcessBeanFactory(beanFactory);
+            step.end();
         }
     }
     
@@ -184,10 +232,25 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
     
     /**
      * 初始化事件多播器
+     * 优先使用名为applicationEventMulticaster的Bean，例如配置了运行指标的多播器
      */
     protected void initApplicationEventMulticaster() {
         ConfigurableListableBeanFactory beanFactory = getBeanFactory();
-        applicationEventMulticaster = new SimpleApplicationEventMulticaster(beanFactory);
+        if (beanFactory.containsBean(APPLICATION_EVENT_MULTICASTER_BEAN_NAME)) {
+            applicationEventMulticaster = beanFactory.getBean(APPLICATION_EVENT_MULTICASTER_BEAN_NAME,
+                    ApplicationEventMulticaster.class);
+        } else {
+            applicationEventMulticaster = new SimpleApplicationEventMulticaster(beanFactory);
+        }
+    }
+    
+    /**
+     * 获取事件多播器
+     * 
+     * @return 事件多播器，刷新前返回null
+     */
+    public ApplicationEventMulticaster getApplicationEventMulticaster() {
+        return applicationEventMulticaster;
     }
     
     /**
@@ -422,4 +485,27 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader i
     public void setEnvironment(ConfigurableEnvironment environment) {
         this.environment = environment;
     }
+    
+    /**
+     * 设置启动过程记录器
+     * 
+     * @param applicationStartup 启动过程记录器
+     */
+    @Override
+    public void setApplicationStartup(ApplicationStartup applicationStartup) {
+        if (applicationStartup == null) {
+            throw new IllegalArgumentException("ApplicationStartup不能为空");
+        }
+        this.applicationStartup = applicationStartup;
+    }
+    
+    /**
+     * 获取启动过程记录器
+     * 
+     * @return 启动过程记录器
+     */
+    @Override
+    public ApplicationStartup getApplicationStartup() {
+        return this.applicationStartup;
+    }
 } 
\ No newline at end of file
@@ -30,8 +30,21 @@ public class ClassPathXmlApplicationContext extends AbstractXmlApplicationContex
      * @throws BeansException 如果创建上下文失败
      */
     public ClassPathXmlApplicationContext(String[] configLocations) throws BeansException {
+        this(configLocations, true);
+    }
+    
+    /**
+     * 构造函数，可以推迟刷新，以便在刷新前完成配置，例如设置启动过程记录器
+     * 
+     * @param configLocations 配置文件位置数组
+     * @param refresh 是否立即刷新上下文
+     * @throws BeansException 如果创建上下文失败
+     */
+    public ClassPathXmlApplicationContext(String[] configLocations, boolean refresh) throws BeansException {
         this.configLocations = configLocations;
-        refresh();
+        if (refresh) {
+            refresh();
+        }
     }
     
     /**
@@ -0,0 +1,124 @@
+package com.minispring.core.invoke;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 方法调用器的工厂和缓存
+ *
+ * <p>第一次获取某个方法的调用器时按以下顺序选择实现，结果按方法缓存：
+ * <ol>
+ *     <li>通过{@link java.lang.invoke.LambdaMetafactory}生成的调用器，适用于参数不多的实例方法</li>
+ *     <li>基于{@link MethodHandle}的调用器，参数数组在方法句柄中展开</li>
+ *     <li>反射调用，前两种方式都不可用时使用</li>
+ * </ol>
+ */
+public final class Invokers {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private static final Map<Method, Invoker> invokerCache = new ConcurrentHashMap<>(256);
+
+    private Invokers() {
+    }
+
+    /**
+     * 获取方法的调用器，第一次获取时生成并缓存
+     * @param method 目标方法
+     * @return 调用器
+     */
+    public static Invoker forMethod(Method method) {
+        Invoker invoker = invokerCache.get(method);
+        if (invoker == null) {
+            invoker = createInvoker(method);
+            Invoker existing = invokerCache.putIfAbsent(method, invoker);
+            if (existing != null) {
+                invoker = existing;
+            }
+        }
+        return invoker;
+    }
+
+    /**
+     * 调用方法，供只能抛出Exception的调用方使用
+     * @param method 目标方法
+     * @param target 目标对象
+     * @param args 参数
+     * @return 方法返回值
+     * @throws Exception 目标方法抛出的异常
+     */
+    public static Object invoke(Method method, Object target, Object... args) throws Exception {
+        try {
+            return forMethod(method).invoke(target, args);
+        } catch (Exception | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new UndeclaredThrowableException(ex);
+        }
+    }
+
+    /**
+     * 获取已缓存的调用器数量
+     * @return 调用器数量
+     */
+    public static int getCachedInvokerCount() {
+        return invokerCache.size();
+    }
+
+    static Invoker createInvoker(Method method) {
+        Invoker invoker = LambdaInvokerFactory.createInvoker(method);
+        if (invoker == null) {
+            invoker = createMethodHandleInvoker(method);
+        }
+        if (invoker == null) {
+            invoker = new ReflectiveInvoker(method);
+        }
+        return invoker;
+    }
+
+    static Invoker createMethodHandleInvoker(Method method) {
+        try {
+            if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                method.setAccessible(true);
+            }
+            MethodHandle handle = LOOKUP.unreflect(method).asFixedArity();
+            if (Modifier.isStatic(method.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            MethodHandle spreader = handle.asSpreader(Object[].class, method.getParameterCount()).asType(INVOKER_TYPE);
+            return (target, args) -> (Object) spreader.invokeExact(target, args);
+        } catch (IllegalAccessException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * 反射调用，抛出目标方法的原始异常
+     */
+    static final class ReflectiveInvoker implements Invoker {
+
+        private final Method method;
+
+        ReflectiveInvoker(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public Object invoke(Object target, Object[] args) throws Throwable {
+            try {
+                return this.method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            }
+        }
+    }
+}
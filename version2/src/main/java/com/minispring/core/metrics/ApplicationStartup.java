@@ -0,0 +1,25 @@
+package com.minispring.core.metrics;
+
+/**
+ * 记录应用启动过程的接口
+ * 容器在刷新上下文、调用后置处理器、创建Bean等阶段开始一个{@link StartupStep}，
+ * 阶段完成后调用{@link StartupStep#end()}结束该步骤
+ *
+ * <p>默认实现{@link #DEFAULT}不做任何记录；需要分析启动耗时时可以换成
+ * {@link BufferingApplicationStartup}
+ */
+public interface ApplicationStartup {
+
+    /**
+     * 不做任何记录的默认实现
+     */
+    ApplicationStartup DEFAULT = new DefaultApplicationStartup();
+
+    /**
+     * 开始一个新的步骤
+     * 当前线程上尚未结束的步骤会成为新步骤的父步骤
+     * @param name 步骤名称，例如"beans.instantiate"
+     * @return 已开始的步骤
+     */
+    StartupStep start(String name);
+}
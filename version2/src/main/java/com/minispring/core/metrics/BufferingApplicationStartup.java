@@ -0,0 +1,172 @@
+package com.minispring.core.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 在内存中缓冲启动步骤的{@link ApplicationStartup}实现
+ *
+ * <p>每个线程维护自己的当前步骤，新步骤以它为父步骤，结束时再恢复为父步骤，
+ * 因此同一线程上嵌套的getBean调用会形成树状结构；并行预实例化时各工作线程上的步骤各自成树。
+ * 步骤结束时才写入缓冲区，超过容量的步骤被丢弃；父步骤结束时仍未结束的子步骤
+ * （通常是因为抛出了异常）不会被记录。
+ *
+ * <p>记录结果通过{@link #getTimeline()}获取，可以写出为JSON文件
+ */
+public class BufferingApplicationStartup implements ApplicationStartup {
+
+    private final int capacity;
+
+    private final long startTime = System.currentTimeMillis();
+
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicLong idGenerator = new AtomicLong();
+
+    /** 已写入缓冲区的步骤数，用于在不加锁的情况下限制容量 */
+    private final AtomicInteger bufferedCount = new AtomicInteger();
+
+    private final AtomicInteger droppedCount = new AtomicInteger();
+
+    private final Queue<StartupTimeline.TimelineEvent> events = new ConcurrentLinkedQueue<>();
+
+    private final ThreadLocal<BufferedStartupStep> currentStep = new ThreadLocal<>();
+
+    /**
+     * 创建一个新的BufferingApplicationStartup实例
+     * @param capacity 最多缓冲的步骤数
+     */
+    public BufferingApplicationStartup(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public StartupStep start(String name) {
+        BufferedStartupStep parent = this.currentStep.get();
+        BufferedStartupStep step = new BufferedStartupStep(this.idGenerator.incrementAndGet(), name, parent);
+        this.currentStep.set(step);
+        return step;
+    }
+
+    /**
+     * 获取当前已记录步骤的时间线，按开始时间排序
+     * @return 时间线快照
+     */
+    public StartupTimeline getTimeline() {
+        List<StartupTimeline.TimelineEvent> snapshot = new ArrayList<>(this.events);
+        snapshot.sort(Comparator.comparingLong(StartupTimeline.TimelineEvent::getStartOffsetNanos)
+                .thenComparingLong(StartupTimeline.TimelineEvent::getId));
+        return new StartupTimeline(this.startTime, snapshot, this.droppedCount.get());
+    }
+
+    /**
+     * 获取因超过容量而被丢弃的步骤数
+     * @return 丢弃的步骤数
+     */
+    public int getDroppedCount() {
+        return this.droppedCount.get();
+    }
+
+    private void record(BufferedStartupStep step, long endNanos) {
+        if (this.bufferedCount.getAndIncrement() < this.capacity) {
+            this.events.add(new StartupTimeline.TimelineEvent(step.id, step.parent != null ? step.parent.id : null,
+                    step.name, step.getTags(), step.thread.getName(),
+                    step.startNanos - this.startNanos, endNanos - step.startNanos));
+        } else {
+            this.droppedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 缓冲的启动步骤
+     */
+    private final class BufferedStartupStep implements StartupStep {
+
+        private final long id;
+
+        private final String name;
+
+        private final BufferedStartupStep parent;
+
+        private final Thread thread = Thread.currentThread();
+
+        private final long startNanos = System.nanoTime();
+
+        private Map<String, String> tags;
+
+        private boolean ended;
+
+        BufferedStartupStep(long id, String name, BufferedStartupStep parent) {
+            this.id = id;
+            this.name = name;
+            this.parent = parent;
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+
+        @Override
+        public long getId() {
+            return this.id;
+        }
+
+        @Override
+        public Long getParentId() {
+            return this.parent != null ? this.parent.id : null;
+        }
+
+        @Override
+        public StartupStep tag(String key, String value) {
+            if (this.ended) {
+                throw new IllegalStateException("StartupStep '" + this.name + "' has already ended");
+            }
+            if (this.tags == null) {
+                this.tags = new LinkedHashMap<>(4);
+            }
+            this.tags.put(key, value);
+            return this;
+        }
+
+        @Override
+        public StartupStep tag(String key, Supplier<String> value) {
+            return tag(key, value.get());
+        }
+
+        @Override
+        public Map<String, String> getTags() {
+            return this.tags != null ? Collections.unmodifiableMap(this.tags) : Collections.emptyMap();
+        }
+
+        @Override
+        public void end() {
+            if (this.ended) {
+                return;
+            }
+            this.ended = true;
+            long endNanos = System.nanoTime();
+            if (Thread.currentThread() == this.thread) {
+                // 线程池中的线程会被复用，回到最外层时清除ThreadLocal
+                if (this.parent != null) {
+                    currentStep.set(this.parent);
+                } else {
+                    currentStep.remove();
+                }
+            }
+            record(this, endNanos);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.minispring.core.metrics;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 启动过程中的一个步骤
+ * 从{@link ApplicationStartup#start(String)}开始，到{@link #end()}结束，
+ * 可以附加标签记录上下文信息，例如Bean名称或后置处理器类名
+ */
+public interface StartupStep {
+
+    /**
+     * 获取步骤名称
+     * @return 步骤名称
+     */
+    String getName();
+
+    /**
+     * 获取步骤ID，在同一个{@link ApplicationStartup}内唯一
+     * @return 步骤ID
+     */
+    long getId();
+
+    /**
+     * 获取父步骤ID
+     * @return 父步骤ID，没有父步骤时返回null
+     */
+    Long getParentId();
+
+    /**
+     * 添加标签
+     * @param key 标签名
+     * @param value 标签值
+     * @return 当前步骤
+     */
+    StartupStep tag(String key, String value);
+
+    /**
+     * 添加标签，标签值只在需要记录时才计算
+     * @param key 标签名
+     * @param value 标签值的提供者
+     * @return 当前步骤
+     */
+    StartupStep tag(String key, Supplier<String> value);
+
+    /**
+     * 获取所有标签
+     * @return 标签名到标签值的只读映射
+     */
+    Map<String, String> getTags();
+
+    /**
+     * 结束步骤，重复调用不产生效果
+     */
+    void end();
+}
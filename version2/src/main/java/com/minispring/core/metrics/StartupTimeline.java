@@ -0,0 +1,240 @@
+package com.minispring.core.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 启动步骤的时间线
+ * 由{@link BufferingApplicationStartup#getTimeline()}生成的只读快照
+ */
+public final class StartupTimeline {
+
+    private final long startTime;
+
+    private final List<TimelineEvent> events;
+
+    private final int droppedCount;
+
+    StartupTimeline(long startTime, List<TimelineEvent> events, int droppedCount) {
+        this.startTime = startTime;
+        this.events = Collections.unmodifiableList(events);
+        this.droppedCount = droppedCount;
+    }
+
+    /**
+     * 获取开始记录的时间
+     * @return 毫秒时间戳
+     */
+    public long getStartTime() {
+        return this.startTime;
+    }
+
+    /**
+     * 获取所有步骤，按开始时间排序
+     * @return 步骤列表
+     */
+    public List<TimelineEvent> getEvents() {
+        return this.events;
+    }
+
+    /**
+     * 获取因超过容量而未记录的步骤数
+     * @return 丢弃的步骤数
+     */
+    public int getDroppedCount() {
+        return this.droppedCount;
+    }
+
+    /**
+     * 获取指定名称中耗时最长的若干步骤，例如找出创建最慢的Bean
+     * @param name 步骤名称
+     * @param limit 最多返回的数量
+     * @return 按耗时降序排列的步骤
+     */
+    public List<TimelineEvent> getSlowestEvents(String name, int limit) {
+        List<TimelineEvent> matched = new ArrayList<>();
+        for (TimelineEvent event : this.events) {
+            if (event.getName().equals(name)) {
+                matched.add(event);
+            }
+        }
+        matched.sort(Comparator.comparingLong(TimelineEvent::getDurationNanos).reversed());
+        return matched.size() > limit ? new ArrayList<>(matched.subList(0, limit)) : matched;
+    }
+
+    /**
+     * 将时间线写出为JSON文件
+     * @param file 目标文件
+     * @throws IOException 写出失败时抛出
+     */
+    public void writeJson(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeJson(writer);
+        }
+    }
+
+    /**
+     * 将时间线以JSON格式写出
+     * 时间偏移和耗时以纳秒为单位，偏移相对于{@link #getStartTime()}
+     * @param writer 目标输出
+     * @throws IOException 写出失败时抛出
+     */
+    public void writeJson(Writer writer) throws IOException {
+        writer.write("{\"startTime\":");
+        writer.write(Long.toString(this.startTime));
+        writer.write(",\"droppedCount\":");
+        writer.write(Integer.toString(this.droppedCount));
+        writer.write(",\"events\":[");
+        for (int i = 0; i < this.events.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            this.events.get(i).writeJson(writer);
+        }
+        writer.write("]}");
+        writer.flush();
+    }
+
+    private static void writeString(Writer writer, String value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+
+    /**
+     * 时间线上的一个已结束步骤
+     */
+    public static final class TimelineEvent {
+
+        private final long id;
+
+        private final Long parentId;
+
+        private final String name;
+
+        private final Map<String, String> tags;
+
+        private final String threadName;
+
+        private final long startOffsetNanos;
+
+        private final long durationNanos;
+
+        TimelineEvent(long id, Long parentId, String name, Map<String, String> tags, String threadName,
+                      long startOffsetNanos, long durationNanos) {
+            this.id = id;
+            this.parentId = parentId;
+            this.name = name;
+            this.tags = tags;
+            this.threadName = threadName;
+            this.startOffsetNanos = startOffsetNanos;
+            this.durationNanos = durationNanos;
+        }
+
+        public long getId() {
+            return this.id;
+        }
+
+        public Long getParentId() {
+            return this.parentId;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public Map<String, String> getTags() {
+            return this.tags;
+        }
+
+        public String getThreadName() {
+            return this.threadName;
+        }
+
+        /**
+         * 获取相对于时间线开始时间的偏移
+         * @return 纳秒数
+         */
+        public long getStartOffsetNanos() {
+            return this.startOffsetNanos;
+        }
+
+        public long getDurationNanos() {
+            return this.durationNanos;
+        }
+
+        public Duration getDuration() {
+            return Duration.ofNanos(this.durationNanos);
+        }
+
+        private void writeJson(Writer writer) throws IOException {
+            writer.write("{\"id\":");
+            writer.write(Long.toString(this.id));
+            writer.write(",\"parentId\":");
+            writer.write(this.parentId != null ? this.parentId.toString() : "null");
+            writer.write(",\"name\":");
+            writeString(writer, this.name);
+            writer.write(",\"thread\":");
+            writeString(writer, this.threadName);
+            writer.write(",\"startOffsetNanos\":");
+            writer.write(Long.toString(this.startOffsetNanos));
+            writer.write(",\"durationNanos\":");
+            writer.write(Long.toString(this.durationNanos));
+            writer.write(",\"tags\":{");
+            boolean first = true;
+            for (Map.Entry<String, String> entry : this.tags.entrySet()) {
+                if (!first) {
+                    writer.write(',');
+                }
+                first = false;
+                writeString(writer, entry.getKey());
+                writer.write(':');
+                writeString(writer, entry.getValue());
+            }
+            writer.write("}}");
+        }
+
+        @Override
+        public String toString() {
+            return this.name + this.tags + " " + getDuration().toMillis() + "ms";
+        }
+    }
+}
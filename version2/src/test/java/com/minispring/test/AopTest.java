@@ -2,6 +2,7 @@ package com.minispring.test;
 
 import com.minispring.aop.MethodBeforeAdvice;
 import com.minispring.aop.aspectj.AspectJExpressionPointcut;
+import com.minispring.aop.framework.AdvisorChainFactory;
 import com.minispring.aop.framework.ProxyFactory;
 import com.minispring.aop.support.DefaultPointcutAdvisor;
 import org.junit.jupiter.api.Assertions;
@@ -78,6 +79,51 @@ public class AopTest {
         Assertions.assertEquals(1, beforeAdvice.getCounter());
     }
     
+    /**
+     * 测试通知链工厂的预热和缓存失效
+     */
+    @Test
+    public void testAdvisorChainFactory() throws Exception {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression("execution(* com.minispring.test.AopTest$ITestService.*(..))");
+        TestBeforeAdvice beforeAdvice = new TestBeforeAdvice();
+        
+        ProxyFactory proxyFactory = new ProxyFactory(new TestService());
+        proxyFactory.addAdvisor(new DefaultPointcutAdvisor(pointcut, beforeAdvice));
+        ITestService proxy = (ITestService) proxyFactory.getProxy();
+        AdvisorChainFactory chainFactory = proxyFactory.getAdvisorChainFactory();
+        
+        // 创建代理时已经计算好拦截器链，调用时全部命中缓存
+        Assertions.assertTrue(chainFactory.getCachedChainCount() > 0);
+        for (int i = 0; i < 5; i++) {
+            proxy.sayHello();
+        }
+        Assertions.assertEquals(5, beforeAdvice.getCounter());
+        Assertions.assertEquals(5, chainFactory.getHitCount());
+        Assertions.assertEquals(0, chainFactory.getMissCount());
+        
+        // 返回的链在多次调用间共享
+        Method method = ITestService.class.getMethod("sayHello");
+        Object[] chain = proxyFactory.getInterceptorChain(method, TestService.class);
+        Assertions.assertSame(chain, proxyFactory.getInterceptorChain(method, TestService.class));
+        Assertions.assertEquals(1, chain.length);
+        
+        // 目标方法与拦截器链一起缓存
+        Method targetMethod = chainFactory.getTargetMethod(method, TestService.class);
+        Assertions.assertEquals(TestService.class, targetMethod.getDeclaringClass());
+        Assertions.assertSame(targetMethod, chainFactory.getTargetMethod(method, TestService.class));
+        Assertions.assertSame(targetMethod, beforeAdvice.getLastMethod());
+        
+        // 添加通知器后缓存失效，第一次未命中时整体重新计算
+        TestBeforeAdvice secondAdvice = new TestBeforeAdvice();
+        proxyFactory.addAdvisor(new DefaultPointcutAdvisor(pointcut, secondAdvice));
+        proxy.sayHello();
+        proxy.sayHello();
+        Assertions.assertEquals(2, secondAdvice.getCounter());
+        Assertions.assertEquals(1, chainFactory.getMissCount());
+        Assertions.assertEquals(2, proxyFactory.getInterceptorChain(method, TestService.class).length);
+    }
+    
     /**
      * 用于测试的服务接口
      */
@@ -109,10 +155,12 @@ public class AopTest {
      */
     static class TestBeforeAdvice implements MethodBeforeAdvice {
         private int counter = 0;
+        private Method lastMethod;
         
         @Override
         public void before(Method method, Object[] args, Object target) throws Throwable {
             counter++;
+            lastMethod = method;
             System.out.println("TestBeforeAdvice.before called, counter = " + counter);
             System.out.println("Before method [" + method.getName() + "] on target [" + target.getClass().getName() + "]");
         }
@@ -120,5 +168,9 @@ public class AopTest {
         public int getCounter() {
             return counter;
         }
+        
+        public Method getLastMethod() {
+            return lastMethod;
+        }
     }
 } 
\ No newline at end of file
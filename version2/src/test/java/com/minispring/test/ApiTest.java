@@ -4,6 +4,7 @@ import com.minispring.beans.PropertyValue;
 import com.minispring.beans.PropertyValues;
 import com.minispring.beans.factory.config.BeanDefinition;
 import com.minispring.beans.factory.support.DefaultListableBeanFactory;
+import com.minispring.test.bean.TestUserDao;
 import com.minispring.test.bean.UserDao;
 import com.minispring.test.bean.UserDaoImpl;
 import com.minispring.test.bean.UserService;
@@ -81,4 +82,26 @@ public class ApiTest {
         Assertions.assertEquals("王五", nameProperty.getConvertedValue());
         Assertions.assertEquals("李四", nameProperty.getValue());
     }
-} 
\ No newline at end of file
+    
+    @Test
+    public void testGetBeanNamesForType() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("userDao", new BeanDefinition(UserDaoImpl.class));
+        beanFactory.registerBeanDefinition("testUserDao", new BeanDefinition(TestUserDao.class));
+        
+        // 按接口和实现类查找
+        Assertions.assertArrayEquals(new String[]{"userDao"}, beanFactory.getBeanNamesForType(UserDao.class));
+        Assertions.assertArrayEquals(new String[]{"userDao"}, beanFactory.getBeanNamesForType(UserDaoImpl.class));
+        Assertions.assertEquals(2, beanFactory.getBeanNamesForType(Object.class).length);
+        Assertions.assertTrue(beanFactory.getBean(UserDao.class) instanceof UserDaoImpl);
+        
+        // 替换Bean定义后索引随之更新
+        beanFactory.registerBeanDefinition("userDao", new BeanDefinition(TestUserDao.class));
+        Assertions.assertEquals(0, beanFactory.getBeanNamesForType(UserDao.class).length);
+        Assertions.assertEquals(2, beanFactory.getBeansOfType(TestUserDao.class).size());
+        
+        // 外部注册的单例按实例类型索引
+        beanFactory.registerSingleton("externalDao", new UserDaoImpl());
+        Assertions.assertArrayEquals(new String[]{"externalDao"}, beanFactory.getBeanNamesForType(UserDao.class));
+    }
+}
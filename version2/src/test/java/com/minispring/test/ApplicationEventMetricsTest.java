@@ -0,0 +1,93 @@
+package com.minispring.test;
+
+import com.minispring.context.ApplicationEvent;
+import com.minispring.context.ApplicationListener;
+import com.minispring.context.event.ApplicationEventMetrics;
+import com.minispring.context.event.ContextRefreshedEvent;
+import com.minispring.context.event.LatencyHistogram;
+import com.minispring.context.event.SimpleApplicationEventMulticaster;
+import com.minispring.context.support.ClassPathXmlApplicationContext;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 事件运行指标测试类
+ * 测试事件发布次数、监听器耗时分布和慢监听器检测
+ */
+public class ApplicationEventMetricsTest {
+    
+    /**
+     * 测试发布次数和监听器耗时
+     */
+    @Test
+    public void testPublishCountsAndSlowListener() {
+        SimpleApplicationEventMulticaster multicaster = new SimpleApplicationEventMulticaster();
+        ApplicationEventMetrics metrics = new ApplicationEventMetrics();
+        metrics.setSlowListenerThreshold(5, TimeUnit.MILLISECONDS);
+        multicaster.setEventMetrics(metrics);
+        multicaster.addApplicationListener(new SlowListener());
+        
+        multicaster.multicastEvent(new TestEvent(this));
+        multicaster.multicastEvent(new TestEvent(this));
+        
+        assertEquals(2, metrics.getPublishCount(TestEvent.class), "应该记录两次发布");
+        LatencyHistogram latency = metrics.getListenerLatency(SlowListener.class.getName());
+        assertNotNull(latency, "应该记录监听器耗时");
+        assertEquals(2, latency.getTotalCount());
+        assertTrue(latency.getValueAtPercentile(50) >= TimeUnit.MILLISECONDS.toNanos(10));
+        assertEquals(2, metrics.getSlowInvocationCount(SlowListener.class.getName()), "两次调用都应该超过阈值");
+    }
+    
+    /**
+     * 测试直方图百分位的精度
+     */
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+        
+        long p90 = histogram.getValueAtPercentile(90);
+        assertTrue(p90 >= 900_000 && p90 <= 900_000 * 33 / 32, "p90 = " + p90);
+        assertEquals(1_000_000, histogram.getMaxValue());
+    }
+    
+    /**
+     * 测试通过applicationEventMulticaster Bean启用指标
+     */
+    @Test
+    public void testMetricsConfiguredInContext() {
+        ClassPathXmlApplicationContext context = new ClassPathXmlApplicationContext("classpath:event-metrics.xml");
+        ApplicationEventMetrics metrics = context.getBean("eventMetrics", ApplicationEventMetrics.class);
+        
+        assertSame(context.getBean("applicationEventMulticaster"), context.getApplicationEventMulticaster());
+        assertEquals(1, metrics.getPublishCount(ContextRefreshedEvent.class), "应该记录上下文刷新事件");
+    }
+    
+    /**
+     * 测试事件
+     */
+    static class TestEvent extends ApplicationEvent {
+        TestEvent(Object source) {
+            super(source);
+        }
+    }
+    
+    /**
+     * 处理较慢的监听器
+     */
+    static class SlowListener implements ApplicationListener<TestEvent> {
+        @Override
+        public void onApplicationEvent(TestEvent event) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.minispring.test;
+
+import com.minispring.context.support.ApplicationContextAwareProcessor;
+import com.minispring.context.support.ClassPathXmlApplicationContext;
+import com.minispring.core.metrics.BufferingApplicationStartup;
+import com.minispring.core.metrics.StartupTimeline;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 启动过程记录测试类
+ * 测试上下文刷新阶段和Bean创建步骤的记录
+ */
+public class ApplicationStartupTest {
+
+    /**
+     * 测试刷新阶段和Bean创建步骤的嵌套关系
+     */
+    @Test
+    public void testRefreshTimeline() throws Exception {
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(1024);
+        ClassPathXmlApplicationContext context =
+                new ClassPathXmlApplicationContext(new String[]{"classpath:spring.xml"}, false);
+        context.setApplicationStartup(startup);
+        context.refresh();
+
+        StartupTimeline timeline = startup.getTimeline();
+        StartupTimeline.TimelineEvent refresh = timeline.getEvents().get(0);
+        assertEquals("context.refresh", refresh.getName(), "第一个步骤应该是上下文刷新");
+        assertNull(refresh.getParentId());
+
+        // 刷新的各个阶段都是context.refresh的子步骤
+        List<String> phases = new ArrayList<>();
+        StartupTimeline.TimelineEvent finish = null;
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            if (Long.valueOf(refresh.getId()).equals(event.getParentId())) {
+                phases.add(event.getName());
+                if ("context.finish-bean-factory-initialization".equals(event.getName())) {
+                    finish = event;
+                }
+            }
+        }
+        assertEquals(11, phases.size(), "应该记录11个刷新阶段");
+        assertEquals("context.prepare-refresh", phases.get(0));
+        assertEquals("context.finish-refresh", phases.get(10));
+        assertNotNull(finish);
+
+        // 单例在finishBeanFactoryInitialization阶段创建，并记录各个子步骤
+        StartupTimeline.TimelineEvent testService = null;
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            if ("beans.instantiate".equals(event.getName()) && "testService".equals(event.getTags().get("beanName"))) {
+                testService = event;
+            }
+        }
+        assertNotNull(testService, "应该记录testService的创建");
+        assertEquals(finish.getId(), testService.getParentId());
+
+        List<String> stages = new ArrayList<>();
+        StartupTimeline.TimelineEvent initialize = null;
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            if (Long.valueOf(testService.getId()).equals(event.getParentId())) {
+                stages.add(event.getName());
+                if ("beans.initialize".equals(event.getName())) {
+                    initialize = event;
+                }
+            }
+        }
+        assertEquals(List.of("beans.create-instance", "beans.populate", "beans.initialize"), stages);
+
+        // BeanPostProcessor的回调记录在初始化阶段下
+        boolean postProcessRecorded = false;
+        for (StartupTimeline.TimelineEvent event : timeline.getEvents()) {
+            if ("beans.post-process".equals(event.getName())
+                    && Long.valueOf(initialize.getId()).equals(event.getParentId())
+                    && ApplicationContextAwareProcessor.class.getName().equals(event.getTags().get("postProcessor"))) {
+                postProcessRecorded = true;
+            }
+        }
+        assertTrue(postProcessRecorded, "应该记录BeanPostProcessor的回调");
+
+        // 写出为JSON文件
+        Path file = Files.createTempFile("startup", ".json");
+        try {
+            timeline.writeJson(file);
+            String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            assertTrue(json.contains("\"name\":\"context.refresh\""));
+            assertTrue(json.contains("\"beanName\":\"testService\""));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        context.close();
+    }
+}
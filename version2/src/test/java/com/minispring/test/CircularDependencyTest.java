@@ -2,12 +2,16 @@ package com.minispring.test;
 
 import com.minispring.beans.PropertyValue;
 import com.minispring.beans.PropertyValues;
+import com.minispring.beans.factory.InitializingBean;
 import com.minispring.beans.factory.config.BeanDefinition;
 import com.minispring.beans.factory.config.BeanReference;
 import com.minispring.beans.factory.support.DefaultListableBeanFactory;
 import com.minispring.context.support.ClassPathXmlApplicationContext;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -56,6 +60,60 @@ public class CircularDependencyTest {
         System.out.println("ServiceB.serviceA: " + serviceB.getServiceA());
     }
 
+    /**
+     * 测试并行预实例化
+     * 互不依赖的Bean并发创建，循环依赖的Bean在同一线程上串行创建
+     */
+    @Test
+    public void testParallelPreInstantiation() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        
+        BeanDefinition beanDefinitionA = new BeanDefinition(TestServiceA.class);
+        beanDefinitionA.getPropertyValues().addPropertyValue(new PropertyValue("serviceB", new BeanReference("serviceB")));
+        beanFactory.registerBeanDefinition("serviceA", beanDefinitionA);
+        BeanDefinition beanDefinitionB = new BeanDefinition(TestServiceB.class);
+        beanDefinitionB.getPropertyValues().addPropertyValue(new PropertyValue("serviceA", new BeanReference("serviceA")));
+        beanFactory.registerBeanDefinition("serviceB", beanDefinitionB);
+        
+        // 两个BarrierBean必须同时初始化才能通过屏障，其中一个通过depends-on依赖循环中的Bean
+        BarrierBean.barrier = new CyclicBarrier(2);
+        beanFactory.registerBeanDefinition("barrier1", new BeanDefinition(BarrierBean.class));
+        BeanDefinition barrier2 = new BeanDefinition(BarrierBean.class);
+        barrier2.setDependsOn("serviceA");
+        beanFactory.registerBeanDefinition("barrier2", barrier2);
+        
+        beanFactory.setParallelPreInstantiation(true);
+        beanFactory.setPreInstantiationParallelism(4);
+        beanFactory.preInstantiateSingletons();
+        
+        TestServiceA serviceA = (TestServiceA) beanFactory.getBean("serviceA");
+        TestServiceB serviceB = (TestServiceB) beanFactory.getBean("serviceB");
+        assertSame(serviceB, serviceA.getServiceB());
+        assertSame(serviceA, serviceB.getServiceA());
+        assertTrue(((BarrierBean) beanFactory.getBean("barrier1")).isInitialized());
+        assertTrue(((BarrierBean) beanFactory.getBean("barrier2")).isInitialized());
+        assertArrayEquals(new String[]{"barrier2"}, beanFactory.getDependentBeans("serviceA"));
+    }
+    
+    /**
+     * 初始化时等待另一个BarrierBean同时初始化
+     */
+    public static class BarrierBean implements InitializingBean {
+        static CyclicBarrier barrier;
+        
+        private boolean initialized;
+        
+        @Override
+        public void afterPropertiesSet() throws Exception {
+            barrier.await(5, TimeUnit.SECONDS);
+            initialized = true;
+        }
+        
+        public boolean isInitialized() {
+            return initialized;
+        }
+    }
+    
     /**
      * 测试服务A
      */
@@ -0,0 +1,89 @@
+package com.minispring.test;
+
+import com.minispring.beans.BeanWrapper;
+import com.minispring.core.invoke.Invoker;
+import com.minispring.core.invoke.Invokers;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 方法调用器测试类
+ * 测试调用器的缓存、参数转换和异常传播
+ */
+public class InvokerTest {
+
+    /**
+     * 测试调用器按方法缓存，并能处理基本类型和void方法
+     */
+    @Test
+    public void testInvoker() throws Throwable {
+        Counter counter = new Counter();
+        Method add = Counter.class.getMethod("add", int.class);
+        Invoker invoker = Invokers.forMethod(add);
+        assertSame(invoker, Invokers.forMethod(Counter.class.getMethod("add", int.class)), "同一方法应该返回缓存的调用器");
+
+        assertEquals(5L, invoker.invoke(counter, new Object[]{5}));
+        assertNull(Invokers.forMethod(Counter.class.getMethod("reset")).invoke(counter, null));
+        assertEquals(0L, counter.getCount());
+
+        // 参数较多的方法和静态方法同样可以调用
+        Method sum = Counter.class.getMethod("sum", int.class, int.class, int.class, int.class);
+        assertEquals(10, Invokers.forMethod(sum).invoke(null, new Object[]{1, 2, 3, 4}));
+    }
+
+    /**
+     * 测试目标方法的异常直接抛出，不包装成InvocationTargetException
+     */
+    @Test
+    public void testExceptionPropagation() throws Exception {
+        Method fail = Counter.class.getMethod("fail");
+        assertThrows(IOException.class, () -> Invokers.forMethod(fail).invoke(new Counter(), null));
+        assertThrows(IOException.class, () -> Invokers.invoke(fail, new Counter()));
+    }
+
+    /**
+     * 测试BeanWrapper通过调用器读写属性
+     */
+    @Test
+    public void testBeanWrapper() {
+        Counter counter = new Counter();
+        BeanWrapper beanWrapper = new BeanWrapper(counter);
+        beanWrapper.setPropertyValue("count", "42");
+        assertEquals(42L, counter.getCount());
+        assertEquals(42L, beanWrapper.getPropertyValue("count"));
+    }
+
+    public static class Counter {
+
+        private long count;
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public long add(int delta) {
+            count += delta;
+            return count;
+        }
+
+        public void reset() {
+            count = 0;
+        }
+
+        public void fail() throws IOException {
+            throw new IOException("failed");
+        }
+
+        public static int sum(int a, int b, int c, int d) {
+            return a + b + c + d;
+        }
+    }
+}